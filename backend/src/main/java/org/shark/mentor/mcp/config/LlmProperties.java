@@ -4,6 +4,11 @@ import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 @Data
 @Component
 @ConfigurationProperties(prefix = "llm")
@@ -11,10 +16,221 @@ public class LlmProperties {
     private String provider;
     private String model;
     private Api api = new Api();
+    private Compaction compaction = new Compaction();
+    private Echo echo = new Echo();
+    private Replay replay = new Replay();
+    private Simulated simulated = new Simulated();
+    private Routing routing = new Routing();
+    private Scheduler scheduler = new Scheduler();
+    private Warmup warmup = new Warmup();
+    private ContextReuse contextReuse = new ContextReuse();
+    private ModelRouting modelRouting = new ModelRouting();
+    /** Global prompt templates: {@code system} and {@code context} replace the built-in prompts */
+    private Map<String, String> prompts = new HashMap<>();
+    private PromptTemplates promptTemplates = new PromptTemplates();
+    private FunctionCalling functionCalling = new FunctionCalling();
 
     @Data
     public static class Api {
         private String baseUrl;
+        /**
+         * Several endpoints of the same provider; when more than one is set requests are routed between them
+         */
+        private List<String> baseUrls = new ArrayList<>();
         private String key;
+
+        public List<String> endpoints() {
+            if (baseUrls != null && !baseUrls.isEmpty()) {
+                return baseUrls;
+            }
+            return baseUrl != null ? List.of(baseUrl) : List.of();
+        }
+    }
+
+    /**
+     * Controls how MCP tool output is compacted before it is placed in the prompt.
+     */
+    @Data
+    public static class Compaction {
+        private boolean enabled = true;
+        private int defaultTokenBudget = 2000;
+        private Map<String, Integer> modelTokenBudgets = new HashMap<>();
+        private int maxArrayItems = 20;
+        private int maxStringLength = 1000;
+        private Map<String, List<String>> toolFields = new HashMap<>();
+
+        public int tokenBudgetFor(String model) {
+            if (model != null) {
+                Integer budget = modelTokenBudgets.get(model);
+                if (budget != null) {
+                    return budget;
+                }
+            }
+            return defaultTokenBudget;
+        }
+    }
+
+    /**
+     * {@code llm.provider=echo}: answers by filling a template with the last user message.
+     * Supported placeholders: {message}, {messages} (message count) and {chars} (prompt length).
+     */
+    @Data
+    public static class Echo {
+        private String template = "Echo: {message}";
+    }
+
+    /**
+     * {@code llm.provider=replay}: serves completions recorded in a JSON file, an array of
+     * {"prompt": "...", "completion": "..."} objects. A prompt matching the last user message exactly
+     * wins; otherwise the recordings are served in order, wrapping around.
+     */
+    @Data
+    public static class Replay {
+        private String file;
+    }
+
+    /**
+     * {@code llm.provider=simulated}: produces the echo (or replay, with {@code content: replay}) answer
+     * paced like a real model. {@code outputTokens > 0} replaces the answer with that many filler tokens.
+     */
+    @Data
+    public static class Simulated {
+        private String content = "echo";
+        private long timeToFirstTokenMs = 200;
+        private double tokensPerSecond = 30;
+        private int outputTokens;
+    }
+
+    /**
+     * Routing across {@code llm.api.base-urls}. {@code least-outstanding} picks the endpoint with the
+     * fewest requests in flight; {@code latency} also weighs each endpoint's recent generation time.
+     */
+    @Data
+    public static class Routing {
+        private String strategy = "least-outstanding";
+        private boolean sticky = true;
+        private int stickyMaxConversations = 10000;
+        private long healthCheckIntervalMs = 10000;
+        private long healthCheckTimeoutMs = 2000;
+        private int failureThreshold = 2;
+        private long retryAfterMs = 30000;
+    }
+
+    /**
+     * Admission control in front of the model: concurrent generations, the shared wait queue and
+     * how long a request may wait before it is turned away with Retry-After.
+     */
+    @Data
+    public static class Scheduler {
+        private boolean enabled = true;
+        private int maxConcurrent = 2;
+        private int maxQueued = 32;
+        private int maxQueuedPerConversation = 4;
+        private long maxQueueWaitMs = 30000;
+    }
+
+    /**
+     * Loads the model at startup and keeps it resident while traffic is active, so no user pays the
+     * model-load time. {@code models} overrides the defaults per model name (use [brackets] for names
+     * with dots or slashes).
+     */
+    @Data
+    public static class Warmup {
+        private boolean enabled = true;
+        private String keepAlive = "30m";
+        private long keepAliveIntervalMs = 240000;
+        private long activeWindowMs = 1800000;
+        private long timeoutMs = 120000;
+        /** Keep readiness OUT_OF_SERVICE until every model has been loaded once; when false it only reports */
+        private boolean gateReadiness = true;
+        private Map<String, ModelWarmup> models = new HashMap<>();
+
+        public ModelWarmup forModel(String model) {
+            ModelWarmup override = model != null ? models.get(model) : null;
+            ModelWarmup resolved = new ModelWarmup();
+            resolved.setEnabled(override != null && override.getEnabled() != null ? override.getEnabled() : enabled);
+            resolved.setKeepAlive(override != null && override.getKeepAlive() != null ? override.getKeepAlive() : keepAlive);
+            resolved.setKeepAliveIntervalMs(override != null && override.getKeepAliveIntervalMs() != null
+                    ? override.getKeepAliveIntervalMs() : keepAliveIntervalMs);
+            return resolved;
+        }
+    }
+
+    @Data
+    public static class ModelWarmup {
+        private Boolean enabled;
+        private String keepAlive;
+        private Long keepAliveIntervalMs;
+    }
+
+    /**
+     * Ollama only: continue each conversation from the context returned by the previous turn, so the
+     * static system prompt is evaluated once per conversation instead of once per turn.
+     */
+    @Data
+    public static class ContextReuse {
+        private boolean enabled = true;
+        private int maxContextTokens = 6144;
+        private int maxConversations = 1000;
+        private double temperature = 0.7;
+    }
+
+    /**
+     * Sends a turn to the first route whose limits it fits, and to {@code llm.model} otherwise.
+     * Typically one route points simple turns (small context, short question) at a small, fast model.
+     */
+    @Data
+    public static class ModelRouting {
+        private boolean enabled;
+        private List<ModelRoute> routes = new ArrayList<>();
+    }
+
+    /**
+     * Limits set to 0 or left empty are not checked
+     */
+    @Data
+    public static class ModelRoute {
+        private String name;
+        private String model;
+        private int maxContextTokens;
+        private int maxQuestionWords;
+        /** Only turns whose context came from one of these tools */
+        private List<String> tools = new ArrayList<>();
+        /** Questions containing any of these words (case-insensitive) are too complex for this route */
+        private List<String> complexKeywords = new ArrayList<>();
+    }
+
+    /**
+     * Per-server and per-tool overrides of {@code llm.prompts}, keyed by server id or tool name and
+     * then by template name. {@code file} is an optional JSON file with {@code prompts}, {@code servers}
+     * and {@code tools} objects of the same shape; it wins over this configuration and is reloaded
+     * when it changes.
+     */
+    @Data
+    public static class PromptTemplates {
+        private Map<String, Map<String, String>> servers = new HashMap<>();
+        private Map<String, Map<String, String>> tools = new HashMap<>();
+        private String file;
+        private long reloadIntervalMs = 5000;
+    }
+
+    /**
+     * Lets the model choose the MCP tool and its arguments from the tool schemas in one call,
+     * instead of the keyword heuristics. Needs a model with tool support (Ollama with context reuse
+     * on); otherwise tool selection falls back to the heuristics.
+     * <p>
+     * The model may request several calls per step and further steps after seeing the results.
+     * Calls requested together run in parallel on at most {@code maxParallelCalls} threads, with up to
+     * {@code maxQueuedCalls} waiting (further calls fail at once); a plan stops after
+     * {@code maxIterations} steps, {@code maxToolCalls} calls or {@code deadlineMs}.
+     */
+    @Data
+    public static class FunctionCalling {
+        private boolean enabled;
+        private int maxIterations = 3;
+        private int maxToolCalls = 8;
+        private int maxParallelCalls = 4;
+        private int maxQueuedCalls = 64;
+        private long deadlineMs = 60000;
     }
-}
\ No newline at end of file
+}
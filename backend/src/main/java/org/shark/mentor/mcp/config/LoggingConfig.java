@@ -0,0 +1,15 @@
+package org.shark.mentor.mcp.config;
+
+import org.shark.mentor.mcp.observability.LogPayload;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Applies the payload truncation limit used by log statements on the hot paths
+ */
+@Configuration
+public class LoggingConfig {
+
+    public LoggingConfig(McpProperties properties) {
+        LogPayload.setMaxChars(properties.getLogging().getPayloadMaxChars());
+    }
+}
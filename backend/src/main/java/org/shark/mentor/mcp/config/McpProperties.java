@@ -3,7 +3,10 @@ package org.shark.mentor.mcp.config;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Data
 @ConfigurationProperties(prefix = "mcp")
@@ -11,6 +14,12 @@ public class McpProperties {
 
     private Server server = new Server();
     private Ping ping = new Ping();
+    private Tracing tracing = new Tracing();
+    private Logging logging = new Logging();
+    private FastPath fastPath = new FastPath();
+    private ServersFile serversFile = new ServersFile();
+    private Stdio stdio = new Stdio();
+    private Tcp tcp = new Tcp();
     private List<ServerConfig> servers;
 
     @Data
@@ -25,6 +34,91 @@ public class McpProperties {
         private long warnThresholdMs = 1000;
     }
 
+    @Data
+    public static class Tracing {
+        private boolean enabled = true;
+        /** logging | memory | none */
+        private String exporter = "logging";
+        private int memoryCapacity = 2000;
+    }
+
+    @Data
+    public static class Logging {
+        /** Payloads longer than this are truncated and hashed in log lines */
+        private int payloadMaxChars = 512;
+    }
+
+    /**
+     * Answers small, well-structured tool results with a deterministic markdown rendering instead
+     * of an LLM round trip. Tools with a {@code template} are rendered with it; with
+     * {@code genericShapes} other tools are rendered when their result is a list of named items
+     * or a flat object.
+     */
+    @Data
+    public static class FastPath {
+        private boolean enabled = true;
+        private int maxChars = 4000;
+        private int maxItems = 20;
+        private boolean genericShapes;
+        /** Servers the fast path applies to; empty means every server */
+        private List<String> servers = new ArrayList<>();
+        private Map<String, ToolFastPath> tools = new HashMap<>();
+    }
+
+    @Data
+    public static class ToolFastPath {
+        private Boolean enabled;
+        private Integer maxChars;
+        private String template;
+    }
+
+    /**
+     * External {@code mcp-servers.json}. When {@code path} is set it replaces the bundled file and,
+     * with {@code watch}, edits are applied to the running registry: only the servers that were
+     * added, changed or removed are touched.
+     */
+    @Data
+    public static class ServersFile {
+        private String path;
+        private boolean watch = true;
+        /** Quiet period after a change event before the file is read, so partial writes are not picked up */
+        private long debounceMs = 500;
+        /** How long a removed or changed stdio server may finish in-flight requests before it is stopped */
+        private long drainTimeoutMs = 30000;
+    }
+
+    @Data
+    public static class Stdio {
+        /** stderr lines kept per server for {@code GET /api/mcp/servers/{id}/stderr} */
+        private int stderrLines = 500;
+        private int stderrLineMaxChars = 2000;
+        /** Time stdio processes get to exit after stdin is closed and SIGTERM is sent, before they are killed */
+        private long shutdownGraceMs = 5000;
+        /** Stop a stdio process unused for this long, keeping the server registered; 0 keeps processes running */
+        private long idleTtlMs = 0;
+        private long idleCheckMs = 30000;
+        /** How long a spare process may take to answer its first ping before it is discarded */
+        private long spareReadyTimeoutMs = 60000;
+        private Prestart prestart = new Prestart();
+
+        /**
+         * Starts hibernated servers ahead of the hours they are usually used in: a server is started
+         * {@code leadMinutes} before an hour of the day in which it was used on at least {@code minDays} days.
+         */
+        @Data
+        public static class Prestart {
+            private boolean enabled;
+            private int leadMinutes = 10;
+            private int minDays = 3;
+        }
+    }
+
+    @Data
+    public static class Tcp {
+        /** Minimum time between attempts to reopen a dropped {@code tcp://} connection */
+        private long reconnectBackoffMs = 1000;
+    }
+
     @Data
     public static class ServerConfig {
         private String id;
@@ -33,6 +127,10 @@ public class McpProperties {
         private String url;
         private boolean implemented;
         private boolean prewarm;
+        /** Overrides {@code mcp.stdio.idle-ttl-ms} for this server */
+        private Long idleTtlMs;
+        /** Keep a started spare process to replace this server's process at once when it fails */
+        private boolean spare;
 
     }
 }
\ No newline at end of file
@@ -0,0 +1,63 @@
+package org.shark.mentor.mcp.config;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.propagation.ContextPropagators;
+import io.opentelemetry.exporter.logging.LoggingSpanExporter;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.SdkTracerProviderBuilder;
+import io.opentelemetry.sdk.trace.export.BatchSpanProcessor;
+import lombok.extern.slf4j.Slf4j;
+import org.shark.mentor.mcp.observability.PipelineTracing;
+import org.shark.mentor.mcp.observability.RecentSpanExporter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * OpenTelemetry setup for per-turn tracing. Spans are exported to the log or kept
+ * in memory so tracing works offline, without a collector.
+ */
+@Slf4j
+@Configuration
+public class TracingConfig {
+
+    @Bean
+    public RecentSpanExporter recentSpanExporter(McpProperties properties) {
+        return new RecentSpanExporter(properties.getTracing().getMemoryCapacity());
+    }
+
+    @Bean
+    public OpenTelemetrySdk openTelemetry(McpProperties properties,
+                                          RecentSpanExporter recentSpanExporter,
+                                          @Value("${spring.application.name:mcp-client-backend}") String serviceName) {
+        McpProperties.Tracing tracing = properties.getTracing();
+        SdkTracerProviderBuilder tracerProvider = SdkTracerProvider.builder()
+                .setResource(Resource.getDefault().merge(
+                        Resource.create(Attributes.of(AttributeKey.stringKey("service.name"), serviceName))));
+
+        if (tracing.isEnabled()) {
+            switch (tracing.getExporter().toLowerCase()) {
+                case "logging" -> tracerProvider.addSpanProcessor(
+                        BatchSpanProcessor.builder(LoggingSpanExporter.create()).build());
+                case "memory" -> tracerProvider.addSpanProcessor(
+                        BatchSpanProcessor.builder(recentSpanExporter).build());
+                case "none" -> log.info("Tracing enabled without exporter; trace context is still propagated");
+                default -> log.warn("Unknown tracing exporter '{}', spans will not be exported", tracing.getExporter());
+            }
+        }
+
+        OpenTelemetrySdk sdk = OpenTelemetrySdk.builder()
+                .setTracerProvider(tracerProvider.build())
+                .setPropagators(ContextPropagators.create(W3CTraceContextPropagator.getInstance()))
+                .build();
+        if (tracing.isEnabled()) {
+            PipelineTracing.install(sdk);
+            log.info("Tracing enabled with exporter: {}", tracing.getExporter());
+        }
+        return sdk;
+    }
+}
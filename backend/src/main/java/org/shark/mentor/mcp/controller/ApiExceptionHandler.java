@@ -0,0 +1,46 @@
+package org.shark.mentor.mcp.controller;
+
+import org.shark.mentor.mcp.llm.LlmOverloadedException;
+import org.shark.mentor.mcp.service.TurnCancelledException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Maps exceptions that carry an HTTP meaning to proper status codes
+ */
+@RestControllerAdvice
+public class ApiExceptionHandler {
+
+    /**
+     * A conversation flooding the queue gets 429; a saturated backend gets 503. Both carry Retry-After.
+     */
+    @ExceptionHandler(LlmOverloadedException.class)
+    public ResponseEntity<ProblemDetail> handleLlmOverloaded(LlmOverloadedException e) {
+        HttpStatus status = e.getReason() == LlmOverloadedException.Reason.CONVERSATION_LIMIT
+                ? HttpStatus.TOO_MANY_REQUESTS
+                : HttpStatus.SERVICE_UNAVAILABLE;
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(status, e.getMessage());
+        problem.setTitle("LLM overloaded");
+        problem.setProperty("reason", e.getReason().name());
+        problem.setProperty("retryAfterSeconds", e.getRetryAfterSeconds());
+        return ResponseEntity.status(status)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(problem);
+    }
+
+    /**
+     * Usually nobody reads this: the client is gone. A turn superseded by a newer message of the
+     * same client and conversation answers 409 to the older request.
+     */
+    @ExceptionHandler(TurnCancelledException.class)
+    public ResponseEntity<ProblemDetail> handleTurnCancelled(TurnCancelledException e) {
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT, e.getMessage());
+        problem.setTitle("Turn cancelled");
+        problem.setProperty("reason", e.getReason());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(problem);
+    }
+}
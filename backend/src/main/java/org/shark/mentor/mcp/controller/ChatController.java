@@ -2,13 +2,23 @@ package org.shark.mentor.mcp.controller;
 
 import org.shark.mentor.mcp.model.ChatMessage;
 import org.shark.mentor.mcp.model.McpRequest;
+import org.shark.mentor.mcp.observability.LogPayload;
 import org.shark.mentor.mcp.service.ChatService;
+import org.shark.mentor.mcp.service.TurnCancellation;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.server.ResponseStatusException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * REST controller for chat functionality
@@ -20,7 +30,21 @@ import java.util.List;
 @Slf4j
 public class ChatController {
     
+    /** Same bound as the servlet container's default worker pool, which used to run the turns */
+    private static final int MAX_CONCURRENT_TURNS = 200;
+
     private final ChatService chatService;
+    private final ExecutorService turnExecutor = new ThreadPoolExecutor(0, MAX_CONCURRENT_TURNS,
+            60, TimeUnit.SECONDS, new SynchronousQueue<>(), task -> {
+                Thread thread = new Thread(task, "chat-turn");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    @jakarta.annotation.PreDestroy
+    public void shutdown() {
+        turnExecutor.shutdownNow();
+    }
     
     @GetMapping("/conversations")
     public ResponseEntity<List<String>> getConversations() {
@@ -36,11 +60,29 @@ public class ChatController {
         return ResponseEntity.ok(messages);
     }
     
+    /**
+     * Runs the turn asynchronously so the request lifecycle can cancel it: when the container reports
+     * that the client went away, or the request times out, the turn's MCP calls and LLM generation are aborted.
+     */
     @PostMapping("/send")
-    public ResponseEntity<ChatMessage> sendMessage(@RequestBody McpRequest request) {
-        log.info("Sending message to server {}: {}", request.getServerId(), request.getMessage());
-        ChatMessage response = chatService.sendMessage(request);
-        return ResponseEntity.ok(response);
+    public DeferredResult<ResponseEntity<ChatMessage>> sendMessage(@RequestBody McpRequest request) {
+        log.info("Sending message to server {}: {}", request.getServerId(), LogPayload.of(request.getMessage()));
+        TurnCancellation cancellation = new TurnCancellation();
+        DeferredResult<ResponseEntity<ChatMessage>> result = new DeferredResult<>();
+        result.onError(error -> cancellation.cancel("client_disconnected"));
+        result.onTimeout(() -> cancellation.cancel("timeout"));
+        try {
+            turnExecutor.execute(() -> {
+                try (TurnCancellation.Handle ignored = cancellation.open()) {
+                    result.setResult(ResponseEntity.ok(chatService.sendMessage(request)));
+                } catch (RuntimeException e) {
+                    result.setErrorResult(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            result.setErrorResult(new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many chat turns in progress"));
+        }
+        return result;
     }
     
     @DeleteMapping("/conversations/{conversationId}")
@@ -113,6 +113,16 @@ public class McpServerController {
         }
     }
 
+    @GetMapping("/{id}/stderr")
+    public ResponseEntity<List<String>> getStderr(@PathVariable String id) {
+        try {
+            return ResponseEntity.ok(mcpServerService.getStderr(id));
+        } catch (IllegalArgumentException e) {
+            log.error("Server not found: {}", id);
+            return ResponseEntity.notFound().build();
+        }
+    }
+
     @GetMapping("/status")
     public ResponseEntity<String> getConnectionStatus() {
         long connectedCount = mcpServerService.getConnectedServersCount();
@@ -3,6 +3,7 @@ package org.shark.mentor.mcp.controller;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.shark.mentor.mcp.model.McpServer;
+import org.shark.mentor.mcp.observability.LogPayload;
 import org.shark.mentor.mcp.service.McpServerService;
 import org.shark.mentor.mcp.service.McpToolService;
 import org.springframework.http.ResponseEntity;
@@ -30,7 +31,7 @@ public class McpToolController {
         McpServer server = mcpServerService.getServer(serverId)
                 .orElseThrow(() -> new IllegalArgumentException("Servidor no encontrado: " + serverId));
         List<Map<String, Object>> tools = mcpToolService.getTools(server);
-        log.info("Tools encontradas para el servidor {}: {}", serverId, tools);
+        log.debug("Tools encontradas para el servidor {}: {}", serverId, LogPayload.of(tools));
         long duration = System.currentTimeMillis() - start;
         log.info("Se obtuvieron {} tools para el servidor {} en {} ms", tools.size(), serverId, duration);
         return ResponseEntity.ok(tools);
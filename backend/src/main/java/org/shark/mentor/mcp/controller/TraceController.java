@@ -0,0 +1,54 @@
+package org.shark.mentor.mcp.controller;
+
+import io.opentelemetry.sdk.trace.data.SpanData;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.shark.mentor.mcp.observability.RecentSpanExporter;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * REST controller exposing spans kept by the in-memory exporter ({@code mcp.tracing.exporter: memory})
+ */
+@RestController
+@RequestMapping("/api/mcp/traces")
+@CrossOrigin(origins = "*")
+@RequiredArgsConstructor
+@Slf4j
+public class TraceController {
+
+    private final RecentSpanExporter recentSpanExporter;
+
+    @GetMapping
+    public ResponseEntity<List<Map<String, Object>>> getRecentSpans() {
+        return ResponseEntity.ok(recentSpanExporter.getSpans().stream().map(this::toMap).toList());
+    }
+
+    @GetMapping("/{traceId}")
+    public ResponseEntity<List<Map<String, Object>>> getTrace(@PathVariable String traceId) {
+        List<SpanData> spans = recentSpanExporter.getTrace(traceId);
+        if (spans.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(spans.stream().map(this::toMap).toList());
+    }
+
+    private Map<String, Object> toMap(SpanData span) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("traceId", span.getTraceId());
+        result.put("spanId", span.getSpanId());
+        result.put("parentSpanId", span.getParentSpanId());
+        result.put("name", span.getName());
+        result.put("startEpochNanos", span.getStartEpochNanos());
+        result.put("durationMs", (span.getEndEpochNanos() - span.getStartEpochNanos()) / 1_000_000.0);
+        result.put("status", span.getStatus().getStatusCode().name());
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        span.getAttributes().forEach((key, value) -> attributes.put(key.getKey(), value));
+        result.put("attributes", attributes);
+        return result;
+    }
+}
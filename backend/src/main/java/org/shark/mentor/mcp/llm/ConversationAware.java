@@ -0,0 +1,9 @@
+package org.shark.mentor.mcp.llm;
+
+/**
+ * Implemented by chat models that keep per-conversation state, so it can be dropped with the conversation
+ */
+public interface ConversationAware {
+
+    void forget(String conversationId);
+}
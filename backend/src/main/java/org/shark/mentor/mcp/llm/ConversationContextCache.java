@@ -0,0 +1,50 @@
+package org.shark.mentor.mcp.llm;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Ollama contexts of recent conversations, shared by every {@link OllamaContextChatModel} of the
+ * application. Each conversation has a single entry recording which endpoint and model produced it,
+ * so when a conversation moves to another endpoint or model (failover, sticky reassignment, a
+ * route switch) and later comes back, the context left behind is not mistaken for a current one.
+ */
+public class ConversationContextCache {
+
+    /**
+     * Context returned by {@code endpoint} running {@code model} after the last turn of a conversation
+     */
+    public record Entry(String endpoint, String model, int systemHash, JsonNode tokens) {
+
+        boolean producedBy(String endpoint, String model) {
+            return this.endpoint.equals(endpoint) && this.model.equals(model);
+        }
+    }
+
+    private final Map<String, Entry> entries;
+
+    public ConversationContextCache(int maxConversations) {
+        int capacity = Math.max(1, maxConversations);
+        this.entries = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > capacity;
+            }
+        });
+    }
+
+    public Entry get(String conversationId) {
+        return entries.get(conversationId);
+    }
+
+    public void put(String conversationId, Entry entry) {
+        entries.put(conversationId, entry);
+    }
+
+    public void remove(String conversationId) {
+        entries.remove(conversationId);
+    }
+}
@@ -0,0 +1,42 @@
+package org.shark.mentor.mcp.llm;
+
+/**
+ * Carries the conversation a generation belongs to through the {@code ChatLanguageModel} API,
+ * which has no notion of conversations. Routing uses it for stickiness and the Ollama context
+ * model to find the conversation's cached prompt context.
+ */
+public final class ConversationScope implements AutoCloseable {
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private final String previous;
+
+    private ConversationScope(String previous) {
+        this.previous = previous;
+    }
+
+    /**
+     * Marks every generation made by the current thread until {@link #close()} as part of {@code conversationId}
+     */
+    public static ConversationScope open(String conversationId) {
+        ConversationScope scope = new ConversationScope(CURRENT.get());
+        CURRENT.set(conversationId);
+        return scope;
+    }
+
+    /**
+     * The current conversation, or {@code null} outside a scope
+     */
+    public static String current() {
+        return CURRENT.get();
+    }
+
+    @Override
+    public void close() {
+        if (previous != null) {
+            CURRENT.set(previous);
+        } else {
+            CURRENT.remove();
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package org.shark.mentor.mcp.llm;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.output.Response;
+
+import java.util.List;
+
+/**
+ * Deterministic chat model that answers instantly by filling a template with the last user message
+ */
+public class EchoChatModel implements ChatLanguageModel {
+
+    private final String template;
+
+    public EchoChatModel(String template) {
+        this.template = template != null ? template : "{message}";
+    }
+
+    @Override
+    public Response<AiMessage> generate(List<ChatMessage> messages) {
+        String answer = template
+                .replace("{messages}", String.valueOf(messages.size()))
+                .replace("{chars}", String.valueOf(OfflineMessages.promptChars(messages)))
+                .replace("{message}", OfflineMessages.lastUserText(messages));
+        return OfflineMessages.response(messages, answer);
+    }
+}
@@ -0,0 +1,29 @@
+package org.shark.mentor.mcp.llm;
+
+import lombok.Getter;
+
+/**
+ * Thrown when the LLM scheduler cannot take another request, so callers can be told to retry
+ * later instead of waiting for a generation timeout
+ */
+@Getter
+public class LlmOverloadedException extends RuntimeException {
+
+    public enum Reason {
+        /** The shared queue is full */
+        QUEUE_FULL,
+        /** The conversation already has as many requests queued as it may */
+        CONVERSATION_LIMIT,
+        /** The request waited longer than the configured maximum for a slot */
+        QUEUE_TIMEOUT
+    }
+
+    private final Reason reason;
+    private final long retryAfterSeconds;
+
+    public LlmOverloadedException(Reason reason, long retryAfterSeconds, String message) {
+        super(message);
+        this.reason = reason;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,245 @@
+package org.shark.mentor.mcp.llm;
+
+import lombok.extern.slf4j.Slf4j;
+import org.shark.mentor.mcp.config.LlmProperties;
+import org.shark.mentor.mcp.observability.PipelineMetrics;
+import org.shark.mentor.mcp.service.TurnCancellation;
+import org.shark.mentor.mcp.service.TurnCancelledException;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Admission control in front of the chat model. At most {@code maxConcurrent} generations run at
+ * once; further requests wait in a bounded queue that is served round-robin across conversations,
+ * so one busy conversation cannot starve the others. When the queue is full, the conversation has
+ * too many requests waiting, or a request waits too long, {@link LlmOverloadedException} is thrown
+ * right away with a Retry-After estimate. A waiting request whose turn is cancelled leaves the
+ * queue at once.
+ */
+@Slf4j
+public class LlmRequestScheduler {
+
+    /**
+     * A generation slot; closing it hands the slot to the next queued request
+     */
+    public interface Permit extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private static final Permit NO_OP = () -> {
+    };
+    private static final double EWMA_WEIGHT = 0.2;
+
+    private final boolean enabled;
+    private final int maxConcurrent;
+    private final int maxQueued;
+    private final int maxQueuedPerConversation;
+    private final long maxQueueWaitNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    /** Waiting requests per conversation; iteration order is the round-robin order */
+    private final Map<String, Deque<Waiter>> queues = new LinkedHashMap<>();
+    private int available;
+    private int queued;
+    private volatile double serviceMillisEwma;
+
+    public LlmRequestScheduler(LlmProperties.Scheduler config) {
+        this.enabled = config.isEnabled();
+        this.maxConcurrent = Math.max(1, config.getMaxConcurrent());
+        this.maxQueued = Math.max(0, config.getMaxQueued());
+        this.maxQueuedPerConversation = config.getMaxQueuedPerConversation() > 0
+                ? config.getMaxQueuedPerConversation() : Integer.MAX_VALUE;
+        this.maxQueueWaitNanos = TimeUnit.MILLISECONDS.toNanos(config.getMaxQueueWaitMs());
+        this.available = maxConcurrent;
+        if (enabled) {
+            PipelineMetrics.gauge("llm.queue.depth", "LLM requests waiting for a generation slot", this, LlmRequestScheduler::queued);
+            PipelineMetrics.gauge("llm.inflight", "LLM generations running", this, LlmRequestScheduler::inFlight);
+            log.info("LLM scheduler: maxConcurrent={}, maxQueued={}, maxQueuedPerConversation={}, maxQueueWaitMs={}",
+                    maxConcurrent, maxQueued, config.getMaxQueuedPerConversation(), config.getMaxQueueWaitMs());
+        }
+    }
+
+    /**
+     * A scheduler that admits every request immediately
+     */
+    public static LlmRequestScheduler unbounded() {
+        LlmProperties.Scheduler config = new LlmProperties.Scheduler();
+        config.setEnabled(false);
+        return new LlmRequestScheduler(config);
+    }
+
+    /**
+     * Blocks until a generation slot is free for {@code conversationId}
+     *
+     * @throws LlmOverloadedException when the request cannot be admitted
+     * @throws TurnCancelledException when the current turn is cancelled while waiting
+     */
+    public Permit acquire(String conversationId) {
+        if (!enabled) {
+            return NO_OP;
+        }
+        String key = conversationId != null ? conversationId : "default";
+        long start = System.nanoTime();
+        lock.lock();
+        try {
+            if (available > 0 && queued == 0) {
+                available--;
+                return admitted(start);
+            }
+            if (queued >= maxQueued) {
+                throw reject(LlmOverloadedException.Reason.QUEUE_FULL, start,
+                        "LLM queue is full (" + queued + " waiting)");
+            }
+            Deque<Waiter> queue = queues.computeIfAbsent(key, k -> new ArrayDeque<>());
+            if (queue.size() >= maxQueuedPerConversation) {
+                throw reject(LlmOverloadedException.Reason.CONVERSATION_LIMIT, start,
+                        "Conversation " + key + " already has " + queue.size() + " requests waiting");
+            }
+            Waiter waiter = new Waiter(lock.newCondition());
+            queue.addLast(waiter);
+            queued++;
+
+            TurnCancellation turn = TurnCancellation.current();
+            long remaining = maxQueueWaitNanos;
+            try (TurnCancellation.Handle ignored = TurnCancellation.onCurrentCancel(() -> wake(waiter))) {
+                while (!waiter.granted) {
+                    if (turn != null && turn.isCancelled()) {
+                        dequeue(key, waiter);
+                        PipelineMetrics.timer("llm.queue.wait", "outcome", "cancelled").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                        throw new TurnCancelledException(turn.getReason());
+                    }
+                    if (remaining <= 0) {
+                        dequeue(key, waiter);
+                        throw reject(LlmOverloadedException.Reason.QUEUE_TIMEOUT, start,
+                                "Waited " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms for an LLM slot");
+                    }
+                    remaining = waiter.condition.awaitNanos(remaining);
+                }
+            } catch (InterruptedException e) {
+                if (waiter.granted) {
+                    grantNext();
+                } else {
+                    dequeue(key, waiter);
+                }
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for an LLM slot", e);
+            }
+            return admitted(start);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Permit admitted(long start) {
+        PipelineMetrics.timer("llm.queue.wait", "outcome", "admitted").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        long admittedAt = System.nanoTime();
+        AtomicBoolean released = new AtomicBoolean();
+        return () -> {
+            if (released.compareAndSet(false, true)) {
+                release(System.nanoTime() - admittedAt);
+            }
+        };
+    }
+
+    private LlmOverloadedException reject(LlmOverloadedException.Reason reason, long start, String message) {
+        PipelineMetrics.timer("llm.queue.wait", "outcome", "rejected").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        PipelineMetrics.increment("llm.queue.rejected", "reason", reason.name().toLowerCase());
+        log.warn("Rejecting LLM request: {}", message);
+        return new LlmOverloadedException(reason, retryAfterSeconds(), message);
+    }
+
+    private void release(long serviceNanos) {
+        double millis = serviceNanos / 1_000_000.0;
+        serviceMillisEwma = serviceMillisEwma == 0 ? millis : serviceMillisEwma + EWMA_WEIGHT * (millis - serviceMillisEwma);
+        lock.lock();
+        try {
+            grantNext();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Hands a free slot to the head of the next conversation in round-robin order. Caller holds the lock.
+     */
+    private void grantNext() {
+        Iterator<Map.Entry<String, Deque<Waiter>>> it = queues.entrySet().iterator();
+        if (!it.hasNext()) {
+            available++;
+            return;
+        }
+        Map.Entry<String, Deque<Waiter>> next = it.next();
+        it.remove();
+        Waiter waiter = next.getValue().pollFirst();
+        if (!next.getValue().isEmpty()) {
+            // Back of the line: every other conversation gets a turn first
+            queues.put(next.getKey(), next.getValue());
+        }
+        queued--;
+        waiter.granted = true;
+        waiter.condition.signal();
+    }
+
+    private void wake(Waiter waiter) {
+        lock.lock();
+        try {
+            waiter.condition.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void dequeue(String key, Waiter waiter) {
+        Deque<Waiter> queue = queues.get(key);
+        if (queue != null && queue.remove(waiter)) {
+            queued--;
+            if (queue.isEmpty()) {
+                queues.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Time for the requests already waiting to drain through the available slots, at least one second
+     */
+    long retryAfterSeconds() {
+        double drainMillis = (queued + 1) * serviceMillisEwma / maxConcurrent;
+        return Math.max(1, (long) Math.ceil(drainMillis / 1000.0));
+    }
+
+    int queued() {
+        lock.lock();
+        try {
+            return queued;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int inFlight() {
+        lock.lock();
+        try {
+            return maxConcurrent - available;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static final class Waiter {
+        private final Condition condition;
+        private boolean granted;
+
+        private Waiter(Condition condition) {
+            this.condition = condition;
+        }
+    }
+}
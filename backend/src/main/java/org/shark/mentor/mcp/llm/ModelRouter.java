@@ -0,0 +1,80 @@
+package org.shark.mentor.mcp.llm;
+
+import org.shark.mentor.mcp.config.LlmProperties;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Chooses which configured model answers a turn, from the size of its context, the tool that
+ * produced it and a word-count/keyword heuristic for question complexity. Routes are checked
+ * in order; a turn that fits none goes to the default model.
+ */
+public class ModelRouter {
+
+    public static final String DEFAULT_ROUTE = "default";
+
+    /**
+     * The route a turn was sent to and the model behind it
+     */
+    public record Decision(String route, String model) {
+    }
+
+    private final List<LlmProperties.ModelRoute> routes;
+    private final Decision defaultDecision;
+
+    public ModelRouter(LlmProperties.ModelRouting config, String defaultModel) {
+        this.routes = config.isEnabled() ? List.copyOf(config.getRoutes()) : List.of();
+        this.defaultDecision = new Decision(DEFAULT_ROUTE, defaultModel);
+    }
+
+    public List<LlmProperties.ModelRoute> getRoutes() {
+        return routes;
+    }
+
+    public Decision route(String question, int contextTokens, String toolName) {
+        for (LlmProperties.ModelRoute route : routes) {
+            if (matches(route, question, contextTokens, toolName)) {
+                return new Decision(route.getName(), route.getModel());
+            }
+        }
+        return defaultDecision;
+    }
+
+    private static boolean matches(LlmProperties.ModelRoute route, String question, int contextTokens, String toolName) {
+        if (route.getMaxContextTokens() > 0 && contextTokens > route.getMaxContextTokens()) {
+            return false;
+        }
+        if (route.getMaxQuestionWords() > 0 && wordCount(question) > route.getMaxQuestionWords()) {
+            return false;
+        }
+        if (!route.getTools().isEmpty() && (toolName == null || !route.getTools().contains(toolName))) {
+            return false;
+        }
+        if (!route.getComplexKeywords().isEmpty() && question != null) {
+            String lower = question.toLowerCase(Locale.ROOT);
+            for (String keyword : route.getComplexKeywords()) {
+                if (lower.contains(keyword.toLowerCase(Locale.ROOT))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    static int wordCount(String text) {
+        if (text == null) {
+            return 0;
+        }
+        int words = 0;
+        boolean inWord = false;
+        for (int i = 0; i < text.length(); i++) {
+            boolean whitespace = Character.isWhitespace(text.charAt(i));
+            if (!whitespace && !inWord) {
+                words++;
+            }
+            inWord = !whitespace;
+        }
+        return words;
+    }
+}
@@ -0,0 +1,47 @@
+package org.shark.mentor.mcp.llm;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.ChatMessageType;
+import dev.langchain4j.model.output.FinishReason;
+import dev.langchain4j.model.output.Response;
+import dev.langchain4j.model.output.TokenUsage;
+import org.shark.mentor.mcp.service.TokenEstimator;
+
+import java.util.List;
+
+/**
+ * Helpers shared by the offline chat models
+ */
+final class OfflineMessages {
+
+    private OfflineMessages() {
+    }
+
+    static String lastUserText(List<ChatMessage> messages) {
+        for (int i = messages.size() - 1; i >= 0; i--) {
+            ChatMessage message = messages.get(i);
+            if (message.type() == ChatMessageType.USER) {
+                return message.text();
+            }
+        }
+        return "";
+    }
+
+    static int promptChars(List<ChatMessage> messages) {
+        int chars = 0;
+        for (ChatMessage message : messages) {
+            chars += message.text() != null ? message.text().length() : 0;
+        }
+        return chars;
+    }
+
+    static Response<AiMessage> response(List<ChatMessage> messages, String answer) {
+        int inputTokens = 0;
+        for (ChatMessage message : messages) {
+            inputTokens += TokenEstimator.estimate(message.text());
+        }
+        return Response.from(AiMessage.from(answer),
+                new TokenUsage(inputTokens, TokenEstimator.estimate(answer)), FinishReason.STOP);
+    }
+}
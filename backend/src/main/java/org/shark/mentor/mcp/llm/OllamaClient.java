@@ -0,0 +1,96 @@
+package org.shark.mentor.mcp.llm;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import org.shark.mentor.mcp.service.TurnCancellation;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Minimal client for the Ollama endpoints langchain4j does not expose: loading a model into
+ * memory with a keep-alive and listing the models that are currently resident.
+ */
+public class OllamaClient {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final String baseUrl;
+    private final Duration timeout;
+    private final HttpClient httpClient;
+
+    public OllamaClient(String baseUrl, Duration timeout) {
+        this.baseUrl = baseUrl != null ? baseUrl.replaceAll("/+$", "") : "http://localhost:11434";
+        this.timeout = timeout;
+        this.httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    /**
+     * Loads {@code model} and keeps it resident for {@code keepAlive} (Ollama duration, e.g. {@code 30m},
+     * or {@code -1} for ever). An empty prompt makes Ollama load the model without generating anything.
+     */
+    public void loadModel(String model, String keepAlive) throws IOException, InterruptedException {
+        ObjectNode body = MAPPER.createObjectNode()
+                .put("model", model)
+                .put("prompt", "")
+                .put("stream", false);
+        if (keepAlive != null && !keepAlive.isBlank()) {
+            body.put("keep_alive", keepAlive);
+        }
+        JsonNode response = post("/api/generate", body);
+        if (response.hasNonNull("error")) {
+            throw new IOException("Ollama could not load " + model + ": " + response.get("error").asText());
+        }
+    }
+
+    /**
+     * Models resident in memory, mapped to when Ollama will unload them ({@code expires_at})
+     */
+    public Map<String, String> runningModels() throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + "/api/ps"))
+                .timeout(timeout)
+                .GET()
+                .build();
+        JsonNode response = send(request);
+        Map<String, String> models = new HashMap<>();
+        for (JsonNode model : response.path("models")) {
+            models.put(model.path("name").asText(), model.path("expires_at").asText(null));
+        }
+        return models;
+    }
+
+    JsonNode post(String path, JsonNode body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + path))
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(MAPPER.writeValueAsString(body)))
+                .build();
+        return send(request);
+    }
+
+    /**
+     * Cancelling the current turn aborts the request, and Ollama stops generating once the client is gone
+     */
+    private JsonNode send(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<String> response = TurnCancellation.await(httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException("Ollama " + request.uri().getPath() + " returned HTTP " + response.statusCode()
+                    + ": " + response.body());
+        }
+        return MAPPER.readTree(response.body());
+    }
+}
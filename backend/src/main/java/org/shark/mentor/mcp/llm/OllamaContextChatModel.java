@@ -0,0 +1,264 @@
+package org.shark.mentor.mcp.llm;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import dev.langchain4j.agent.tool.ToolExecutionRequest;
+import dev.langchain4j.agent.tool.ToolParameters;
+import dev.langchain4j.agent.tool.ToolSpecification;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.ChatMessageType;
+import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.output.FinishReason;
+import dev.langchain4j.model.output.Response;
+import dev.langchain4j.model.output.TokenUsage;
+import lombok.extern.slf4j.Slf4j;
+import org.shark.mentor.mcp.observability.PipelineMetrics;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ollama chat model that continues each conversation from the {@code context} returned by the
+ * previous {@code /api/generate} call instead of resending the whole prompt. The leading system
+ * message is the static prefix: it is sent once, when a conversation starts, and Ollama keeps its
+ * evaluation in the KV cache, so follow-up turns only evaluate the new turn.
+ * The cached context is dropped, and the turn is sent in full, when the system prompt changes,
+ * the context outgrows {@code maxContextTokens} or Ollama rejects it. Contexts live in a
+ * {@link ConversationContextCache} shared across endpoints and models: one produced by another
+ * endpoint or model, or left here before the conversation moved elsewhere, is never reused, so
+ * turns answered elsewhere are not lost.
+ * <p>
+ * Generations with tools go through {@code /api/chat}, which takes the tool schemas and returns
+ * tool calls; they do not use or update the cached context.
+ */
+@Slf4j
+public class OllamaContextChatModel implements ChatLanguageModel, ConversationAware {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final OllamaClient client;
+    private final String model;
+    private final double temperature;
+    private final String keepAlive;
+    private final int maxContextTokens;
+    private final ConversationContextCache contexts;
+
+    public OllamaContextChatModel(OllamaClient client, String model, double temperature, String keepAlive,
+                                  int maxContextTokens, int maxConversations) {
+        this(client, model, temperature, keepAlive, maxContextTokens, new ConversationContextCache(maxConversations));
+    }
+
+    public OllamaContextChatModel(OllamaClient client, String model, double temperature, String keepAlive,
+                                  int maxContextTokens, ConversationContextCache contexts) {
+        this.client = client;
+        this.model = model;
+        this.temperature = temperature;
+        this.keepAlive = keepAlive;
+        this.maxContextTokens = maxContextTokens;
+        this.contexts = contexts;
+    }
+
+    @Override
+    public Response<AiMessage> generate(List<ChatMessage> messages) {
+        String system = null;
+        StringBuilder prompt = new StringBuilder();
+        for (int i = 0; i < messages.size(); i++) {
+            ChatMessage message = messages.get(i);
+            if (i == 0 && message.type() == ChatMessageType.SYSTEM) {
+                system = message.text();
+            } else {
+                if (!prompt.isEmpty()) {
+                    prompt.append("\n\n");
+                }
+                prompt.append(message.text());
+            }
+        }
+
+        String conversationId = ConversationScope.current();
+        int systemHash = Objects.hashCode(system);
+        ConversationContextCache.Entry cached = conversationId != null ? contexts.get(conversationId) : null;
+        if (cached != null && !reusable(cached, systemHash)) {
+            contexts.remove(conversationId);
+            cached = null;
+        }
+
+        JsonNode response;
+        try {
+            response = generate(system, prompt.toString(), cached);
+        } catch (IOException e) {
+            if (cached == null) {
+                throw new UncheckedIOException(e);
+            }
+            log.warn("Ollama rejected the cached context of conversation {} ({}), resending the full prompt",
+                    conversationId, e.getMessage());
+            PipelineMetrics.increment("llm.context.invalidated", "reason", "rejected");
+            contexts.remove(conversationId);
+            cached = null;
+            try {
+                response = generate(system, prompt.toString(), null);
+            } catch (IOException retryError) {
+                throw new UncheckedIOException(retryError);
+            }
+        }
+
+        if (conversationId != null && response.path("context").isArray()) {
+            contexts.put(conversationId, new ConversationContextCache.Entry(client.getBaseUrl(), model, systemHash,
+                    response.get("context")));
+        }
+
+        String cache = cached != null ? "hit" : "miss";
+        int promptTokens = response.path("prompt_eval_count").asInt(0);
+        int outputTokens = response.path("eval_count").asInt(0);
+        PipelineMetrics.record("llm.prompt.eval.tokens", "tokens", promptTokens, "model", model, "cache", cache);
+        PipelineMetrics.timer("llm.prompt.eval", "model", model, "cache", cache)
+                .record(response.path("prompt_eval_duration").asLong(0), TimeUnit.NANOSECONDS);
+
+        return Response.from(AiMessage.from(response.path("response").asText("")),
+                new TokenUsage(promptTokens, outputTokens), FinishReason.STOP);
+    }
+
+    @Override
+    public Response<AiMessage> generate(List<ChatMessage> messages, List<ToolSpecification> toolSpecifications) {
+        ObjectNode body = MAPPER.createObjectNode()
+                .put("model", model)
+                .put("stream", false);
+        ArrayNode chat = body.putArray("messages");
+        for (ChatMessage message : messages) {
+            chat.add(toOllamaMessage(message));
+        }
+        ArrayNode tools = body.putArray("tools");
+        for (ToolSpecification specification : toolSpecifications) {
+            tools.add(toOllamaTool(specification));
+        }
+        if (keepAlive != null && !keepAlive.isBlank()) {
+            body.put("keep_alive", keepAlive);
+        }
+        body.putObject("options").put("temperature", temperature);
+
+        JsonNode response;
+        try {
+            response = post("/api/chat", body);
+        } catch (IOException e) {
+            if (ToolsUnsupportedException.isRefusal(e)) {
+                throw new ToolsUnsupportedException(model, e.getMessage());
+            }
+            throw new UncheckedIOException(e);
+        }
+        JsonNode message = response.path("message");
+        List<ToolExecutionRequest> calls = new ArrayList<>();
+        for (JsonNode call : message.path("tool_calls")) {
+            JsonNode function = call.path("function");
+            JsonNode arguments = function.path("arguments");
+            calls.add(ToolExecutionRequest.builder()
+                    .id(call.path("id").asText(function.path("name").asText()))
+                    .name(function.path("name").asText())
+                    .arguments(arguments.isTextual() ? arguments.asText() : arguments.toString())
+                    .build());
+        }
+        TokenUsage usage = new TokenUsage(response.path("prompt_eval_count").asInt(0), response.path("eval_count").asInt(0));
+        return calls.isEmpty()
+                ? Response.from(AiMessage.from(message.path("content").asText("")), usage, FinishReason.STOP)
+                : Response.from(AiMessage.from(calls), usage, FinishReason.TOOL_EXECUTION);
+    }
+
+    private static ObjectNode toOllamaMessage(ChatMessage message) {
+        ObjectNode node = MAPPER.createObjectNode();
+        switch (message.type()) {
+            case SYSTEM -> node.put("role", "system").put("content", message.text());
+            case USER -> node.put("role", "user").put("content", message.text());
+            case TOOL_EXECUTION_RESULT -> node.put("role", "tool").put("content", message.text());
+            default -> {
+                AiMessage ai = (AiMessage) message;
+                node.put("role", "assistant").put("content", ai.text() != null ? ai.text() : "");
+                if (ai.hasToolExecutionRequests()) {
+                    ArrayNode calls = node.putArray("tool_calls");
+                    for (ToolExecutionRequest request : ai.toolExecutionRequests()) {
+                        ObjectNode function = calls.addObject().putObject("function").put("name", request.name());
+                        try {
+                            function.set("arguments", MAPPER.readTree(request.arguments()));
+                        } catch (IOException e) {
+                            function.putObject("arguments");
+                        }
+                    }
+                }
+            }
+        }
+        return node;
+    }
+
+    private static ObjectNode toOllamaTool(ToolSpecification specification) {
+        ObjectNode tool = MAPPER.createObjectNode().put("type", "function");
+        ObjectNode function = tool.putObject("function").put("name", specification.name());
+        if (specification.description() != null) {
+            function.put("description", specification.description());
+        }
+        ToolParameters parameters = specification.parameters();
+        ObjectNode schema = function.putObject("parameters").put("type", "object");
+        schema.set("properties", MAPPER.valueToTree(parameters != null ? parameters.properties() : Map.of()));
+        if (parameters != null && parameters.required() != null && !parameters.required().isEmpty()) {
+            schema.set("required", MAPPER.valueToTree(parameters.required()));
+        }
+        return tool;
+    }
+
+    private boolean reusable(ConversationContextCache.Entry cached, int systemHash) {
+        if (!cached.producedBy(client.getBaseUrl(), model)) {
+            // The last turn was answered by another endpoint or model: its context means nothing here
+            PipelineMetrics.increment("llm.context.invalidated", "reason", "switched");
+            return false;
+        }
+        if (cached.systemHash() != systemHash) {
+            PipelineMetrics.increment("llm.context.invalidated", "reason", "system_prompt");
+            return false;
+        }
+        if (cached.tokens().size() > maxContextTokens) {
+            PipelineMetrics.increment("llm.context.invalidated", "reason", "too_long");
+            return false;
+        }
+        return true;
+    }
+
+    private JsonNode generate(String system, String prompt, ConversationContextCache.Entry cached) throws IOException {
+        ObjectNode body = MAPPER.createObjectNode()
+                .put("model", model)
+                .put("prompt", prompt)
+                .put("stream", false);
+        if (cached != null) {
+            // The system prompt is already part of the cached context
+            body.set("context", cached.tokens());
+        } else if (system != null) {
+            body.put("system", system);
+        }
+        if (keepAlive != null && !keepAlive.isBlank()) {
+            body.put("keep_alive", keepAlive);
+        }
+        body.putObject("options").put("temperature", temperature);
+        return post("/api/generate", body);
+    }
+
+    private JsonNode post(String path, ObjectNode body) throws IOException {
+        try {
+            JsonNode response = client.post(path, body);
+            if (response.hasNonNull("error")) {
+                throw new IOException(response.get("error").asText());
+            }
+            return response;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for Ollama", e);
+        }
+    }
+
+    @Override
+    public void forget(String conversationId) {
+        contexts.remove(conversationId);
+    }
+}
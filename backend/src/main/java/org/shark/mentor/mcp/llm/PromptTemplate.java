@@ -0,0 +1,87 @@
+package org.shark.mentor.mcp.llm;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Prompt template parsed once into literal and {@code {variable}} segments. Rendering sizes its
+ * buffer exactly from the literals and the variable values, so no intermediate copies are made.
+ * Unknown variables render as empty strings; braces that do not form {@code {name}} stay literal.
+ */
+public final class PromptTemplate {
+
+    private final String source;
+    private final String[] literals;
+    private final String[] variables;
+    private final int literalChars;
+
+    private PromptTemplate(String source, String[] literals, String[] variables) {
+        this.source = source;
+        this.literals = literals;
+        this.variables = variables;
+        int chars = 0;
+        for (String literal : literals) {
+            chars += literal.length();
+        }
+        this.literalChars = chars;
+    }
+
+    public static PromptTemplate compile(String source) {
+        List<String> literals = new ArrayList<>();
+        List<String> variables = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int i = 0;
+        while (i < source.length()) {
+            char c = source.charAt(i);
+            int close = c == '{' ? source.indexOf('}', i + 1) : -1;
+            if (close > i + 1 && isIdentifier(source, i + 1, close)) {
+                literals.add(literal.toString());
+                literal.setLength(0);
+                variables.add(source.substring(i + 1, close));
+                i = close + 1;
+            } else {
+                literal.append(c);
+                i++;
+            }
+        }
+        literals.add(literal.toString());
+        return new PromptTemplate(source, literals.toArray(String[]::new), variables.toArray(String[]::new));
+    }
+
+    private static boolean isIdentifier(String text, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (!Character.isLetterOrDigit(c) && c != '_' && c != '.') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean isStatic() {
+        return variables.length == 0;
+    }
+
+    public String render(Map<String, String> values) {
+        if (isStatic()) {
+            return literals[0];
+        }
+        String[] resolved = new String[variables.length];
+        int capacity = literalChars;
+        for (int i = 0; i < variables.length; i++) {
+            String value = values.get(variables[i]);
+            resolved[i] = value != null ? value : "";
+            capacity += resolved[i].length();
+        }
+        StringBuilder out = new StringBuilder(capacity);
+        for (int i = 0; i < variables.length; i++) {
+            out.append(literals[i]).append(resolved[i]);
+        }
+        return out.append(literals[variables.length]).toString();
+    }
+
+    public String getSource() {
+        return source;
+    }
+}
@@ -0,0 +1,257 @@
+package org.shark.mentor.mcp.llm;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.shark.mentor.mcp.config.LlmProperties;
+import org.shark.mentor.mcp.observability.PipelineMetrics;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Named prompt templates, compiled once and resolved per turn: a tool override wins over a server
+ * override, which wins over the global template ({@code llm.prompts}), which wins over the built-in
+ * default. Templates from {@code llm.prompt-templates.file} are layered on top of the configured
+ * ones and reloaded when the file changes, without a restart.
+ * <p>
+ * The rendered system prompt is cached per server and tool, so every turn sends the same prefix
+ * and model servers that cache prompt evaluation (see {@link OllamaContextChatModel}) can reuse it.
+ */
+@Slf4j
+public class PromptTemplateRegistry implements AutoCloseable {
+
+    public static final String SYSTEM = "system";
+    public static final String CONTEXT = "context";
+
+    static final String DEFAULT_SYSTEM = """
+            You are a helpful assistant that works with MCP (Model Context Protocol) servers.
+
+            Important guidelines:
+            1. Respond ONLY using information provided in the context of MCP servers
+            2. Do not infer or add information that is not explicitly indicated in the context
+            3. If the context is insufficient to answer the question, clearly state what information is missing
+            4. Be precise and factual in your responses
+            5. When relevant, mention which MCP server provided the information
+            6. ALWAYS respond in Spanish, regardless of the language of the question
+
+            RESPONSE FORMAT:
+            - Use clear titles and subtitles with appropriate emojis
+            - For movies: 🎬 title, 📅 year, ⭐ rating, 📝 description
+            - For files: 📁 name, 📏 size, 📅 date
+            - For code/GitHub: 💻 repository, 🔧 function, 📊 status
+            - Organize information in numbered or bulleted lists
+            - Use proper spacing between sections
+            - If there are multiple results, list them clearly
+
+            Example for movies:
+            🎬 **[Movie Title]** (📅 Year)
+            ⭐ Rating: X.X/10
+            📝 **Synopsis:** [Description]
+            🎭 **Genre:** [Genre]
+
+            When MCP server context is provided, organize the information clearly with:
+            - Descriptive titles with appropriate emojis
+            - Information structured in lists
+            - Use of markdown for formatting
+            - Clear separation between elements
+            Always end with: 💡 *Information provided by [server name]*
+
+            Always maintain accuracy and transparency about the limitations of the available context.
+            All responses must be in Spanish and well formatted.
+            """;
+
+    static final String DEFAULT_CONTEXT = "MCP SERVER CONTEXT:\n{context}";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final Map<String, String> configured;
+    private final Map<String, Map<String, String>> configuredServers;
+    private final Map<String, Map<String, String>> configuredTools;
+    private final Path file;
+    private volatile Snapshot snapshot;
+    private ScheduledExecutorService watcher;
+
+    /**
+     * Compiled templates plus the system prompts rendered from them; replaced as a whole on reload
+     */
+    private record Snapshot(Map<String, PromptTemplate> global,
+                            Map<String, Map<String, PromptTemplate>> servers,
+                            Map<String, Map<String, PromptTemplate>> tools,
+                            long fileModified,
+                            Map<String, String> systemPrompts) {
+    }
+
+    /**
+     * Only the built-in templates
+     */
+    public PromptTemplateRegistry() {
+        this(new LlmProperties());
+    }
+
+    public PromptTemplateRegistry(LlmProperties props) {
+        LlmProperties.PromptTemplates settings = props.getPromptTemplates();
+        this.configured = props.getPrompts();
+        this.configuredServers = settings.getServers();
+        this.configuredTools = settings.getTools();
+        this.file = settings.getFile() != null && !settings.getFile().isBlank() ? Path.of(settings.getFile()) : null;
+        this.snapshot = load();
+    }
+
+    /**
+     * Checks {@code file} for changes every {@code reloadIntervalMs}; no-op without a file
+     */
+    public void watch(long reloadIntervalMs) {
+        if (file == null || reloadIntervalMs <= 0) {
+            return;
+        }
+        watcher = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "prompt-templates-reload");
+            thread.setDaemon(true);
+            return thread;
+        });
+        watcher.scheduleWithFixedDelay(this::reloadIfChanged, reloadIntervalMs, reloadIntervalMs, TimeUnit.MILLISECONDS);
+        log.info("Watching prompt templates in {} every {} ms", file, reloadIntervalMs);
+    }
+
+    @Override
+    public void close() {
+        if (watcher != null) {
+            watcher.shutdownNow();
+        }
+    }
+
+    /**
+     * Reloads the templates file if it was modified since the last load
+     */
+    public void reloadIfChanged() {
+        if (file != null && lastModified() != snapshot.fileModified()) {
+            reload();
+        }
+    }
+
+    /**
+     * Recompiles every template; a file that cannot be read leaves the current templates in place
+     */
+    public void reload() {
+        try {
+            snapshot = load();
+            PipelineMetrics.increment("llm.prompts.reload", "outcome", PipelineMetrics.SUCCESS);
+            log.info("Prompt templates reloaded");
+        } catch (RuntimeException e) {
+            PipelineMetrics.increment("llm.prompts.reload", "outcome", PipelineMetrics.ERROR);
+            log.warn("Could not reload prompt templates from {}, keeping the current ones: {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * The system prompt for a turn against {@code serverId} with context from {@code toolName} (both may be null).
+     * Rendered once per server and tool, then returned as the same string until the templates change.
+     */
+    public String systemPrompt(String serverId, String toolName) {
+        Snapshot current = snapshot;
+        String key = serverId + '\u0000' + toolName;
+        return current.systemPrompts().computeIfAbsent(key,
+                k -> resolve(current, SYSTEM, serverId, toolName).render(variables(serverId, toolName)));
+    }
+
+    public String contextPrompt(String context, String serverId, String toolName) {
+        Map<String, String> values = variables(serverId, toolName);
+        values.put("context", context);
+        return resolve(snapshot, CONTEXT, serverId, toolName).render(values);
+    }
+
+    private static Map<String, String> variables(String serverId, String toolName) {
+        Map<String, String> values = new HashMap<>(4);
+        values.put("server", serverId != null ? serverId : "");
+        values.put("tool", toolName != null ? toolName : "");
+        return values;
+    }
+
+    private static PromptTemplate resolve(Snapshot current, String name, String serverId, String toolName) {
+        PromptTemplate template = toolName != null ? current.tools().getOrDefault(toolName, Map.of()).get(name) : null;
+        if (template == null && serverId != null) {
+            template = current.servers().getOrDefault(serverId, Map.of()).get(name);
+        }
+        return template != null ? template : current.global().get(name);
+    }
+
+    private Snapshot load() {
+        Map<String, String> global = new HashMap<>();
+        global.put(SYSTEM, DEFAULT_SYSTEM);
+        global.put(CONTEXT, DEFAULT_CONTEXT);
+        global.putAll(configured);
+        Map<String, Map<String, String>> servers = copy(configuredServers);
+        Map<String, Map<String, String>> tools = copy(configuredTools);
+
+        long modified = 0;
+        if (file != null) {
+            modified = lastModified();
+            if (modified != 0) {
+                try {
+                    JsonNode root = MAPPER.readTree(file.toFile());
+                    global.putAll(texts(root.path("prompts")));
+                    root.path("servers").fields().forEachRemaining(e -> servers
+                            .computeIfAbsent(e.getKey(), k -> new HashMap<>()).putAll(texts(e.getValue())));
+                    root.path("tools").fields().forEachRemaining(e -> tools
+                            .computeIfAbsent(e.getKey(), k -> new HashMap<>()).putAll(texts(e.getValue())));
+                } catch (IOException e) {
+                    throw new IllegalStateException("Invalid prompt templates file " + file + ": " + e.getMessage(), e);
+                }
+            } else {
+                log.warn("Prompt templates file {} not found, using the configured templates", file);
+            }
+        }
+        return new Snapshot(compile(global), compileNested(servers), compileNested(tools), modified, new ConcurrentHashMap<>());
+    }
+
+    private long lastModified() {
+        try {
+            return Files.exists(file) ? Files.getLastModifiedTime(file).toMillis() : 0;
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static Map<String, String> texts(JsonNode object) {
+        Map<String, String> texts = new HashMap<>();
+        Iterator<Map.Entry<String, JsonNode>> fields = object.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            if (field.getValue().isTextual()) {
+                texts.put(field.getKey(), field.getValue().asText());
+            }
+        }
+        return texts;
+    }
+
+    private static Map<String, Map<String, String>> copy(Map<String, Map<String, String>> nested) {
+        Map<String, Map<String, String>> copy = new HashMap<>();
+        nested.forEach((key, templates) -> copy.put(key, new HashMap<>(templates)));
+        return copy;
+    }
+
+    private static Map<String, PromptTemplate> compile(Map<String, String> sources) {
+        Map<String, PromptTemplate> compiled = new HashMap<>();
+        sources.forEach((name, source) -> {
+            if (source != null) {
+                compiled.put(name, PromptTemplate.compile(source));
+            }
+        });
+        return Map.copyOf(compiled);
+    }
+
+    private static Map<String, Map<String, PromptTemplate>> compileNested(Map<String, Map<String, String>> nested) {
+        Map<String, Map<String, PromptTemplate>> compiled = new HashMap<>();
+        nested.forEach((key, sources) -> compiled.put(key, compile(sources)));
+        return Map.copyOf(compiled);
+    }
+}
@@ -0,0 +1,68 @@
+package org.shark.mentor.mcp.llm;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.output.Response;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Chat model that serves recorded completions. A recording whose prompt equals the last user
+ * message is returned as is; any other prompt gets the recordings in order, wrapping around.
+ */
+@Slf4j
+public class ReplayChatModel implements ChatLanguageModel {
+
+    public record Recording(String prompt, String completion) {
+    }
+
+    private final List<Recording> recordings;
+    private final Map<String, String> byPrompt = new HashMap<>();
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplayChatModel(List<Recording> recordings) {
+        if (recordings == null || recordings.isEmpty()) {
+            throw new IllegalArgumentException("Replay provider needs at least one recorded completion");
+        }
+        this.recordings = List.copyOf(recordings);
+        for (Recording recording : this.recordings) {
+            if (recording.prompt() != null) {
+                byPrompt.putIfAbsent(recording.prompt(), recording.completion());
+            }
+        }
+    }
+
+    public static ReplayChatModel fromFile(String file) {
+        if (file == null || file.isBlank()) {
+            throw new IllegalArgumentException("llm.replay.file is required for the replay provider");
+        }
+        try {
+            List<Recording> recordings = new ObjectMapper()
+                    .readValue(Files.readAllBytes(Path.of(file)), new TypeReference<List<Recording>>() {});
+            log.info("Loaded {} recorded completions from {}", recordings.size(), file);
+            return new ReplayChatModel(recordings);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read replay recordings from " + file, e);
+        }
+    }
+
+    @Override
+    public Response<AiMessage> generate(List<ChatMessage> messages) {
+        String completion = byPrompt.get(OfflineMessages.lastUserText(messages));
+        if (completion == null) {
+            completion = recordings.get(Math.floorMod(next.getAndIncrement(), recordings.size())).completion();
+        }
+        return OfflineMessages.response(messages, completion != null ? completion : "");
+    }
+}
@@ -0,0 +1,280 @@
+package org.shark.mentor.mcp.llm;
+
+import dev.langchain4j.agent.tool.ToolSpecification;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.output.Response;
+import lombok.extern.slf4j.Slf4j;
+import org.shark.mentor.mcp.config.LlmProperties;
+import org.shark.mentor.mcp.observability.PipelineMetrics;
+import org.shark.mentor.mcp.service.TurnCancelledException;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Chat model that spreads requests over several endpoints of the same provider.
+ * Endpoints are chosen by requests in flight (optionally weighted by recent latency),
+ * a conversation ({@link ConversationScope}) keeps its endpoint while it stays healthy,
+ * failed calls fail over to the next endpoint, and a background probe takes endpoints
+ * out of and back into rotation.
+ */
+@Slf4j
+public class RoutingChatModel implements ChatLanguageModel, ConversationAware, AutoCloseable {
+
+    private static final double EWMA_WEIGHT = 0.2;
+
+    private final List<Endpoint> endpoints;
+    private final boolean latencyAware;
+    private final boolean sticky;
+    private final Map<String, Endpoint> stickyEndpoints;
+    private final int failureThreshold;
+    private final long retryAfterNanos;
+    private final Predicate<String> healthProbe;
+    private final String modelName;
+    private final ScheduledExecutorService healthChecks;
+    private final AtomicInteger nextStart = new AtomicInteger();
+
+    /**
+     * @param modelName model served by every endpoint, used to tag the routing metrics
+     * @param models    model client per endpoint URL
+     */
+    public RoutingChatModel(String modelName, Map<String, ChatLanguageModel> models, LlmProperties.Routing routing) {
+        this(modelName, models, routing, httpProbe(Duration.ofMillis(routing.getHealthCheckTimeoutMs())));
+    }
+
+    RoutingChatModel(String modelName, Map<String, ChatLanguageModel> models, LlmProperties.Routing routing,
+                     Predicate<String> healthProbe) {
+        if (models.isEmpty()) {
+            throw new IllegalArgumentException("At least one LLM endpoint is required for routing");
+        }
+        this.endpoints = new ArrayList<>();
+        models.forEach((url, model) -> endpoints.add(new Endpoint(url, model)));
+        this.latencyAware = "latency".equalsIgnoreCase(routing.getStrategy());
+        this.sticky = routing.isSticky();
+        int maxConversations = Math.max(1, routing.getStickyMaxConversations());
+        this.stickyEndpoints = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Endpoint> eldest) {
+                return size() > maxConversations;
+            }
+        });
+        this.failureThreshold = Math.max(1, routing.getFailureThreshold());
+        this.retryAfterNanos = TimeUnit.MILLISECONDS.toNanos(routing.getRetryAfterMs());
+        this.healthProbe = healthProbe;
+        this.modelName = modelName;
+
+        for (Endpoint endpoint : endpoints) {
+            PipelineMetrics.gauge("llm.endpoint.outstanding", "LLM requests in flight per endpoint",
+                    endpoint, e -> e.outstanding.get(), "endpoint", endpoint.url, "model", modelName);
+            PipelineMetrics.gauge("llm.endpoint.healthy", "1 when the LLM endpoint is in rotation",
+                    endpoint, e -> e.isAvailable(System.nanoTime()) ? 1 : 0, "endpoint", endpoint.url, "model", modelName);
+        }
+
+        if (routing.getHealthCheckIntervalMs() > 0) {
+            healthChecks = Executors.newSingleThreadScheduledExecutor(task -> {
+                Thread thread = new Thread(task, "llm-health-check");
+                thread.setDaemon(true);
+                return thread;
+            });
+            healthChecks.scheduleWithFixedDelay(this::checkHealth, 0,
+                    routing.getHealthCheckIntervalMs(), TimeUnit.MILLISECONDS);
+        } else {
+            healthChecks = null;
+        }
+        log.info("Routing {} requests across {} endpoints (strategy={}, sticky={})",
+                modelName, endpoints.size(), latencyAware ? "latency" : "least-outstanding", sticky);
+    }
+
+    @Override
+    public Response<AiMessage> generate(List<ChatMessage> messages) {
+        return route(model -> model.generate(messages));
+    }
+
+    @Override
+    public Response<AiMessage> generate(List<ChatMessage> messages, List<ToolSpecification> toolSpecifications) {
+        return route(model -> model.generate(messages, toolSpecifications));
+    }
+
+    private Response<AiMessage> route(Function<ChatLanguageModel, Response<AiMessage>> call) {
+        String key = sticky ? ConversationScope.current() : null;
+        List<Endpoint> tried = new ArrayList<>(endpoints.size());
+        RuntimeException lastError = null;
+
+        while (tried.size() < endpoints.size()) {
+            Endpoint endpoint = select(key, tried);
+            tried.add(endpoint);
+            endpoint.outstanding.incrementAndGet();
+            long start = System.nanoTime();
+            try {
+                Response<AiMessage> response = call.apply(endpoint.model);
+                endpoint.recordSuccess(System.nanoTime() - start);
+                if (key != null) {
+                    stickyEndpoints.put(key, endpoint);
+                }
+                PipelineMetrics.increment("llm.route", "endpoint", endpoint.url, "model", modelName, "outcome", PipelineMetrics.SUCCESS);
+                return response;
+            } catch (TurnCancelledException | IllegalArgumentException | ToolsUnsupportedException e) {
+                // Nobody is waiting for the answer, or the request itself is unsupported: not an endpoint failure
+                throw e;
+            } catch (RuntimeException e) {
+                lastError = e;
+                endpoint.recordFailure(failureThreshold, retryAfterNanos);
+                PipelineMetrics.increment("llm.route", "endpoint", endpoint.url, "model", modelName, "outcome", PipelineMetrics.ERROR);
+                log.warn("LLM endpoint {} failed ({}), {}", endpoint.url, e.getMessage(),
+                        tried.size() < endpoints.size() ? "failing over" : "no endpoints left");
+            } finally {
+                endpoint.outstanding.decrementAndGet();
+            }
+        }
+        throw lastError;
+    }
+
+    private Endpoint select(String key, List<Endpoint> tried) {
+        long now = System.nanoTime();
+        if (key != null) {
+            Endpoint bound = stickyEndpoints.get(key);
+            if (bound != null && !tried.contains(bound) && bound.isAvailable(now)) {
+                return bound;
+            }
+        }
+
+        int start = Math.floorMod(nextStart.getAndIncrement(), endpoints.size());
+        Endpoint best = null;
+        Endpoint fallback = null;
+        for (int i = 0; i < endpoints.size(); i++) {
+            Endpoint candidate = endpoints.get((start + i) % endpoints.size());
+            if (tried.contains(candidate)) {
+                continue;
+            }
+            if (fallback == null) {
+                fallback = candidate;
+            }
+            if (candidate.isAvailable(now) && (best == null || score(candidate) < score(best))) {
+                best = candidate;
+            }
+        }
+        // With every endpoint out of rotation, still try one rather than failing without a call
+        return best != null ? best : fallback;
+    }
+
+    private double score(Endpoint endpoint) {
+        double outstanding = endpoint.outstanding.get();
+        if (!latencyAware) {
+            return outstanding;
+        }
+        // Expected wait: the requests ahead of us plus ours, each taking the endpoint's recent latency
+        return (outstanding + 1) * Math.max(1.0, endpoint.ewmaMillis);
+    }
+
+    void checkHealth() {
+        for (Endpoint endpoint : endpoints) {
+            boolean healthy;
+            try {
+                healthy = healthProbe.test(endpoint.url);
+            } catch (RuntimeException e) {
+                healthy = false;
+            }
+            if (healthy != endpoint.healthy) {
+                log.info("LLM endpoint {} is now {}", endpoint.url, healthy ? "healthy" : "unhealthy");
+            }
+            endpoint.healthy = healthy;
+            if (healthy) {
+                endpoint.consecutiveFailures.set(0);
+                endpoint.downUntilNanos = 0;
+            }
+        }
+    }
+
+    List<String> healthyEndpoints() {
+        long now = System.nanoTime();
+        return endpoints.stream().filter(e -> e.isAvailable(now)).map(e -> e.url).toList();
+    }
+
+    @Override
+    public void forget(String conversationId) {
+        stickyEndpoints.remove(conversationId);
+        for (Endpoint endpoint : endpoints) {
+            if (endpoint.model instanceof ConversationAware aware) {
+                aware.forget(conversationId);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        if (healthChecks != null) {
+            healthChecks.shutdownNow();
+        }
+    }
+
+    /**
+     * Ollama answers {@code GET /api/version} cheaply, without loading a model
+     */
+    private static Predicate<String> httpProbe(Duration timeout) {
+        HttpClient client = HttpClient.newBuilder().connectTimeout(timeout).build();
+        return url -> {
+            try {
+                HttpRequest request = HttpRequest.newBuilder()
+                        .uri(URI.create(url.replaceAll("/+$", "") + "/api/version"))
+                        .timeout(timeout)
+                        .GET()
+                        .build();
+                int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                return status >= 200 && status < 300;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            } catch (Exception e) {
+                return false;
+            }
+        };
+    }
+
+    private static final class Endpoint {
+        private final String url;
+        private final ChatLanguageModel model;
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private final AtomicInteger consecutiveFailures = new AtomicInteger();
+        private volatile double ewmaMillis;
+        private volatile boolean healthy = true;
+        private volatile long downUntilNanos;
+
+        private Endpoint(String url, ChatLanguageModel model) {
+            this.url = url;
+            this.model = model;
+        }
+
+        private boolean isAvailable(long now) {
+            return healthy && (downUntilNanos == 0 || now - downUntilNanos >= 0);
+        }
+
+        private void recordSuccess(long elapsedNanos) {
+            double millis = elapsedNanos / 1_000_000.0;
+            ewmaMillis = ewmaMillis == 0 ? millis : ewmaMillis + EWMA_WEIGHT * (millis - ewmaMillis);
+            consecutiveFailures.set(0);
+            downUntilNanos = 0;
+        }
+
+        private void recordFailure(int threshold, long retryAfterNanos) {
+            if (consecutiveFailures.incrementAndGet() >= threshold) {
+                downUntilNanos = System.nanoTime() + retryAfterNanos;
+            }
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package org.shark.mentor.mcp.llm;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.model.StreamingResponseHandler;
+import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.chat.StreamingChatLanguageModel;
+import dev.langchain4j.model.output.Response;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Chat model that paces another model's answer like a real one: the first token arrives after
+ * {@code timeToFirstTokenMs} and the rest at {@code tokensPerSecond}. Streaming and blocking calls
+ * take the same total time, so backend overhead can be measured apart from model speed.
+ */
+public class SimulatedChatModel implements ChatLanguageModel, StreamingChatLanguageModel {
+
+    private static final AtomicInteger THREADS = new AtomicInteger();
+    private static final ExecutorService STREAMS = Executors.newCachedThreadPool(task -> {
+        Thread thread = new Thread(task, "simulated-llm-" + THREADS.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ChatLanguageModel content;
+    private final long timeToFirstTokenNanos;
+    private final long nanosPerToken;
+    private final int outputTokens;
+
+    /**
+     * @param content            model that decides what to answer
+     * @param timeToFirstTokenMs delay before the first token
+     * @param tokensPerSecond    decode speed; 0 or less emits every token at once
+     * @param outputTokens       when positive, replaces the answer with this many filler tokens
+     */
+    public SimulatedChatModel(ChatLanguageModel content, long timeToFirstTokenMs, double tokensPerSecond, int outputTokens) {
+        this.content = content;
+        this.timeToFirstTokenNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, timeToFirstTokenMs));
+        this.nanosPerToken = tokensPerSecond > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / tokensPerSecond) : 0L;
+        this.outputTokens = outputTokens;
+    }
+
+    @Override
+    public Response<AiMessage> generate(List<ChatMessage> messages) {
+        long start = System.nanoTime();
+        String answer = answer(messages);
+        int tokens = tokenize(answer).size();
+        sleepUntil(start + timeToFirstTokenNanos + Math.max(0, tokens - 1) * nanosPerToken);
+        return OfflineMessages.response(messages, answer);
+    }
+
+    @Override
+    public void generate(List<ChatMessage> messages, StreamingResponseHandler<AiMessage> handler) {
+        long start = System.nanoTime();
+        STREAMS.execute(() -> {
+            try {
+                String answer = answer(messages);
+                List<String> tokens = tokenize(answer);
+                for (int i = 0; i < tokens.size(); i++) {
+                    if (!sleepUntil(start + timeToFirstTokenNanos + i * nanosPerToken)) {
+                        handler.onError(new InterruptedException("Simulated generation interrupted"));
+                        return;
+                    }
+                    handler.onNext(tokens.get(i));
+                }
+                handler.onComplete(OfflineMessages.response(messages, answer));
+            } catch (RuntimeException e) {
+                handler.onError(e);
+            }
+        });
+    }
+
+    private String answer(List<ChatMessage> messages) {
+        if (outputTokens > 0) {
+            return "token ".repeat(outputTokens).trim();
+        }
+        String text = content.generate(messages).content().text();
+        return text != null ? text : "";
+    }
+
+    /**
+     * Splits the answer into word tokens, each keeping its trailing whitespace so they concatenate back
+     */
+    static List<String> tokenize(String answer) {
+        List<String> tokens = new ArrayList<>();
+        int start = 0;
+        int length = answer.length();
+        int i = 0;
+        while (i < length) {
+            while (i < length && !Character.isWhitespace(answer.charAt(i))) {
+                i++;
+            }
+            while (i < length && Character.isWhitespace(answer.charAt(i))) {
+                i++;
+            }
+            tokens.add(answer.substring(start, i));
+            start = i;
+        }
+        return tokens;
+    }
+
+    private static boolean sleepUntil(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+            if (Thread.interrupted()) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+}
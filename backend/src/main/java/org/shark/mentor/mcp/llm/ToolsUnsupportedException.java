@@ -0,0 +1,27 @@
+package org.shark.mentor.mcp.llm;
+
+import lombok.Getter;
+
+/**
+ * Thrown when a model refuses a generation because it cannot call tools at all, as opposed to a
+ * failure of one request, so callers can stop offering tools to that model
+ */
+@Getter
+public class ToolsUnsupportedException extends RuntimeException {
+
+    private final String model;
+
+    public ToolsUnsupportedException(String model, String message) {
+        super(message);
+        this.model = model;
+    }
+
+    /**
+     * Whether {@code e} is how langchain4j models without tool support ("Tools are currently not
+     * supported by this model") or Ollama ("... does not support tools") refuse tools
+     */
+    public static boolean isRefusal(Throwable e) {
+        String message = e.getMessage();
+        return message != null && (message.contains("Tools are currently not supported") || message.contains("does not support tools"));
+    }
+}
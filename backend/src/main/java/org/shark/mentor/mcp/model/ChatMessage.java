@@ -1,5 +1,6 @@
 package org.shark.mentor.mcp.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Data;
 import lombok.Builder;
 import lombok.NoArgsConstructor;
@@ -11,7 +12,7 @@ import java.util.UUID;
  * Represents a chat message in the MCP client
  */
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class ChatMessage {
@@ -21,6 +22,8 @@ public class ChatMessage {
     private String content;
     private long timestamp;
     private String serverId;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private TurnTimings timings;
 
     public static ChatMessage system(String content) {
         ChatMessage message = new ChatMessage();
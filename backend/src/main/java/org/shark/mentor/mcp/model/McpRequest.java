@@ -16,4 +16,11 @@ public class McpRequest {
     private String serverId;
     private String message;
     private String conversationId;
+    /**
+     * Identifies the sending client, e.g. a browser tab. When present, a newer message from the same
+     * client in the same conversation cancels the client's turn still in progress
+     */
+    private String clientId;
+    /** When true the response carries a per-stage {@link TurnTimings} breakdown */
+    private Boolean includeTimings;
 }
\ No newline at end of file
@@ -0,0 +1,26 @@
+package org.shark.mentor.mcp.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Per-stage timing breakdown of a chat turn, returned when the request sets {@code includeTimings}.
+ * Durations are in milliseconds measured with a monotonic clock; stages that did not run are omitted.
+ */
+@Data
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TurnTimings {
+
+    private Double serverLookupMs;
+    private Double toolSelectionMs;
+    private Double argumentExtractionMs;
+    private Double mcpRoundTripMs;
+    private Integer contextChars;
+    private Integer contextTokens;
+    private Double llmQueueWaitMs;
+    private Double llmGenerationMs;
+    private Double formattingMs;
+    private Double totalMs;
+}
@@ -0,0 +1,59 @@
+package org.shark.mentor.mcp.observability;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Lazy log argument for payloads such as tool results, JSON-RPC bodies or message content.
+ * The payload is only rendered when the log statement is enabled, and anything above
+ * {@link #getMaxChars()} characters is cut and tagged with its length and a short SHA-256
+ * so repeated payloads can still be correlated without writing them out.
+ */
+public final class LogPayload {
+
+    private static final int HASH_HEX_CHARS = 12;
+
+    private static volatile int maxChars = 512;
+
+    private final Object payload;
+
+    private LogPayload(Object payload) {
+        this.payload = payload;
+    }
+
+    public static LogPayload of(Object payload) {
+        return new LogPayload(payload);
+    }
+
+    public static int getMaxChars() {
+        return maxChars;
+    }
+
+    public static void setMaxChars(int limit) {
+        maxChars = Math.max(0, limit);
+    }
+
+    @Override
+    public String toString() {
+        if (payload == null) {
+            return "null";
+        }
+        String text = String.valueOf(payload);
+        int limit = maxChars;
+        if (text.length() <= limit) {
+            return text;
+        }
+        return text.substring(0, limit) + "… [" + text.length() + " chars, sha256=" + shortHash(text) + "]";
+    }
+
+    private static String shortHash(String text) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest).substring(0, HASH_HEX_CHARS);
+        } catch (NoSuchAlgorithmException e) {
+            return Integer.toHexString(text.hashCode());
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package org.shark.mentor.mcp.observability;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Static access point for the meters of the chat, MCP and LLM pipeline.
+ * Meters are registered in Micrometer's global registry, to which Spring Boot
+ * binds the actuator registries ({@code management.metrics.use-global-registry}),
+ * so services can be instrumented without changing their constructors.
+ */
+public final class PipelineMetrics {
+
+    public static final String SUCCESS = "success";
+    public static final String ERROR = "error";
+
+    private static final String UNKNOWN = "unknown";
+
+    private PipelineMetrics() {
+    }
+
+    public static Timer.Sample start() {
+        return Timer.start(Metrics.globalRegistry);
+    }
+
+    public static long stop(Timer.Sample sample, String name, String... tags) {
+        return sample.stop(timer(name, tags));
+    }
+
+    public static Timer timer(String name, String... tags) {
+        return Timer.builder(name)
+                .tags(sanitize(tags))
+                .publishPercentileHistogram()
+                .register(Metrics.globalRegistry);
+    }
+
+    public static void increment(String name, String... tags) {
+        Counter.builder(name)
+                .tags(sanitize(tags))
+                .register(Metrics.globalRegistry)
+                .increment();
+    }
+
+    public static void record(String name, String baseUnit, double amount, String... tags) {
+        DistributionSummary.builder(name)
+                .baseUnit(baseUnit)
+                .tags(sanitize(tags))
+                .publishPercentileHistogram()
+                .register(Metrics.globalRegistry)
+                .record(amount);
+    }
+
+    public static <T> void gauge(String name, String description, T target, ToDoubleFunction<T> value, String... tags) {
+        Gauge.builder(name, target, value)
+                .description(description)
+                .tags(sanitize(tags))
+                .register(Metrics.globalRegistry);
+    }
+
+    private static String[] sanitize(String... tags) {
+        String[] safe = new String[tags.length];
+        for (int i = 0; i < tags.length; i++) {
+            safe[i] = tags[i] != null && !tags[i].isEmpty() ? tags[i] : UNKNOWN;
+        }
+        return safe;
+    }
+}
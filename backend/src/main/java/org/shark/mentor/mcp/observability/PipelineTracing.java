@@ -0,0 +1,59 @@
+package org.shark.mentor.mcp.observability;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Static access point for the OpenTelemetry tracer used by the chat pipeline.
+ * Until {@link #install(OpenTelemetry)} is called (see {@code TracingConfig})
+ * every span is a no-op, which keeps unit tests and tools free of tracing setup.
+ */
+public final class PipelineTracing {
+
+    private static final String INSTRUMENTATION_SCOPE = "org.shark.mentor.mcp";
+
+    private static volatile OpenTelemetry openTelemetry = OpenTelemetry.noop();
+    private static volatile Tracer tracer = openTelemetry.getTracer(INSTRUMENTATION_SCOPE);
+
+    private PipelineTracing() {
+    }
+
+    public static void install(OpenTelemetry instance) {
+        openTelemetry = instance;
+        tracer = instance.getTracer(INSTRUMENTATION_SCOPE);
+    }
+
+    /**
+     * Starts a span as a child of the current context. Callers must make it current and end it.
+     */
+    public static Span startSpan(String name) {
+        return tracer.spanBuilder(name).startSpan();
+    }
+
+    public static Span startClientSpan(String name) {
+        return tracer.spanBuilder(name).setSpanKind(SpanKind.CLIENT).startSpan();
+    }
+
+    public static void fail(Span span, Throwable error) {
+        span.recordException(error);
+        span.setStatus(StatusCode.ERROR, error.getMessage() != null ? error.getMessage() : error.getClass().getSimpleName());
+    }
+
+    /**
+     * Builds the JSON-RPC {@code _meta} entries (W3C {@code traceparent}/{@code tracestate})
+     * that propagate the current trace to an MCP server. Empty when tracing is disabled.
+     */
+    public static Map<String, Object> traceMeta() {
+        Map<String, Object> meta = new HashMap<>();
+        openTelemetry.getPropagators().getTextMapPropagator()
+                .inject(Context.current(), meta, (carrier, key, value) -> carrier.put(key, value));
+        return meta;
+    }
+}
@@ -0,0 +1,82 @@
+package org.shark.mentor.mcp.observability;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Logback turbo filter that samples repetitive messages of selected logger categories.
+ * Within each period only the first {@code maxPerPeriod} events of a given message template
+ * are let through; the rest are denied before any formatting or appender work happens.
+ * WARN and ERROR events are never sampled.
+ */
+public class SamplingTurboFilter extends TurboFilter {
+
+    private static final int MAX_TRACKED_TEMPLATES = 10_000;
+
+    private final List<String> categories = new ArrayList<>();
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+    private int maxPerPeriod = 20;
+    private long periodMillis = 10_000;
+
+    public void addCategory(String category) {
+        categories.add(category);
+    }
+
+    public void setMaxPerPeriod(int maxPerPeriod) {
+        this.maxPerPeriod = maxPerPeriod;
+    }
+
+    public void setPeriodMillis(long periodMillis) {
+        this.periodMillis = periodMillis;
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (!isStarted() || format == null || level == null || level.isGreaterOrEqual(Level.WARN)
+                || !logger.isEnabledFor(level) || !inCategory(logger.getName())) {
+            return FilterReply.NEUTRAL;
+        }
+        if (windows.size() > MAX_TRACKED_TEMPLATES) {
+            windows.clear();
+        }
+        Window window = windows.computeIfAbsent(logger.getName() + '|' + format, k -> new Window());
+        return window.tryAcquire(System.currentTimeMillis(), periodMillis, maxPerPeriod)
+                ? FilterReply.NEUTRAL
+                : FilterReply.DENY;
+    }
+
+    private boolean inCategory(String loggerName) {
+        for (String category : categories) {
+            if (loggerName.startsWith(category)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class Window {
+        private volatile long start;
+        private final AtomicInteger count = new AtomicInteger();
+
+        boolean tryAcquire(long now, long periodMillis, int max) {
+            if (now - start >= periodMillis) {
+                synchronized (this) {
+                    if (now - start >= periodMillis) {
+                        start = now;
+                        count.set(0);
+                    }
+                }
+            }
+            return count.incrementAndGet() <= max;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package org.shark.mentor.mcp.observability.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Chat completion request to the configured LLM
+ */
+@Name("org.shark.mentor.mcp.LlmGeneration")
+@Label("LLM Generation")
+@Description("Chat completion request to the configured LLM")
+@Category({"MCP Client", "LLM"})
+@Enabled(false)
+@StackTrace(false)
+public class LlmGenerationEvent extends Event {
+
+    @Label("Model")
+    public String model;
+
+    @Label("Prompt Characters")
+    public int promptChars;
+
+    @Label("Response Characters")
+    public int responseChars;
+
+    @Label("Outcome")
+    public String outcome;
+}
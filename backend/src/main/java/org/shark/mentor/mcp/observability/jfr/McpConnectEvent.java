@@ -0,0 +1,30 @@
+package org.shark.mentor.mcp.observability.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Connection attempt to an MCP server
+ */
+@Name("org.shark.mentor.mcp.ServerConnect")
+@Label("MCP Server Connect")
+@Description("Connection attempt to an MCP server")
+@Category({"MCP Client", "MCP"})
+@Enabled(false)
+@StackTrace(false)
+public class McpConnectEvent extends Event {
+
+    @Label("Server")
+    public String server;
+
+    @Label("Protocol")
+    public String protocol;
+
+    @Label("Outcome")
+    public String outcome;
+}
@@ -0,0 +1,30 @@
+package org.shark.mentor.mcp.observability.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Health check ping sent to an MCP server
+ */
+@Name("org.shark.mentor.mcp.ServerPing")
+@Label("MCP Server Ping")
+@Description("Health check ping sent to an MCP server")
+@Category({"MCP Client", "MCP"})
+@Enabled(false)
+@StackTrace(false)
+public class McpPingEvent extends Event {
+
+    @Label("Server")
+    public String server;
+
+    @Label("Protocol")
+    public String protocol;
+
+    @Label("Reachable")
+    public boolean reachable;
+}
@@ -0,0 +1,42 @@
+package org.shark.mentor.mcp.observability.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JSON-RPC tools/call request to an MCP server
+ */
+@Name("org.shark.mentor.mcp.ToolCall")
+@Label("MCP tools/call")
+@Description("JSON-RPC tools/call request to an MCP server")
+@Category({"MCP Client", "MCP"})
+@Enabled(false)
+@StackTrace(false)
+public class McpToolCallEvent extends Event {
+
+    @Label("Server")
+    public String server;
+
+    @Label("Tool")
+    public String tool;
+
+    @Label("Transport")
+    public String transport;
+
+    @Label("Outcome")
+    public String outcome;
+
+    @Label("Bytes Out")
+    @DataAmount
+    public long bytesOut;
+
+    @Label("Bytes In")
+    @DataAmount
+    public long bytesIn;
+}
@@ -0,0 +1,38 @@
+package org.shark.mentor.mcp.observability.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Start or restart of an stdio MCP server process
+ */
+@Name("org.shark.mentor.mcp.StdioProcess")
+@Label("MCP Stdio Process")
+@Description("Start or restart of an stdio MCP server process")
+@Category({"MCP Client", "MCP"})
+@Enabled(false)
+@StackTrace(false)
+public class StdioProcessEvent extends Event {
+
+    @Label("Server")
+    public String server;
+
+    @Label("Action")
+    @Description("start or restart")
+    public String action;
+
+    @Label("Command")
+    @Description("Command line with environment variable values masked")
+    public String command;
+
+    @Label("PID")
+    public long pid;
+
+    @Label("Succeeded")
+    public boolean succeeded;
+}
@@ -0,0 +1,24 @@
+package org.shark.mentor.mcp.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.io.IOException;
+
+/**
+ * An MCP server answered a JSON-RPC batch with a single {@code -32600} error without id (or HTTP
+ * 400, 404, 405 or 415) instead of one response per request, which is how servers without batch
+ * support reply
+ */
+public class BatchRejectedException extends IOException {
+
+    public BatchRejectedException(String message) {
+        super(message);
+    }
+
+    /**
+     * Whether {@code response} is the Invalid Request error, without id, of a server that does not take batches
+     */
+    static boolean isRejection(JsonNode response) {
+        return !response.hasNonNull("id") && response.path("error").path("code").asInt() == -32600;
+    }
+}
@@ -2,14 +2,20 @@ package org.shark.mentor.mcp.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.context.Scope;
 import lombok.extern.slf4j.Slf4j;
+import org.shark.mentor.mcp.llm.LlmOverloadedException;
+import org.shark.mentor.mcp.llm.ModelRouter;
 import org.shark.mentor.mcp.model.ChatMessage;
 import org.shark.mentor.mcp.model.McpRequest;
 import org.shark.mentor.mcp.model.McpServer;
+import org.shark.mentor.mcp.observability.LogPayload;
+import org.shark.mentor.mcp.observability.PipelineMetrics;
+import org.shark.mentor.mcp.observability.PipelineTracing;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.io.InputStream;
-import java.io.OutputStream;
 import java.net.http.HttpClient;
 import java.time.Duration;
 import java.util.*;
@@ -20,9 +26,13 @@ import java.util.concurrent.ConcurrentHashMap;
 public class ChatService {
 
     private final Map<String, List<ChatMessage>> conversations = new ConcurrentHashMap<>();
+    /** The turn in progress per conversation and client; a newer message from that client cancels it */
+    private final Map<String, TurnCancellation> activeTurns = new ConcurrentHashMap<>();
     private final McpServerService mcpServerService;
     private final LlmService llmService;
     private final McpToolService mcpToolService;
+    private final ContextCompactor contextCompactor;
+    private final FastPathFormatter fastPathFormatter;
     private final ObjectMapper objectMapper = new ObjectMapper();
     
     // Optional dependencies for simplified implementation
@@ -34,10 +44,29 @@ public class ChatService {
                       LlmService llmService,
                       Optional<McpToolOrchestrator> mcpToolOrchestrator,
                       Optional<LlmServiceEnhanced> enhancedLlmService,
-                      McpToolService mcpToolService) {
+                      McpToolService mcpToolService,
+                      ContextCompactor contextCompactor) {
+        this(mcpServerService, llmService, mcpToolOrchestrator, enhancedLlmService, mcpToolService,
+                contextCompactor, FastPathFormatter.disabled());
+    }
+
+    @Autowired
+    public ChatService(McpServerService mcpServerService,
+                      LlmService llmService,
+                      Optional<McpToolOrchestrator> mcpToolOrchestrator,
+                      Optional<LlmServiceEnhanced> enhancedLlmService,
+                      McpToolService mcpToolService,
+                      ContextCompactor contextCompactor,
+                      FastPathFormatter fastPathFormatter) {
         this.mcpServerService = mcpServerService;
         this.llmService = llmService;
         this.mcpToolService = mcpToolService;
+        this.contextCompactor = contextCompactor;
+        this.fastPathFormatter = fastPathFormatter;
+
+        PipelineMetrics.gauge("chat.conversations", "Conversations held in memory", conversations, Map::size);
+        PipelineMetrics.gauge("chat.conversation.messages", "Messages held across all conversations", conversations,
+                store -> store.values().stream().mapToInt(List::size).sum());
 
         // Use simplified implementation if available
         this.mcpToolOrchestrator = mcpToolOrchestrator.orElse(null);
@@ -70,31 +99,64 @@ public class ChatService {
         log.info("Cleared conversation: {}", conversationId);
     }
 
+    /**
+     * Answers a message. The turn runs under the caller's {@link TurnCancellation}, if any. When the
+     * request names its client, a newer message from that client for the same conversation cancels it;
+     * messages from other clients, or without a client, never do.
+     */
     public ChatMessage sendMessage(McpRequest request) {
-        // Use simplified implementation if available
-        if (useSimplifiedImplementation) {
-            return sendMessageSimplified(request);
-        } else {
-            return sendMessageOriginal(request);
+        Span span = PipelineTracing.startSpan("chat.turn");
+        span.setAttribute("mcp.server.id", request.getServerId());
+        span.setAttribute("chat.conversation.id", request.getConversationId());
+        TurnCancellation cancellation = Optional.ofNullable(TurnCancellation.current()).orElseGet(TurnCancellation::new);
+        String conversationId = request.getConversationId() != null ? request.getConversationId() : "default";
+        // Conversation ids are shared (the UI uses one per server), so only the same client supersedes a turn
+        String turnKey = request.getClientId() != null ? conversationId + "/" + request.getClientId() : null;
+        TurnCancellation superseded = turnKey != null ? activeTurns.put(turnKey, cancellation) : null;
+        if (superseded != null) {
+            superseded.cancel("superseded");
+        }
+        try (Scope ignored = span.makeCurrent(); TurnCancellation.Handle turn = cancellation.open()) {
+            // Use simplified implementation if available
+            if (useSimplifiedImplementation) {
+                return sendMessageSimplified(request, TurnTimer.forRequest(request.getIncludeTimings()));
+            } else {
+                return sendMessageOriginal(request);
+            }
+        } catch (TurnCancelledException e) {
+            span.setAttribute("chat.cancelled", e.getReason());
+            PipelineMetrics.increment("chat.turn.cancelled", "reason", e.getReason());
+            log.info("Turn for conversation {} cancelled: {}", conversationId, e.getReason());
+            throw e;
+        } catch (RuntimeException e) {
+            PipelineTracing.fail(span, e);
+            throw e;
+        } finally {
+            if (turnKey != null) {
+                activeTurns.remove(turnKey, cancellation);
+            }
+            span.end();
         }
     }
 
-    private ChatMessage sendMessageSimplified(McpRequest request) {
+    private ChatMessage sendMessageSimplified(McpRequest request, TurnTimer timer) {
         String conversationId = request.getConversationId();
         if (conversationId == null) {
             conversationId = "default";
         }
 
         // Validar y obtener el servidor
+        long lookupStart = timer.now();
         Optional<McpServer> serverOpt = mcpServerService.getServer(request.getServerId());
+        timer.record(TurnTimer.Stage.SERVER_LOOKUP, lookupStart);
         if (serverOpt.isEmpty()) {
-            return createErrorMessage(request, "Servidor no encontrado: " + request.getServerId());
+            return withTimings(createErrorMessage(request, "Servidor no encontrado: " + request.getServerId()), timer);
         }
         McpServer server = serverOpt.get();
         if (!"CONNECTED".equals(server.getStatus())) {
             String errorDetails = server.getLastError() != null ? " (Error: " + server.getLastError() + ")" : "";
             String errorMessage = "The server is not connected: " + server.getName() + errorDetails + ". Use the connection button in the server list to attempt to connect.";
-            return createErrorMessage(request, errorMessage);
+            return withTimings(createErrorMessage(request, errorMessage), timer);
         }
 
         // Detect initial connection (empty message) - don't create initial message
@@ -131,16 +193,41 @@ public class ChatService {
         addMessageToConversation(conversationId, userMessage);
 
         try {
-            String context = mcpToolOrchestrator.executeTool(server, query);
+            ToolInvocation invocation = mcpToolOrchestrator.invoke(server, query, timer);
+            // Route on the raw tool output, then fit it to the token budget of the chosen model
+            ModelRouter.Decision route = enhancedLlmService.route(query, invocation.output(), invocation.toolName());
+            String context = compactContext(invocation, route.model());
 
             if (context == null || context.trim().isEmpty()) {
                 context = "No se encontraron resultados relevantes para la consulta.";
             }
+            timer.recordContext(context);
+
+            // A tool plan the model ended by answering already holds the reply; small, well-structured
+            // results are rendered directly. Either way another LLM round trip would add seconds and little else
+            long fastPathStart = timer.now();
+            String assistantContent = invocation.answer();
+            boolean planAnswer = assistantContent != null && !assistantContent.isBlank();
+            if (!planAnswer) {
+                assistantContent = fastPathFormatter.render(server, invocation.toolName(), invocation.output());
+            }
+            boolean fastPath = !planAnswer && assistantContent != null;
+            if (planAnswer || fastPath) {
+                timer.record(TurnTimer.Stage.FORMATTING, fastPathStart);
+                Span.current().setAttribute(planAnswer ? "chat.plan_answer" : "chat.fast_path", true);
+            } else {
+                TurnCancellation.checkpoint();
+                assistantContent = enhancedLlmService.generateWithMemory(conversationId, query, context,
+                        server.getId(), invocation.toolName(), route, timer);
+            }
 
-            String assistantContent = enhancedLlmService.generateWithMemory(conversationId, query, context);
-
-            if (assistantContent != null && assistantContent.startsWith("Error generating response:")) {
-                log.warn("LLM service returned error for conversation {}, using MCP context: {}", conversationId, assistantContent);
+            long formattingStart = timer.now();
+            if (planAnswer) {
+                log.info("Answered conversation {} with the tool plan's final answer", conversationId);
+            } else if (fastPath) {
+                log.info("Answered conversation {} from the fast path for tool {}", conversationId, invocation.toolName());
+            } else if (assistantContent != null && assistantContent.startsWith("Error generating response:")) {
+                log.warn("LLM service returned error for conversation {}, using MCP context: {}", conversationId, LogPayload.of(assistantContent));
                 assistantContent = formatMcpResponse(context, request.getMessage(), server.getName());
             } else {
                 log.info("LLM response successfully generated for conversation {}", conversationId);
@@ -153,18 +240,46 @@ public class ChatService {
                     .timestamp(System.currentTimeMillis())
                     .serverId(request.getServerId())
                     .build();
+            timer.record(TurnTimer.Stage.FORMATTING, formattingStart);
 
             addMessageToConversation(conversationId, assistantMessage);
 
             log.info("Message processed successfully for conversation {} using server {}", conversationId, server.getName());
 
-            return assistantMessage;
+            return withTimings(assistantMessage, timer);
 
+        } catch (LlmOverloadedException | TurnCancelledException e) {
+            // The turn gets no answer (the client retries or is gone), so it must not stay half-recorded
+            removeMessageFromConversation(conversationId, userMessage);
+            throw e;
         } catch (Exception e) {
             log.error("Error processing message in simplified implementation for conversation {}: {}", conversationId, e.getMessage(), e);
-            return createErrorMessage(request, "Error processing message: " + e.getMessage());
+            return withTimings(createErrorMessage(request, "Error processing message: " + e.getMessage()), timer);
         }
     }
+
+    /**
+     * Attaches the timing breakdown to the returned copy only, so stored conversations stay unchanged
+     */
+    private ChatMessage withTimings(ChatMessage message, TurnTimer timer) {
+        if (!timer.isEnabled()) {
+            return message;
+        }
+        return message.toBuilder().timings(timer.finish()).build();
+    }
+
+    private String compactContext(ToolInvocation invocation, String model) {
+        Span span = PipelineTracing.startSpan("mcp.context.compact");
+        try (Scope ignored = span.makeCurrent()) {
+            String compacted = contextCompactor.compact(invocation.toolName(), invocation.output(), model);
+            span.setAttribute("mcp.context.raw_chars", invocation.output() != null ? invocation.output().length() : 0);
+            span.setAttribute("mcp.context.compacted_chars", compacted != null ? compacted.length() : 0);
+            return compacted;
+        } finally {
+            span.end();
+        }
+    }
+
     private ChatMessage createErrorMessage(McpRequest request, String errorMessage) {
         return ChatMessage.builder()
                 .id(UUID.randomUUID().toString())
@@ -219,7 +334,7 @@ public class ChatService {
         return initialMessage;
     }
 
-    private String formatMcpResponse(String mcpContext, String userMessage, String serverName) {
+    String formatMcpResponse(String mcpContext, String userMessage, String serverName) {
         if (mcpContext == null || mcpContext.trim().isEmpty()) {
             return String.format("✅ Successfully contacted %s, but no specific data was returned for: \"%s\"",
                     serverName, userMessage);
@@ -368,20 +483,27 @@ public class ChatService {
         String protocol = extractProtocol(server.getUrl());
         String assistantContent;
 
-        if ("stdio".equalsIgnoreCase(protocol)) {
-            assistantContent = sendMessageViaStdio(server, request.getMessage());
-        } else if ("http".equalsIgnoreCase(protocol) || "https".equalsIgnoreCase(protocol)) {
-            assistantContent = sendMessageViaHttp(server, request.getMessage());
-        } else {
-            // Fallback to local LLM
-            ChatMessage contextMessage = ChatMessage.builder()
-                    .id(UUID.randomUUID().toString())
-                    .role("SYSTEM")
-                    .content("Context not implemented yet")
-                    .timestamp(System.currentTimeMillis())
-                    .serverId(request.getServerId())
-                    .build();
-            assistantContent = llmService.generate(request.getMessage(), contextMessage.getContent());
+        try {
+            if (McpServerService.usesStream(server.getUrl())) {
+                assistantContent = sendMessageViaStdio(server, request.getMessage());
+            } else if ("http".equalsIgnoreCase(protocol) || "https".equalsIgnoreCase(protocol)) {
+                assistantContent = sendMessageViaHttp(server, request.getMessage());
+            } else {
+                // Fallback to local LLM
+                ChatMessage contextMessage = ChatMessage.builder()
+                        .id(UUID.randomUUID().toString())
+                        .role("SYSTEM")
+                        .content("Context not implemented yet")
+                        .timestamp(System.currentTimeMillis())
+                        .serverId(request.getServerId())
+                        .build();
+                assistantContent = llmService.generate(request.getMessage(), contextMessage.getContent());
+            }
+            TurnCancellation.checkpoint();
+        } catch (LlmOverloadedException | TurnCancelledException e) {
+            // Same as the simplified path: a turn without an answer must not stay half-recorded
+            removeMessageFromConversation(conversationId, userMessage);
+            throw e;
         }
 
         ChatMessage assistantMessage = ChatMessage.builder()
@@ -397,9 +519,21 @@ public class ChatService {
         return assistantMessage;
     }
 
+    private void removeMessageFromConversation(String conversationId, ChatMessage message) {
+        conversations.computeIfPresent(conversationId, (id, messages) -> {
+            messages.remove(message);
+            return messages;
+        });
+    }
+
     private void addMessageToConversation(String conversationId, ChatMessage message) {
         conversations.computeIfAbsent(conversationId, k -> new ArrayList<>()).add(message);
-        log.info("Added message to conversation {}: {}", conversationId, message.getContent());
+        log.atInfo()
+                .addKeyValue("conversation", conversationId)
+                .addKeyValue("role", message.getRole())
+                .addKeyValue("chars", message.getContent() != null ? message.getContent().length() : 0)
+                .log("Added message to conversation");
+        log.debug("Message content for conversation {}: {}", conversationId, LogPayload.of(message.getContent()));
     }
 
     private String extractProtocol(String url) {
@@ -411,11 +545,9 @@ public class ChatService {
 
     private String sendMessageViaStdio(McpServer server, String message) {
         try {
-            Process process = mcpServerService.getStdioProcess(server.getId());
-            OutputStream stdin = mcpServerService.getStdioInput(server.getId());
-            InputStream stdout = mcpServerService.getStdioOutput(server.getId());
+            StdioConnection connection = mcpServerService.getStreamConnection(server.getId());
 
-            if (process == null || stdin == null || stdout == null) {
+            if (connection == null) {
                 log.error("STDIO process/streams not found for server {}", server.getId());
                 return "Error: STDIO process not available";
             }
@@ -431,9 +563,9 @@ public class ChatService {
                     toolSchema != null ? (Map<String, Object>) toolSchema.get("inputSchema") : null);
 
             // Use tools/call with the selected tool
-            String response = mcpToolService.callToolViaStdio(server, stdin, stdout, toolName, toolArgs);
+            String response = mcpToolService.callToolViaStdio(server, connection, toolName, toolArgs);
 
-            log.info("Stdio response from {}: {}", server.getName(), response);
+            log.debug("Stdio response from {}: {}", server.getName(), LogPayload.of(response));
             if (response == null) {
                 return "Error: No response from MCP server";
             }
@@ -447,7 +579,7 @@ public class ChatService {
                     return "Unexpected response from MCP server: " + response;
                 }
             } catch (Exception parseException) {
-                log.warn("Could not parse MCP response as JSON: {}", response);
+                log.warn("Could not parse MCP response as JSON: {}", LogPayload.of(response));
                 return response; // Return raw response if not JSON
             }
         } catch (Exception e) {
@@ -460,11 +592,11 @@ public class ChatService {
         try {
             // Retrieve available tools dynamically
             List<Map<String, Object>> availableTools = mcpToolService.getTools(server);
-            log.debug("Available tools on {}: {}", server.getName(), availableTools);
+            log.debug("Available tools on {}: {}", server.getName(), LogPayload.of(availableTools));
 
             // Select the best tool
             String selectedTool = mcpToolService.selectBestTool(message, server);
-            log.debug("Selected tool for '{}': {}", message, selectedTool);
+            log.debug("Selected tool for '{}': {}", LogPayload.of(message), selectedTool);
 
             // Extract arguments for the tool
             Map<String, Object> toolSchema = availableTools.stream()
@@ -473,7 +605,7 @@ public class ChatService {
                     .orElse(null);
             Map<String, Object> toolArgs = mcpToolService.extractToolArguments(message, selectedTool,
                     toolSchema != null ? (Map<String, Object>) toolSchema.get("inputSchema") : null);
-            log.debug("Extracted arguments: {}", toolArgs);
+            log.debug("Extracted arguments: {}", LogPayload.of(toolArgs));
 
             // Use tools/call with the selected tool
             String response = mcpToolService.callToolViaHttp(server, selectedTool, toolArgs);
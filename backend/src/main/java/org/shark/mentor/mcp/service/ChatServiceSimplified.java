@@ -2,6 +2,7 @@ package org.shark.mentor.mcp.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.shark.mentor.mcp.llm.LlmOverloadedException;
 import org.shark.mentor.mcp.model.ChatMessage;
 import org.shark.mentor.mcp.model.McpRequest;
 import org.shark.mentor.mcp.model.McpServer;
@@ -88,6 +89,10 @@ public class ChatServiceSimplified {
             
             return assistantMessage;
 
+        } catch (LlmOverloadedException | TurnCancelledException e) {
+            // The turn gets no answer, so it must not stay half-recorded
+            removeMessageFromConversation(conversationId, userMessage);
+            throw e;
         } catch (Exception e) {
             log.error("Error processing message for conversation {}: {}", conversationId, e.getMessage(), e);
             return createErrorMessage(request, "Error processing message: " + e.getMessage());
@@ -104,6 +109,13 @@ public class ChatServiceSimplified {
                 .build();
     }
 
+    private void removeMessageFromConversation(String conversationId, ChatMessage message) {
+        conversations.computeIfPresent(conversationId, (id, messages) -> {
+            messages.remove(message);
+            return messages;
+        });
+    }
+
     private void addMessageToConversation(String conversationId, ChatMessage message) {
         conversations.computeIfAbsent(conversationId, k -> new ArrayList<>()).add(message);
         log.debug("Added message to conversation {}: {} characters", 
@@ -0,0 +1,198 @@
+package org.shark.mentor.mcp.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Markdown template compiled once and rendered against JSON tool results. Supports a small
+ * Mustache-like subset:
+ * <ul>
+ *   <li>{@code {{path}}}: the value at a dotted path ({@code owner.login}); {@code {{.}}} is the current node</li>
+ *   <li>{@code {{#each path}}…{{/each}}}: repeats the block for each array item, which becomes the current node;
+ *       {@code {{@index}}} is the 1-based position</li>
+ *   <li>{@code {{#if path}}…{{/if}}}: renders the block when the value is present, non-empty and not false</li>
+ * </ul>
+ * Missing values render as empty strings; {@link #matches(JsonNode)} tells whether a result has the
+ * shape the template was written for.
+ */
+final class CompiledTemplate {
+
+    private interface Part {
+        void render(JsonNode node, int index, StringBuilder out, int maxItems);
+    }
+
+    private final List<Part> parts;
+    /** Paths of the top-level {@code {{path}}} and {@code {{#each path}}} tags */
+    private final List<String> requiredPaths;
+
+    private CompiledTemplate(List<Part> parts, List<String> requiredPaths) {
+        this.parts = parts;
+        this.requiredPaths = requiredPaths;
+    }
+
+    static CompiledTemplate compile(String template) {
+        Parser parser = new Parser(template);
+        List<Part> parts = parser.parseUntil(null);
+        return new CompiledTemplate(parts, List.copyOf(parser.requiredPaths));
+    }
+
+    /**
+     * Whether {@code root} is a JSON object or array in which every top-level path of the template
+     * resolves; {@code #if} blocks are optional by nature and not checked
+     */
+    boolean matches(JsonNode root) {
+        if (root == null || !root.isContainerNode()) {
+            return false;
+        }
+        for (String path : requiredPaths) {
+            JsonNode value = resolve(root, path);
+            if (value == null || value.isNull() || value.isMissingNode()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param maxItems upper bound on the items rendered by each {@code #each} block
+     */
+    String render(JsonNode root, int maxItems) {
+        StringBuilder out = new StringBuilder();
+        renderAll(parts, root, 0, out, maxItems);
+        return out.toString();
+    }
+
+    private static void renderAll(List<Part> parts, JsonNode node, int index, StringBuilder out, int maxItems) {
+        for (Part part : parts) {
+            part.render(node, index, out, maxItems);
+        }
+    }
+
+    private static JsonNode resolve(JsonNode node, String path) {
+        if (".".equals(path)) {
+            return node;
+        }
+        JsonNode current = node;
+        for (String segment : path.split("\\.")) {
+            if (current == null) {
+                return null;
+            }
+            current = current.isArray() && segment.chars().allMatch(Character::isDigit)
+                    ? current.get(Integer.parseInt(segment))
+                    : current.get(segment);
+        }
+        return current;
+    }
+
+    private static boolean truthy(JsonNode value) {
+        if (value == null || value.isNull() || value.isMissingNode()) {
+            return false;
+        }
+        if (value.isBoolean()) {
+            return value.asBoolean();
+        }
+        if (value.isContainerNode()) {
+            return !value.isEmpty();
+        }
+        return !value.asText().isEmpty();
+    }
+
+    private static final class Parser {
+        private final String template;
+        private final List<String> requiredPaths = new ArrayList<>();
+        private int position;
+
+        private Parser(String template) {
+            this.template = template;
+        }
+
+        /**
+         * Parses parts until the closing tag {@code end} (or the end of the template when null)
+         */
+        private List<Part> parseUntil(String end) {
+            List<Part> parts = new ArrayList<>();
+            while (position < template.length()) {
+                int open = template.indexOf("{{", position);
+                if (open < 0) {
+                    parts.add(literal(template.substring(position)));
+                    position = template.length();
+                    break;
+                }
+                if (open > position) {
+                    parts.add(literal(template.substring(position, open)));
+                }
+                int close = template.indexOf("}}", open);
+                if (close < 0) {
+                    throw new IllegalArgumentException("Unclosed tag at offset " + open);
+                }
+                String tag = template.substring(open + 2, close).trim();
+                position = close + 2;
+
+                if (tag.startsWith("/")) {
+                    if (!tag.substring(1).equals(end)) {
+                        throw new IllegalArgumentException("Unexpected {{" + tag + "}} at offset " + open);
+                    }
+                    return parts;
+                } else if (tag.startsWith("#each ")) {
+                    String path = tag.substring(6).trim();
+                    require(end, path);
+                    parts.add(each(path, parseUntil("each")));
+                } else if (tag.startsWith("#if ")) {
+                    String path = tag.substring(4).trim();
+                    parts.add(when(path, parseUntil("if")));
+                } else if ("@index".equals(tag)) {
+                    parts.add((node, index, out, maxItems) -> out.append(index));
+                } else {
+                    require(end, tag);
+                    parts.add(value(tag));
+                }
+            }
+            if (end != null) {
+                throw new IllegalArgumentException("Missing {{/" + end + "}}");
+            }
+            return parts;
+        }
+
+        private void require(String end, String path) {
+            if (end == null && !".".equals(path)) {
+                requiredPaths.add(path);
+            }
+        }
+
+        private static Part literal(String text) {
+            return (node, index, out, maxItems) -> out.append(text);
+        }
+
+        private static Part value(String path) {
+            return (node, index, out, maxItems) -> {
+                JsonNode value = resolve(node, path);
+                if (value != null && !value.isNull() && !value.isMissingNode()) {
+                    out.append(value.isValueNode() ? value.asText() : value.toString());
+                }
+            };
+        }
+
+        private static Part each(String path, List<Part> body) {
+            return (node, index, out, maxItems) -> {
+                JsonNode items = resolve(node, path);
+                if (items == null || !items.isArray()) {
+                    return;
+                }
+                int limit = Math.min(items.size(), maxItems);
+                for (int i = 0; i < limit; i++) {
+                    renderAll(body, items.get(i), i + 1, out, maxItems);
+                }
+            };
+        }
+
+        private static Part when(String path, List<Part> body) {
+            return (node, index, out, maxItems) -> {
+                if (truthy(resolve(node, path))) {
+                    renderAll(body, node, index, out, maxItems);
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package org.shark.mentor.mcp.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import lombok.extern.slf4j.Slf4j;
+import org.shark.mentor.mcp.config.LlmProperties;
+import org.shark.mentor.mcp.observability.PipelineMetrics;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * Fits MCP tool output into the prompt token budget of the model that answers the turn.
+ * JSON payloads are unwrapped from their JSON-RPC envelope, pruned (nulls and
+ * empty values dropped, duplicate array items removed, long arrays sampled,
+ * long strings shortened, per-tool field allow-lists applied) and finally
+ * truncated if they still exceed the budget.
+ */
+@Slf4j
+@Service
+public class ContextCompactor {
+
+    private static final int MIN_STRING_LENGTH = 80;
+    private static final String TRUNCATION_MARKER = "\n… [truncated to fit the context budget]";
+
+    private final LlmProperties props;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public ContextCompactor(LlmProperties props) {
+        this.props = props;
+    }
+
+    /**
+     * Compacts the output of {@code toolName} so it fits the token budget of the default model.
+     */
+    public String compact(String toolName, String context) {
+        return compact(toolName, context, props.getModel());
+    }
+
+    /**
+     * Compacts the output of {@code toolName} so it fits the token budget of {@code model}, the model
+     * the turn was routed to.
+     */
+    public String compact(String toolName, String context, String model) {
+        if (context == null || context.isBlank()) {
+            return context;
+        }
+        LlmProperties.Compaction config = props.getCompaction();
+        int rawEstimate = TokenEstimator.estimate(context);
+        recordContextTokens("raw", rawEstimate, model);
+        if (!config.isEnabled()) {
+            recordContextTokens("compacted", rawEstimate, model);
+            return context;
+        }
+
+        int budget = config.tokenBudgetFor(model);
+        JsonNode root = parseJson(context);
+        String compacted = root != null
+                ? compactJson(unwrap(root), allowedFields(config, toolName), config, budget)
+                : truncateToBudget(context.strip(), budget);
+
+        int compactedEstimate = TokenEstimator.estimate(compacted);
+        recordContextTokens("compacted", compactedEstimate, model);
+        log.debug("Compacted output of tool {} from ~{} to ~{} tokens (budget {})",
+                toolName, rawEstimate, compactedEstimate, budget);
+        return compacted;
+    }
+
+    /**
+     * The JSON payload of a tool result without its JSON-RPC envelope, or null when it is not JSON
+     */
+    JsonNode payload(String output) {
+        JsonNode root = output != null ? parseJson(output) : null;
+        return root != null ? unwrap(root) : null;
+    }
+
+    private String compactJson(JsonNode payload, Set<String> allowed, LlmProperties.Compaction config, int budget) {
+        int maxItems = Math.max(1, config.getMaxArrayItems());
+        int maxChars = Math.max(MIN_STRING_LENGTH, config.getMaxStringLength());
+        String serialized;
+        while (true) {
+            JsonNode pruned = prune(payload, allowed, maxItems, maxChars);
+            serialized = pruned == null ? "" : pruned.toString();
+            boolean exhausted = maxItems == 1 && maxChars == MIN_STRING_LENGTH;
+            if (exhausted || TokenEstimator.estimate(serialized) <= budget) {
+                break;
+            }
+            maxItems = Math.max(1, maxItems / 2);
+            maxChars = Math.max(MIN_STRING_LENGTH, maxChars / 2);
+        }
+        return truncateToBudget(serialized, budget);
+    }
+
+    /**
+     * Strips the JSON-RPC envelope and decodes JSON embedded in MCP text content parts.
+     */
+    private JsonNode unwrap(JsonNode root) {
+        if (root.has("error")) {
+            return root;
+        }
+        JsonNode node = root.has("jsonrpc") && root.has("result") ? root.get("result") : root;
+        JsonNode content = node.get("content");
+        if (content == null || !content.isArray() || node.path("isError").asBoolean(false)) {
+            return node;
+        }
+        ArrayNode parts = objectMapper.createArrayNode();
+        for (JsonNode part : content) {
+            JsonNode text = part.get("text");
+            if (text != null && text.isTextual()) {
+                JsonNode embedded = parseJson(text.asText());
+                parts.add(embedded != null ? embedded : text);
+            } else {
+                parts.add(part);
+            }
+        }
+        return parts.size() == 1 ? parts.get(0) : parts;
+    }
+
+    private JsonNode prune(JsonNode node, Set<String> allowed, int maxItems, int maxChars) {
+        if (node.isObject()) {
+            ObjectNode result = objectMapper.createObjectNode();
+            boolean restrict = !allowed.isEmpty() && hasAnyField(node, allowed);
+            Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                if (restrict && !allowed.contains(field.getKey())) {
+                    continue;
+                }
+                JsonNode value = prune(field.getValue(), allowed, maxItems, maxChars);
+                if (!isEmpty(value)) {
+                    result.set(field.getKey(), value);
+                }
+            }
+            return result;
+        }
+        if (node.isArray()) {
+            ArrayNode result = objectMapper.createArrayNode();
+            Set<JsonNode> distinct = new HashSet<>();
+            int omitted = 0;
+            for (JsonNode item : node) {
+                JsonNode value = prune(item, allowed, maxItems, maxChars);
+                if (isEmpty(value) || !distinct.add(value)) {
+                    continue;
+                }
+                if (result.size() < maxItems) {
+                    result.add(value);
+                } else {
+                    omitted++;
+                }
+            }
+            if (omitted > 0) {
+                result.add("… " + omitted + " more items omitted");
+            }
+            return result;
+        }
+        if (node.isTextual() && node.asText().length() > maxChars) {
+            return TextNode.valueOf(node.asText().substring(0, maxChars) + "…");
+        }
+        return node;
+    }
+
+    private boolean hasAnyField(JsonNode node, Set<String> allowed) {
+        for (String field : allowed) {
+            if (node.has(field)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isEmpty(JsonNode node) {
+        return node == null
+                || node.isNull()
+                || node.isMissingNode()
+                || (node.isContainerNode() && node.isEmpty())
+                || (node.isTextual() && node.asText().isBlank());
+    }
+
+    private String truncateToBudget(String text, int budget) {
+        if (TokenEstimator.estimate(text) <= budget) {
+            return text;
+        }
+        int targetTokens = Math.max(0, budget - TokenEstimator.estimate(TRUNCATION_MARKER));
+        int low = 0;
+        int high = text.length();
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (TokenEstimator.estimate(text.substring(0, mid)) <= targetTokens) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return text.substring(0, low) + TRUNCATION_MARKER;
+    }
+
+    private Set<String> allowedFields(LlmProperties.Compaction config, String toolName) {
+        if (toolName == null) {
+            return Collections.emptySet();
+        }
+        List<String> fields = config.getToolFields().get(toolName);
+        return fields == null ? Collections.emptySet() : new HashSet<>(fields);
+    }
+
+    private JsonNode parseJson(String text) {
+        String trimmed = text.trim();
+        if (!(trimmed.startsWith("{") || trimmed.startsWith("["))) {
+            return null;
+        }
+        try {
+            return objectMapper.readTree(trimmed);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private void recordContextTokens(String stage, int tokens, String model) {
+        PipelineMetrics.record("mcp.context.tokens", "tokens", tokens, "stage", stage, "model", model);
+    }
+}
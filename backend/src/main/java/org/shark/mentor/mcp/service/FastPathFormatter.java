@@ -0,0 +1,185 @@
+package org.shark.mentor.mcp.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.extern.slf4j.Slf4j;
+import org.shark.mentor.mcp.config.McpProperties;
+import org.shark.mentor.mcp.model.McpServer;
+import org.shark.mentor.mcp.observability.PipelineMetrics;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Renders small, well-structured tool results deterministically so the turn can skip the LLM.
+ * Per-tool markdown templates are compiled once at startup; without one, a result is only
+ * rendered when {@code genericShapes} is on and it is a list of named items or a flat object.
+ */
+@Slf4j
+@Service
+public class FastPathFormatter {
+
+    private static final List<String> LABEL_FIELDS = List.of("full_name", "name", "title", "id");
+    private static final List<String> DESCRIPTION_FIELDS = List.of("description", "summary", "body");
+    private static final int MAX_FLAT_FIELDS = 12;
+
+    private final McpProperties.FastPath config;
+    private final ContextCompactor contextCompactor;
+    private final Map<String, CompiledTemplate> templates = new HashMap<>();
+
+    public FastPathFormatter(McpProperties properties, ContextCompactor contextCompactor) {
+        this.config = properties.getFastPath();
+        this.contextCompactor = contextCompactor;
+        config.getTools().forEach((tool, settings) -> {
+            if (settings.getTemplate() != null && !settings.getTemplate().isBlank()) {
+                try {
+                    templates.put(tool, CompiledTemplate.compile(settings.getTemplate()));
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Invalid fast-path template for tool " + tool + ": " + e.getMessage(), e);
+                }
+            }
+        });
+        if (config.isEnabled()) {
+            log.info("Fast-path formatting enabled for tools {} (generic shapes: {})", templates.keySet(), config.isGenericShapes());
+        }
+    }
+
+    /**
+     * A formatter that never renders, for callers built without one
+     */
+    public static FastPathFormatter disabled() {
+        McpProperties properties = new McpProperties();
+        properties.getFastPath().setEnabled(false);
+        return new FastPathFormatter(properties, null);
+    }
+
+    /**
+     * Renders the tool result as the final answer, or returns null when the LLM should answer
+     */
+    public String render(McpServer server, String toolName, String output) {
+        if (!config.isEnabled() || toolName == null || output == null) {
+            return null;
+        }
+        if (!config.getServers().isEmpty() && !config.getServers().contains(server.getId())) {
+            return null;
+        }
+        McpProperties.ToolFastPath tool = config.getTools().get(toolName);
+        if (tool != null && Boolean.FALSE.equals(tool.getEnabled())) {
+            return null;
+        }
+        int maxChars = tool != null && tool.getMaxChars() != null ? tool.getMaxChars() : config.getMaxChars();
+        if (output.length() > maxChars) {
+            PipelineMetrics.increment("chat.fastpath", "tool", toolName, "outcome", "too_large");
+            return null;
+        }
+        JsonNode payload = contextCompactor.payload(output);
+        // Plain text comes back as a text node: only structured results are rendered
+        if (payload == null || !payload.isContainerNode() || payload.has("error")
+                || payload.path("isError").asBoolean(false)) {
+            return null;
+        }
+
+        CompiledTemplate template = templates.get(toolName);
+        String body;
+        if (template != null) {
+            body = template.matches(payload) ? template.render(payload, config.getMaxItems()) : null;
+        } else {
+            body = config.isGenericShapes() ? renderGeneric(payload) : null;
+        }
+        if (body == null || body.isBlank()) {
+            PipelineMetrics.increment("chat.fastpath", "tool", toolName, "outcome", "no_match");
+            return null;
+        }
+        PipelineMetrics.increment("chat.fastpath", "tool", toolName, "outcome", "rendered");
+        String serverName = server.getName() != null && !server.getName().isBlank() ? server.getName() : server.getId();
+        return String.format("✅ **Response from %s**\n\n%s\n\n💡 *Information provided by %s*",
+                serverName, body.strip(), serverName);
+    }
+
+    private String renderGeneric(JsonNode payload) {
+        if (payload.isArray()) {
+            return renderNamedItems(payload);
+        }
+        if (payload.isObject()) {
+            JsonNode items = singleArrayField(payload);
+            return items != null ? renderNamedItems(items) : renderFlatObject(payload);
+        }
+        return null;
+    }
+
+    /**
+     * Wrapped lists such as {@code {"total_count": 3, "items": [...]}}
+     */
+    private static JsonNode singleArrayField(JsonNode object) {
+        JsonNode found = null;
+        for (JsonNode value : object) {
+            if (value.isArray()) {
+                if (found != null) {
+                    return null;
+                }
+                found = value;
+            } else if (value.isContainerNode()) {
+                return null;
+            }
+        }
+        return found;
+    }
+
+    private String renderNamedItems(JsonNode items) {
+        if (items.isEmpty()) {
+            return null;
+        }
+        StringBuilder out = new StringBuilder();
+        int rendered = 0;
+        for (JsonNode item : items) {
+            String label = firstText(item, LABEL_FIELDS);
+            if (label == null) {
+                return null;
+            }
+            if (rendered++ == config.getMaxItems()) {
+                out.append("- … ").append(items.size() - config.getMaxItems()).append(" more\n");
+                break;
+            }
+            out.append("- **").append(label).append("**");
+            String description = firstText(item, DESCRIPTION_FIELDS);
+            if (description != null) {
+                out.append(": ").append(description);
+            }
+            out.append('\n');
+        }
+        return out.toString();
+    }
+
+    private static String renderFlatObject(JsonNode object) {
+        if (object.isEmpty() || object.size() > MAX_FLAT_FIELDS) {
+            return null;
+        }
+        StringBuilder out = new StringBuilder();
+        Iterator<Map.Entry<String, JsonNode>> fields = object.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            if (!field.getValue().isValueNode()) {
+                return null;
+            }
+            if (!field.getValue().isNull()) {
+                out.append("- **").append(field.getKey()).append(":** ").append(field.getValue().asText()).append('\n');
+            }
+        }
+        return out.toString();
+    }
+
+    private static String firstText(JsonNode item, List<String> fields) {
+        if (!item.isObject()) {
+            return null;
+        }
+        for (String field : fields) {
+            JsonNode value = item.get(field);
+            if (value != null && value.isValueNode() && !value.isNull() && !value.asText().isBlank()) {
+                return value.asText();
+            }
+        }
+        return null;
+    }
+}
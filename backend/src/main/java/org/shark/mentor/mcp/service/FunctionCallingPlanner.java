@@ -0,0 +1,194 @@
+package org.shark.mentor.mcp.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.langchain4j.agent.tool.ToolExecutionRequest;
+import dev.langchain4j.agent.tool.ToolSpecification;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.SystemMessage;
+import dev.langchain4j.data.message.ToolExecutionResultMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.output.Response;
+import lombok.extern.slf4j.Slf4j;
+import org.shark.mentor.mcp.config.LlmProperties;
+import org.shark.mentor.mcp.llm.LlmOverloadedException;
+import org.shark.mentor.mcp.llm.ToolsUnsupportedException;
+import org.shark.mentor.mcp.model.McpServer;
+import org.shark.mentor.mcp.observability.LogPayload;
+import org.shark.mentor.mcp.observability.PipelineMetrics;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Function-calling tool selection: the server's tool schemas are offered to the model as
+ * {@link ToolSpecification}s and the model picks the tools and fills in their arguments.
+ * A {@link Session} keeps the exchange so tool results can be fed back for multi-step plans.
+ * Callers fall back to the heuristics in {@link McpToolService} when the mode is off, the model
+ * has no tool support, or its first answer holds no usable call.
+ */
+@Slf4j
+@Service
+public class FunctionCallingPlanner {
+
+    private static final String SYSTEM_PROMPT = """
+            You gather the data that answers the user's request with the MCP tools. Take the arguments
+            from the request or from earlier tool results; do not invent values. Calls that do not depend
+            on each other can be requested together. Once you have what the request needs, or if no
+            tool fits, answer without calling a tool.
+            """;
+    private static final TypeReference<Map<String, Object>> ARGUMENTS = new TypeReference<>() {
+    };
+
+    private final LlmProperties.FunctionCalling config;
+    private final LlmServiceEnhanced llmService;
+    private final LlmProperties props;
+    private final ToolSpecificationCache specifications = new ToolSpecificationCache();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    /** Models that refused tools; other failures only send their own turn to the heuristics */
+    private final Set<String> unsupportedModels = ConcurrentHashMap.newKeySet();
+
+    /**
+     * A tool to call with the arguments the model produced; {@code id} ties the result back to the request
+     */
+    public record ToolCall(String id, String name, Map<String, Object> arguments) {
+    }
+
+    public FunctionCallingPlanner(LlmProperties props, LlmServiceEnhanced llmService) {
+        this.props = props;
+        this.config = props.getFunctionCalling();
+        this.llmService = llmService;
+        if (config.isEnabled()) {
+            log.info("Function-calling tool selection enabled");
+        }
+    }
+
+    /**
+     * A planner that always leaves the choice to the heuristics, for callers built without one
+     */
+    public static FunctionCallingPlanner disabled() {
+        return new FunctionCallingPlanner(new LlmProperties(), null);
+    }
+
+    public boolean isEnabled() {
+        return config.isEnabled() && !unsupportedModels.contains(String.valueOf(props.getModel()));
+    }
+
+    /**
+     * Starts a plan for {@code message}, or returns null when the heuristics should decide
+     */
+    public Session start(McpServer server, String message, List<Map<String, Object>> tools) {
+        if (!isEnabled() || tools.isEmpty()) {
+            return null;
+        }
+        return new Session(server, message, specifications.forCatalog(server, tools));
+    }
+
+    /**
+     * The exchange with the model for one turn: each {@link #next()} asks for the tool calls that
+     * follow from the results added so far.
+     */
+    public final class Session {
+
+        private final McpServer server;
+        private final List<ToolSpecification> catalog;
+        private final List<ChatMessage> messages = new ArrayList<>();
+        private String answer;
+
+        private Session(McpServer server, String message, List<ToolSpecification> catalog) {
+            this.server = server;
+            this.catalog = catalog;
+            messages.add(SystemMessage.from(SYSTEM_PROMPT));
+            messages.add(UserMessage.from(message));
+        }
+
+        /**
+         * The tool calls the model requests next, in the order it made them. Empty once the model
+         * answers without calling a tool; null when the answer could not be used at all.
+         */
+        public List<ToolCall> next() {
+            if (!isEnabled()) {
+                return null;
+            }
+            Response<AiMessage> response;
+            try {
+                response = llmService.generateWithTools(messages, catalog);
+            } catch (LlmOverloadedException | TurnCancelledException e) {
+                throw e;
+            } catch (ToolsUnsupportedException e) {
+                unsupportedModels.add(String.valueOf(e.getModel()));
+                log.warn("Function calling turned off for model {}: it does not support tools ({})", e.getModel(), e.getMessage());
+                return null;
+            } catch (RuntimeException e) {
+                log.warn("Function-calling tool selection failed for {}, using heuristics: {}", server.getName(), e.getMessage());
+                count("error");
+                return null;
+            }
+
+            AiMessage reply = response.content();
+            if (!reply.hasToolExecutionRequests()) {
+                log.info("Model called no further tool of {}", server.getName());
+                count("no_call");
+                answer = reply.text();
+                return List.of();
+            }
+            List<ToolCall> calls = new ArrayList<>();
+            for (ToolExecutionRequest request : reply.toolExecutionRequests()) {
+                ToolCall call = toToolCall(request);
+                if (call != null) {
+                    calls.add(call);
+                }
+            }
+            if (calls.isEmpty()) {
+                return null;
+            }
+            messages.add(reply);
+            count("planned");
+            return calls;
+        }
+
+        /**
+         * What the model said when it last answered without calling a tool, or null
+         */
+        public String answer() {
+            return answer;
+        }
+
+        /**
+         * Feeds the result of {@code call} back to the model for the next step
+         */
+        public void addResult(ToolCall call, String result) {
+            messages.add(ToolExecutionResultMessage.from(call.id(), call.name(), result != null ? result : ""));
+        }
+
+        private ToolCall toToolCall(ToolExecutionRequest request) {
+            if (catalog.stream().noneMatch(spec -> spec.name().equals(request.name()))) {
+                log.warn("Model called unknown tool '{}' on {}", request.name(), server.getName());
+                count("unknown_tool");
+                return null;
+            }
+            Map<String, Object> arguments;
+            try {
+                String json = request.arguments();
+                arguments = json == null || json.isBlank() ? Map.of() : objectMapper.readValue(json, ARGUMENTS);
+            } catch (IOException e) {
+                log.warn("Model produced invalid arguments for '{}': {}", request.name(), LogPayload.of(request.arguments()));
+                count("invalid_arguments");
+                return null;
+            }
+            log.info("Model selected tool '{}' with arguments {}", request.name(), LogPayload.of(arguments));
+            String id = request.id() != null ? request.id() : request.name();
+            return new ToolCall(id, request.name(), arguments);
+        }
+
+        private void count(String outcome) {
+            PipelineMetrics.increment("mcp.tool.plan", "server", server.getId(), "outcome", outcome);
+        }
+    }
+}
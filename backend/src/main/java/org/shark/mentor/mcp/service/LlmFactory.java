@@ -3,13 +3,99 @@ package org.shark.mentor.mcp.service;
 import dev.langchain4j.model.ollama.OllamaChatModel;
 import dev.langchain4j.model.chat.ChatLanguageModel;
 import lombok.extern.slf4j.Slf4j;
+import org.shark.mentor.mcp.config.LlmProperties;
+import org.shark.mentor.mcp.llm.ConversationContextCache;
+import org.shark.mentor.mcp.llm.EchoChatModel;
+import org.shark.mentor.mcp.llm.OllamaClient;
+import org.shark.mentor.mcp.llm.OllamaContextChatModel;
+import org.shark.mentor.mcp.llm.ReplayChatModel;
+import org.shark.mentor.mcp.llm.RoutingChatModel;
+import org.shark.mentor.mcp.llm.SimulatedChatModel;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 
 /**
  * Factory for creating ChatLanguageModel instances with langchain4j best practices
  */
 @Slf4j
 public class LlmFactory {
-    
+
+    /**
+     * Creates the model configured under {@code llm.*}, including the offline providers
+     * ({@code echo}, {@code replay} and {@code simulated}) that run without Ollama
+     */
+    public static ChatLanguageModel createChatModel(LlmProperties props) {
+        return createChatModel(props, props.getModel());
+    }
+
+    /**
+     * Same as {@link #createChatModel(LlmProperties)} for another model of the configured provider
+     */
+    public static ChatLanguageModel createChatModel(LlmProperties props, String model) {
+        return createChatModel(props, model, new ConversationContextCache(props.getContextReuse().getMaxConversations()));
+    }
+
+    /**
+     * Same as {@link #createChatModel(LlmProperties, String)}, keeping Ollama conversation contexts in
+     * {@code contexts}; models sharing one cache drop a conversation's context when it moves between them
+     */
+    public static ChatLanguageModel createChatModel(LlmProperties props, String model, ConversationContextCache contexts) {
+        String provider = props.getProvider() != null ? props.getProvider().toLowerCase(Locale.ROOT) : "";
+        switch (provider) {
+            case "echo":
+                log.info("Creating offline LLM model: provider=echo");
+                return new EchoChatModel(props.getEcho().getTemplate());
+            case "replay":
+                log.info("Creating offline LLM model: provider=replay, file={}", props.getReplay().getFile());
+                return ReplayChatModel.fromFile(props.getReplay().getFile());
+            case "simulated":
+                return createSimulatedModel(props);
+            default:
+                List<String> endpoints = props.getApi().endpoints();
+                if (endpoints.size() > 1) {
+                    return createRoutingModel(props, model, endpoints, contexts);
+                }
+                return createEndpointModel(props, model, endpoints.isEmpty() ? null : endpoints.get(0), contexts);
+        }
+    }
+
+    private static RoutingChatModel createRoutingModel(LlmProperties props, String model, List<String> endpoints,
+                                                       ConversationContextCache contexts) {
+        Map<String, ChatLanguageModel> models = new LinkedHashMap<>();
+        for (String endpoint : endpoints) {
+            models.put(endpoint, createEndpointModel(props, model, endpoint, contexts));
+        }
+        return new RoutingChatModel(model, models, props.getRouting());
+    }
+
+    private static ChatLanguageModel createEndpointModel(LlmProperties props, String model, String endpoint,
+                                                         ConversationContextCache contexts) {
+        LlmProperties.ContextReuse reuse = props.getContextReuse();
+        if (reuse.isEnabled() && "ollama".equalsIgnoreCase(props.getProvider())) {
+            log.info("Creating LLM model: provider=ollama (context reuse), model={}, baseUrl={}", model, endpoint);
+            OllamaClient client = new OllamaClient(endpoint, Duration.ofMinutes(2));
+            return new OllamaContextChatModel(client, model, reuse.getTemperature(),
+                    props.getWarmup().forModel(model).getKeepAlive(),
+                    reuse.getMaxContextTokens(), contexts);
+        }
+        return createChatModel(props.getProvider(), model, endpoint, props.getApi().getKey());
+    }
+
+    private static SimulatedChatModel createSimulatedModel(LlmProperties props) {
+        LlmProperties.Simulated simulated = props.getSimulated();
+        log.info("Creating offline LLM model: provider=simulated, content={}, ttftMs={}, tokensPerSecond={}, outputTokens={}",
+                simulated.getContent(), simulated.getTimeToFirstTokenMs(), simulated.getTokensPerSecond(), simulated.getOutputTokens());
+        ChatLanguageModel content = "replay".equalsIgnoreCase(simulated.getContent())
+                ? ReplayChatModel.fromFile(props.getReplay().getFile())
+                : new EchoChatModel(props.getEcho().getTemplate());
+        return new SimulatedChatModel(content, simulated.getTimeToFirstTokenMs(),
+                simulated.getTokensPerSecond(), simulated.getOutputTokens());
+    }
+
     public static ChatLanguageModel createChatModel(String provider, String model, String baseUrl, String apiKey) {
         log.info("Creating LLM model: provider={}, model={}, baseUrl={}", provider, model, baseUrl);
         
@@ -0,0 +1,48 @@
+package org.shark.mentor.mcp.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Reports whether the configured models have been loaded and are still resident. Part of the
+ * readiness group, so traffic is only routed here once the first load has been paid. With
+ * {@code llm.warmup.gate-readiness} off a model that is not loaded yet leaves the status UP and is
+ * only reported as {@code ready: false}.
+ */
+@Component("llmModel")
+@RequiredArgsConstructor
+public class LlmModelHealthIndicator implements HealthIndicator {
+
+    private final ModelWarmupService warmupService;
+
+    @Override
+    public Health health() {
+        if (!warmupService.isApplicable()) {
+            return Health.up().withDetail("warmup", "not applicable").build();
+        }
+        boolean ready = warmupService.isReady();
+        Health.Builder builder = ready || !warmupService.gatesReadiness() ? Health.up() : Health.outOfService();
+        builder.withDetail("ready", ready);
+        for (ModelWarmupService.Target target : warmupService.getTargets()) {
+            Map<String, Object> details = new LinkedHashMap<>();
+            details.put("warmedUp", target.isWarmedUp());
+            details.put("resident", target.isResident());
+            if (target.getExpiresAt() != null) {
+                details.put("expiresAt", target.getExpiresAt());
+            }
+            if (target.getLastLoadMs() != null) {
+                details.put("lastLoadMs", target.getLastLoadMs());
+            }
+            if (target.getLastError() != null) {
+                details.put("lastError", target.getLastError());
+            }
+            builder.withDetail(target.getModel() + "@" + target.getEndpoint(), details);
+        }
+        return builder.build();
+    }
+}
@@ -1,18 +1,38 @@
 package org.shark.mentor.mcp.service;
 
+import dev.langchain4j.agent.tool.ToolSpecification;
+import dev.langchain4j.data.message.AiMessage;
 import dev.langchain4j.data.message.ChatMessage;
 import dev.langchain4j.data.message.SystemMessage;
 import dev.langchain4j.data.message.UserMessage;
 import dev.langchain4j.memory.ChatMemory;
 import dev.langchain4j.memory.chat.MessageWindowChatMemory;
 import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.output.Response;
+import dev.langchain4j.model.output.TokenUsage;
+import io.micrometer.core.instrument.Timer;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.context.Scope;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.shark.mentor.mcp.config.LlmProperties;
+import org.shark.mentor.mcp.llm.ConversationAware;
+import org.shark.mentor.mcp.llm.ConversationContextCache;
+import org.shark.mentor.mcp.llm.ConversationScope;
+import org.shark.mentor.mcp.llm.LlmOverloadedException;
+import org.shark.mentor.mcp.llm.ToolsUnsupportedException;
+import org.shark.mentor.mcp.llm.LlmRequestScheduler;
+import org.shark.mentor.mcp.llm.ModelRouter;
+import org.shark.mentor.mcp.llm.PromptTemplateRegistry;
+import org.shark.mentor.mcp.observability.LogPayload;
+import org.shark.mentor.mcp.observability.PipelineMetrics;
+import org.shark.mentor.mcp.observability.PipelineTracing;
+import org.shark.mentor.mcp.observability.jfr.LlmGenerationEvent;
 import org.springframework.context.annotation.Primary;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.Map;
@@ -29,20 +49,57 @@ public class LlmServiceEnhanced implements LlmService {
 
     private final LlmProperties props;
     private ChatLanguageModel chatModel;
+    private Map<String, ChatLanguageModel> routeModels = Map.of();
+    private ModelRouter modelRouter = new ModelRouter(new LlmProperties.ModelRouting(), null);
+    private LlmRequestScheduler scheduler = LlmRequestScheduler.unbounded();
+    private PromptTemplateRegistry promptTemplates = new PromptTemplateRegistry();
+    private volatile long lastActivityMillis = System.currentTimeMillis();
     private final Map<String, ChatMemory> conversationMemories = new ConcurrentHashMap<>();
 
     @jakarta.annotation.PostConstruct
     public void initModel() {
         log.info("Initializing enhanced LLM model with provider: {}", props.getProvider());
-        chatModel = LlmFactory.createChatModel(
-                props.getProvider(),
-                props.getModel(),
-                props.getApi().getBaseUrl(),
-                props.getApi().getKey()
-        );
+        // One context cache for the default and routed models, so a conversation switching between them starts afresh
+        ConversationContextCache contexts = new ConversationContextCache(props.getContextReuse().getMaxConversations());
+        chatModel = LlmFactory.createChatModel(props, props.getModel(), contexts);
+        modelRouter = new ModelRouter(props.getModelRouting(), props.getModel());
+        Map<String, ChatLanguageModel> models = new HashMap<>();
+        for (LlmProperties.ModelRoute route : modelRouter.getRoutes()) {
+            log.info("Model route '{}' -> {}", route.getName(), route.getModel());
+            models.put(route.getName(), LlmFactory.createChatModel(props, route.getModel(), contexts));
+        }
+        routeModels = models;
+        scheduler = new LlmRequestScheduler(props.getScheduler());
+        promptTemplates = new PromptTemplateRegistry(props);
+        promptTemplates.watch(props.getPromptTemplates().getReloadIntervalMs());
         log.info("Enhanced LLM model initialized successfully");
     }
 
+    @jakarta.annotation.PreDestroy
+    public void closeModel() throws Exception {
+        promptTemplates.close();
+        if (chatModel instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+        for (ChatLanguageModel model : routeModels.values()) {
+            if (model instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private ChatLanguageModel modelFor(ModelRouter.Decision decision) {
+        PipelineMetrics.increment("llm.model.route", "route", decision.route(), "model", decision.model());
+        return routeModels.getOrDefault(decision.route(), chatModel);
+    }
+
+    /**
+     * The route a turn with {@code context} from {@code toolName} goes to
+     */
+    public ModelRouter.Decision route(String question, String context, String toolName) {
+        return modelRouter.route(question, TokenEstimator.estimate(context), toolName);
+    }
+
     @Override
     public String generate(String question, String context) {
         return generateWithMemory("default", question, context);
@@ -52,21 +109,179 @@ public class LlmServiceEnhanced implements LlmService {
      * Generate response with conversation memory support
      */
     public String generateWithMemory(String conversationId, String question, String context) {
-        try {
-            List<ChatMessage> messages = buildMessages(question, context);
-            
-            // Use langchain4j to generate response with proper context management
-            String response = chatModel.generate(messages).content().text();
-            
-            log.debug("Generated response for conversation {}: {}", conversationId, response);
-            return response;
-            
+        return generateWithMemory(conversationId, question, context, TurnTimer.disabled());
+    }
+
+    /**
+     * Generate response with conversation memory support, recording queue wait and generation time in {@code timer}
+     */
+    public String generateWithMemory(String conversationId, String question, String context, TurnTimer timer) {
+        return generateWithMemory(conversationId, question, context, null, null, timer);
+    }
+
+    /**
+     * Generate response with conversation memory support; {@code serverId} and {@code toolName} (where
+     * {@code context} came from, may be null) select the prompt templates, and the tool feeds the model routing policy
+     */
+    public String generateWithMemory(String conversationId, String question, String context,
+                                     String serverId, String toolName, TurnTimer timer) {
+        return generateWithMemory(conversationId, question, context, serverId, toolName,
+                route(question, context, toolName), timer);
+    }
+
+    /**
+     * Same as {@link #generateWithMemory(String, String, String, String, String, TurnTimer)} on a route
+     * chosen beforehand with {@link #route(String, String, String)}
+     */
+    public String generateWithMemory(String conversationId, String question, String context,
+                                     String serverId, String toolName, ModelRouter.Decision decision, TurnTimer timer) {
+        lastActivityMillis = System.currentTimeMillis();
+        Timer.Sample sample = null;
+        String model = decision.model();
+        Span span = PipelineTracing.startClientSpan("llm.generate");
+        span.setAttribute("llm.model", model);
+        span.setAttribute("llm.route", decision.route());
+        LlmGenerationEvent event = new LlmGenerationEvent();
+        event.begin();
+        event.outcome = PipelineMetrics.ERROR;
+        try (Scope ignored = span.makeCurrent()) {
+            List<ChatMessage> messages = buildTracedMessages(question, context, serverId, toolName);
+
+            if (event.isEnabled()) {
+                event.promptChars = promptChars(messages);
+            }
+
+            long queued = timer.now();
+            try (LlmRequestScheduler.Permit permit = scheduler.acquire(conversationId)) {
+                timer.record(TurnTimer.Stage.LLM_QUEUE_WAIT, queued);
+                long dispatch = timer.now();
+                sample = PipelineMetrics.start();
+
+                // Use langchain4j to generate response with proper context management
+                Response<AiMessage> generation;
+                try (ConversationScope ignoredConversation = ConversationScope.open(conversationId)) {
+                    generation = modelFor(decision).generate(messages);
+                }
+                timer.record(TurnTimer.Stage.LLM_GENERATION, dispatch);
+                // Providers that cannot be aborted mid-generation finish, but nobody is waiting for the answer
+                TurnCancellation.checkpoint();
+                String response = generation.content().text();
+                long elapsedNanos = PipelineMetrics.stop(sample, "llm.generation",
+                        "model", model, "route", decision.route(), "outcome", PipelineMetrics.SUCCESS);
+                recordThroughput(generation, response, elapsedNanos, model);
+                span.setAttribute("llm.response.chars", response != null ? response.length() : 0);
+                event.responseChars = response != null ? response.length() : 0;
+                event.outcome = PipelineMetrics.SUCCESS;
+
+                log.debug("Generated response for conversation {}: {}", conversationId, LogPayload.of(response));
+                return response;
+            }
+
+        } catch (LlmOverloadedException e) {
+            // Not a generation failure: let the caller answer 429/503 so the client retries later
+            PipelineTracing.fail(span, e);
+            event.outcome = "rejected";
+            throw e;
+        } catch (TurnCancelledException e) {
+            if (sample != null) {
+                PipelineMetrics.stop(sample, "llm.generation", "model", model, "route", decision.route(), "outcome", "cancelled");
+            }
+            span.setAttribute("llm.cancelled", e.getReason());
+            event.outcome = "cancelled";
+            throw e;
         } catch (Exception e) {
+            if (sample != null) {
+                PipelineMetrics.stop(sample, "llm.generation", "model", model, "route", decision.route(), "outcome", PipelineMetrics.ERROR);
+            }
+            PipelineTracing.fail(span, e);
             log.error("Error generating LLM response for conversation {}: {}", conversationId, e.getMessage(), e);
             return "Error generating response: " + e.getMessage();
+        } finally {
+            span.end();
+            event.end();
+            if (event.shouldCommit()) {
+                event.model = model;
+                event.commit();
+            }
         }
     }
 
+    /**
+     * One generation in which the model may call {@code tools}, admitted by the same scheduler as chat turns.
+     * Models without tool support throw {@link ToolsUnsupportedException}.
+     */
+    public Response<AiMessage> generateWithTools(List<ChatMessage> messages, List<ToolSpecification> tools) {
+        lastActivityMillis = System.currentTimeMillis();
+        Span span = PipelineTracing.startClientSpan("llm.generate.tools");
+        span.setAttribute("llm.model", String.valueOf(props.getModel()));
+        span.setAttribute("llm.tools", tools.size());
+        try (Scope ignored = span.makeCurrent();
+             LlmRequestScheduler.Permit permit = scheduler.acquire(ConversationScope.current())) {
+            Timer.Sample sample = PipelineMetrics.start();
+            String outcome = PipelineMetrics.ERROR;
+            try {
+                Response<AiMessage> response;
+                try {
+                    response = chatModel.generate(messages, tools);
+                } catch (IllegalArgumentException e) {
+                    if (ToolsUnsupportedException.isRefusal(e)) {
+                        throw new ToolsUnsupportedException(props.getModel(), e.getMessage());
+                    }
+                    throw e;
+                }
+                outcome = response.content().hasToolExecutionRequests() ? "tool_call" : PipelineMetrics.SUCCESS;
+                return response;
+            } finally {
+                PipelineMetrics.stop(sample, "llm.generation", "model", String.valueOf(props.getModel()), "route", "tools", "outcome", outcome);
+            }
+        } catch (RuntimeException e) {
+            PipelineTracing.fail(span, e);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+
+    private static int promptChars(List<ChatMessage> messages) {
+        int chars = 0;
+        for (ChatMessage message : messages) {
+            chars += message.text() != null ? message.text().length() : 0;
+        }
+        return chars;
+    }
+
+    private List<ChatMessage> buildTracedMessages(String question, String context, String serverId, String toolName) {
+        Span span = PipelineTracing.startSpan("llm.prompt.build");
+        try (Scope ignored = span.makeCurrent()) {
+            List<ChatMessage> messages = buildMessages(question, context, serverId, toolName);
+            span.setAttribute("llm.prompt.messages", messages.size());
+            return messages;
+        } finally {
+            span.end();
+        }
+    }
+
+    /**
+     * Records generated tokens and tokens per second, estimating the count when the provider reports no usage
+     */
+    private void recordThroughput(Response<AiMessage> generation, String text, long elapsedNanos, String model) {
+        TokenUsage usage = generation.tokenUsage();
+        Integer reported = usage != null ? usage.outputTokenCount() : null;
+        int outputTokens = reported != null ? reported : TokenEstimator.estimate(text);
+        PipelineMetrics.record("llm.generation.tokens", "tokens", outputTokens, "model", model);
+        if (elapsedNanos > 0) {
+            double tokensPerSecond = outputTokens / (elapsedNanos / 1_000_000_000.0);
+            PipelineMetrics.record("llm.generation.throughput", "tokens/s", tokensPerSecond, "model", model);
+        }
+    }
+
+    /**
+     * When the last generation was requested; startup counts as activity
+     */
+    public long getLastActivityMillis() {
+        return lastActivityMillis;
+    }
+
     /**
      * Get or create conversation memory for a specific conversation
      */
@@ -80,23 +295,31 @@ public class LlmServiceEnhanced implements LlmService {
      */
     public void clearConversation(String conversationId) {
         conversationMemories.remove(conversationId);
+        if (chatModel instanceof ConversationAware aware) {
+            aware.forget(conversationId);
+        }
+        for (ChatLanguageModel model : routeModels.values()) {
+            if (model instanceof ConversationAware aware) {
+                aware.forget(conversationId);
+            }
+        }
         log.info("Cleared conversation memory for: {}", conversationId);
     }
 
     /**
-     * Build proper message list for langchain4j processing
+     * Build proper message list for langchain4j processing. The system prompt is the same string
+     * on every turn for a given server and tool, so the prompt prefix stays identical across turns
+     * and the model server can reuse its evaluation.
      */
-    private List<ChatMessage> buildMessages(String question, String context) {
+    private List<ChatMessage> buildMessages(String question, String context, String serverId, String toolName) {
         List<ChatMessage> messages = new ArrayList<>();
         
         // System message defining MCP-compliant behavior
-        String systemPrompt = buildSystemPrompt();
-        messages.add(SystemMessage.from(systemPrompt));
+        messages.add(SystemMessage.from(promptTemplates.systemPrompt(serverId, toolName)));
         
         // Add context as system information if available
         if (context != null && !context.isBlank()) {
-            String contextPrompt = buildContextPrompt(context, question);
-            messages.add(SystemMessage.from(contextPrompt));
+            messages.add(SystemMessage.from(promptTemplates.contextPrompt(context, serverId, toolName)));
         }
         
         // User question
@@ -104,62 +327,4 @@ public class LlmServiceEnhanced implements LlmService {
         
         return messages;
     }
-
-    /**
-     * Build context prompt that instructs the LLM how to format the response
-     */
-    private String buildContextPrompt(String context, String question) {
-        StringBuilder prompt = new StringBuilder();
-        prompt.append("MCP SERVER CONTEXT:\n");
-        prompt.append(context);
-        prompt.append("\n\nSPECIFIC FORMATTING INSTRUCTIONS:\n");
-
-
-            prompt.append("""
-                Organize the information clearly with:
-                - Descriptive titles with appropriate emojis
-                - Information structured in lists
-                - Use of markdown for formatting
-                - Clear separation between elements
-                """);
-
-
-        prompt.append("\nAlways end with: 💡 *Information provided by [server name]*");
-        return prompt.toString();
-    }
-
-    /**
-     * Build MCP-compliant system prompt that ensures Spanish responses
-     */
-    private String buildSystemPrompt() {
-        return """
-            You are a helpful assistant that works with MCP (Model Context Protocol) servers.
-
-            Important guidelines:
-            1. Respond ONLY using information provided in the context of MCP servers
-            2. Do not infer or add information that is not explicitly indicated in the context
-            3. If the context is insufficient to answer the question, clearly state what information is missing
-            4. Be precise and factual in your responses
-            5. When relevant, mention which MCP server provided the information
-            6. ALWAYS respond in Spanish, regardless of the language of the question
-
-            RESPONSE FORMAT:
-            - Use clear titles and subtitles with appropriate emojis
-            - For movies: 🎬 title, 📅 year, ⭐ rating, 📝 description
-            - For files: 📁 name, 📏 size, 📅 date
-            - For code/GitHub: 💻 repository, 🔧 function, 📊 status
-            - Organize information in numbered or bulleted lists
-            - Use proper spacing between sections
-            - If there are multiple results, list them clearly
-
-            Example for movies:
-            🎬 **[Movie Title]** (📅 Year)
-            ⭐ Rating: X.X/10
-            📝 **Synopsis:** [Description]
-            🎭 **Genre:** [Genre]
-
-            Always maintain accuracy and transparency about the limitations of the available context.
-            All responses must be in Spanish and well formatted.
-            """;
-    }
-}
\ No newline at end of file
+}
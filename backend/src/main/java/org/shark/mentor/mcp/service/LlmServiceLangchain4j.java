@@ -17,12 +17,14 @@ public class LlmServiceLangchain4j implements LlmService {
 
     @jakarta.annotation.PostConstruct
     public void initModel() {
-        chatModel = LlmFactory.createChatModel(
-                props.getProvider(),
-                props.getModel(),
-                props.getApi().getBaseUrl(),
-                props.getApi().getKey()
-        );
+        chatModel = LlmFactory.createChatModel(props);
+    }
+
+    @jakarta.annotation.PreDestroy
+    public void closeModel() throws Exception {
+        if (chatModel instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
     }
 
     @Override
@@ -1,7 +1,12 @@
 package org.shark.mentor.mcp.service;
 
+import io.micrometer.core.instrument.Timer;
 import org.shark.mentor.mcp.config.McpProperties;
 import org.shark.mentor.mcp.model.McpServer;
+import org.shark.mentor.mcp.observability.PipelineMetrics;
+import org.shark.mentor.mcp.observability.jfr.McpConnectEvent;
+import org.shark.mentor.mcp.observability.jfr.McpPingEvent;
+import org.shark.mentor.mcp.observability.jfr.StdioProcessEvent;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 import com.fasterxml.jackson.databind.JsonNode;
@@ -13,6 +18,8 @@ import java.net.*;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.*;
@@ -23,11 +30,27 @@ public class McpServerService {
 
     // Agrega estos campos para manejar los procesos y streams
     private final Map<String, Process> stdioProcesses = new ConcurrentHashMap<>();
-    private final Map<String, OutputStream> stdioInputs = new ConcurrentHashMap<>();
-    private final Map<String, InputStream> stdioOutputs = new ConcurrentHashMap<>();
+    private final Map<String, StdioConnection> stdioConnections = new ConcurrentHashMap<>();
+    /** stderr of the primary process of each stdio server; every process, spares included, has its own buffer */
+    private final Map<String, StderrBuffer> stderrBuffers = new ConcurrentHashMap<>();
+    /** stderr of the primary process each server had before, so the output of a crashed process stays readable */
+    private final Map<String, StderrBuffer> previousStderr = new ConcurrentHashMap<>();
+    /** Stdio servers whose process was stopped for being idle; the next request starts it again */
+    private final Set<String> hibernated = ConcurrentHashMap.newKeySet();
+    private final Map<String, Long> lastUsed = new ConcurrentHashMap<>();
+    private final Map<String, Long> startedAt = new ConcurrentHashMap<>();
+    /** Pre-spawned processes that answered a ping, promoted when the primary process of their server fails */
+    private final Map<String, Spare> spares = new ConcurrentHashMap<>();
+    private final Set<String> sparesStarting = ConcurrentHashMap.newKeySet();
+    private final Map<String, TcpTransport> tcpTransports = new ConcurrentHashMap<>();
+
+    private record Spare(Process process, StdioConnection connection, StderrBuffer stderr) {
+    }
 
 
     private final Map<String, McpServer> servers = new ConcurrentHashMap<>();
+    /** Servers that came from configuration, as last applied */
+    private final Map<String, McpProperties.ServerConfig> configured = new ConcurrentHashMap<>();
     private final McpProperties properties;
     private final RestTemplate restTemplate;
     private final HttpClient httpClient;
@@ -44,17 +67,28 @@ public class McpServerService {
     }
 
     private void loadServersFromJson() {
-        ObjectMapper mapper = new ObjectMapper();
+        if (properties.getServers() != null && !properties.getServers().isEmpty()) {
+            // Servers given explicitly through mcp.servers (e.g. by the load-test harness) win over the bundled file
+            log.info("Using {} servers from mcp.servers, skipping mcp-servers.json", properties.getServers().size());
+            return;
+        }
         try {
-            var resource = getClass().getClassLoader().getResourceAsStream("mcp-servers.json");
-            if (resource == null) {
-                log.warn("mcp-servers.json not found in classpath");
-                return;
-            }
-            JsonNode root = mapper.readTree(resource);
-            List<McpProperties.ServerConfig> configs = new ArrayList<>();
-            for (JsonNode node : root.path("servers")) {
-                configs.add(mapper.treeToValue(node, McpProperties.ServerConfig.class));
+            List<McpProperties.ServerConfig> configs;
+            String path = properties.getServersFile().getPath();
+            if (path != null && !path.isBlank() && Files.isRegularFile(Path.of(path))) {
+                try (InputStream in = Files.newInputStream(Path.of(path))) {
+                    configs = readServerConfigs(in);
+                }
+                log.info("Reading servers from {}", path);
+            } else {
+                var resource = getClass().getClassLoader().getResourceAsStream("mcp-servers.json");
+                if (resource == null) {
+                    log.warn("mcp-servers.json not found in classpath");
+                    return;
+                }
+                try (resource) {
+                    configs = readServerConfigs(resource);
+                }
             }
             if (!configs.isEmpty()) {
                 properties.setServers(configs);
@@ -65,30 +99,36 @@ public class McpServerService {
         }
     }
 
+    /**
+     * Parses the {@code servers} array of an {@code mcp-servers.json} document
+     */
+    static List<McpProperties.ServerConfig> readServerConfigs(InputStream in) throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        JsonNode root = mapper.readTree(in);
+        if (root == null || !root.path("servers").isArray()) {
+            throw new IOException("Expected an object with a \"servers\" array");
+        }
+        List<McpProperties.ServerConfig> configs = new ArrayList<>();
+        for (JsonNode node : root.path("servers")) {
+            McpProperties.ServerConfig config = mapper.treeToValue(node, McpProperties.ServerConfig.class);
+            if (config.getId() == null || config.getId().isBlank()) {
+                throw new IOException("Server without id: " + node);
+            }
+            configs.add(config);
+        }
+        return configs;
+    }
+
     private void loadServersFromConfig() {
         if (properties.getServers() != null && !properties.getServers().isEmpty()) {
             log.info("Loading {} servers from configuration", properties.getServers().size());
 
             for (McpProperties.ServerConfig serverConfig : properties.getServers()) {
-                McpServer server = new McpServer(
-                        serverConfig.getId(),
-                        serverConfig.getName(),
-                        serverConfig.getDescription(),
-                        serverConfig.getUrl(),
-                        "DISCONNECTED"
-                );
-
+                McpServer server = fromConfig(serverConfig);
+                configured.put(server.getId(), serverConfig);
                 addServer(server);
                 log.info("Loaded server from config: {} ({})", server.getName(), server.getUrl());
-
-                if (serverConfig.isPrewarm() && "stdio".equalsIgnoreCase(extractProtocol(server.getUrl()))) {
-                    try {
-                        startStdioProcess(server);
-                        log.info("Prewarmed stdio server: {}", server.getName());
-                    } catch (Exception e) {
-                        log.error("Failed to prewarm server {}: {}", server.getName(), e.getMessage());
-                    }
-                }
+                prewarm(serverConfig, server);
             }
         } else {
             log.warn("No MCP servers configured, falling back to sample servers");
@@ -96,6 +136,169 @@ public class McpServerService {
         }
     }
 
+    private static McpServer fromConfig(McpProperties.ServerConfig serverConfig) {
+        return new McpServer(
+                serverConfig.getId(),
+                serverConfig.getName(),
+                serverConfig.getDescription(),
+                serverConfig.getUrl(),
+                "DISCONNECTED"
+        );
+    }
+
+    private void prewarm(McpProperties.ServerConfig serverConfig, McpServer server) {
+        if (serverConfig.isPrewarm() && "stdio".equalsIgnoreCase(extractProtocol(server.getUrl()))) {
+            try {
+                startStdioProcess(server);
+                log.info("Prewarmed stdio server: {}", server.getName());
+            } catch (Exception e) {
+                log.error("Failed to prewarm server {}: {}", server.getName(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Outcome of {@link #applyServerConfigs(List)}, by server id
+     */
+    public record ConfigDiff(List<String> added, List<String> changed, List<String> removed, int unchanged) {
+        public boolean isEmpty() {
+            return added.isEmpty() && changed.isEmpty() && removed.isEmpty();
+        }
+    }
+
+    /**
+     * Brings the registry in line with a new server list. Servers whose configuration is unchanged
+     * keep their status and stdio process; servers with a new URL (or command) are restarted, and
+     * reconnected if they were connected; servers with new {@code spare}, {@code idleTtlMs} or
+     * {@code prewarm} settings keep their process and have them applied at once; removed servers leave
+     * the registry at once and their stdio process is stopped once its in-flight requests finish.
+     * Servers added through the API are left alone.
+     * <p>
+     * The registry is updated under the lock; processes are started and stopped after it is released,
+     * so a slow {@code docker run} or a stop grace period never holds up resume, promoteSpare or recoverCrashed.
+     */
+    public ConfigDiff applyServerConfigs(List<McpProperties.ServerConfig> configs) {
+        List<Runnable> deferred = new ArrayList<>();
+        ConfigDiff diff;
+        synchronized (this) {
+            diff = updateRegistry(configs, deferred);
+        }
+        for (Runnable action : deferred) {
+            action.run();
+        }
+        log.atInfo().addKeyValue("added", diff.added().size()).addKeyValue("changed", diff.changed().size())
+                .addKeyValue("removed", diff.removed().size())
+                .log("Configuración de servidores aplicada: añadidos {}, cambiados {}, eliminados {}, sin cambios {}",
+                        diff.added(), diff.changed(), diff.removed(), diff.unchanged());
+        return diff;
+    }
+
+    /**
+     * Brings {@code configured} and {@code servers} in line with {@code configs}, queueing the process
+     * starts and stops it implies on {@code deferred}
+     */
+    private ConfigDiff updateRegistry(List<McpProperties.ServerConfig> configs, List<Runnable> deferred) {
+        Map<String, McpProperties.ServerConfig> next = new LinkedHashMap<>();
+        for (McpProperties.ServerConfig config : configs) {
+            next.put(config.getId(), config);
+        }
+        List<String> added = new ArrayList<>();
+        List<String> changed = new ArrayList<>();
+        List<String> removed = new ArrayList<>();
+        int unchanged = 0;
+
+        for (String id : new ArrayList<>(configured.keySet())) {
+            if (!next.containsKey(id)) {
+                configured.remove(id);
+                McpServer server = servers.remove(id);
+                retireStdio(id);
+                forgetStderr(id);
+                removed.add(id);
+                log.info("Removed MCP server {} from configuration", server != null ? server.getName() : id);
+            }
+        }
+        for (McpProperties.ServerConfig config : next.values()) {
+            McpProperties.ServerConfig previous = configured.put(config.getId(), config);
+            McpServer server = servers.get(config.getId());
+            if (server == null) {
+                McpServer created = addServer(fromConfig(config));
+                deferred.add(() -> whileCurrent(config, () -> prewarm(config, created)));
+                added.add(config.getId());
+            } else if (config.equals(previous)) {
+                unchanged++;
+            } else if (previous != null && Objects.equals(previous.getUrl(), config.getUrl())) {
+                // Same process: only metadata and lifecycle settings changed
+                server.setName(config.getName());
+                server.setDescription(config.getDescription());
+                applyLifecycle(previous, config, server, deferred);
+                changed.add(config.getId());
+            } else {
+                boolean wasConnected = "CONNECTED".equals(server.getStatus());
+                retireStdio(config.getId());
+                server.setName(config.getName());
+                server.setDescription(config.getDescription());
+                server.setUrl(config.getUrl());
+                server.setStatus("DISCONNECTED");
+                server.setLastError(null);
+                changed.add(config.getId());
+                log.info("MCP server {} now at {}", server.getName(), server.getUrl());
+                McpServer moved = server;
+                if (wasConnected) {
+                    deferred.add(() -> whileCurrent(config, () -> {
+                        try {
+                            connectToServer(config.getId());
+                        } catch (RuntimeException e) {
+                            log.error("Failed to reconnect server {} after a configuration change: {}", moved.getName(), e.getMessage());
+                        }
+                    }));
+                } else {
+                    deferred.add(() -> whileCurrent(config, () -> prewarm(config, moved)));
+                }
+            }
+        }
+        return new ConfigDiff(added, changed, removed, unchanged);
+    }
+
+    /**
+     * Runs a deferred reload action unless a later reload replaced or removed the server in the meantime
+     */
+    private void whileCurrent(McpProperties.ServerConfig config, Runnable action) {
+        if (configured.get(config.getId()) == config) {
+            action.run();
+        }
+    }
+
+    /**
+     * Applies changed {@code spare}, {@code idleTtlMs} and {@code prewarm} settings to a server that keeps its process
+     */
+    private void applyLifecycle(McpProperties.ServerConfig previous, McpProperties.ServerConfig config, McpServer server,
+                                List<Runnable> deferred) {
+        String id = config.getId();
+        if (previous.isSpare() != config.isSpare()) {
+            if (config.isSpare()) {
+                // Starts in the background
+                ensureSpare(server);
+            } else {
+                Spare spare = spares.remove(id);
+                if (spare != null) {
+                    deferred.add(() -> stopSpare(spare));
+                }
+            }
+        }
+        if (!Objects.equals(previous.getIdleTtlMs(), config.getIdleTtlMs())) {
+            if (hibernated.contains(id) && getIdleTtlMs(id) <= 0) {
+                // Hibernation is now off for this server, so it must not wait stopped for a request
+                deferred.add(() -> whileCurrent(config, () -> resume(id, "reconfigured")));
+            } else if (stdioProcesses.containsKey(id)) {
+                // The idle clock restarts so a shorter TTL counts from now, not from the last request
+                startedAt.put(id, System.currentTimeMillis());
+            }
+        }
+        if (config.isPrewarm() && !previous.isPrewarm() && !stdioProcesses.containsKey(id) && !hibernated.contains(id)) {
+            deferred.add(() -> whileCurrent(config, () -> prewarm(config, server)));
+        }
+    }
+
     private void initializeSampleServers() {
         // This method is no longer necessary - retained only as fallback
         log.info("Using fallback sample servers");
@@ -122,6 +325,8 @@ public class McpServerService {
     public boolean removeServer(String id) {
         McpServer removed = servers.remove(id);
         if (removed != null) {
+            retireStdio(id);
+            forgetStderr(id);
             log.info("Removed MCP server: {}", removed.getName());
             return true;
         }
@@ -151,6 +356,26 @@ public class McpServerService {
         String protocol = extractProtocol(server.getUrl());
         log.info("Detected protocol: {}", protocol);
 
+        McpConnectEvent event = new McpConnectEvent();
+        event.begin();
+        Timer.Sample sample = PipelineMetrics.start();
+        McpServer result = connect(server, protocol);
+        String outcome = "CONNECTED".equals(result.getStatus()) ? PipelineMetrics.SUCCESS : PipelineMetrics.ERROR;
+        PipelineMetrics.stop(sample, "mcp.server.connect",
+                "server", server.getId(),
+                "protocol", protocol,
+                "outcome", outcome);
+        event.end();
+        if (event.shouldCommit()) {
+            event.server = server.getId();
+            event.protocol = protocol;
+            event.outcome = outcome;
+            event.commit();
+        }
+        return result;
+    }
+
+    private McpServer connect(McpServer server, String protocol) {
         try {
             switch (protocol.toLowerCase()) {
                 case "stdio":
@@ -400,10 +625,11 @@ public class McpServerService {
             if (existing == null || !existing.isAlive()) {
                 if (existing != null) {
                     stdioProcesses.remove(server.getId());
-                    stdioInputs.remove(server.getId());
-                    stdioOutputs.remove(server.getId());
+                    closeStdioConnection(server.getId());
+                }
+                if (existing == null || !promoteSpare(server)) {
+                    startStdioProcess(server);
                 }
-                startStdioProcess(server);
             } else {
                 log.info("Reusing existing stdio process for {}", server.getName());
             }
@@ -455,27 +681,303 @@ public class McpServerService {
     }
 
     private void startStdioProcess(McpServer server) throws IOException {
+        Spare started = spawnStdio(server, "start");
+        stdioProcesses.put(server.getId(), started.process());
+        startedAt.put(server.getId(), System.currentTimeMillis());
+        hibernated.remove(server.getId());
+        stdioConnections.put(server.getId(), started.connection());
+        useStderr(server.getId(), started.stderr());
+        log.debug("STDIO server {} started with pid {}", server.getName(), started.process().pid());
+        ensureSpare(server);
+    }
+
+    private Spare spawnStdio(McpServer server, String action) throws IOException {
         String command = server.getUrl().substring("stdio://".length()).trim();
         if (command.isEmpty()) {
             throw new RuntimeException("Empty stdio command");
         }
 
         String[] parts = command.split("\\s+");
+        // stderr stays off the JSON-RPC stream and is drained on its own thread
         ProcessBuilder pb = new ProcessBuilder(parts);
-        pb.redirectErrorStream(true);
-        Process process = pb.start();
-
-        stdioProcesses.put(server.getId(), process);
-        stdioInputs.put(server.getId(), process.getOutputStream());
-        InputStream stdout = process.getInputStream();
-        stdioOutputs.put(server.getId(), stdout);
-
-        if (stdout.available() > 0) {
-            BufferedReader reader = new BufferedReader(new InputStreamReader(stdout));
-            String firstLine = reader.readLine();
-            log.info("First stdio output: {}", firstLine);
-        } else {
-            log.debug("STDIO server started without initial output");
+        StdioProcessEvent event = new StdioProcessEvent();
+        event.begin();
+        Process process;
+        try {
+            process = pb.start();
+        } catch (IOException e) {
+            commitStdioEvent(event, server, action, command, -1, false);
+            throw e;
+        }
+        commitStdioEvent(event, server, action, command, process.pid(), true);
+        McpProperties.Stdio config = properties.getStdio();
+        StderrBuffer stderr = new StderrBuffer(config.getStderrLines(), config.getStderrLineMaxChars());
+        drainStderr(server.getId(), process, stderr);
+        return new Spare(process, new StdioConnection(server.getId(), process.getOutputStream(), process.getInputStream()), stderr);
+    }
+
+    private boolean wantsSpare(String serverId) {
+        McpProperties.ServerConfig config = configured.get(serverId);
+        return config != null && config.isSpare();
+    }
+
+    /**
+     * Spawns a spare process for a server with {@code spare: true} in the background. The spare only
+     * replaces the primary once it has answered a ping, so it is promoted already started.
+     */
+    private void ensureSpare(McpServer server) {
+        String serverId = server.getId();
+        if (!wantsSpare(serverId) || spares.containsKey(serverId) || !sparesStarting.add(serverId)) {
+            return;
+        }
+        String url = server.getUrl();
+        Thread starter = new Thread(() -> {
+            Spare spare = null;
+            try {
+                spare = spawnStdio(server, "spare");
+                if (!answersPing(spare.connection(), properties.getStdio().getSpareReadyTimeoutMs())) {
+                    throw new IOException("spare did not answer a ping");
+                }
+                synchronized (this) {
+                    // The server may have been removed, changed or hibernated while the spare started
+                    if (!wantsSpare(serverId) || hibernated.contains(serverId) || !stdioProcesses.containsKey(serverId)
+                            || servers.get(serverId) != server || !url.equals(server.getUrl())) {
+                        throw new IOException("no longer needed");
+                    }
+                    spares.put(serverId, spare);
+                }
+                log.info("Spare stdio process of {} ready with pid {}", server.getName(), spare.process().pid());
+            } catch (Exception e) {
+                log.warn("Spare stdio process of {} not kept: {}", server.getName(), e.getMessage());
+                if (spare != null) {
+                    stopSpare(spare);
+                }
+            } finally {
+                sparesStarting.remove(serverId);
+            }
+        }, "mcp-spare-" + serverId);
+        starter.setDaemon(true);
+        starter.start();
+    }
+
+    private boolean answersPing(StdioConnection connection, long timeoutMs) throws Exception {
+        String id = UUID.randomUUID().toString();
+        String json = new ObjectMapper().writeValueAsString(Map.of(
+                "jsonrpc", "2.0",
+                "id", id,
+                "method", "ping",
+                "params", Collections.emptyMap()
+        ));
+        CompletableFuture<String> response = connection.request(id, json, false);
+        try {
+            return !new ObjectMapper().readTree(response.get(timeoutMs, TimeUnit.MILLISECONDS)).has("error");
+        } catch (TimeoutException e) {
+            response.cancel(true);
+            return false;
+        }
+    }
+
+    /**
+     * Replaces the primary process of a server with its ready spare, and starts a new spare behind it
+     */
+    private synchronized boolean promoteSpare(McpServer server) {
+        Spare spare = spares.remove(server.getId());
+        if (spare == null || !spare.process().isAlive()) {
+            if (wantsSpare(server.getId())) {
+                PipelineMetrics.increment("mcp.stdio.spare", "server", server.getId(), "outcome", "missing");
+            }
+            return false;
+        }
+        stdioProcesses.put(server.getId(), spare.process());
+        stdioConnections.put(server.getId(), spare.connection());
+        useStderr(server.getId(), spare.stderr());
+        startedAt.put(server.getId(), System.currentTimeMillis());
+        PipelineMetrics.increment("mcp.stdio.spare", "server", server.getId(), "outcome", "promoted");
+        log.info("Promoted spare stdio process {} of {}", spare.process().pid(), server.getName());
+        ensureSpare(server);
+        return true;
+    }
+
+    private void stopSpare(String serverId) {
+        Spare spare = spares.remove(serverId);
+        if (spare != null) {
+            stopSpare(spare);
+        }
+    }
+
+    private void stopSpare(Spare spare) {
+        spare.connection().close();
+        stopProcesses(List.of(spare.process()), properties.getStdio().getShutdownGraceMs());
+    }
+
+    /**
+     * Spare process of a server, if one is ready
+     */
+    Process getSpareProcess(String serverId) {
+        Spare spare = spares.get(serverId);
+        return spare != null ? spare.process() : null;
+    }
+
+    /**
+     * Makes {@code buffer}, the stderr of a new primary process, the one served for {@code serverId},
+     * keeping the previous primary's as well
+     */
+    private void useStderr(String serverId, StderrBuffer buffer) {
+        StderrBuffer previous = stderrBuffers.put(serverId, buffer);
+        if (previous != null && previous != buffer) {
+            previousStderr.put(serverId, previous);
+        }
+    }
+
+    private void forgetStderr(String serverId) {
+        stderrBuffers.remove(serverId);
+        previousStderr.remove(serverId);
+    }
+
+    /**
+     * Reads the process's stderr into its ring buffer so a chatty child never blocks on a full pipe
+     */
+    private void drainStderr(String serverId, Process process, StderrBuffer buffer) {
+        Thread drain = new Thread(() -> {
+            try (Reader reader = new InputStreamReader(process.getErrorStream(), java.nio.charset.StandardCharsets.UTF_8)) {
+                buffer.readFrom(reader, line -> log.debug("[{} stderr] {}", serverId, line));
+            } catch (IOException e) {
+                log.debug("stderr of {} closed: {}", serverId, e.getMessage());
+            }
+        }, "mcp-stderr-" + serverId);
+        drain.setDaemon(true);
+        drain.start();
+    }
+
+    /**
+     * Last stderr lines of a stdio server, oldest first: those of its previous primary process followed
+     * by the current one's, at most {@code mcp.stdio.stderr-lines}. Empty for servers that never ran a process.
+     */
+    public List<String> getStderr(String serverId) {
+        if (!servers.containsKey(serverId)) {
+            throw new IllegalArgumentException("Server not found: " + serverId);
+        }
+        List<String> lines = new ArrayList<>();
+        StderrBuffer previous = previousStderr.get(serverId);
+        if (previous != null) {
+            lines.addAll(previous.lines());
+        }
+        StderrBuffer current = stderrBuffers.get(serverId);
+        if (current != null) {
+            lines.addAll(current.lines());
+        }
+        int capacity = Math.max(1, properties.getStdio().getStderrLines());
+        return lines.size() > capacity ? List.copyOf(lines.subList(lines.size() - capacity, lines.size())) : lines;
+    }
+
+    /**
+     * Stops every stdio process when the application shuts down, so redeploys leave no orphaned
+     * processes or containers behind
+     */
+    @jakarta.annotation.PreDestroy
+    public void shutdown() {
+        List<Process> processes = new ArrayList<>(stdioProcesses.values());
+        stdioProcesses.clear();
+        stdioConnections.values().forEach(StdioConnection::close);
+        stdioConnections.clear();
+        for (Spare spare : spares.values()) {
+            spare.connection().close();
+            processes.add(spare.process());
+        }
+        spares.clear();
+        tcpTransports.values().forEach(TcpTransport::close);
+        tcpTransports.clear();
+        if (!processes.isEmpty()) {
+            log.info("Stopping {} stdio processes", processes.size());
+            stopProcesses(processes, properties.getStdio().getShutdownGraceMs());
+        }
+    }
+
+    /**
+     * Closes stdin and sends SIGTERM to all processes (and their children) at once, waits up to
+     * {@code graceMs} for them together, then kills the ones still running
+     */
+    static void stopProcesses(List<Process> processes, long graceMs) {
+        Map<Process, List<ProcessHandle>> children = new HashMap<>();
+        List<CompletableFuture<Process>> exits = new ArrayList<>();
+        for (Process process : processes) {
+            // Children are listed before the parent exits, after that they are reparented and out of reach
+            children.put(process, process.descendants().toList());
+            try {
+                process.getOutputStream().close();
+            } catch (IOException e) {
+                log.debug("Could not close stdin of pid {}: {}", process.pid(), e.getMessage());
+            }
+            process.destroy();
+            children.get(process).forEach(ProcessHandle::destroy);
+            exits.add(process.onExit());
+        }
+        try {
+            CompletableFuture.allOf(exits.toArray(CompletableFuture[]::new)).get(graceMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            // Whatever is still running is killed below
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Process process : processes) {
+            boolean forced = process.isAlive();
+            if (forced) {
+                log.warn("Stdio process {} did not exit within {} ms, killing it", process.pid(), graceMs);
+                process.destroyForcibly();
+            }
+            children.get(process).stream().filter(ProcessHandle::isAlive).forEach(ProcessHandle::destroyForcibly);
+            PipelineMetrics.increment("mcp.stdio.shutdown", "outcome", forced ? "forced" : "graceful");
+        }
+    }
+
+    /**
+     * Takes the stdio process of {@code serverId} out of use and stops it once its in-flight requests
+     * have finished, or after {@code mcp.servers-file.drain-timeout-ms}
+     */
+    private void retireStdio(String serverId) {
+        hibernated.remove(serverId);
+        TcpTransport tcp = tcpTransports.remove(serverId);
+        if (tcp != null) {
+            tcp.close();
+        }
+        Spare spare = spares.remove(serverId);
+        Process process = stdioProcesses.remove(serverId);
+        StdioConnection connection = stdioConnections.remove(serverId);
+        if (spare != null) {
+            // The spare has no requests in flight; stopped on its own thread so the caller never waits for it
+            Thread stop = new Thread(() -> stopSpare(spare), "mcp-stop-" + serverId);
+            stop.setDaemon(true);
+            stop.start();
+        }
+        if (process == null && connection == null) {
+            return;
+        }
+        long deadline = System.currentTimeMillis() + properties.getServersFile().getDrainTimeoutMs();
+        Thread drain = new Thread(() -> {
+            try {
+                while (connection != null && connection.isOpen() && connection.pendingRequests() > 0
+                        && System.currentTimeMillis() < deadline) {
+                    Thread.sleep(100);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (connection != null) {
+                connection.close();
+            }
+            if (process != null && process.isAlive()) {
+                stopProcesses(List.of(process), properties.getStdio().getShutdownGraceMs());
+            }
+            log.info("Stopped stdio process of {} after draining", serverId);
+        }, "mcp-drain-" + serverId);
+        drain.setDaemon(true);
+        drain.start();
+    }
+
+    private void closeStdioConnection(String serverId) {
+        StdioConnection connection = stdioConnections.remove(serverId);
+        if (connection != null) {
+            connection.close();
         }
     }
 
@@ -626,12 +1128,16 @@ public class McpServerService {
                 return server;
             }
 
-            try (Socket socket = new Socket()) {
-                socket.connect(new InetSocketAddress(host, port), 5000);
-                log.info("TCP connection successful to {}:{}", host, port);
-                server.setStatus("CONNECTED");
-                server.setLastError(null);
+            TcpTransport transport = new TcpTransport(server.getId(), host, port, 5000,
+                    properties.getTcp().getReconnectBackoffMs());
+            TcpTransport previous = tcpTransports.put(server.getId(), transport);
+            if (previous != null) {
+                previous.close();
             }
+            transport.connection();
+            log.info("TCP connection successful to {}:{}", host, port);
+            server.setStatus("CONNECTED");
+            server.setLastError(null);
         } catch (Exception e) {
             String errorMsg = createDescriptiveErrorMessage(e, server.getUrl(), "tcp");
             log.error("TCP connection error to {}: {}", server.getName(), errorMsg);
@@ -650,6 +1156,10 @@ public class McpServerService {
         }
 
         log.info("Disconnecting from server: {}", server.getName());
+        TcpTransport tcp = tcpTransports.remove(id);
+        if (tcp != null) {
+            tcp.close();
+        }
         server.setStatus("DISCONNECTED");
         server.setLastConnected(System.currentTimeMillis());
         return server;
@@ -669,15 +1179,143 @@ public class McpServerService {
     // Add these public methods in McpServerService.java
 
     public Process getStdioProcess(String serverId) {
+        use(serverId);
         return stdioProcesses.get(serverId);
     }
 
-    public OutputStream getStdioInput(String serverId) {
-        return stdioInputs.get(serverId);
+    public StdioConnection getStdioConnection(String serverId) {
+        use(serverId);
+        return stdioConnections.get(serverId);
     }
 
-    public InputStream getStdioOutput(String serverId) {
-        return stdioOutputs.get(serverId);
+    /**
+     * Connection of a server that speaks JSON-RPC over a stream: the stdio process's pipes, or the
+     * persistent socket of a {@code tcp://} server, reopened if it dropped. {@code null} when there is none.
+     */
+    public StdioConnection getStreamConnection(String serverId) {
+        TcpTransport tcp = tcpTransports.get(serverId);
+        if (tcp == null) {
+            return getStdioConnection(serverId);
+        }
+        try {
+            return tcp.connection();
+        } catch (IOException e) {
+            log.warn("TCP server {} unavailable: {}", serverId, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Whether the server at {@code url} is reached through a {@link StdioConnection} ({@code stdio://} or {@code tcp://})
+     */
+    public static boolean usesStream(String url) {
+        return url != null && (url.startsWith("stdio://") || url.startsWith("tcp://"));
+    }
+
+    /**
+     * Records a use of the server and restarts its process if it was hibernated
+     */
+    private void use(String serverId) {
+        lastUsed.put(serverId, System.currentTimeMillis());
+        if (hibernated.contains(serverId)) {
+            resume(serverId, "request");
+        }
+        Process process = stdioProcesses.get(serverId);
+        if (process != null && !process.isAlive() && spares.containsKey(serverId)) {
+            recoverCrashed(serverId);
+        }
+    }
+
+    private synchronized void recoverCrashed(String serverId) {
+        Process process = stdioProcesses.get(serverId);
+        McpServer server = servers.get(serverId);
+        if (process == null || process.isAlive() || server == null) {
+            return;
+        }
+        log.warn("Stdio process of {} exited with code {}", server.getName(), process.exitValue());
+        closeStdioConnection(serverId);
+        stdioProcesses.remove(serverId);
+        if (promoteSpare(server)) {
+            server.setStatus("CONNECTED");
+            server.setLastError(null);
+        }
+    }
+
+    public boolean isHibernated(String serverId) {
+        return hibernated.contains(serverId);
+    }
+
+    /**
+     * When the server was last used by a request, or {@code null} if it never was
+     */
+    public Long getLastUsed(String serverId) {
+        return lastUsed.get(serverId);
+    }
+
+    /**
+     * Idle TTL of a stdio server: its own {@code idleTtlMs}, else {@code mcp.stdio.idle-ttl-ms}; 0 never hibernates
+     */
+    public long getIdleTtlMs(String serverId) {
+        McpProperties.ServerConfig config = configured.get(serverId);
+        if (config != null && config.getIdleTtlMs() != null) {
+            return config.getIdleTtlMs();
+        }
+        return properties.getStdio().getIdleTtlMs();
+    }
+
+    /**
+     * Stops the process of an idle stdio server and keeps it registered, so the next request starts
+     * it again. Servers with requests in flight, or used within {@code idleTtlMs}, are left running.
+     */
+    public boolean hibernate(String serverId, long idleTtlMs) {
+        Process process;
+        StdioConnection connection;
+        long idleSince;
+        synchronized (this) {
+            process = stdioProcesses.get(serverId);
+            connection = stdioConnections.get(serverId);
+            idleSince = Math.max(lastUsed.getOrDefault(serverId, 0L), startedAt.getOrDefault(serverId, 0L));
+            if (process == null || !process.isAlive() || System.currentTimeMillis() - idleSince < idleTtlMs
+                    || (connection != null && connection.pendingRequests() > 0)) {
+                return false;
+            }
+            stdioProcesses.remove(serverId);
+            stdioConnections.remove(serverId);
+            hibernated.add(serverId);
+        }
+        // Stopped outside the lock so a request that arrives meanwhile can already start a new process
+        if (connection != null) {
+            connection.close();
+        }
+        stopSpare(serverId);
+        stopProcesses(List.of(process), properties.getStdio().getShutdownGraceMs());
+        PipelineMetrics.increment("mcp.stdio.hibernation", "server", serverId, "action", "hibernate");
+        log.info("Stdio server {} hibernated after {} ms idle", serverId, System.currentTimeMillis() - idleSince);
+        return true;
+    }
+
+    /**
+     * Starts the process of a hibernated server again; {@code reason} is {@code request}, {@code prestart}
+     * or {@code reconfigured}
+     */
+    public synchronized boolean resume(String serverId, String reason) {
+        McpServer server = servers.get(serverId);
+        if (!hibernated.contains(serverId) || server == null) {
+            return false;
+        }
+        long start = System.currentTimeMillis();
+        try {
+            startStdioProcess(server);
+        } catch (Exception e) {
+            hibernated.remove(serverId);
+            server.setStatus("ERROR");
+            server.setLastError(createStdioErrorMessage(e, server.getUrl()));
+            log.error("Failed to resume hibernated stdio server {}: {}", server.getName(), e.getMessage());
+            return false;
+        }
+        PipelineMetrics.increment("mcp.stdio.hibernation", "server", serverId, "action", reason);
+        log.info("Stdio server {} resumed ({}) in {} ms", server.getName(), reason, System.currentTimeMillis() - start);
+        return true;
     }
 
     public boolean pingServer(String id) {
@@ -687,11 +1325,32 @@ public class McpServerService {
         }
 
         String protocol = extractProtocol(server.getUrl());
+        McpPingEvent event = new McpPingEvent();
+        event.begin();
+        Timer.Sample sample = PipelineMetrics.start();
+        boolean reachable = ping(server, protocol);
+        PipelineMetrics.stop(sample, "mcp.server.ping",
+                "server", server.getId(),
+                "protocol", protocol,
+                "outcome", reachable ? PipelineMetrics.SUCCESS : PipelineMetrics.ERROR);
+        event.end();
+        if (event.shouldCommit()) {
+            event.server = server.getId();
+            event.protocol = protocol;
+            event.reachable = reachable;
+            event.commit();
+        }
+        return reachable;
+    }
+
+    private boolean ping(McpServer server, String protocol) {
         try {
             switch (protocol.toLowerCase()) {
                 case "stdio":
                     return pingStdio(server);
                 case "tcp":
+                    StdioConnection connection = getStreamConnection(server.getId());
+                    return connection != null && answersPing(connection, properties.getPing().getTimeoutMs());
                 case "ws":
                 case "wss":
                     URI uri = URI.create(server.getUrl());
@@ -718,58 +1377,111 @@ public class McpServerService {
     }
 
     private boolean pingStdio(McpServer server) throws Exception {
-        OutputStream stdin = stdioInputs.get(server.getId());
-        InputStream stdout = stdioOutputs.get(server.getId());
-        if (stdin == null || stdout == null) {
+        if (hibernated.contains(server.getId())) {
+            // Pinging must not wake a hibernated server; its next request does
+            return true;
+        }
+        StdioConnection connection = stdioConnections.get(server.getId());
+        if (connection == null || !connection.isOpen()) {
             return false;
         }
 
+        String id = UUID.randomUUID().toString();
         Map<String, Object> request = Map.of(
                 "jsonrpc", "2.0",
-                "id", UUID.randomUUID().toString(),
+                "id", id,
                 "method", "ping",
                 "params", Collections.emptyMap()
         );
 
         String json = new ObjectMapper().writeValueAsString(request);
-        stdin.write((json + "\n").getBytes());
-        stdin.flush();
-
-        BufferedReader reader = new BufferedReader(new InputStreamReader(stdout));
-        ExecutorService executor = Executors.newSingleThreadExecutor();
         long start = System.currentTimeMillis();
-        Future<String> future = executor.submit(reader::readLine);
+        CompletableFuture<String> response = connection.request(id, json, false);
         try {
-            String line = future.get(properties.getPing().getTimeoutMs(), TimeUnit.MILLISECONDS);
+            String line = response.get(properties.getPing().getTimeoutMs(), TimeUnit.MILLISECONDS);
             long elapsed = System.currentTimeMillis() - start;
             if (elapsed > properties.getPing().getWarnThresholdMs()) {
                 log.warn("Ping response from {} took {} ms (threshold {} ms)",
                         server.getName(), elapsed, properties.getPing().getWarnThresholdMs());
             }
-            return line != null && line.toLowerCase().contains("pong");
+            return !new ObjectMapper().readTree(line).has("error");
         } catch (TimeoutException e) {
-            future.cancel(true);
+            response.cancel(true);
             log.warn("Ping to {} timed out after {} ms", server.getName(), properties.getPing().getTimeoutMs());
             reconnectStdio(server);
             return false;
-        } finally {
-            executor.shutdownNow();
         }
     }
 
     private void reconnectStdio(McpServer server) {
         log.info("Reconnecting stdio server {}", server.getName());
+        PipelineMetrics.increment("mcp.stdio.restarts", "server", server.getId());
+        StdioProcessEvent event = new StdioProcessEvent();
+        event.begin();
         Process process = stdioProcesses.remove(server.getId());
+        closeStdioConnection(server.getId());
         if (process != null && process.isAlive()) {
-            process.destroyForcibly();
+            // Stopped with its children (the container of a docker run) in the background, so the
+            // replacement does not wait for the grace period
+            Thread stop = new Thread(() -> stopProcesses(List.of(process), properties.getStdio().getShutdownGraceMs()),
+                    "mcp-stop-" + server.getId());
+            stop.setDaemon(true);
+            stop.start();
         }
-        stdioInputs.remove(server.getId());
-        stdioOutputs.remove(server.getId());
+        if (promoteSpare(server)) {
+            server.setStatus("CONNECTED");
+            server.setLastConnected(System.currentTimeMillis());
+            server.setLastError(null);
+            commitStdioEvent(event, server, "promote", server.getUrl(), stdioProcesses.get(server.getId()).pid(), true);
+            return;
+        }
+        McpServer result = null;
         try {
-            connectStdio(server);
+            result = connectStdio(server);
         } catch (Exception e) {
             log.error("Failed to reconnect stdio server {}: {}", server.getName(), e.getMessage());
         }
+        Process restarted = stdioProcesses.get(server.getId());
+        commitStdioEvent(event, server, "restart", server.getUrl(), restarted != null ? restarted.pid() : -1,
+                result != null && "CONNECTED".equals(result.getStatus()));
+    }
+
+    private void commitStdioEvent(StdioProcessEvent event, McpServer server, String action, String command,
+                                  long pid, boolean succeeded) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.server = server.getId();
+            event.action = action;
+            event.command = redactCommand(command);
+            event.pid = pid;
+            event.succeeded = succeeded;
+            event.commit();
+        }
+    }
+
+    /**
+     * Stdio command without its {@code stdio://} prefix and with the value of every environment
+     * variable passed as {@code -e KEY=VALUE} or {@code --env KEY=VALUE} masked, since those carry tokens
+     */
+    static String redactCommand(String command) {
+        if (command.startsWith("stdio://")) {
+            command = command.substring("stdio://".length());
+        }
+        String[] parts = command.trim().split("\\s+");
+        for (int i = 0; i < parts.length; i++) {
+            if ((parts[i].equals("-e") || parts[i].equals("--env")) && i + 1 < parts.length) {
+                parts[i + 1] = maskValue(parts[i + 1]);
+                i++;
+            } else if (parts[i].startsWith("--env=")) {
+                parts[i] = "--env=" + maskValue(parts[i].substring("--env=".length()));
+            }
+        }
+        return String.join(" ", parts);
+    }
+
+    private static String maskValue(String assignment) {
+        int equals = assignment.indexOf('=');
+        return equals < 0 ? assignment : assignment.substring(0, equals + 1) + "***";
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,127 @@
+package org.shark.mentor.mcp.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.shark.mentor.mcp.config.McpProperties;
+import org.shark.mentor.mcp.observability.PipelineMetrics;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches the external {@code mcp-servers.json} ({@code mcp.servers-file.path}) and applies each
+ * edit to the running registry with {@link McpServerService#applyServerConfigs(List)}, so a config
+ * change only touches the servers it adds, changes or removes. An invalid file leaves the registry
+ * as it is; a deleted file is ignored until it comes back.
+ */
+@Slf4j
+@Service
+public class McpServersFileWatcher {
+
+    private final McpProperties.ServersFile config;
+    private final McpServerService mcpServerService;
+    private WatchService watchService;
+    private byte[] lastContent;
+
+    public McpServersFileWatcher(McpProperties properties, McpServerService mcpServerService) {
+        this.config = properties.getServersFile();
+        this.mcpServerService = mcpServerService;
+    }
+
+    @jakarta.annotation.PostConstruct
+    public void start() {
+        if (config.getPath() == null || config.getPath().isBlank() || !config.isWatch()) {
+            return;
+        }
+        Path file = Path.of(config.getPath()).toAbsolutePath();
+        try {
+            lastContent = Files.isRegularFile(file) ? Files.readAllBytes(file) : null;
+            watchService = FileSystems.getDefault().newWatchService();
+            // Editors often replace the file instead of writing it in place, so the directory is watched
+            file.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        } catch (IOException e) {
+            log.error("Cannot watch {}: {}", file, e.getMessage());
+            return;
+        }
+        Thread watcher = new Thread(() -> watch(file), "mcp-servers-watch");
+        watcher.setDaemon(true);
+        watcher.start();
+        log.info("Watching {} for server changes", file);
+    }
+
+    @jakarta.annotation.PreDestroy
+    public void stop() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+
+    private void watch(Path file) {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean relevant = touches(key, file);
+                // Let the writer finish and fold the burst of events a save produces into one reload
+                WatchKey more;
+                while ((more = watchService.poll(config.getDebounceMs(), TimeUnit.MILLISECONDS)) != null) {
+                    relevant |= touches(more, file);
+                }
+                if (relevant) {
+                    reload(file);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            log.debug("Stopped watching {}", file);
+        }
+    }
+
+    private static boolean touches(WatchKey key, Path file) {
+        boolean relevant = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.context() instanceof Path changed && changed.equals(file.getFileName())) {
+                relevant = true;
+            }
+        }
+        key.reset();
+        return relevant;
+    }
+
+    /**
+     * Applies the file if its content changed since the last successful reload
+     */
+    synchronized McpServerService.ConfigDiff reload(Path file) {
+        if (!Files.isRegularFile(file)) {
+            log.warn("{} was removed, keeping the current servers", file);
+            return null;
+        }
+        try {
+            byte[] content = Files.readAllBytes(file);
+            if (Arrays.equals(content, lastContent)) {
+                return null;
+            }
+            List<McpProperties.ServerConfig> configs = McpServerService.readServerConfigs(new ByteArrayInputStream(content));
+            McpServerService.ConfigDiff diff = mcpServerService.applyServerConfigs(configs);
+            lastContent = content;
+            PipelineMetrics.increment("mcp.config.reload", "outcome", diff.isEmpty() ? "unchanged" : "applied");
+            return diff;
+        } catch (IOException | RuntimeException e) {
+            log.error("Ignoring invalid {}, keeping the current servers: {}", file, e.getMessage());
+            PipelineMetrics.increment("mcp.config.reload", "outcome", "invalid");
+            return null;
+        }
+    }
+}
@@ -2,9 +2,13 @@ package org.shark.mentor.mcp.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import lombok.RequiredArgsConstructor;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.context.Scope;
 import lombok.extern.slf4j.Slf4j;
 import org.shark.mentor.mcp.model.McpServer;
+import org.shark.mentor.mcp.observability.LogPayload;
+import org.shark.mentor.mcp.observability.PipelineTracing;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.io.*;
@@ -22,16 +26,57 @@ import java.util.*;
  */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class McpToolOrchestrator {
 
     private final McpServerService mcpServerService;
     private final McpToolService mcpToolService;
+    private final FunctionCallingPlanner planner;
+    private final ToolPlanExecutor planExecutor;
+
+    public McpToolOrchestrator(McpServerService mcpServerService, McpToolService mcpToolService) {
+        this(mcpServerService, mcpToolService, FunctionCallingPlanner.disabled(), null);
+    }
+
+    @Autowired
+    public McpToolOrchestrator(McpServerService mcpServerService, McpToolService mcpToolService,
+                               FunctionCallingPlanner planner, ToolPlanExecutor planExecutor) {
+        this.mcpServerService = mcpServerService;
+        this.mcpToolService = mcpToolService;
+        this.planner = planner;
+        this.planExecutor = planExecutor;
+    }
 
     /**
      * Executes an MCP tool based on the user's message
      */
     public String executeTool(McpServer server, String userMessage) {
+        return invoke(server, userMessage).output();
+    }
+
+    /**
+     * Executes an MCP tool based on the user's message and reports which tool produced the output
+     */
+    public ToolInvocation invoke(McpServer server, String userMessage) {
+        return invoke(server, userMessage, TurnTimer.disabled());
+    }
+
+    /**
+     * Executes an MCP tool and records tool selection, argument extraction and the MCP round trip in {@code timer}
+     */
+    public ToolInvocation invoke(McpServer server, String userMessage, TurnTimer timer) {
+        Span span = PipelineTracing.startSpan("mcp.tool.execute");
+        span.setAttribute("mcp.server.id", server.getId());
+        try (Scope ignored = span.makeCurrent()) {
+            ToolInvocation invocation = doInvoke(server, userMessage, timer);
+            span.setAttribute("mcp.tool.name", invocation.toolName());
+            return invocation;
+        } finally {
+            span.end();
+        }
+    }
+
+    private ToolInvocation doInvoke(McpServer server, String userMessage, TurnTimer timer) {
+        String toolName = null;
         try {
             // Detectar si el mensaje es para enable_toolset (puede ajustarse según UI/lógica real)
             if (userMessage != null && userMessage.trim().toLowerCase().startsWith("enable toolset")) {
@@ -39,63 +84,117 @@ public class McpToolOrchestrator {
                 String[] parts = userMessage.trim().split("\\s+");
                 String toolsetName = parts.length > 2 ? parts[2] : null;
                 if (toolsetName == null) {
-                    return "Error: Debe especificar el nombre del toolset a habilitar.";
+                    return new ToolInvocation(null, "Error: Debe especificar el nombre del toolset a habilitar.");
                 }
                 Map<String, Object> params = new HashMap<>();
                 params.put("toolset", toolsetName);
                 // Llamada genérica al método enable_toolset
-                return mcpToolService.callMcpMethodViaHttp(server, "enable_toolset", params);
+                return new ToolInvocation("enable_toolset", mcpToolService.callMcpMethodViaHttp(server, "enable_toolset", params));
             }
             // Obtiene las tools usando el servicio centralizado
+            long selectionStart = timer.now();
             List<Map<String, Object>> availableTools = mcpToolService.getTools(server);
 
             if (availableTools.isEmpty()) {
                 log.warn("No tools available for server: {}", server.getName());
-                return "There are no tools available on the selected MCP server.";
+                return new ToolInvocation(null, "There are no tools available on the selected MCP server.");
+            }
+
+            // With function calling the model picks the tools and their arguments, possibly over several steps
+            FunctionCallingPlanner.Session plan = planner.start(server, userMessage, availableTools);
+            List<FunctionCallingPlanner.ToolCall> planned = plan != null ? plan.next() : null;
+            if (planned != null && !planned.isEmpty()) {
+                timer.record(TurnTimer.Stage.TOOL_SELECTION, selectionStart);
+                return planExecutor.execute(server, plan, planned, planCaller(server), timer);
             }
 
             // Select the best tool (you can use the logic from McpToolService or here)
-            String toolName = mcpToolService.selectBestTool(userMessage, server);
+            toolName = selectTool(server, userMessage);
+            timer.record(TurnTimer.Stage.TOOL_SELECTION, selectionStart);
             if (toolName == null) {
-                return "Unable to determine the appropriate tool for your request.";
+                return new ToolInvocation(null, "Unable to determine the appropriate tool for your request.");
             }
+            String selectedTool = toolName;
             Map<String, Object> toolSchema = availableTools.stream()
-                    .filter(t -> toolName.equals(t.get("name")))
+                    .filter(t -> selectedTool.equals(t.get("name")))
                     .findFirst()
                     .orElse(availableTools.get(0));
-            Map<String, Object> arguments = mcpToolService.extractToolArguments(userMessage, toolName,
+            long extractionStart = timer.now();
+            Map<String, Object> arguments = extractArguments(userMessage, toolName,
                     (Map<String, Object>) toolSchema.get("inputSchema"));
+            timer.record(TurnTimer.Stage.ARGUMENT_EXTRACTION, extractionStart);
 
-            log.info("Selected tool '{}' for message: {}", toolName, userMessage);
+            log.info("Selected tool '{}' for message: {}", toolName, LogPayload.of(userMessage));
 
             // Ejecuta la tool seleccionada
-            return executeSelectedTool(server, toolName, arguments);
+            long callStart = timer.now();
+            String output = executeSelectedTool(server, toolName, arguments);
+            timer.record(TurnTimer.Stage.MCP_ROUND_TRIP, callStart);
+            return new ToolInvocation(toolName, output);
 
+        } catch (TurnCancelledException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Error executing MCP tool for server {}: {}", server.getName(), e.getMessage(), e);
-            return "Error executing the tool: " + e.getMessage();
+            PipelineTracing.fail(Span.current(), e);
+            return new ToolInvocation(toolName, "Error executing the tool: " + e.getMessage());
         }
     }
 
-    private String executeSelectedTool(McpServer server, String toolName, Map<String, Object> arguments) throws Exception {
-        String protocol = extractProtocol(server.getUrl());
+    private String selectTool(McpServer server, String userMessage) {
+        Span span = PipelineTracing.startSpan("mcp.tool.select");
+        try (Scope ignored = span.makeCurrent()) {
+            return mcpToolService.selectBestTool(userMessage, server);
+        } finally {
+            span.end();
+        }
+    }
 
-        if ("stdio".equalsIgnoreCase(protocol)) {
-            OutputStream stdin = mcpServerService.getStdioInput(server.getId());
-            InputStream stdout = mcpServerService.getStdioOutput(server.getId());
-            if (stdin == null || stdout == null) {
+    private Map<String, Object> extractArguments(String userMessage, String toolName, Map<String, Object> inputSchema) {
+        Span span = PipelineTracing.startSpan("mcp.tool.arguments");
+        span.setAttribute("mcp.tool.name", toolName);
+        try (Scope ignored = span.makeCurrent()) {
+            return mcpToolService.extractToolArguments(userMessage, toolName, inputSchema);
+        } finally {
+            span.end();
+        }
+    }
+
+    private String executeSelectedTool(McpServer server, String toolName, Map<String, Object> arguments) throws Exception {
+        if (McpServerService.usesStream(server.getUrl())) {
+            StdioConnection connection = mcpServerService.getStreamConnection(server.getId());
+            if (connection == null) {
                 throw new IllegalStateException("STDIO streams not available for server: " + server.getId());
             }
-            return mcpToolService.callToolViaStdio(server, stdin, stdout, toolName, arguments);
+            return mcpToolService.callToolViaStdio(server, connection, toolName, arguments);
         } else {
             return mcpToolService.callToolViaHttp(server, toolName, arguments);
         }
     }
 
-    private String extractProtocol(String url) {
-        if (url == null || !url.contains("://")) {
-            return "unknown";
-        }
-        return url.substring(0, url.indexOf("://"));
+    /**
+     * Runs plan calls on {@code server}; the independent calls of a step share one JSON-RPC batch
+     * when the server accepts batches
+     */
+    private ToolPlanExecutor.ToolCaller planCaller(McpServer server) {
+        return new ToolPlanExecutor.BatchingToolCaller() {
+            @Override
+            public String call(String toolName, Map<String, Object> arguments) throws Exception {
+                return executeSelectedTool(server, toolName, arguments);
+            }
+
+            @Override
+            public boolean batches() {
+                // Servers without batch support get the calls in parallel instead
+                return mcpToolService.acceptsBatches(server);
+            }
+
+            @Override
+            public List<String> callAll(List<FunctionCallingPlanner.ToolCall> calls) throws Exception {
+                return mcpToolService.callTools(server, calls.stream()
+                        .map(call -> new McpToolService.ToolRequest(call.name(), call.arguments()))
+                        .toList());
+            }
+        };
     }
 }
\ No newline at end of file
@@ -2,8 +2,17 @@ package org.shark.mentor.mcp.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Timer;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.context.Scope;
+import jdk.jfr.Event;
 import lombok.extern.slf4j.Slf4j;
 import org.shark.mentor.mcp.model.McpServer;
+import org.shark.mentor.mcp.observability.LogPayload;
+import org.shark.mentor.mcp.observability.PipelineMetrics;
+import org.shark.mentor.mcp.observability.PipelineTracing;
+import org.shark.mentor.mcp.observability.jfr.McpToolCallEvent;
+import org.shark.mentor.mcp.observability.jfr.McpToolsListEvent;
 import org.springframework.stereotype.Service;
 
 import java.io.*;
@@ -14,13 +23,39 @@ import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 @Service
 @Slf4j
 public class McpToolService {
+    private static final long STDIO_LIST_TIMEOUT_MS = 10000;
+    private static final long STDIO_CALL_TIMEOUT_MS = 60000;
+    /** How long a server that rejected a batch gets its requests one by one before batches are tried again */
+    private static final long BATCH_RECHECK_MS = TimeUnit.MINUTES.toMillis(10);
+    /** HTTP statuses with which a server says it does not take batches, as opposed to failing them */
+    private static final Set<Integer> BATCH_REJECTED_STATUSES = Set.of(400, 404, 405, 415);
+
     private final HttpClient httpClient;
     private final ObjectMapper objectMapper = new ObjectMapper();
     private final McpServerService mcpServerService;
+    /** When each server last rejected a JSON-RPC batch; its requests are sent one by one for {@link #BATCH_RECHECK_MS} */
+    private final Map<String, Long> batchRejectedAt = new ConcurrentHashMap<>();
+    /** Last stdio catalog of each server, answered while the server is hibernated */
+    private final Map<String, List<Map<String, Object>>> stdioCatalogs = new ConcurrentHashMap<>();
+
+    /**
+     * One request of a JSON-RPC batch
+     */
+    public record JsonRpcCall(String method, Map<String, Object> params) {
+    }
+
+    /**
+     * One {@code tools/call} of {@link #callTools(McpServer, List)}
+     */
+    public record ToolRequest(String name, Map<String, Object> arguments) {
+    }
 
     public McpToolService(McpServerService mcpServerService) {
         this.httpClient = HttpClient.newBuilder()
@@ -32,11 +67,42 @@ public class McpToolService {
     public List<Map<String, Object>> getTools(McpServer server) {
         log.info("Fetching tools for server: {}", server.getName());
         String protocol = extractProtocol(server.getUrl());
-        List<Map<String, Object>> tools;
-        if ("stdio".equalsIgnoreCase(protocol)) {
-            tools = getToolsViaStdio(server);
-        } else {
-            tools = getToolsViaHttp(server);
+        List<Map<String, Object>> tools = Collections.emptyList();
+        String outcome = PipelineMetrics.ERROR;
+        Timer.Sample sample = PipelineMetrics.start();
+        Span span = PipelineTracing.startClientSpan("mcp.tools.list");
+        span.setAttribute("mcp.server.id", server.getId());
+        span.setAttribute("mcp.transport", protocol);
+        McpToolsListEvent event = new McpToolsListEvent();
+        event.begin();
+        try (Scope ignored = span.makeCurrent()) {
+            if (McpServerService.usesStream(server.getUrl())) {
+                tools = getToolsViaStdio(server, event);
+            } else {
+                tools = getToolsViaHttp(server, event);
+            }
+            // The transports log and swallow their failures, flagging them on the event
+            outcome = event.outcome != null ? event.outcome : tools.isEmpty() ? "empty" : PipelineMetrics.SUCCESS;
+            span.setAttribute("mcp.tools.count", tools.size());
+        } catch (TurnCancelledException e) {
+            outcome = "cancelled";
+            throw e;
+        } catch (RuntimeException e) {
+            PipelineTracing.fail(span, e);
+            throw e;
+        } finally {
+            span.setAttribute("mcp.outcome", outcome);
+            span.end();
+            PipelineMetrics.stop(sample, "mcp.tools.list",
+                    "server", server.getId(), "transport", protocol, "outcome", outcome);
+            event.end();
+            if (event.shouldCommit()) {
+                event.server = server.getId();
+                event.transport = protocol;
+                event.toolCount = tools.size();
+                event.outcome = outcome;
+                event.commit();
+            }
         }
         // Normaliza la clave input_schema a inputSchema para compatibilidad
         for (Map<String, Object> tool : tools) {
@@ -44,7 +110,9 @@ public class McpToolService {
                 tool.put("inputSchema", tool.get("input_schema"));
             }
         }
-        log.info("Tools encontradas para el servidor {}: {}", server.getName(), tools);
+        log.atInfo().addKeyValue("server", server.getId()).addKeyValue("tools", tools.size())
+                .log("Tools encontradas para el servidor {}", server.getName());
+        log.debug("Tool catalog of {}: {}", server.getName(), LogPayload.of(tools));
         return tools;
     }
 
@@ -55,79 +123,82 @@ public class McpToolService {
         return url.substring(0, url.indexOf("://"));
     }
 
-    private List<Map<String, Object>> getToolsViaStdio(McpServer server) {
+    private List<Map<String, Object>> getToolsViaStdio(McpServer server, McpToolsListEvent event) {
         log.debug("Attempting to fetch tools via stdio for server: {}", server.getName());
+        List<Map<String, Object>> kept = stdioCatalogs.get(server.getId());
+        if (kept != null && mcpServerService.isHibernated(server.getId())) {
+            // Listing tools is not a reason to wake a hibernated server up
+            log.debug("Using the catalog kept for hibernated server {}", server.getName());
+            return copyCatalog(kept);
+        }
         try {
-            OutputStream stdin = mcpServerService.getStdioInput(server.getId());
-            InputStream stdout = mcpServerService.getStdioOutput(server.getId());
+            StdioConnection connection = mcpServerService.getStreamConnection(server.getId());
 
-            if (stdin == null || stdout == null) {
+            if (connection == null) {
                 log.warn("No stdio streams available for server: {}", server.getName());
+                event.outcome = PipelineMetrics.ERROR;
                 return Collections.emptyList();
             }
 
+            String id = UUID.randomUUID().toString();
             Map<String, Object> request = new HashMap<>();
             request.put("jsonrpc", "2.0");
-            request.put("id", UUID.randomUUID().toString());
+            request.put("id", id);
             request.put("method", "tools/list");
-            request.put("params", new HashMap<>());
+            request.put("params", withTraceMeta(null));
 
             String jsonRequest = objectMapper.writeValueAsString(request);
-            log.debug("Sending tools/list via stdio to {}: {}", server.getName(), jsonRequest);
-
-            stdin.write((jsonRequest + "\n").getBytes(StandardCharsets.UTF_8));
-            stdin.flush();
-
-            BufferedReader reader = new BufferedReader(new InputStreamReader(stdout, StandardCharsets.UTF_8));
-
-            for (int i = 0; i < 10; i++) {
-                String line = reader.readLine();
-                if (line == null) break;
-
-                line = line.trim();
-                if (line.isEmpty()) continue;
-
-                log.debug("Stdio response received from {}: {}", server.getName(), line);
-
-                try {
-                    JsonNode responseNode = objectMapper.readTree(line);
-                    if (responseNode.has("result")) {
-                        JsonNode result = responseNode.get("result");
-                        if (result.has("tools")) {
-                            JsonNode toolsNode = result.get("tools");
-                            if (toolsNode.isArray()) {
-                                List<Map<String, Object>> tools = objectMapper.convertValue(toolsNode, List.class);
-                                log.info("Retrieved {} tools via stdio from {}", tools.size(), server.getName());
-                                return tools;
-                            }
-                        }
-                    } else if (responseNode.has("error")) {
-                        log.warn("Error response from stdio tools/list in {}: {}", server.getName(), responseNode.get("error"));
-                        break;
+            log.debug("Sending tools/list via stdio to {}: {}", server.getName(), LogPayload.of(jsonRequest));
+            event.bytesOut = utf8Length(event, jsonRequest) + 1;
+
+            String line = TurnCancellation.await(connection.request(id, jsonRequest, false), STDIO_LIST_TIMEOUT_MS);
+            log.debug("Stdio response received from {}: {}", server.getName(), LogPayload.of(line));
+            event.bytesIn += utf8Length(event, line);
+
+            JsonNode responseNode = objectMapper.readTree(line);
+            if (responseNode.has("result")) {
+                JsonNode result = responseNode.get("result");
+                if (result.has("tools")) {
+                    JsonNode toolsNode = result.get("tools");
+                    if (toolsNode.isArray()) {
+                        List<Map<String, Object>> tools = objectMapper.convertValue(toolsNode, List.class);
+                        log.info("Retrieved {} tools via stdio from {}", tools.size(), server.getName());
+                        stdioCatalogs.put(server.getId(), copyCatalog(tools));
+                        return tools;
                     }
-                } catch (Exception e) {
-                    log.debug("Line is not valid JSON, continuing: {}", line);
                 }
+            } else if (responseNode.has("error")) {
+                log.warn("Error response from stdio tools/list in {}: {}", server.getName(), responseNode.get("error"));
+                event.outcome = PipelineMetrics.ERROR;
             }
 
+        } catch (TurnCancelledException e) {
+            throw e;
         } catch (Exception e) {
             log.warn("Failed to obtain tools via stdio from {}: {}", server.getName(), e.getMessage());
+            event.outcome = PipelineMetrics.ERROR;
         }
 
         return Collections.emptyList();
     }
 
-    private List<Map<String, Object>> getToolsViaHttp(McpServer server) {
+    @SuppressWarnings("unchecked")
+    private List<Map<String, Object>> copyCatalog(List<Map<String, Object>> tools) {
+        return objectMapper.convertValue(tools, List.class);
+    }
+
+    private List<Map<String, Object>> getToolsViaHttp(McpServer server, McpToolsListEvent event) {
         log.debug("Attempting to fetch tools via HTTP for server: {}", server.getName());
         try {
             Map<String, Object> requestBody = new HashMap<>();
             requestBody.put("jsonrpc", "2.0");
             requestBody.put("id", UUID.randomUUID().toString());
             requestBody.put("method", "tools/list");
-            requestBody.put("params", new HashMap<>());
+            requestBody.put("params", withTraceMeta(null));
 
             String jsonBody = objectMapper.writeValueAsString(requestBody);
-            log.debug("Requesting tools from {}: {}", server.getUrl(), jsonBody);
+            log.debug("Requesting tools from {}: {}", server.getUrl(), LogPayload.of(jsonBody));
+            event.bytesOut = utf8Length(event, jsonBody);
 
             HttpRequest request = HttpRequest.newBuilder()
                     .uri(URI.create(server.getUrl() + "/mcp"))
@@ -137,16 +208,22 @@ public class McpToolService {
                     .POST(HttpRequest.BodyPublishers.ofString(jsonBody))
                     .build();
 
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            HttpResponse<String> response = send(request);
             String responseText = response.body();
-            log.debug("Raw tools/list response from {}: {}", server.getName(), responseText);
+            log.debug("Raw tools/list response from {}: {}", server.getName(), LogPayload.of(responseText));
+            event.bytesIn = utf8Length(event, responseText);
 
             if (response.statusCode() >= 200 && response.statusCode() < 300) {
                 JsonNode rootNode = objectMapper.readTree(responseText);
                 if (!rootNode.isObject()) {
-                    log.warn("Expected JSON object from tools/list, but got: {}", rootNode);
+                    log.warn("Expected JSON object from tools/list, but got: {}", LogPayload.of(rootNode));
+                    event.outcome = PipelineMetrics.ERROR;
                     return Collections.emptyList();
                 }
+                if (rootNode.has("error")) {
+                    log.warn("Error response from HTTP tools/list in {}: {}", server.getName(), rootNode.get("error"));
+                    event.outcome = PipelineMetrics.ERROR;
+                }
                 if (rootNode.has("result") && rootNode.get("result").has("tools")) {
                     JsonNode toolsNode = rootNode.get("result").get("tools");
                     if (toolsNode.isArray()) {
@@ -157,17 +234,28 @@ public class McpToolService {
                 }
             } else {
                 log.warn("Error HTTP desde tools/list en {}: status={}, body={}",
-                        server.getName(), response.statusCode(), responseText);
+                        server.getName(), response.statusCode(), LogPayload.of(responseText));
+                event.outcome = PipelineMetrics.ERROR;
             }
+        } catch (TurnCancelledException e) {
+            throw e;
         } catch (Exception e) {
             log.warn("Failed to obtain tools via HTTP from {}: {}", server.getName(), e.getMessage());
+            event.outcome = PipelineMetrics.ERROR;
         }
         return Collections.emptyList();
     }
 
     public String selectBestTool(String message, McpServer server) {
-        log.info("Selecting best tool for message: '{}' on server: {}", message, server.getName());
-        List<Map<String, Object>> tools = getTools(server);
+        log.info("Selecting best tool for message: '{}' on server: {}", LogPayload.of(message), server.getName());
+        return selectBestTool(message, getTools(server));
+    }
+
+    /**
+     * Picks the tool whose name, or failing that a description word, appears in the message;
+     * falls back to the first tool of the catalog
+     */
+    public String selectBestTool(String message, List<Map<String, Object>> tools) {
         String lower = message.toLowerCase();
         for (Map<String, Object> tool : tools) {
             Object nameObj = tool.get("name");
@@ -195,7 +283,7 @@ public class McpToolService {
     }
 
     public Map<String, Object> extractToolArguments(String message, String toolName, Map<String, Object> inputSchema) {
-        log.info("Extracting arguments for tool '{}' from message: '{}'", toolName, message);
+        log.info("Extracting arguments for tool '{}' from message: '{}'", toolName, LogPayload.of(message));
         Map<String, Object> args = new HashMap<>();
         switch (toolName) {
             case "list_repositories":
@@ -216,7 +304,7 @@ public class McpToolService {
                 extractRepoInfo(message, args);
                 break;
         }
-        log.debug("Extracted arguments: {}", args);
+        log.debug("Extracted arguments: {}", LogPayload.of(args));
         if (inputSchema != null) {
             List<String> validationErrors = validateArgumentsAgainstSchema(inputSchema, args);
             if (!validationErrors.isEmpty()) {
@@ -256,7 +344,7 @@ public class McpToolService {
                 .orElse(null);
     }
 
-    private List<String> validateArgumentsAgainstSchema(Map<String, Object> inputSchema, Map<String, Object> arguments) {
+    List<String> validateArgumentsAgainstSchema(Map<String, Object> inputSchema, Map<String, Object> arguments) {
         List<String> errors = new ArrayList<>();
         if (inputSchema == null) {
             return errors;
@@ -323,7 +411,41 @@ public class McpToolService {
 
     // MCP compliant: POST a /mcp con JSON-RPC tools/call
     public String callToolViaHttp(McpServer server, String toolName, Map<String, Object> arguments) throws IOException, InterruptedException {
-        log.info("Calling tool '{}' via HTTP on server: {} with arguments: {}", toolName, server.getName(), arguments);
+        Timer.Sample sample = PipelineMetrics.start();
+        String outcome = PipelineMetrics.ERROR;
+        Span span = toolCallSpan(server, toolName, "http");
+        McpToolCallEvent event = new McpToolCallEvent();
+        event.begin();
+        try (Scope ignored = span.makeCurrent()) {
+            String response = doCallToolViaHttp(server, toolName, arguments, event);
+            outcome = toolCallOutcome(response);
+            event.bytesIn = utf8Length(event, response);
+            return response;
+        } catch (TurnCancelledException e) {
+            outcome = "cancelled";
+            throw e;
+        } catch (IOException | RuntimeException e) {
+            PipelineTracing.fail(span, e);
+            throw e;
+        } finally {
+            span.setAttribute("mcp.outcome", outcome);
+            span.end();
+            PipelineMetrics.stop(sample, "mcp.tools.call",
+                    "server", server.getId(), "tool", toolName, "transport", "http", "outcome", outcome);
+            event.end();
+            if (event.shouldCommit()) {
+                event.server = server.getId();
+                event.tool = toolName;
+                event.transport = "http";
+                event.outcome = outcome;
+                event.commit();
+            }
+        }
+    }
+
+    private String doCallToolViaHttp(McpServer server, String toolName, Map<String, Object> arguments,
+                                     McpToolCallEvent event) throws IOException, InterruptedException {
+        log.info("Calling tool '{}' via HTTP on server: {} with arguments: {}", toolName, server.getName(), LogPayload.of(arguments));
         Map<String, Object> inputSchema = getInputSchema(server, toolName);
         List<String> validationErrors = validateArgumentsAgainstSchema(inputSchema, arguments);
         if (!validationErrors.isEmpty()) {
@@ -334,13 +456,14 @@ public class McpToolService {
                 "jsonrpc", "2.0",
                 "id", UUID.randomUUID().toString(),
                 "method", "tools/call",
-                "params", Map.of(
+                "params", withTraceMeta(Map.of(
                         "name", toolName,
                         "arguments", arguments
-                )
+                ))
         );
         String json = objectMapper.writeValueAsString(toolCall);
-        log.debug("Sending tool call via HTTP: {}", json);
+        log.debug("Sending tool call via HTTP: {}", LogPayload.of(json));
+        event.bytesOut = utf8Length(event, json);
         HttpRequest httpRequest = HttpRequest.newBuilder()
                 .uri(URI.create(server.getUrl() + "/mcp"))
                 .timeout(Duration.ofSeconds(10))
@@ -348,74 +471,137 @@ public class McpToolService {
                 .header("Accept", "application/json")
                 .POST(HttpRequest.BodyPublishers.ofString(json))
                 .build();
-        HttpResponse<String> response = httpClient.send(httpRequest, HttpResponse.BodyHandlers.ofString());
-        log.debug("Respuesta de llamada HTTP: {}", response.body());
+        HttpResponse<String> response = send(httpRequest);
+        log.debug("Respuesta de llamada HTTP: {}", LogPayload.of(response.body()));
         return response.body();
     }
 
-    public String callToolViaStdio(McpServer server, OutputStream stdin, InputStream stdout, String toolName, Map<String, Object> arguments) throws IOException {
-        log.info("Calling tool '{}' via stdio with arguments: {}", toolName, arguments);
+    public String callToolViaStdio(McpServer server, StdioConnection connection, String toolName, Map<String, Object> arguments) throws IOException, InterruptedException {
+        Timer.Sample sample = PipelineMetrics.start();
+        String outcome = PipelineMetrics.ERROR;
+        String transport = extractProtocol(server.getUrl());
+        Span span = toolCallSpan(server, toolName, transport);
+        McpToolCallEvent event = new McpToolCallEvent();
+        event.begin();
+        try (Scope ignored = span.makeCurrent()) {
+            String response = doCallToolViaStdio(server, connection, toolName, arguments, event);
+            outcome = toolCallOutcome(response);
+            event.bytesIn = utf8Length(event, response);
+            return response;
+        } catch (TurnCancelledException e) {
+            outcome = "cancelled";
+            throw e;
+        } catch (IOException | RuntimeException e) {
+            PipelineTracing.fail(span, e);
+            throw e;
+        } finally {
+            span.setAttribute("mcp.outcome", outcome);
+            span.end();
+            PipelineMetrics.stop(sample, "mcp.tools.call",
+                    "server", server.getId(), "tool", toolName, "transport", transport, "outcome", outcome);
+            event.end();
+            if (event.shouldCommit()) {
+                event.server = server.getId();
+                event.tool = toolName;
+                event.transport = transport;
+                event.outcome = outcome;
+                event.commit();
+            }
+        }
+    }
+
+    private String doCallToolViaStdio(McpServer server, StdioConnection connection, String toolName,
+                                      Map<String, Object> arguments, McpToolCallEvent event) throws IOException, InterruptedException {
+        log.info("Calling tool '{}' via stdio with arguments: {}", toolName, LogPayload.of(arguments));
         Map<String, Object> inputSchema = getInputSchema(server, toolName);
         List<String> validationErrors = validateArgumentsAgainstSchema(inputSchema, arguments);
         if (!validationErrors.isEmpty()) {
             log.warn("Argument validation failed: {}", validationErrors);
             return buildValidationError(validationErrors);
         }
+        String id = UUID.randomUUID().toString();
         Map<String, Object> toolCall = Map.of(
                 "jsonrpc", "2.0",
-                "id", UUID.randomUUID().toString(),
+                "id", id,
                 "method", "tools/call",
-                "params", Map.of(
+                "params", withTraceMeta(Map.of(
                         "name", toolName,
                         "arguments", arguments
-                )
+                ))
         );
         String json = objectMapper.writeValueAsString(toolCall);
-        log.debug("Sending tool call via stdio: {}", json);
-        byte[] jsonBytes = json.getBytes(StandardCharsets.UTF_8);
-        String header = "Content-Length: " + jsonBytes.length + "\r\n\r\n";
-        stdin.write(header.getBytes(StandardCharsets.UTF_8));
-        stdin.write(jsonBytes);
-        stdin.flush();
-
-        BufferedReader reader = new BufferedReader(new InputStreamReader(stdout, StandardCharsets.UTF_8));
-        int contentLength = -1;
-        String line;
-        while ((line = reader.readLine()) != null) {
-            if (line.isEmpty()) {
-                break;
-            }
-            if (line.toLowerCase().startsWith("content-length:")) {
-                contentLength = Integer.parseInt(line.substring("content-length:".length()).trim());
-            }
+        log.debug("Sending tool call via stdio: {}", LogPayload.of(json));
+        event.bytesOut = utf8Length(event, json);
+
+        // Waits on the connection's reader thread, so a cancelled turn can stop waiting at once
+        String result = TurnCancellation.await(connection.request(id, json, true), STDIO_CALL_TIMEOUT_MS);
+        log.debug("Respuesta de llamada stdio: {}", LogPayload.of(result));
+        return result;
+    }
+
+    /**
+     * Sends asynchronously so that cancelling the turn aborts the exchange instead of waiting for it
+     */
+    private HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+        return TurnCancellation.await(httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+    }
+
+    /**
+     * Encoded size of a payload for JFR events, skipped when the event is not being recorded
+     */
+    private static long utf8Length(Event event, String payload) {
+        if (payload == null || !event.isEnabled()) {
+            return 0;
+        }
+        return payload.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private Span toolCallSpan(McpServer server, String toolName, String transport) {
+        Span span = PipelineTracing.startClientSpan("mcp.tools.call");
+        span.setAttribute("mcp.server.id", server.getId());
+        span.setAttribute("mcp.tool.name", toolName);
+        span.setAttribute("mcp.transport", transport);
+        return span;
+    }
+
+    /**
+     * Copies the JSON-RPC params and adds the current trace context under {@code _meta}
+     * so MCP servers that understand W3C trace context can join the trace
+     */
+    private Map<String, Object> withTraceMeta(Map<String, Object> params) {
+        Map<String, Object> traced = params != null ? new HashMap<>(params) : new HashMap<>();
+        Map<String, Object> meta = PipelineTracing.traceMeta();
+        if (!meta.isEmpty()) {
+            traced.put("_meta", meta);
         }
-        if (contentLength < 0) {
-            log.warn("Content-Length not found in stdio response");
-            return null;
+        return traced;
+    }
+
+    /**
+     * Classifies a tools/call response for metrics without fully parsing large payloads
+     */
+    private String toolCallOutcome(String response) {
+        if (response == null) {
+            return "no_response";
         }
-        char[] buf = new char[contentLength];
-        int read = 0;
-        while (read < contentLength) {
-            int n = reader.read(buf, read, contentLength - read);
-            if (n == -1) break;
-            read += n;
+        if (response.startsWith("{\"error\":") && response.contains("\"Invalid arguments\"")) {
+            return "invalid_arguments";
         }
-        String result = new String(buf, 0, read);
-        log.debug("Respuesta de llamada stdio: {}", result);
-        return result;
+        String head = response.substring(0, Math.min(response.length(), 256));
+        return head.contains("\"error\"") ? PipelineMetrics.ERROR : PipelineMetrics.SUCCESS;
     }
 
     // Método genérico para invocar cualquier método MCP vía HTTP
     public String callMcpMethodViaHttp(McpServer server, String method, Map<String, Object> params) throws IOException, InterruptedException {
-        log.info("Calling MCP method '{}' via HTTP on server: {} with params: {}", method, server.getName(), params);
+        log.info("Calling MCP method '{}' via HTTP on server: {} with params: {}", method, server.getName(), LogPayload.of(params));
         Map<String, Object> mcpCall = Map.of(
                 "jsonrpc", "2.0",
                 "id", UUID.randomUUID().toString(),
                 "method", method,
-                "params", params != null ? params : new HashMap<>()
+                "params", withTraceMeta(params)
         );
         String json = objectMapper.writeValueAsString(mcpCall);
-        log.debug("Sending MCP method call via HTTP: {}", json);
+        log.debug("Sending MCP method call via HTTP: {}", LogPayload.of(json));
         HttpRequest httpRequest = HttpRequest.newBuilder()
                 .uri(URI.create(server.getUrl() + "/mcp"))
                 .timeout(Duration.ofSeconds(10))
@@ -423,8 +609,229 @@ public class McpToolService {
                 .header("Accept", "application/json")
                 .POST(HttpRequest.BodyPublishers.ofString(json))
                 .build();
-        HttpResponse<String> response = httpClient.send(httpRequest, HttpResponse.BodyHandlers.ofString());
-        log.debug("Respuesta de llamada HTTP: {}", response.body());
+        HttpResponse<String> response = send(httpRequest);
+        log.debug("Respuesta de llamada HTTP: {}", LogPayload.of(response.body()));
         return response.body();
     }
-}
\ No newline at end of file
+
+    /**
+     * Calls several tools of one server in a single round trip. The catalog is fetched once to
+     * validate every call, and the valid calls go out as one JSON-RPC batch (see {@link #callBatch}).
+     * Returns each call's raw response, or its validation error, in request order.
+     */
+    public List<String> callTools(McpServer server, List<ToolRequest> requests) throws IOException, InterruptedException {
+        String transport = McpServerService.usesStream(server.getUrl()) ? extractProtocol(server.getUrl()) : "http";
+        long start = System.nanoTime();
+        Span span = PipelineTracing.startClientSpan("mcp.tools.call.batch");
+        span.setAttribute("mcp.server.id", server.getId());
+        span.setAttribute("mcp.transport", transport);
+        span.setAttribute("mcp.batch.size", requests.size());
+        String[] responses = new String[requests.size()];
+        try (Scope ignored = span.makeCurrent()) {
+            List<Map<String, Object>> tools = getTools(server);
+            List<JsonRpcCall> calls = new ArrayList<>();
+            List<Integer> positions = new ArrayList<>();
+            for (int i = 0; i < requests.size(); i++) {
+                ToolRequest request = requests.get(i);
+                Map<String, Object> inputSchema = tools.stream()
+                        .filter(t -> request.name().equals(t.get("name")))
+                        .findFirst()
+                        .map(t -> (Map<String, Object>) t.get("inputSchema"))
+                        .orElse(null);
+                List<String> validationErrors = validateArgumentsAgainstSchema(inputSchema, request.arguments());
+                if (!validationErrors.isEmpty()) {
+                    log.warn("Argument validation failed for '{}': {}", request.name(), validationErrors);
+                    responses[i] = buildValidationError(validationErrors);
+                } else {
+                    calls.add(new JsonRpcCall("tools/call", Map.of("name", request.name(), "arguments", request.arguments())));
+                    positions.add(i);
+                }
+            }
+            log.info("Calling {} tools of {} in one batch", calls.size(), server.getName());
+            List<String> results = callBatch(server, calls);
+            for (int j = 0; j < results.size(); j++) {
+                responses[positions.get(j)] = results.get(j);
+            }
+        } catch (IOException | RuntimeException e) {
+            PipelineTracing.fail(span, e);
+            throw e;
+        } finally {
+            span.end();
+        }
+
+        long elapsedNanos = System.nanoTime() - start;
+        for (int i = 0; i < requests.size(); i++) {
+            PipelineMetrics.timer("mcp.tools.call", "server", server.getId(), "tool", requests.get(i).name(),
+                    "transport", transport, "outcome", toolCallOutcome(responses[i])).record(elapsedNanos, TimeUnit.NANOSECONDS);
+        }
+        return Arrays.asList(responses);
+    }
+
+    /**
+     * Whether requests to {@code server} are sent as batches; false for a while after it rejected one
+     */
+    public boolean acceptsBatches(McpServer server) {
+        Long rejectedAt = batchRejectedAt.get(server.getId());
+        if (rejectedAt == null) {
+            return true;
+        }
+        if (System.currentTimeMillis() - rejectedAt < BATCH_RECHECK_MS) {
+            return false;
+        }
+        batchRejectedAt.remove(server.getId(), rejectedAt);
+        return true;
+    }
+
+    /**
+     * Sends {@code calls} to the server as one JSON-RPC batch array and returns each raw response in
+     * request order, matched by id. A server that rejects the batch (HTTP 400, 404, 405 or 415, or a
+     * {@code -32600} error without id) gets the calls one by one, and no batches for a while; a request
+     * missing from the batch response is retried on its own. Any other failure of the batch, which
+     * the server may have partly executed, becomes an error response for each call and is not resent.
+     */
+    public List<String> callBatch(McpServer server, List<JsonRpcCall> calls) throws IOException, InterruptedException {
+        boolean stdio = McpServerService.usesStream(server.getUrl());
+        if (calls.size() <= 1 || !acceptsBatches(server)) {
+            return callEach(server, calls, stdio);
+        }
+        List<String> ids = new ArrayList<>();
+        List<Map<String, Object>> batch = new ArrayList<>();
+        for (JsonRpcCall call : calls) {
+            String id = UUID.randomUUID().toString();
+            ids.add(id);
+            batch.add(Map.of(
+                    "jsonrpc", "2.0",
+                    "id", id,
+                    "method", call.method(),
+                    "params", withTraceMeta(call.params())
+            ));
+        }
+        String json = objectMapper.writeValueAsString(batch);
+        log.debug("Sending JSON-RPC batch of {} requests to {}: {}", calls.size(), server.getName(), LogPayload.of(json));
+
+        Map<String, String> byId;
+        try {
+            byId = stdio ? sendBatchViaStdio(server, ids, json) : sendBatchViaHttp(server, ids, json);
+        } catch (BatchRejectedException e) {
+            log.info("El servidor {} no acepta batches JSON-RPC, se envían las peticiones una a una: {}",
+                    server.getName(), e.getMessage());
+            batchRejectedAt.put(server.getId(), System.currentTimeMillis());
+            PipelineMetrics.increment("mcp.batch", "server", server.getId(), "outcome", "rejected");
+            return callEach(server, calls, stdio);
+        }
+
+        List<String> responses = new ArrayList<>();
+        int missing = 0;
+        for (int i = 0; i < calls.size(); i++) {
+            String response = byId.get(ids.get(i));
+            if (response == null) {
+                missing++;
+                response = callOne(server, calls.get(i), stdio);
+            }
+            responses.add(response);
+        }
+        PipelineMetrics.increment("mcp.batch", "server", server.getId(), "outcome", missing == 0 ? "complete" : "partial");
+        PipelineMetrics.record("mcp.batch.size", "requests", calls.size(), "server", server.getId());
+        return responses;
+    }
+
+    private Map<String, String> sendBatchViaHttp(McpServer server, List<String> ids, String json) throws IOException, InterruptedException {
+        HttpRequest httpRequest = HttpRequest.newBuilder()
+                .uri(URI.create(server.getUrl() + "/mcp"))
+                .timeout(Duration.ofSeconds(10))
+                .header("Content-Type", "application/json")
+                .header("Accept", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+        HttpResponse<String> response = send(httpRequest);
+        log.debug("Respuesta de batch HTTP: {}", LogPayload.of(response.body()));
+        JsonNode root;
+        try {
+            root = objectMapper.readTree(response.body());
+        } catch (IOException e) {
+            root = null;
+        }
+        if (root != null && root.isObject() && BatchRejectedException.isRejection(root)) {
+            throw new BatchRejectedException("HTTP " + response.statusCode() + ": " + root.get("error"));
+        }
+        if (BATCH_REJECTED_STATUSES.contains(response.statusCode())) {
+            throw new BatchRejectedException("HTTP " + response.statusCode());
+        }
+        Map<String, String> byId = new HashMap<>();
+        if (response.statusCode() / 100 != 2 || root == null || !root.isArray()) {
+            // Temporary or unknown failure: the calls may have run, so each one fails instead of being resent
+            String reason = response.statusCode() / 100 != 2 ? "HTTP " + response.statusCode()
+                    : "batch response is not an array";
+            log.warn("Batch to {} failed: {}", server.getName(), reason);
+            PipelineMetrics.increment("mcp.batch", "server", server.getId(), "outcome", "error");
+            for (String id : ids) {
+                byId.put(id, errorResponse(id, reason));
+            }
+            return byId;
+        }
+        for (JsonNode entry : root) {
+            if (entry.hasNonNull("id")) {
+                byId.put(entry.get("id").asText(), entry.toString());
+            }
+        }
+        return byId;
+    }
+
+    private Map<String, String> sendBatchViaStdio(McpServer server, List<String> ids, String json) throws IOException, InterruptedException {
+        StdioConnection connection = requireStdioConnection(server);
+        List<CompletableFuture<String>> futures = connection.requestBatch(ids, json, true);
+        long deadline = System.currentTimeMillis() + STDIO_CALL_TIMEOUT_MS;
+        Map<String, String> byId = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            long remaining = Math.max(1, deadline - System.currentTimeMillis());
+            try {
+                byId.put(ids.get(i), TurnCancellation.await(futures.get(i), remaining));
+            } catch (BatchRejectedException e) {
+                futures.forEach(future -> future.cancel(true));
+                throw e;
+            } catch (IOException e) {
+                // Resending could run the tool twice, so the request fails instead of falling back
+                byId.put(ids.get(i), errorResponse(ids.get(i), String.valueOf(e.getMessage())));
+            }
+        }
+        return byId;
+    }
+
+    private String errorResponse(String id, String message) throws IOException {
+        return objectMapper.writeValueAsString(Map.of(
+                "jsonrpc", "2.0",
+                "id", id,
+                "error", Map.of("code", -32603, "message", message)
+        ));
+    }
+
+    private List<String> callEach(McpServer server, List<JsonRpcCall> calls, boolean stdio) throws IOException, InterruptedException {
+        List<String> responses = new ArrayList<>();
+        for (JsonRpcCall call : calls) {
+            responses.add(callOne(server, call, stdio));
+        }
+        return responses;
+    }
+
+    private String callOne(McpServer server, JsonRpcCall call, boolean stdio) throws IOException, InterruptedException {
+        if (!stdio) {
+            return callMcpMethodViaHttp(server, call.method(), call.params());
+        }
+        String id = UUID.randomUUID().toString();
+        String json = objectMapper.writeValueAsString(Map.of(
+                "jsonrpc", "2.0",
+                "id", id,
+                "method", call.method(),
+                "params", withTraceMeta(call.params())
+        ));
+        return TurnCancellation.await(requireStdioConnection(server).request(id, json, true), STDIO_CALL_TIMEOUT_MS);
+    }
+
+    private StdioConnection requireStdioConnection(McpServer server) {
+        StdioConnection connection = mcpServerService.getStreamConnection(server.getId());
+        if (connection == null) {
+            throw new IllegalStateException("STDIO streams not available for server: " + server.getId());
+        }
+        return connection;
+    }
+}
@@ -0,0 +1,210 @@
+package org.shark.mentor.mcp.service;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.shark.mentor.mcp.config.LlmProperties;
+import org.shark.mentor.mcp.llm.OllamaClient;
+import org.shark.mentor.mcp.observability.PipelineMetrics;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loads every configured Ollama model on every endpoint at startup and keeps it resident with
+ * periodic keep-alive loads while chat traffic is active. Unless {@code llm.warmup.gate-readiness} is off,
+ * readiness stays OUT_OF_SERVICE until each model has been loaded once (see {@code LlmModelHealthIndicator}).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ModelWarmupService {
+
+    private static final long RETRY_DELAY_MS = 15000;
+
+    private final LlmProperties props;
+    private final LlmServiceEnhanced llmService;
+
+    private final List<Target> targets = new ArrayList<>();
+    private ScheduledExecutorService executor;
+
+    /**
+     * Warm-up state of one model on one endpoint
+     */
+    @Getter
+    public static final class Target {
+        @Getter(AccessLevel.NONE)
+        private final OllamaClient client;
+        private final String model;
+        @Getter(AccessLevel.NONE)
+        private final LlmProperties.ModelWarmup settings;
+        private volatile boolean warmedUp;
+        private volatile boolean resident;
+        private volatile String expiresAt;
+        private volatile Long lastLoadMs;
+        private volatile String lastError;
+
+        private Target(OllamaClient client, String model, LlmProperties.ModelWarmup settings) {
+            this.client = client;
+            this.model = model;
+            this.settings = settings;
+        }
+
+        public String getEndpoint() {
+            return client.getBaseUrl();
+        }
+    }
+
+    @jakarta.annotation.PostConstruct
+    public void start() {
+        LlmProperties.Warmup warmup = props.getWarmup();
+        if (!isOllama()) {
+            log.info("Model warm-up skipped: provider {} has no model to load", props.getProvider());
+            return;
+        }
+        Duration timeout = Duration.ofMillis(warmup.getTimeoutMs());
+        for (String endpoint : props.getApi().endpoints()) {
+            OllamaClient client = client(endpoint, timeout);
+            for (String model : models()) {
+                LlmProperties.ModelWarmup settings = warmup.forModel(model);
+                if (settings.getEnabled()) {
+                    targets.add(new Target(client, model, settings));
+                }
+            }
+        }
+        if (targets.isEmpty()) {
+            log.info("Model warm-up disabled");
+            return;
+        }
+
+        executor = Executors.newScheduledThreadPool(Math.min(targets.size(), 4), task -> {
+            Thread thread = new Thread(task, "llm-warmup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (Target target : targets) {
+            executor.execute(() -> warm(target));
+        }
+    }
+
+    @jakarta.annotation.PreDestroy
+    public void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    OllamaClient client(String endpoint, Duration timeout) {
+        return new OllamaClient(endpoint, timeout);
+    }
+
+    /**
+     * Models to keep resident
+     */
+    Set<String> models() {
+        Set<String> models = new LinkedHashSet<>();
+        if (props.getModel() != null) {
+            models.add(props.getModel());
+        }
+        if (props.getModelRouting().isEnabled()) {
+            for (LlmProperties.ModelRoute route : props.getModelRouting().getRoutes()) {
+                if (route.getModel() != null) {
+                    models.add(route.getModel());
+                }
+            }
+        }
+        return models;
+    }
+
+    public boolean isApplicable() {
+        return !targets.isEmpty();
+    }
+
+    public boolean isReady() {
+        return targets.stream().allMatch(Target::isWarmedUp);
+    }
+
+    public boolean gatesReadiness() {
+        return props.getWarmup().isGateReadiness();
+    }
+
+    public List<Target> getTargets() {
+        return List.copyOf(targets);
+    }
+
+    private boolean isOllama() {
+        return props.getWarmup().isEnabled() && "ollama".equalsIgnoreCase(props.getProvider());
+    }
+
+    private void warm(Target target) {
+        if (load(target)) {
+            log.info("Model {} loaded on {} in {} ms", target.model, target.getEndpoint(), target.lastLoadMs);
+            target.warmedUp = true;
+            long interval = target.settings.getKeepAliveIntervalMs();
+            if (interval > 0) {
+                executor.scheduleWithFixedDelay(() -> keepAlive(target), interval, interval, TimeUnit.MILLISECONDS);
+            }
+        } else if (!executor.isShutdown()) {
+            executor.schedule(() -> warm(target), RETRY_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void keepAlive(Target target) {
+        refreshResidency(target);
+        long idleMs = System.currentTimeMillis() - llmService.getLastActivityMillis();
+        if (idleMs > props.getWarmup().getActiveWindowMs()) {
+            log.debug("Skipping keep-alive for {} on {}: idle for {} ms", target.model, target.getEndpoint(), idleMs);
+            return;
+        }
+        if (!target.resident) {
+            log.info("Model {} is no longer resident on {}, reloading", target.model, target.getEndpoint());
+        }
+        load(target);
+    }
+
+    private boolean load(Target target) {
+        long start = System.nanoTime();
+        try {
+            target.client.loadModel(target.model, target.settings.getKeepAlive());
+            long elapsedNanos = System.nanoTime() - start;
+            target.lastLoadMs = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+            target.lastError = null;
+            PipelineMetrics.timer("llm.model.load", "model", target.model, "outcome", PipelineMetrics.SUCCESS)
+                    .record(elapsedNanos, TimeUnit.NANOSECONDS);
+            refreshResidency(target);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Exception e) {
+            target.lastError = e.getMessage();
+            PipelineMetrics.increment("llm.model.load.errors", "model", target.model);
+            log.warn("Could not load model {} on {}: {}", target.model, target.getEndpoint(), e.getMessage());
+            return false;
+        }
+    }
+
+    private void refreshResidency(Target target) {
+        try {
+            Map<String, String> running = target.client.runningModels();
+            String key = running.containsKey(target.model) ? target.model : target.model + ":latest";
+            target.resident = running.containsKey(key);
+            target.expiresAt = running.get(key);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            target.resident = false;
+            target.expiresAt = null;
+            log.debug("Could not read resident models from {}: {}", target.getEndpoint(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package org.shark.mentor.mcp.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Last lines a stdio server wrote to stderr. Keeps at most {@code capacity} lines, dropping the
+ * oldest, so a chatty process never grows it without bound.
+ */
+public class StderrBuffer {
+
+    private static final int CHUNK_CHARS = 1024;
+
+    private final int capacity;
+    private final int maxLineLength;
+    private final ArrayDeque<String> lines;
+    private long dropped;
+
+    public StderrBuffer(int capacity, int maxLineLength) {
+        this.capacity = Math.max(1, capacity);
+        this.maxLineLength = Math.max(1, maxLineLength);
+        this.lines = new ArrayDeque<>(this.capacity);
+    }
+
+    public synchronized void append(String line) {
+        if (line.length() > maxLineLength) {
+            line = line.substring(0, maxLineLength) + "…";
+        }
+        if (lines.size() == capacity) {
+            lines.removeFirst();
+            dropped++;
+        }
+        lines.addLast(line);
+    }
+
+    /**
+     * Reads {@code reader} to its end in fixed-size chunks, appending each line and handing it to
+     * {@code onLine}. At most {@code maxLineLength} characters of a line are held, so a process that
+     * never writes a newline cannot grow memory; the rest of the line is discarded.
+     */
+    public void readFrom(Reader reader, Consumer<String> onLine) throws IOException {
+        char[] chunk = new char[CHUNK_CHARS];
+        // One character past the limit, so append still marks the line as truncated
+        StringBuilder line = new StringBuilder(Math.min(maxLineLength + 1, CHUNK_CHARS));
+        int read;
+        while ((read = reader.read(chunk)) != -1) {
+            for (int i = 0; i < read; i++) {
+                char c = chunk[i];
+                if (c == '\n') {
+                    endLine(line, onLine);
+                } else if (line.length() <= maxLineLength) {
+                    line.append(c);
+                }
+            }
+        }
+        if (!line.isEmpty()) {
+            endLine(line, onLine);
+        }
+    }
+
+    private void endLine(StringBuilder line, Consumer<String> onLine) {
+        int end = line.length();
+        if (end > 0 && line.charAt(end - 1) == '\r') {
+            end--;
+        }
+        String text = line.substring(0, end);
+        line.setLength(0);
+        append(text);
+        onLine.accept(text);
+    }
+
+    public synchronized List<String> lines() {
+        return new ArrayList<>(lines);
+    }
+
+    /**
+     * Lines that were pushed out of the buffer by newer ones
+     */
+    public synchronized long dropped() {
+        return dropped;
+    }
+}
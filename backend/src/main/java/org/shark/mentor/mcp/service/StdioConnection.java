@@ -0,0 +1,200 @@
+package org.shark.mentor.mcp.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.shark.mentor.mcp.observability.LogPayload;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * JSON-RPC over the stdin and stdout of a stdio MCP server. A reader thread takes every message
+ * off stdout and completes the request with the same id, so a caller can stop waiting (timeout,
+ * cancelled turn) without leaving its response in the stream for the next caller. Cancelling the
+ * future of a request tells the server with {@code notifications/cancelled}. Batch responses
+ * (JSON arrays) are split and each entry completes its own request.
+ */
+@Slf4j
+public class StdioConnection implements AutoCloseable {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final String serverId;
+    private final OutputStream stdin;
+    private final Map<String, CompletableFuture<String>> pending = new ConcurrentHashMap<>();
+    /** Responses still expected from batch requests */
+    private final Set<CompletableFuture<String>> batches = ConcurrentHashMap.newKeySet();
+    private volatile boolean closed;
+
+    public StdioConnection(String serverId, OutputStream stdin, InputStream stdout) {
+        this.serverId = serverId;
+        this.stdin = stdin;
+        Thread reader = new Thread(() -> readLoop(stdout), "mcp-stdio-" + serverId);
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    /**
+     * Sends a request with the given JSON-RPC {@code id}; the future completes with the raw response
+     *
+     * @param framed whether to send it with {@code Content-Length} framing or as one line
+     */
+    public CompletableFuture<String> request(String id, String json, boolean framed) throws IOException {
+        if (closed) {
+            throw new IOException("Stdio connection to " + serverId + " is closed");
+        }
+        CompletableFuture<String> response = new CompletableFuture<>();
+        pending.put(id, response);
+        response.whenComplete((result, error) -> {
+            if (pending.remove(id, response) && response.isCancelled()) {
+                notifyCancelled(id, framed);
+            }
+        });
+        try {
+            write(json, framed);
+        } catch (IOException e) {
+            pending.remove(id);
+            throw e;
+        }
+        return response;
+    }
+
+    /**
+     * Sends several requests as one JSON-RPC batch array; each future completes with the response
+     * carrying its id. If the server answers with a {@code -32600} error that has no id, the usual
+     * reply of a server that does not accept batches, the futures fail with {@link BatchRejectedException};
+     * with any other error without id they fail with a plain {@link IOException}.
+     */
+    public List<CompletableFuture<String>> requestBatch(List<String> ids, String json, boolean framed) throws IOException {
+        if (closed) {
+            throw new IOException("Stdio connection to " + serverId + " is closed");
+        }
+        List<CompletableFuture<String>> responses = new ArrayList<>();
+        for (String id : ids) {
+            CompletableFuture<String> response = new CompletableFuture<>();
+            pending.put(id, response);
+            response.whenComplete((result, error) -> {
+                batches.remove(response);
+                if (pending.remove(id, response) && response.isCancelled()) {
+                    notifyCancelled(id, framed);
+                }
+            });
+            batches.add(response);
+            responses.add(response);
+        }
+        try {
+            write(json, framed);
+        } catch (IOException e) {
+            ids.forEach(pending::remove);
+            responses.forEach(batches::remove);
+            throw e;
+        }
+        return responses;
+    }
+
+    /**
+     * Requests still waiting for their response
+     */
+    public int pendingRequests() {
+        return pending.size();
+    }
+
+    public boolean isOpen() {
+        return !closed;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        failPending(new IOException("Stdio connection to " + serverId + " closed"));
+    }
+
+    private int write(String json, boolean framed) throws IOException {
+        synchronized (stdin) {
+            if (framed) {
+                return StdioFraming.writeFrame(stdin, json);
+            }
+            byte[] line = (json + "\n").getBytes(StandardCharsets.UTF_8);
+            stdin.write(line);
+            stdin.flush();
+            return line.length;
+        }
+    }
+
+    private void notifyCancelled(String id, boolean framed) {
+        try {
+            Map<String, Object> notification = Map.of(
+                    "jsonrpc", "2.0",
+                    "method", "notifications/cancelled",
+                    "params", Map.of("requestId", id, "reason", "Request cancelled by the client")
+            );
+            write(MAPPER.writeValueAsString(notification), framed);
+        } catch (IOException e) {
+            log.debug("Could not send cancellation of request {} to {}: {}", id, serverId, e.getMessage());
+        }
+    }
+
+    private void readLoop(InputStream stdout) {
+        InputStream in = new BufferedInputStream(stdout);
+        try {
+            String message;
+            while ((message = StdioFraming.readMessage(in)) != null) {
+                dispatch(message);
+            }
+        } catch (IOException e) {
+            if (!closed) {
+                log.warn("Reading from stdio server {} failed: {}", serverId, e.getMessage());
+            }
+        }
+        closed = true;
+        failPending(new IOException("Stdio server " + serverId + " closed its output"));
+    }
+
+    private void dispatch(String message) {
+        JsonNode node;
+        try {
+            node = MAPPER.readTree(message);
+        } catch (IOException e) {
+            log.debug("Ignoring non-JSON output of {}: {}", serverId, LogPayload.of(message));
+            return;
+        }
+        if (node.isArray()) {
+            // A batch response: the entries come back in any order, each with its request's id
+            for (JsonNode entry : node) {
+                dispatch(entry, entry.toString());
+            }
+        } else {
+            dispatch(node, message);
+        }
+    }
+
+    private void dispatch(JsonNode node, String message) {
+        String id = node.hasNonNull("id") ? node.get("id").asText() : null;
+        CompletableFuture<String> response = id != null ? pending.get(id) : null;
+        if (response != null) {
+            response.complete(message);
+        } else if (id == null && node.has("error") && !batches.isEmpty()) {
+            // Only Invalid Request means no batch support; any other error fails the batch's calls
+            IOException failure = BatchRejectedException.isRejection(node)
+                    ? new BatchRejectedException("Stdio server " + serverId + " rejected a batch: " + node.get("error"))
+                    : new IOException("Stdio server " + serverId + " failed a batch: " + node.get("error"));
+            List.copyOf(batches).forEach(batch -> batch.completeExceptionally(failure));
+        } else {
+            log.debug("Discarding stdio message from {} without a waiting request: {}", serverId, LogPayload.of(message));
+        }
+    }
+
+    private void failPending(IOException error) {
+        pending.values().forEach(response -> response.completeExceptionally(error));
+    }
+}
@@ -0,0 +1,99 @@
+package org.shark.mentor.mcp.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * {@code Content-Length} framing used for JSON-RPC messages exchanged with stdio MCP servers
+ */
+final class StdioFraming {
+
+    private static final String CONTENT_LENGTH = "content-length:";
+
+    private StdioFraming() {
+    }
+
+    /**
+     * Writes one framed message and returns the size of its body in bytes
+     */
+    static int writeFrame(OutputStream out, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        String header = "Content-Length: " + body.length + "\r\n\r\n";
+        out.write(header.getBytes(StandardCharsets.UTF_8));
+        out.write(body);
+        out.flush();
+        return body.length;
+    }
+
+    /**
+     * Reads the headers and body of one framed message, or returns {@code null} when no
+     * {@code Content-Length} header precedes the blank line
+     */
+    static String readFrame(InputStream in) throws IOException {
+        int contentLength = -1;
+        String line;
+        while ((line = readLine(in)) != null) {
+            if (line.isEmpty()) {
+                break;
+            }
+            if (line.toLowerCase().startsWith(CONTENT_LENGTH)) {
+                contentLength = Integer.parseInt(line.substring(CONTENT_LENGTH.length()).trim());
+            }
+        }
+        if (contentLength < 0) {
+            return null;
+        }
+        return readBody(in, contentLength);
+    }
+
+    /**
+     * Reads the next message, whether framed or newline-delimited JSON. Other lines, such as
+     * log output of the server, are skipped. Returns {@code null} at the end of the stream.
+     * The stream is read byte by byte, so callers should pass a buffered one.
+     */
+    static String readMessage(InputStream in) throws IOException {
+        String line;
+        while ((line = readLine(in)) != null) {
+            String trimmed = line.trim();
+            if (trimmed.toLowerCase().startsWith(CONTENT_LENGTH)) {
+                int contentLength = Integer.parseInt(trimmed.substring(CONTENT_LENGTH.length()).trim());
+                while ((line = readLine(in)) != null && !line.isEmpty()) {
+                    // Skip remaining headers up to the blank separator line
+                }
+                return readBody(in, contentLength);
+            }
+            if (trimmed.startsWith("{")) {
+                return trimmed;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * One UTF-8 line without its terminator, or {@code null} at the end of the stream
+     */
+    private static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) != -1 && b != '\n') {
+            line.write(b);
+        }
+        if (b == -1 && line.size() == 0) {
+            return null;
+        }
+        String text = line.toString(StandardCharsets.UTF_8);
+        return text.endsWith("\r") ? text.substring(0, text.length() - 1) : text;
+    }
+
+    /**
+     * {@code Content-Length} counts bytes, so the body is read as bytes and only then decoded;
+     * reading it as characters would run into the next message whenever the body is not ASCII
+     */
+    private static String readBody(InputStream in, int contentLength) throws IOException {
+        byte[] body = in.readNBytes(contentLength);
+        return new String(body, StandardCharsets.UTF_8);
+    }
+}
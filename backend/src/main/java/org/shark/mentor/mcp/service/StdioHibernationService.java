@@ -0,0 +1,144 @@
+package org.shark.mentor.mcp.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.shark.mentor.mcp.config.McpProperties;
+import org.shark.mentor.mcp.model.McpServer;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stops stdio servers that have been idle for longer than their TTL ({@code mcp.stdio.idle-ttl-ms},
+ * or {@code idleTtlMs} per server). The server stays registered and keeps its tool catalog; its
+ * next request starts the process again. With {@code mcp.stdio.prestart} a hibernated server is
+ * started shortly before the hours of the day in which it is usually used, so those requests do
+ * not wait for the process to start.
+ */
+@Slf4j
+@Service
+public class StdioHibernationService {
+
+    private final McpProperties.Stdio config;
+    private final McpServerService mcpServerService;
+    private final ZoneId zone;
+    private final Map<String, UsageProfile> profiles = new ConcurrentHashMap<>();
+    /** Last use of each server already counted in its profile */
+    private final Map<String, Long> counted = new ConcurrentHashMap<>();
+    /** Hour slot each server was last prestarted for, so it is started at most once per slot */
+    private final Map<String, Long> prestartedSlot = new ConcurrentHashMap<>();
+    private ScheduledExecutorService executor;
+
+    public StdioHibernationService(McpProperties properties, McpServerService mcpServerService) {
+        this(properties, mcpServerService, ZoneId.systemDefault());
+    }
+
+    StdioHibernationService(McpProperties properties, McpServerService mcpServerService, ZoneId zone) {
+        this.config = properties.getStdio();
+        this.mcpServerService = mcpServerService;
+        this.zone = zone;
+    }
+
+    @jakarta.annotation.PostConstruct
+    public void start() {
+        executor = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "mcp-hibernation");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = Math.max(1000, config.getIdleCheckMs());
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                tick(System.currentTimeMillis());
+            } catch (RuntimeException e) {
+                log.warn("Idle check of stdio servers failed: {}", e.getMessage());
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @jakarta.annotation.PreDestroy
+    public void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Updates the usage profiles, hibernates idle servers and prestarts the ones about to be needed
+     */
+    void tick(long now) {
+        for (McpServer server : mcpServerService.getAllServers()) {
+            if (server.getUrl() == null || !server.getUrl().startsWith("stdio://")) {
+                continue;
+            }
+            String id = server.getId();
+            Long used = mcpServerService.getLastUsed(id);
+            if (used != null && !used.equals(counted.put(id, used))) {
+                profiles.computeIfAbsent(id, key -> new UsageProfile(zone)).record(used);
+            }
+            long ttl = mcpServerService.getIdleTtlMs(id);
+            if (ttl <= 0) {
+                continue;
+            }
+            if (!mcpServerService.isHibernated(id)) {
+                mcpServerService.hibernate(id, ttl);
+            } else if (config.getPrestart().isEnabled()) {
+                prestartIfDue(id, now);
+            }
+        }
+    }
+
+    private void prestartIfDue(String id, long now) {
+        UsageProfile profile = profiles.get(id);
+        long ahead = now + TimeUnit.MINUTES.toMillis(config.getPrestart().getLeadMinutes());
+        if (profile == null || profile.days(ahead) < config.getPrestart().getMinDays()) {
+            return;
+        }
+        long slot = UsageProfile.slot(ahead, zone);
+        if (!Long.valueOf(slot).equals(prestartedSlot.get(id)) && mcpServerService.resume(id, "prestart")) {
+            prestartedSlot.put(id, slot);
+            log.info("Prestarted stdio server {}: it is usually used around this time", id);
+        }
+    }
+
+    /**
+     * Number of distinct days on which a server was used, per hour of the day
+     */
+    static final class UsageProfile {
+        private final ZoneId zone;
+        private final int[] days = new int[24];
+        private final long[] lastDay = new long[24];
+
+        UsageProfile(ZoneId zone) {
+            this.zone = zone;
+            java.util.Arrays.fill(lastDay, Long.MIN_VALUE);
+        }
+
+        synchronized void record(long timeMs) {
+            ZonedDateTime time = Instant.ofEpochMilli(timeMs).atZone(zone);
+            long day = time.toLocalDate().toEpochDay();
+            int hour = time.getHour();
+            if (lastDay[hour] != day) {
+                lastDay[hour] = day;
+                days[hour]++;
+            }
+        }
+
+        synchronized int days(long timeMs) {
+            return days[Instant.ofEpochMilli(timeMs).atZone(zone).getHour()];
+        }
+
+        static long slot(long timeMs, ZoneId zone) {
+            ZonedDateTime time = Instant.ofEpochMilli(timeMs).atZone(zone);
+            LocalDate day = time.toLocalDate();
+            return day.toEpochDay() * 24 + time.getHour();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package org.shark.mentor.mcp.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.shark.mentor.mcp.observability.PipelineMetrics;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Persistent JSON-RPC connection to a {@code tcp://host:port} MCP server. The socket carries the
+ * same messages as a stdio server's stdin and stdout, so it is wrapped in a {@link StdioConnection}
+ * and gets the same framing, request multiplexing by id and cancellation. This lets a stdio server
+ * run on another host behind a bridge such as {@code socat}.
+ * A connection that drops is opened again by the next request, at most once every {@code reconnectBackoffMs}.
+ */
+@Slf4j
+public class TcpTransport implements AutoCloseable {
+
+    private final String serverId;
+    private final InetSocketAddress address;
+    private final int connectTimeoutMs;
+    private final long reconnectBackoffMs;
+    private SocketChannel channel;
+    private StdioConnection connection;
+    private long lastAttempt;
+    private boolean closed;
+
+    public TcpTransport(String serverId, String host, int port, int connectTimeoutMs, long reconnectBackoffMs) {
+        this.serverId = serverId;
+        this.address = new InetSocketAddress(host, port);
+        this.connectTimeoutMs = connectTimeoutMs;
+        this.reconnectBackoffMs = reconnectBackoffMs;
+    }
+
+    /**
+     * The open connection, connecting first if there is none or the previous one dropped
+     */
+    public synchronized StdioConnection connection() throws IOException {
+        if (closed) {
+            throw new IOException("TCP transport to " + serverId + " is closed");
+        }
+        if (connection != null && connection.isOpen()) {
+            return connection;
+        }
+        long now = System.currentTimeMillis();
+        if (lastAttempt > 0 && now - lastAttempt < reconnectBackoffMs) {
+            throw new IOException("Not connected to " + address + ", next attempt in "
+                    + (lastAttempt + reconnectBackoffMs - now) + " ms");
+        }
+        boolean reconnect = lastAttempt > 0;
+        lastAttempt = now;
+        closeChannel();
+        SocketChannel opened = SocketChannel.open();
+        try {
+            opened.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            opened.setOption(StandardSocketOptions.SO_KEEPALIVE, true);
+            opened.socket().connect(address, connectTimeoutMs);
+        } catch (IOException e) {
+            opened.close();
+            PipelineMetrics.increment("mcp.tcp.connect", "server", serverId, "outcome", PipelineMetrics.ERROR);
+            throw e;
+        }
+        channel = opened;
+        // The socket adaptor streams lock reads and writes separately, so the reader thread never blocks a write
+        connection = new StdioConnection(serverId, opened.socket().getOutputStream(), opened.socket().getInputStream());
+        PipelineMetrics.increment("mcp.tcp.connect", "server", serverId, "outcome", reconnect ? "reconnect" : "connect");
+        log.info("TCP connection to {} open for server {}", address, serverId);
+        return connection;
+    }
+
+    public synchronized boolean isConnected() {
+        return connection != null && connection.isOpen();
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        closeChannel();
+    }
+
+    private void closeChannel() {
+        if (connection != null) {
+            connection.close();
+            connection = null;
+        }
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.debug("Closing TCP connection of {} failed: {}", serverId, e.getMessage());
+            }
+            channel = null;
+        }
+    }
+}
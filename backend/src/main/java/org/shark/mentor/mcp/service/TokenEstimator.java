@@ -0,0 +1,46 @@
+package org.shark.mentor.mcp.service;
+
+/**
+ * Lightweight token estimator used to size prompts before they reach the LLM.
+ * It mimics a BPE pre-tokenizer: words are split into ~4 character pieces,
+ * numbers into ~3 digit pieces and every punctuation symbol counts as one token.
+ */
+public final class TokenEstimator {
+
+    private static final int CHARS_PER_WORD_TOKEN = 4;
+    private static final int DIGITS_PER_NUMBER_TOKEN = 3;
+
+    private TokenEstimator() {
+    }
+
+    public static int estimate(String text) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+        int tokens = 0;
+        int i = 0;
+        int length = text.length();
+        while (i < length) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (Character.isLetter(c)) {
+                int start = i;
+                while (i < length && Character.isLetter(text.charAt(i))) {
+                    i++;
+                }
+                tokens += (i - start + CHARS_PER_WORD_TOKEN - 1) / CHARS_PER_WORD_TOKEN;
+            } else if (Character.isDigit(c)) {
+                int start = i;
+                while (i < length && Character.isDigit(text.charAt(i))) {
+                    i++;
+                }
+                tokens += (i - start + DIGITS_PER_NUMBER_TOKEN - 1) / DIGITS_PER_NUMBER_TOKEN;
+            } else {
+                tokens++;
+                i++;
+            }
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,16 @@
+package org.shark.mentor.mcp.service;
+
+/**
+ * Result of executing an MCP tool for a user message.
+ *
+ * @param toolName the selected tool, or {@code null} when no tool was invoked
+ * @param output   the raw text returned by the MCP server (or an error description)
+ * @param answer   the model's reply when a tool plan ended with it, or {@code null} when the answer
+ *                 is still to be generated from {@code output}
+ */
+public record ToolInvocation(String toolName, String output, String answer) {
+
+    public ToolInvocation(String toolName, String output) {
+        this(toolName, output, null);
+    }
+}
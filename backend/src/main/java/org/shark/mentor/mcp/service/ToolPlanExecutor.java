@@ -0,0 +1,305 @@
+package org.shark.mentor.mcp.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+import lombok.extern.slf4j.Slf4j;
+import org.shark.mentor.mcp.config.LlmProperties;
+import org.shark.mentor.mcp.model.McpServer;
+import org.shark.mentor.mcp.observability.PipelineMetrics;
+import org.shark.mentor.mcp.observability.PipelineTracing;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs a multi-step tool plan produced by {@link FunctionCallingPlanner}. Each step's calls were
+ * requested together, so they do not depend on each other and run in parallel; their results are
+ * fed back to the model, which may request another step. A plan therefore takes as long as its
+ * longest chain of dependent calls, not the sum of all calls. When the caller is a
+ * {@link BatchingToolCaller}, the calls of a step go out together as one JSON-RPC batch instead.
+ * Plans are bounded by a number of steps, a total number of calls and an overall deadline; when a
+ * limit is hit the results gathered so far are returned. When the model ends the plan by answering,
+ * that answer is returned with the results so the turn does not generate another one.
+ */
+@Slf4j
+@Service
+public class ToolPlanExecutor {
+
+    /**
+     * Executes the MCP tool calls of a plan
+     */
+    @FunctionalInterface
+    public interface ToolCaller {
+        String call(String toolName, Map<String, Object> arguments) throws Exception;
+    }
+
+    /**
+     * Caller that can also execute the independent calls of a step in one exchange
+     */
+    public interface BatchingToolCaller extends ToolCaller {
+
+        /**
+         * Whether independent calls should go out together through {@link #callAll(List)} right now
+         */
+        default boolean batches() {
+            return true;
+        }
+
+        /**
+         * Executes several independent calls in one exchange and returns their outputs in order
+         */
+        List<String> callAll(List<FunctionCallingPlanner.ToolCall> calls) throws Exception;
+    }
+
+    private record CallResult(FunctionCallingPlanner.ToolCall call, String output) {
+    }
+
+    private final LlmProperties.FunctionCalling config;
+    private final ContextCompactor contextCompactor;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ThreadPoolExecutor executor;
+
+    public ToolPlanExecutor(LlmProperties props, ContextCompactor contextCompactor) {
+        this.config = props.getFunctionCalling();
+        this.contextCompactor = contextCompactor;
+        int threads = Math.max(1, config.getMaxParallelCalls());
+        AtomicInteger counter = new AtomicInteger();
+        // A full queue rejects the call (AbortPolicy), which then fails on its own instead of piling up
+        this.executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, config.getMaxQueuedCalls())), task -> {
+            Thread thread = new Thread(task, "mcp-tool-call-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    @jakarta.annotation.PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Runs {@code firstCalls} and the steps the model requests after them
+     */
+    public ToolInvocation execute(McpServer server, FunctionCallingPlanner.Session session,
+                                  List<FunctionCallingPlanner.ToolCall> firstCalls, ToolCaller caller, TurnTimer timer) {
+        Span span = PipelineTracing.startSpan("mcp.tool.plan");
+        span.setAttribute("mcp.server.id", server.getId());
+        try (Scope ignored = span.makeCurrent()) {
+            long deadline = System.currentTimeMillis() + config.getDeadlineMs();
+            int budget = Math.max(1, config.getMaxToolCalls());
+            List<CallResult> results = new ArrayList<>();
+            List<FunctionCallingPlanner.ToolCall> calls = firstCalls;
+            int step = 0;
+            String stop = "answered";
+            while (true) {
+                step++;
+                if (calls.size() > budget) {
+                    log.info("Tool plan for {} exceeds its budget, running {} of {} calls", server.getName(), budget, calls.size());
+                    calls = calls.subList(0, budget);
+                }
+                long callStart = timer.now();
+                List<CallResult> stepResults = runStep(calls, caller, deadline);
+                timer.record(TurnTimer.Stage.MCP_ROUND_TRIP, callStart);
+                TurnCancellation.checkpoint();
+                results.addAll(stepResults);
+                budget -= calls.size();
+                for (CallResult result : stepResults) {
+                    session.addResult(result.call(), contextCompactor.compact(result.call().name(), result.output()));
+                }
+
+                if (step >= config.getMaxIterations()) {
+                    stop = "max_iterations";
+                    break;
+                }
+                if (budget <= 0) {
+                    stop = "max_tool_calls";
+                    break;
+                }
+                if (System.currentTimeMillis() >= deadline) {
+                    stop = "deadline";
+                    break;
+                }
+                long selectionStart = timer.now();
+                List<FunctionCallingPlanner.ToolCall> next = session.next();
+                timer.record(TurnTimer.Stage.TOOL_SELECTION, selectionStart);
+                if (next == null || next.isEmpty()) {
+                    break;
+                }
+                calls = next;
+            }
+
+            span.setAttribute("mcp.tool.plan.steps", step);
+            span.setAttribute("mcp.tool.plan.calls", results.size());
+            PipelineMetrics.increment("mcp.tool.plan.completed", "server", server.getId(), "stop", stop);
+            PipelineMetrics.record("mcp.tool.plan.calls", "calls", results.size(), "server", server.getId());
+            log.info("Tool plan for {} ran {} calls in {} steps ({})", server.getName(), results.size(), step, stop);
+            return toInvocation(results, "answered".equals(stop) ? session.answer() : null);
+        } catch (RuntimeException e) {
+            PipelineTracing.fail(span, e);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+
+    /**
+     * Runs independent calls in parallel, or as one batch when the caller supports it. A single call
+     * also runs on the pool, so the plan deadline cuts it off like any other.
+     */
+    private List<CallResult> runStep(List<FunctionCallingPlanner.ToolCall> calls, ToolCaller caller, long deadline) {
+        List<Task> tasks = new ArrayList<>();
+        if (calls.size() > 1 && caller instanceof BatchingToolCaller batching && batching.batches()) {
+            tasks.add(new Task(calls.size(), () -> invokeAll(calls, batching)));
+        } else {
+            for (FunctionCallingPlanner.ToolCall call : calls) {
+                tasks.add(new Task(1, () -> List.of(invoke(call, caller))));
+            }
+        }
+        List<String> outputs = runAll(tasks, deadline);
+        List<CallResult> results = new ArrayList<>();
+        for (int i = 0; i < calls.size(); i++) {
+            results.add(new CallResult(calls.get(i), outputs.get(i)));
+        }
+        return results;
+    }
+
+    /**
+     * Work producing the outputs of {@code size} calls
+     */
+    private record Task(int size, Supplier<List<String>> work) {
+    }
+
+    /**
+     * Runs the tasks on the pool and returns their outputs in order, cutting off those still running at the deadline
+     */
+    private List<String> runAll(List<Task> tasks, long deadline) {
+        TurnCancellation turn = TurnCancellation.current();
+        List<TurnCancellation> cancellations = new ArrayList<>();
+        List<TurnCancellation.Handle> links = new ArrayList<>();
+        List<CompletableFuture<List<String>>> futures = new ArrayList<>();
+        for (Task task : tasks) {
+            // Each task can be aborted on its own (deadline) or with the whole turn
+            TurnCancellation cancellation = new TurnCancellation();
+            if (turn != null) {
+                links.add(turn.onCancel(() -> cancellation.cancel(turn.getReason())));
+            }
+            cancellations.add(cancellation);
+            try {
+                futures.add(CompletableFuture.supplyAsync(Context.current().wrapSupplier(() -> {
+                    try (TurnCancellation.Handle ignored = cancellation.open()) {
+                        return task.work().get();
+                    }
+                }), executor));
+            } catch (RejectedExecutionException e) {
+                PipelineMetrics.increment("mcp.tool.plan.rejected");
+                futures.add(CompletableFuture.failedFuture(new RejectedExecutionException("too many tool calls queued")));
+            }
+        }
+
+        try {
+            List<String> outputs = new ArrayList<>();
+            for (int i = 0; i < tasks.size(); i++) {
+                long remaining = deadline - System.currentTimeMillis();
+                try {
+                    outputs.addAll(futures.get(i).get(Math.max(1, remaining), TimeUnit.MILLISECONDS));
+                } catch (TimeoutException e) {
+                    cancellations.get(i).cancel("deadline");
+                    futures.get(i).cancel(true);
+                    outputs.addAll(Collections.nCopies(tasks.get(i).size(),
+                            "Error executing the tool: no result before the plan deadline"));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    cancellations.forEach(cancellation -> cancellation.cancel("interrupted"));
+                    throw new TurnCancelledException("interrupted");
+                } catch (ExecutionException e) {
+                    outputs.addAll(Collections.nCopies(tasks.get(i).size(),
+                            "Error executing the tool: " + e.getCause().getMessage()));
+                }
+            }
+            return outputs;
+        } finally {
+            links.forEach(TurnCancellation.Handle::close);
+        }
+    }
+
+    private static List<String> invokeAll(List<FunctionCallingPlanner.ToolCall> calls, BatchingToolCaller caller) {
+        Span span = PipelineTracing.startSpan("mcp.tool.batch");
+        span.setAttribute("mcp.tool.calls", calls.size());
+        try (Scope ignored = span.makeCurrent()) {
+            List<String> outputs = caller.callAll(calls);
+            if (outputs.size() != calls.size()) {
+                throw new IllegalStateException("Expected " + calls.size() + " results, got " + outputs.size());
+            }
+            return outputs;
+        } catch (TurnCancelledException e) {
+            PipelineTracing.fail(span, e);
+            return Collections.nCopies(calls.size(), "Error executing the tool: cancelled (" + e.getReason() + ")");
+        } catch (Exception e) {
+            log.warn("Batched tool calls failed in plan: {}", e.getMessage());
+            PipelineTracing.fail(span, e);
+            return Collections.nCopies(calls.size(), "Error executing the tool: " + e.getMessage());
+        } finally {
+            span.end();
+        }
+    }
+
+    private static String invoke(FunctionCallingPlanner.ToolCall call, ToolCaller caller) {
+        Span span = PipelineTracing.startSpan("mcp.tool.call");
+        span.setAttribute("mcp.tool.name", call.name());
+        try (Scope ignored = span.makeCurrent()) {
+            return caller.call(call.name(), call.arguments());
+        } catch (TurnCancelledException e) {
+            PipelineTracing.fail(span, e);
+            return "Error executing the tool: cancelled (" + e.getReason() + ")";
+        } catch (Exception e) {
+            log.warn("Tool '{}' failed in plan: {}", call.name(), e.getMessage());
+            PipelineTracing.fail(span, e);
+            return "Error executing the tool: " + e.getMessage();
+        } finally {
+            span.end();
+        }
+    }
+
+    /**
+     * A single call keeps its tool name so per-tool compaction and fast-path templates still apply;
+     * several calls are combined into one JSON array of {@code {tool, arguments, result}}
+     */
+    private ToolInvocation toInvocation(List<CallResult> results, String answer) {
+        if (results.size() == 1) {
+            CallResult only = results.get(0);
+            return new ToolInvocation(only.call().name(), only.output(), answer);
+        }
+        ArrayNode combined = objectMapper.createArrayNode();
+        for (CallResult result : results) {
+            ObjectNode entry = combined.addObject()
+                    .put("tool", result.call().name());
+            entry.set("arguments", objectMapper.valueToTree(result.call().arguments()));
+            JsonNode payload = contextCompactor.payload(result.output());
+            if (payload != null) {
+                entry.set("result", payload);
+            } else {
+                entry.put("result", result.output());
+            }
+        }
+        return new ToolInvocation(null, combined.toString(), answer);
+    }
+}
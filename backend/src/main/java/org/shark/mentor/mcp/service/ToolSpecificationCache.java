@@ -0,0 +1,69 @@
+package org.shark.mentor.mcp.service;
+
+import dev.langchain4j.agent.tool.ToolParameters;
+import dev.langchain4j.agent.tool.ToolSpecification;
+import org.shark.mentor.mcp.model.McpServer;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps MCP tool catalogs ({@code tools/list} results) to langchain4j {@link ToolSpecification}s.
+ * The mapping is kept per server with the catalog version it was built from: when the server last
+ * connected (a new process may bring new tools) and how many tools it lists. Comparing those is
+ * cheap, unlike hashing the whole catalog on every turn, and still catches toolsets enabled at runtime.
+ */
+class ToolSpecificationCache {
+
+    private record CatalogVersion(Long connectedAt, int toolCount) {
+    }
+
+    private record Entry(CatalogVersion catalogVersion, List<ToolSpecification> specifications) {
+    }
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    List<ToolSpecification> forCatalog(McpServer server, List<Map<String, Object>> tools) {
+        CatalogVersion version = new CatalogVersion(server.getLastConnected(), tools.size());
+        Entry entry = entries.get(server.getId());
+        if (entry == null || !entry.catalogVersion().equals(version)) {
+            entry = new Entry(version, tools.stream()
+                    .filter(tool -> tool.get("name") instanceof String)
+                    .map(ToolSpecificationCache::toSpecification)
+                    .toList());
+            entries.put(server.getId(), entry);
+        }
+        return entry.specifications();
+    }
+
+    @SuppressWarnings("unchecked")
+    static ToolSpecification toSpecification(Map<String, Object> tool) {
+        ToolSpecification.Builder builder = ToolSpecification.builder().name((String) tool.get("name"));
+        if (tool.get("description") instanceof String description) {
+            builder.description(description);
+        }
+        if (tool.get("inputSchema") instanceof Map<?, ?> schema) {
+            Map<String, Map<String, Object>> properties = new LinkedHashMap<>();
+            if (schema.get("properties") instanceof Map<?, ?> declared) {
+                declared.forEach((name, definition) -> {
+                    if (definition instanceof Map<?, ?> map) {
+                        properties.put(String.valueOf(name), (Map<String, Object>) map);
+                    }
+                });
+            }
+            List<String> required = new ArrayList<>();
+            if (schema.get("required") instanceof List<?> names) {
+                names.forEach(name -> required.add(String.valueOf(name)));
+            }
+            builder.parameters(ToolParameters.builder()
+                    .type("object")
+                    .properties(properties)
+                    .required(required)
+                    .build());
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,161 @@
+package org.shark.mentor.mcp.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Cancellation of one chat turn, e.g. because the client disconnected or sent a newer message.
+ * The turn is made current for its thread with {@link #open()}, like {@code ConversationScope};
+ * the blocking calls it makes (MCP requests, LLM admission and generation) register an action
+ * that aborts them, so a cancelled turn stops using MCP servers and LLM capacity right away.
+ */
+@Slf4j
+public final class TurnCancellation {
+
+    private static final ThreadLocal<TurnCancellation> CURRENT = new ThreadLocal<>();
+
+    /**
+     * Undoes {@link #open()} or {@link #onCancel(Runnable)}
+     */
+    public interface Handle extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private static final Handle NO_OP = () -> { };
+
+    private final List<Runnable> actions = new ArrayList<>();
+    private volatile String reason;
+
+    /**
+     * The current turn, or {@code null} outside {@link #open()}
+     */
+    public static TurnCancellation current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Makes this turn current for the calling thread until the handle is closed
+     */
+    public Handle open() {
+        TurnCancellation previous = CURRENT.get();
+        CURRENT.set(this);
+        return () -> {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        };
+    }
+
+    /**
+     * Cancels the turn and runs the registered actions; only the first call has an effect
+     */
+    public void cancel(String reason) {
+        List<Runnable> pending;
+        synchronized (this) {
+            if (this.reason != null) {
+                return;
+            }
+            this.reason = reason;
+            pending = new ArrayList<>(actions);
+            actions.clear();
+        }
+        log.info("Turn cancelled: {}", reason);
+        for (Runnable action : pending) {
+            try {
+                action.run();
+            } catch (RuntimeException e) {
+                log.warn("Cancellation action failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    public boolean isCancelled() {
+        return reason != null;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    /**
+     * Runs {@code action} when the turn is cancelled (at once if it already is) until the handle is closed
+     */
+    public Handle onCancel(Runnable action) {
+        synchronized (this) {
+            if (reason == null) {
+                actions.add(action);
+                return () -> {
+                    synchronized (this) {
+                        actions.remove(action);
+                    }
+                };
+            }
+        }
+        action.run();
+        return NO_OP;
+    }
+
+    /**
+     * {@link #onCancel(Runnable)} on the current turn; a no-op outside one
+     */
+    public static Handle onCurrentCancel(Runnable action) {
+        TurnCancellation current = CURRENT.get();
+        return current != null ? current.onCancel(action) : NO_OP;
+    }
+
+    /**
+     * Throws {@link TurnCancelledException} if the current turn was cancelled
+     */
+    public static void checkpoint() {
+        TurnCancellation current = CURRENT.get();
+        if (current != null && current.isCancelled()) {
+            throw new TurnCancelledException(current.reason);
+        }
+    }
+
+    /**
+     * Waits for {@code future}, cancelling it if the current turn is cancelled meanwhile
+     */
+    public static <T> T await(CompletableFuture<T> future) throws IOException, InterruptedException {
+        return await(future, 0);
+    }
+
+    /**
+     * Waits up to {@code timeoutMs} (0 for no limit) for {@code future}, cancelling it if the current
+     * turn is cancelled or the wait times out
+     */
+    public static <T> T await(CompletableFuture<T> future, long timeoutMs) throws IOException, InterruptedException {
+        try (Handle ignored = onCurrentCancel(() -> future.cancel(true))) {
+            return timeoutMs > 0 ? future.get(timeoutMs, TimeUnit.MILLISECONDS) : future.get();
+        } catch (CancellationException e) {
+            checkpoint();
+            throw e;
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new IOException("No response after " + timeoutMs + " ms", e);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            throw e;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IOException(cause);
+        }
+    }
+}
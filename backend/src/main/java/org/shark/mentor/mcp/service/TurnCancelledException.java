@@ -0,0 +1,19 @@
+package org.shark.mentor.mcp.service;
+
+import lombok.Getter;
+
+/**
+ * Thrown by blocking calls of a chat turn that was cancelled, so the turn unwinds without
+ * being answered or recorded
+ */
+@Getter
+public class TurnCancelledException extends RuntimeException {
+
+    /** Why the turn was cancelled, e.g. {@code client_disconnected} or {@code superseded} */
+    private final String reason;
+
+    public TurnCancelledException(String reason) {
+        super("Turn cancelled: " + reason);
+        this.reason = reason;
+    }
+}
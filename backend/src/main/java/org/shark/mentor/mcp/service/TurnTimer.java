@@ -0,0 +1,108 @@
+package org.shark.mentor.mcp.service;
+
+import org.shark.mentor.mcp.model.TurnTimings;
+
+/**
+ * Collects the per-stage durations of a chat turn with {@link System#nanoTime()}.
+ * The disabled instance ignores every call, so turns that did not ask for timings
+ * pay neither the bookkeeping nor the serialization.
+ */
+public final class TurnTimer {
+
+    public enum Stage {
+        SERVER_LOOKUP,
+        TOOL_SELECTION,
+        ARGUMENT_EXTRACTION,
+        MCP_ROUND_TRIP,
+        LLM_QUEUE_WAIT,
+        LLM_GENERATION,
+        FORMATTING
+    }
+
+    private static final TurnTimer DISABLED = new TurnTimer(false);
+
+    private final boolean enabled;
+    private final long startNanos;
+    private final long[] stageNanos = new long[Stage.values().length];
+    private final boolean[] recorded = new boolean[Stage.values().length];
+    private int contextChars = -1;
+    private int contextTokens = -1;
+
+    private TurnTimer(boolean enabled) {
+        this.enabled = enabled;
+        this.startNanos = enabled ? System.nanoTime() : 0L;
+    }
+
+    public static TurnTimer start() {
+        return new TurnTimer(true);
+    }
+
+    public static TurnTimer disabled() {
+        return DISABLED;
+    }
+
+    public static TurnTimer forRequest(Boolean includeTimings) {
+        return Boolean.TRUE.equals(includeTimings) ? start() : DISABLED;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the current monotonic time, to be passed back to {@link #record(Stage, long)}
+     */
+    public long now() {
+        return enabled ? System.nanoTime() : 0L;
+    }
+
+    /**
+     * Adds the time elapsed since {@code sinceNanos} to a stage; repeated stages accumulate
+     */
+    public void record(Stage stage, long sinceNanos) {
+        if (!enabled) {
+            return;
+        }
+        stageNanos[stage.ordinal()] += System.nanoTime() - sinceNanos;
+        recorded[stage.ordinal()] = true;
+    }
+
+    public void recordContext(String context) {
+        if (!enabled) {
+            return;
+        }
+        contextChars = context != null ? context.length() : 0;
+        contextTokens = TokenEstimator.estimate(context);
+    }
+
+    /**
+     * Builds the breakdown, or {@code null} when timings were not requested
+     */
+    public TurnTimings finish() {
+        if (!enabled) {
+            return null;
+        }
+        TurnTimings timings = new TurnTimings();
+        timings.setServerLookupMs(millis(Stage.SERVER_LOOKUP));
+        timings.setToolSelectionMs(millis(Stage.TOOL_SELECTION));
+        timings.setArgumentExtractionMs(millis(Stage.ARGUMENT_EXTRACTION));
+        timings.setMcpRoundTripMs(millis(Stage.MCP_ROUND_TRIP));
+        timings.setLlmQueueWaitMs(millis(Stage.LLM_QUEUE_WAIT));
+        timings.setLlmGenerationMs(millis(Stage.LLM_GENERATION));
+        timings.setFormattingMs(millis(Stage.FORMATTING));
+        if (contextChars >= 0) {
+            timings.setContextChars(contextChars);
+            timings.setContextTokens(contextTokens);
+        }
+        timings.setTotalMs(toMillis(System.nanoTime() - startNanos));
+        return timings;
+    }
+
+    private Double millis(Stage stage) {
+        return recorded[stage.ordinal()] ? toMillis(stageNanos[stage.ordinal()]) : null;
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -20,6 +20,14 @@ echo "MAIN_CLASS: ${MAIN_CLASS}"
 # Java system properties
 JAVA_SYSTEM_PROPS="-Dspring.profiles.active=${SPRING_PROFILES_ACTIVE}"
 
+# Optional Java Flight Recorder recording with the MCP/LLM events (JFR_ENABLED=true)
+JFR_SETTINGS="${JFR_SETTINGS:-${APP_HOME}/jfr/mentor.jfc}"
+if [ "${JFR_ENABLED:-false}" = "true" ]; then
+    JFR_FILE="${JFR_FILE:-${APP_HOME}/mentor.jfr}"
+    JAVA_OPTS="${JAVA_OPTS} -XX:StartFlightRecording=settings=default,settings=${JFR_SETTINGS},filename=${JFR_FILE},maxage=${JFR_MAXAGE:-6h},dumponexit=true"
+    echo "JFR recording enabled: ${JFR_FILE}"
+fi
+
 # Check if we have extracted libs or use fat jar
 if [ -d "${APP_HOME}/lib" ] && [ "$(ls -A ${APP_HOME}/lib)" ]; then
     # Use extracted libraries for classpath execution
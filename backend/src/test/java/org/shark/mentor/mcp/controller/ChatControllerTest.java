@@ -0,0 +1,101 @@
+package org.shark.mentor.mcp.controller;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.shark.mentor.mcp.model.ChatMessage;
+import org.shark.mentor.mcp.service.ChatService;
+import org.shark.mentor.mcp.service.TurnCancellation;
+import org.shark.mentor.mcp.service.TurnCancelledException;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ChatControllerTest {
+
+    private final ChatService chatService = mock(ChatService.class);
+    private final ChatController controller = new ChatController(chatService);
+    private final MockMvc mvc = MockMvcBuilders.standaloneSetup(controller).build();
+
+    @AfterEach
+    void shutdown() {
+        controller.shutdown();
+    }
+
+    private MvcResult send() throws Exception {
+        return mvc.perform(post("/api/mcp/chat/send")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"serverId\":\"github\",\"message\":\"hola\",\"conversationId\":\"server-github\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+    }
+
+    /**
+     * Makes the turn wait until it is cancelled and reports the reason
+     */
+    private CompletableFuture<String> blockUntilCancelled() {
+        CompletableFuture<String> reason = new CompletableFuture<>();
+        when(chatService.sendMessage(any())).thenAnswer(invocation -> {
+            try {
+                TurnCancellation.await(new CompletableFuture<>());
+            } catch (TurnCancelledException e) {
+                reason.complete(e.getReason());
+                throw e;
+            }
+            return null;
+        });
+        return reason;
+    }
+
+    @Test
+    void turnRunsAsynchronouslyAndAnswers() throws Exception {
+        when(chatService.sendMessage(any())).thenReturn(ChatMessage.builder().id("1").role("ASSISTANT").content("hola").build());
+
+        MvcResult result = send();
+
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content").value("hola"));
+    }
+
+    @Test
+    void clientDisconnectCancelsTheTurn() throws Exception {
+        CompletableFuture<String> reason = blockUntilCancelled();
+        MockAsyncContext context = (MockAsyncContext) send().getRequest().getAsyncContext();
+
+        for (AsyncListener listener : context.getListeners()) {
+            listener.onError(new AsyncEvent(context, new IOException("Broken pipe")));
+        }
+
+        assertEquals("client_disconnected", reason.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void requestTimeoutCancelsTheTurn() throws Exception {
+        CompletableFuture<String> reason = blockUntilCancelled();
+        MockAsyncContext context = (MockAsyncContext) send().getRequest().getAsyncContext();
+
+        for (AsyncListener listener : context.getListeners()) {
+            listener.onTimeout(new AsyncEvent(context));
+        }
+
+        assertEquals("timeout", reason.get(5, TimeUnit.SECONDS));
+    }
+}
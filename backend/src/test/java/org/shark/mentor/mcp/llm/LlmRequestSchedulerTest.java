@@ -0,0 +1,137 @@
+package org.shark.mentor.mcp.llm;
+
+import org.junit.jupiter.api.Test;
+import org.shark.mentor.mcp.config.LlmProperties;
+import org.shark.mentor.mcp.service.TurnCancellation;
+import org.shark.mentor.mcp.service.TurnCancelledException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LlmRequestSchedulerTest {
+
+    private static LlmProperties.Scheduler config(int maxConcurrent, int maxQueued, int perConversation, long maxWaitMs) {
+        LlmProperties.Scheduler config = new LlmProperties.Scheduler();
+        config.setMaxConcurrent(maxConcurrent);
+        config.setMaxQueued(maxQueued);
+        config.setMaxQueuedPerConversation(perConversation);
+        config.setMaxQueueWaitMs(maxWaitMs);
+        return config;
+    }
+
+    @Test
+    void rejectsImmediatelyWhenQueueIsFull() {
+        LlmRequestScheduler scheduler = new LlmRequestScheduler(config(1, 0, 0, 1000));
+
+        try (LlmRequestScheduler.Permit ignored = scheduler.acquire("a")) {
+            LlmOverloadedException e = assertThrows(LlmOverloadedException.class, () -> scheduler.acquire("b"));
+            assertEquals(LlmOverloadedException.Reason.QUEUE_FULL, e.getReason());
+            assertTrue(e.getRetryAfterSeconds() >= 1);
+        }
+        scheduler.acquire("b").close();
+    }
+
+    @Test
+    void timesOutWhenNoSlotFreesUp() {
+        LlmRequestScheduler scheduler = new LlmRequestScheduler(config(1, 4, 0, 50));
+
+        try (LlmRequestScheduler.Permit ignored = scheduler.acquire("a")) {
+            LlmOverloadedException e = assertThrows(LlmOverloadedException.class, () -> scheduler.acquire("b"));
+            assertEquals(LlmOverloadedException.Reason.QUEUE_TIMEOUT, e.getReason());
+            assertEquals(0, scheduler.queued());
+        }
+    }
+
+    @Test
+    void cancelledTurnLeavesTheQueueAtOnce() throws Exception {
+        LlmRequestScheduler scheduler = new LlmRequestScheduler(config(1, 4, 0, 60000));
+        TurnCancellation turn = new TurnCancellation();
+
+        try (LlmRequestScheduler.Permit ignored = scheduler.acquire("a")) {
+            CompletableFuture<Throwable> waiter = CompletableFuture.supplyAsync(() -> {
+                try (TurnCancellation.Handle scope = turn.open()) {
+                    scheduler.acquire("b").close();
+                    return null;
+                } catch (RuntimeException e) {
+                    return e;
+                }
+            });
+            while (scheduler.queued() == 0) {
+                Thread.sleep(5);
+            }
+            turn.cancel("client_disconnected");
+
+            Throwable error = waiter.get(2, TimeUnit.SECONDS);
+            assertInstanceOf(TurnCancelledException.class, error);
+            assertEquals("client_disconnected", ((TurnCancelledException) error).getReason());
+            assertEquals(0, scheduler.queued());
+        }
+        assertEquals(0, scheduler.inFlight());
+    }
+
+    @Test
+    void servesConversationsRoundRobin() throws Exception {
+        LlmRequestScheduler scheduler = new LlmRequestScheduler(config(1, 10, 0, 5000));
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        List<Thread> threads = new ArrayList<>();
+
+        LlmRequestScheduler.Permit holder = scheduler.acquire("holder");
+        for (String conversation : List.of("a", "a", "a", "b")) {
+            Thread thread = new Thread(() -> {
+                try (LlmRequestScheduler.Permit ignored = scheduler.acquire(conversation)) {
+                    order.add(conversation);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+            awaitQueued(scheduler, threads.size());
+        }
+        holder.close();
+        for (Thread thread : threads) {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        }
+
+        assertEquals(List.of("a", "b", "a", "a"), order);
+        assertEquals(0, scheduler.inFlight());
+    }
+
+    @Test
+    void limitsRequestsQueuedPerConversation() throws Exception {
+        LlmRequestScheduler scheduler = new LlmRequestScheduler(config(1, 10, 1, 5000));
+
+        LlmRequestScheduler.Permit holder = scheduler.acquire("a");
+        Thread waiting = new Thread(() -> scheduler.acquire("a").close());
+        waiting.start();
+        awaitQueued(scheduler, 1);
+
+        LlmOverloadedException e = assertThrows(LlmOverloadedException.class, () -> scheduler.acquire("a"));
+        assertEquals(LlmOverloadedException.Reason.CONVERSATION_LIMIT, e.getReason());
+
+        holder.close();
+        waiting.join(TimeUnit.SECONDS.toMillis(5));
+        assertEquals(0, scheduler.inFlight());
+    }
+
+    @Test
+    void disabledSchedulerAdmitsEverything() {
+        LlmRequestScheduler scheduler = LlmRequestScheduler.unbounded();
+
+        for (int i = 0; i < 100; i++) {
+            scheduler.acquire("a");
+        }
+        assertEquals(0, scheduler.queued());
+    }
+
+    private static void awaitQueued(LlmRequestScheduler scheduler, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (scheduler.queued() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(expected, scheduler.queued());
+    }
+}
@@ -0,0 +1,70 @@
+package org.shark.mentor.mcp.llm;
+
+import org.junit.jupiter.api.Test;
+import org.shark.mentor.mcp.config.LlmProperties;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ModelRouterTest {
+
+    private static ModelRouter router(boolean enabled) {
+        LlmProperties.ModelRoute small = new LlmProperties.ModelRoute();
+        small.setName("small");
+        small.setModel("gemma3:1b");
+        small.setMaxContextTokens(500);
+        small.setMaxQuestionWords(12);
+        small.setComplexKeywords(List.of("compara", "por qué"));
+
+        LlmProperties.ModelRoute listings = new LlmProperties.ModelRoute();
+        listings.setName("listings");
+        listings.setModel("gemma3:4b");
+        listings.setTools(List.of("list_repositories"));
+
+        LlmProperties.ModelRouting routing = new LlmProperties.ModelRouting();
+        routing.setEnabled(enabled);
+        routing.setRoutes(List.of(small, listings));
+        return new ModelRouter(routing, "large");
+    }
+
+    @Test
+    void simpleTurnGoesToTheSmallModel() {
+        ModelRouter.Decision decision = router(true).route("lista mis repositorios", 120, "list_repositories");
+
+        assertEquals("small", decision.route());
+        assertEquals("gemma3:1b", decision.model());
+    }
+
+    @Test
+    void largeContextSkipsTheSmallRoute() {
+        assertEquals("listings", router(true).route("lista mis repositorios", 4000, "list_repositories").route());
+        assertEquals(ModelRouter.DEFAULT_ROUTE, router(true).route("lista mis repositorios", 4000, "search_code").route());
+    }
+
+    @Test
+    void complexQuestionGoesToTheDefaultModel() {
+        ModelRouter.Decision decision = router(true).route("¿Por qué falla el build?", 100, null);
+
+        assertEquals(ModelRouter.DEFAULT_ROUTE, decision.route());
+        assertEquals("large", decision.model());
+    }
+
+    @Test
+    void longQuestionGoesToTheDefaultModel() {
+        String question = "explica en detalle cómo se relacionan los módulos del backend con el frontend y la base de datos";
+
+        assertEquals(ModelRouter.DEFAULT_ROUTE, router(true).route(question, 100, null).route());
+    }
+
+    @Test
+    void disabledRoutingAlwaysUsesTheDefaultModel() {
+        assertEquals("large", router(false).route("hola", 10, "list_repositories").model());
+    }
+
+    @Test
+    void countsWords() {
+        assertEquals(0, ModelRouter.wordCount("  "));
+        assertEquals(3, ModelRouter.wordCount(" uno dos\ntres "));
+    }
+}
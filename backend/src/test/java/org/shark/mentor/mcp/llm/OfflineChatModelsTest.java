@@ -0,0 +1,93 @@
+package org.shark.mentor.mcp.llm;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.SystemMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.StreamingResponseHandler;
+import dev.langchain4j.model.output.Response;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OfflineChatModelsTest {
+
+    private static final List<ChatMessage> MESSAGES = List.of(
+            SystemMessage.from("system"), UserMessage.from("list my repositories"));
+
+    @Test
+    void echoFillsTemplate() {
+        EchoChatModel model = new EchoChatModel("{messages}: {message}");
+
+        Response<AiMessage> response = model.generate(MESSAGES);
+
+        assertEquals("2: list my repositories", response.content().text());
+        assertTrue(response.tokenUsage().inputTokenCount() > 0);
+    }
+
+    @Test
+    void replayPrefersExactPromptThenCycles() {
+        ReplayChatModel model = new ReplayChatModel(List.of(
+                new ReplayChatModel.Recording("list my repositories", "recorded"),
+                new ReplayChatModel.Recording(null, "second")));
+
+        assertEquals("recorded", model.generate(MESSAGES).content().text());
+        List<ChatMessage> other = List.of(UserMessage.from("something else"));
+        assertEquals("recorded", model.generate(other).content().text());
+        assertEquals("second", model.generate(other).content().text());
+        assertEquals("recorded", model.generate(other).content().text());
+    }
+
+    @Test
+    void tokenizeKeepsWhitespace() {
+        List<String> tokens = SimulatedChatModel.tokenize("hola  mundo\nfin");
+
+        assertEquals(List.of("hola  ", "mundo\n", "fin"), tokens);
+        assertEquals("hola  mundo\nfin", String.join("", tokens));
+    }
+
+    @Test
+    void simulatedBlockingHonoursPacing() {
+        SimulatedChatModel model = new SimulatedChatModel(new EchoChatModel("{message}"), 50, 100, 0);
+
+        long start = System.nanoTime();
+        Response<AiMessage> response = model.generate(MESSAGES);
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals("list my repositories", response.content().text());
+        // 50 ms to the first token plus two more tokens at 10 ms each
+        assertTrue(elapsedMs >= 70, "elapsed " + elapsedMs);
+    }
+
+    @Test
+    void simulatedStreamsEveryToken() throws Exception {
+        SimulatedChatModel model = new SimulatedChatModel(new EchoChatModel("{message}"), 0, 0, 5);
+        StringBuilder streamed = new StringBuilder();
+        CompletableFuture<Response<AiMessage>> done = new CompletableFuture<>();
+
+        model.generate(MESSAGES, new StreamingResponseHandler<AiMessage>() {
+            @Override
+            public void onNext(String token) {
+                streamed.append(token);
+            }
+
+            @Override
+            public void onComplete(Response<AiMessage> response) {
+                done.complete(response);
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                done.completeExceptionally(error);
+            }
+        });
+
+        Response<AiMessage> response = done.get(5, TimeUnit.SECONDS);
+        assertEquals("token token token token token", response.content().text());
+        assertEquals(response.content().text(), streamed.toString());
+    }
+}
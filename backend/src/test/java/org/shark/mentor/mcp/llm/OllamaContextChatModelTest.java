@@ -0,0 +1,218 @@
+package org.shark.mentor.mcp.llm;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import dev.langchain4j.agent.tool.ToolExecutionRequest;
+import dev.langchain4j.agent.tool.ToolParameters;
+import dev.langchain4j.agent.tool.ToolSpecification;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.SystemMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.output.FinishReason;
+import dev.langchain4j.model.output.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OllamaContextChatModelTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private HttpServer server;
+    private final List<JsonNode> requests = new CopyOnWriteArrayList<>();
+    private volatile boolean rejectContext;
+
+    @BeforeEach
+    void startFakeOllama() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/api/generate", exchange -> {
+            JsonNode request = MAPPER.readTree(exchange.getRequestBody());
+            requests.add(request);
+            String body;
+            int status = 200;
+            if (rejectContext && request.has("context")) {
+                status = 500;
+                body = "{\"error\":\"invalid context\"}";
+            } else {
+                int size = request.path("context").size() + 3;
+                StringBuilder context = new StringBuilder("[");
+                for (int i = 0; i < size; i++) {
+                    context.append(i > 0 ? "," : "").append(i);
+                }
+                context.append(']');
+                body = "{\"response\":\"ok\",\"context\":" + context + ",\"prompt_eval_count\":5,\"eval_count\":1}";
+            }
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        server.createContext("/api/chat", exchange -> {
+            requests.add(MAPPER.readTree(exchange.getRequestBody()));
+            byte[] bytes = ("{\"message\":{\"role\":\"assistant\",\"content\":\"\",\"tool_calls\":"
+                    + "[{\"function\":{\"name\":\"get_issue\",\"arguments\":{\"number\":7}}}]},"
+                    + "\"prompt_eval_count\":40,\"eval_count\":9}").getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stopFakeOllama() {
+        server.stop(0);
+    }
+
+    private OllamaContextChatModel model(int maxContextTokens) {
+        OllamaClient client = new OllamaClient("http://127.0.0.1:" + server.getAddress().getPort(), Duration.ofSeconds(5));
+        return new OllamaContextChatModel(client, "test-model", 0.7, "30m", maxContextTokens, 10);
+    }
+
+    private static List<ChatMessage> turn(String system, String question) {
+        return List.of(SystemMessage.from(system), UserMessage.from(question));
+    }
+
+    @Test
+    void followUpTurnsSendOnlyTheNewTurnWithTheCachedContext() {
+        OllamaContextChatModel model = model(1000);
+
+        try (ConversationScope ignored = ConversationScope.open("conv")) {
+            assertEquals("ok", model.generate(turn("static", "first")).content().text());
+            model.generate(turn("static", "second"));
+        }
+
+        assertEquals("static", requests.get(0).path("system").asText());
+        assertFalse(requests.get(0).has("context"));
+        assertFalse(requests.get(1).has("system"));
+        assertEquals(3, requests.get(1).path("context").size());
+        assertEquals("second", requests.get(1).path("prompt").asText());
+        assertEquals("30m", requests.get(1).path("keep_alive").asText());
+    }
+
+    @Test
+    void changedSystemPromptStartsAFreshContext() {
+        OllamaContextChatModel model = model(1000);
+
+        try (ConversationScope ignored = ConversationScope.open("conv")) {
+            model.generate(turn("v1", "first"));
+            model.generate(turn("v2", "second"));
+        }
+
+        assertFalse(requests.get(1).has("context"));
+        assertEquals("v2", requests.get(1).path("system").asText());
+    }
+
+    @Test
+    void oversizedContextIsDropped() {
+        OllamaContextChatModel model = model(4);
+
+        try (ConversationScope ignored = ConversationScope.open("conv")) {
+            model.generate(turn("static", "first"));
+            model.generate(turn("static", "second"));
+            model.generate(turn("static", "third"));
+        }
+
+        assertTrue(requests.get(1).has("context"));
+        assertFalse(requests.get(2).has("context"));
+    }
+
+    @Test
+    void rejectedContextFallsBackToTheFullPrompt() {
+        OllamaContextChatModel model = model(1000);
+
+        try (ConversationScope ignored = ConversationScope.open("conv")) {
+            model.generate(turn("static", "first"));
+            rejectContext = true;
+            assertEquals("ok", model.generate(turn("static", "second")).content().text());
+        }
+
+        assertEquals(3, requests.size());
+        assertFalse(requests.get(2).has("context"));
+        assertEquals("static", requests.get(2).path("system").asText());
+    }
+
+    @Test
+    void conversationReturningFromAnotherEndpointOrModelStartsAFreshContext() {
+        OllamaClient client = new OllamaClient("http://127.0.0.1:" + server.getAddress().getPort(), Duration.ofSeconds(5));
+        OllamaClient otherEndpoint = new OllamaClient("http://localhost:" + server.getAddress().getPort(), Duration.ofSeconds(5));
+        ConversationContextCache contexts = new ConversationContextCache(10);
+        OllamaContextChatModel first = new OllamaContextChatModel(client, "test-model", 0.7, "30m", 1000, contexts);
+        OllamaContextChatModel failover = new OllamaContextChatModel(otherEndpoint, "test-model", 0.7, "30m", 1000, contexts);
+        OllamaContextChatModel routed = new OllamaContextChatModel(client, "other-model", 0.7, "30m", 1000, contexts);
+
+        try (ConversationScope ignored = ConversationScope.open("conv")) {
+            first.generate(turn("static", "one"));
+            failover.generate(turn("static", "two"));
+            first.generate(turn("static", "three"));
+            routed.generate(turn("static", "four"));
+            routed.generate(turn("static", "five"));
+        }
+
+        assertFalse(requests.get(1).has("context"));
+        assertFalse(requests.get(2).has("context"));
+        assertEquals("static", requests.get(2).path("system").asText());
+        assertFalse(requests.get(3).has("context"));
+        assertTrue(requests.get(4).has("context"));
+    }
+
+    @Test
+    void withoutConversationNothingIsCached() {
+        OllamaContextChatModel model = model(1000);
+
+        model.generate(turn("static", "first"));
+        model.generate(turn("static", "second"));
+
+        assertFalse(requests.get(1).has("context"));
+    }
+
+    @Test
+    void toolsGoThroughChatAndReturnToolCalls() {
+        OllamaContextChatModel model = model(1000);
+        ToolSpecification tool = ToolSpecification.builder()
+                .name("get_issue")
+                .description("Get an issue")
+                .parameters(ToolParameters.builder()
+                        .properties(Map.of("number", Map.of("type", "integer")))
+                        .required(List.of("number"))
+                        .build())
+                .build();
+
+        Response<AiMessage> response;
+        try (ConversationScope ignored = ConversationScope.open("conv")) {
+            response = model.generate(turn("static", "show issue 7"), List.of(tool));
+        }
+
+        assertEquals(FinishReason.TOOL_EXECUTION, response.finishReason());
+        ToolExecutionRequest call = response.content().toolExecutionRequests().get(0);
+        assertEquals("get_issue", call.name());
+        assertEquals("{\"number\":7}", call.arguments());
+        JsonNode request = requests.get(0);
+        assertEquals("system", request.path("messages").get(0).path("role").asText());
+        assertEquals("show issue 7", request.path("messages").get(1).path("content").asText());
+        JsonNode function = request.path("tools").get(0).path("function");
+        assertEquals("get_issue", function.path("name").asText());
+        assertEquals("integer", function.path("parameters").path("properties").path("number").path("type").asText());
+        assertEquals("number", function.path("parameters").path("required").get(0).asText());
+
+        // The tool call neither uses nor seeds the conversation's cached context
+        try (ConversationScope ignored = ConversationScope.open("conv")) {
+            model.generate(turn("static", "next"));
+        }
+        assertFalse(requests.get(1).has("context"));
+    }
+}
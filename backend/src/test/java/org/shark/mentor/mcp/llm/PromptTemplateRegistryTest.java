@@ -0,0 +1,79 @@
+package org.shark.mentor.mcp.llm;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.shark.mentor.mcp.config.LlmProperties;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PromptTemplateRegistryTest {
+
+    @Test
+    void compiledTemplateRendersVariablesAndKeepsOtherBraces() {
+        PromptTemplate template = PromptTemplate.compile("Hola {name}, JSON {\"a\": 1} {missing}!");
+
+        assertFalse(template.isStatic());
+        assertEquals("Hola Ana, JSON {\"a\": 1} !", template.render(Map.of("name", "Ana")));
+        assertTrue(PromptTemplate.compile("sin variables").isStatic());
+    }
+
+    @Test
+    void builtInPromptsAreUsedWithoutConfiguration() {
+        PromptTemplateRegistry registry = new PromptTemplateRegistry();
+
+        assertTrue(registry.systemPrompt(null, null).contains("ALWAYS respond in Spanish"));
+        assertEquals("MCP SERVER CONTEXT:\nrepos", registry.contextPrompt("repos", null, null));
+    }
+
+    @Test
+    void toolOverrideWinsOverServerOverrideAndGlobalTemplate() {
+        LlmProperties props = new LlmProperties();
+        props.getPrompts().put("context", "Global: {context}");
+        props.getPromptTemplates().getServers().put("github", Map.of("context", "GitHub {tool}: {context}"));
+        props.getPromptTemplates().getTools().put("search_code", Map.of("context", "Code: {context}"));
+        PromptTemplateRegistry registry = new PromptTemplateRegistry(props);
+
+        assertEquals("Code: x", registry.contextPrompt("x", "github", "search_code"));
+        assertEquals("GitHub list_repos: x", registry.contextPrompt("x", "github", "list_repos"));
+        assertEquals("Global: x", registry.contextPrompt("x", "filesystem", "read_file"));
+    }
+
+    @Test
+    void systemPromptIsRenderedOncePerServerAndTool() {
+        LlmProperties props = new LlmProperties();
+        props.getPrompts().put("system", "Responde sobre {server}");
+        PromptTemplateRegistry registry = new PromptTemplateRegistry(props);
+
+        String first = registry.systemPrompt("github", "search");
+        assertEquals("Responde sobre github", first);
+        assertSame(first, registry.systemPrompt("github", "search"));
+        assertEquals("Responde sobre imdb", registry.systemPrompt("imdb", "search"));
+    }
+
+    @Test
+    void fileTemplatesReloadWhenTheFileChanges(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("prompts.json");
+        Files.writeString(file, "{\"prompts\": {\"system\": \"v1\"}}");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(1_000_000));
+        LlmProperties props = new LlmProperties();
+        props.getPromptTemplates().setFile(file.toString());
+        PromptTemplateRegistry registry = new PromptTemplateRegistry(props);
+        assertEquals("v1", registry.systemPrompt(null, null));
+
+        Files.writeString(file, "{\"prompts\": {\"system\": \"v2\"}, \"tools\": {\"t\": {\"system\": \"tool\"}}}");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(2_000_000));
+        registry.reloadIfChanged();
+        assertEquals("v2", registry.systemPrompt(null, null));
+        assertEquals("tool", registry.systemPrompt(null, "t"));
+
+        Files.writeString(file, "{not json");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(3_000_000));
+        registry.reloadIfChanged();
+        assertEquals("v2", registry.systemPrompt(null, null));
+    }
+}
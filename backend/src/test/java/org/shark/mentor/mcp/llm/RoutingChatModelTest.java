@@ -0,0 +1,102 @@
+package org.shark.mentor.mcp.llm;
+
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.chat.ChatLanguageModel;
+import org.junit.jupiter.api.Test;
+import org.shark.mentor.mcp.config.LlmProperties;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoutingChatModelTest {
+
+    private static final List<ChatMessage> MESSAGES = List.of(UserMessage.from("hola"));
+
+    private final Set<String> down = ConcurrentHashMap.newKeySet();
+
+    private RoutingChatModel router(LlmProperties.Routing routing, String... urls) {
+        Map<String, ChatLanguageModel> models = new LinkedHashMap<>();
+        for (String url : urls) {
+            models.put(url, new EchoChatModel(url));
+        }
+        return new RoutingChatModel("test-model", models, routing, url -> !down.contains(url));
+    }
+
+    private static LlmProperties.Routing routing() {
+        LlmProperties.Routing routing = new LlmProperties.Routing();
+        routing.setHealthCheckIntervalMs(0);
+        return routing;
+    }
+
+    @Test
+    void spreadsRequestsWhenNothingIsInFlight() {
+        RoutingChatModel model = router(routing(), "a", "b");
+
+        String first = model.generate(MESSAGES).content().text();
+        String second = model.generate(MESSAGES).content().text();
+
+        assertNotEquals(first, second);
+    }
+
+    @Test
+    void conversationStaysOnItsEndpoint() {
+        RoutingChatModel model = router(routing(), "a", "b", "c");
+
+        String bound;
+        try (ConversationScope ignored = ConversationScope.open("conv-1")) {
+            bound = model.generate(MESSAGES).content().text();
+            for (int i = 0; i < 5; i++) {
+                assertEquals(bound, model.generate(MESSAGES).content().text());
+            }
+        }
+    }
+
+    @Test
+    void failsOverToAHealthyEndpoint() {
+        Map<String, ChatLanguageModel> models = new LinkedHashMap<>();
+        models.put("broken", messages -> {
+            throw new IllegalStateException("connection refused");
+        });
+        models.put("ok", new EchoChatModel("ok"));
+        LlmProperties.Routing routing = routing();
+        routing.setFailureThreshold(1);
+        RoutingChatModel model = new RoutingChatModel("test-model", models, routing, url -> true);
+
+        for (int i = 0; i < 4; i++) {
+            assertEquals("ok", model.generate(MESSAGES).content().text());
+        }
+        assertEquals(List.of("ok"), model.healthyEndpoints());
+    }
+
+    @Test
+    void healthCheckTakesEndpointsOutOfRotation() {
+        RoutingChatModel model = router(routing(), "a", "b");
+        down.add("a");
+        model.checkHealth();
+
+        for (int i = 0; i < 4; i++) {
+            assertEquals("b", model.generate(MESSAGES).content().text());
+        }
+
+        down.clear();
+        model.checkHealth();
+        assertEquals(List.of("a", "b"), model.healthyEndpoints());
+    }
+
+    @Test
+    void throwsWhenEveryEndpointFails() {
+        Map<String, ChatLanguageModel> models = new LinkedHashMap<>();
+        models.put("x", messages -> {
+            throw new IllegalStateException("down");
+        });
+        RoutingChatModel model = new RoutingChatModel("test-model", models, routing(), url -> true);
+
+        assertThrows(IllegalStateException.class, () -> model.generate(MESSAGES));
+    }
+}
@@ -0,0 +1,32 @@
+package org.shark.mentor.mcp.observability;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogPayloadTest {
+
+    @AfterEach
+    void restoreLimit() {
+        LogPayload.setMaxChars(512);
+    }
+
+    @Test
+    void keepsShortPayloadsIntact() {
+        assertEquals("{\"ok\":true}", LogPayload.of("{\"ok\":true}").toString());
+        assertEquals("null", LogPayload.of(null).toString());
+    }
+
+    @Test
+    void truncatesAndHashesLongPayloads() {
+        LogPayload.setMaxChars(10);
+        String payload = "x".repeat(5000);
+
+        String rendered = LogPayload.of(payload).toString();
+
+        assertTrue(rendered.startsWith("xxxxxxxxxx… [5000 chars, sha256="));
+        assertTrue(rendered.length() < 60);
+        assertEquals(rendered, LogPayload.of(payload).toString());
+    }
+}
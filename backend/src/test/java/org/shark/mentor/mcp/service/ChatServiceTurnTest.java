@@ -0,0 +1,111 @@
+package org.shark.mentor.mcp.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.shark.mentor.mcp.config.LlmProperties;
+import org.shark.mentor.mcp.llm.LlmOverloadedException;
+import org.shark.mentor.mcp.model.ChatMessage;
+import org.shark.mentor.mcp.model.McpRequest;
+import org.shark.mentor.mcp.model.McpServer;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ChatServiceTurnTest {
+
+    private final McpServerService mcpServerService = mock(McpServerService.class);
+    private final CompletableFuture<Void> release = new CompletableFuture<>();
+    private final AtomicInteger lookups = new AtomicInteger();
+    private ChatService chatService;
+
+    @BeforeEach
+    void setUp() {
+        McpServer server = new McpServer("github", "GitHub", "", "http://localhost", "CONNECTED");
+        // The first turn waits in its server lookup until released or cancelled
+        when(mcpServerService.getServer("github")).thenAnswer(invocation -> {
+            if (lookups.incrementAndGet() == 1) {
+                TurnCancellation.await(release);
+            }
+            return Optional.of(server);
+        });
+        chatService = new ChatService(mcpServerService, mock(LlmService.class), Optional.empty(), Optional.empty(),
+                mock(McpToolService.class), new ContextCompactor(new LlmProperties()));
+    }
+
+    private static McpRequest request(String clientId) {
+        return McpRequest.builder()
+                .serverId("github")
+                .message("enable_toolset")
+                .conversationId("server-github")
+                .clientId(clientId)
+                .build();
+    }
+
+    private CompletableFuture<ChatMessage> startFirstTurn(String clientId) throws InterruptedException {
+        CompletableFuture<ChatMessage> first = CompletableFuture.supplyAsync(() -> chatService.sendMessage(request(clientId)));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (lookups.get() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        return first;
+    }
+
+    @Test
+    void newerMessageFromTheSameClientSupersedesItsTurn() throws Exception {
+        CompletableFuture<ChatMessage> first = startFirstTurn("tab-1");
+
+        assertNotNull(chatService.sendMessage(request("tab-1")));
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(TurnCancelledException.class, e.getCause());
+        assertEquals("superseded", ((TurnCancelledException) e.getCause()).getReason());
+    }
+
+    @Test
+    void otherClientsAndAnonymousRequestsNeverSupersede() throws Exception {
+        CompletableFuture<ChatMessage> first = startFirstTurn("tab-1");
+
+        assertNotNull(chatService.sendMessage(request("tab-2")));
+        assertNotNull(chatService.sendMessage(request(null)));
+        Thread.sleep(100);
+        assertFalse(first.isDone());
+
+        release.complete(null);
+        assertNotNull(first.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void requestsWithoutClientAreNeverSuperseded() throws Exception {
+        CompletableFuture<ChatMessage> first = startFirstTurn(null);
+
+        assertNotNull(chatService.sendMessage(request(null)));
+        Thread.sleep(100);
+        assertFalse(first.isDone());
+
+        release.complete(null);
+        assertNotNull(first.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void turnsWithoutAnAnswerAreNotKeptInTheConversation() {
+        McpServer local = new McpServer("local", "Local", "", "local://llm", "CONNECTED");
+        when(mcpServerService.getServer("local")).thenReturn(Optional.of(local));
+        LlmService llmService = mock(LlmService.class);
+        when(llmService.generate(any(), any()))
+                .thenThrow(new LlmOverloadedException(LlmOverloadedException.Reason.QUEUE_FULL, 1, "busy"));
+        ChatService original = new ChatService(mcpServerService, llmService, Optional.empty(), Optional.empty(),
+                mock(McpToolService.class), new ContextCompactor(new LlmProperties()));
+        McpRequest request = McpRequest.builder().serverId("local").message("hola").conversationId("local-chat").build();
+
+        assertThrows(LlmOverloadedException.class, () -> original.sendMessage(request));
+        assertTrue(original.getConversation("local-chat").isEmpty());
+    }
+}
@@ -0,0 +1,115 @@
+package org.shark.mentor.mcp.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.shark.mentor.mcp.config.LlmProperties;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContextCompactorTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private LlmProperties props;
+    private ContextCompactor compactor;
+
+    @BeforeEach
+    void setUp() {
+        props = new LlmProperties();
+        props.setModel("test-model");
+        compactor = new ContextCompactor(props);
+    }
+
+    @Test
+    void unwrapsJsonRpcEnvelopeAndDropsNulls() throws Exception {
+        String raw = """
+                {"jsonrpc":"2.0","id":"1","result":{"content":[{"type":"text",
+                "text":"{\\"name\\":\\"mentor\\",\\"homepage\\":null,\\"topics\\":[],\\"language\\":\\"Java\\"}"}]}}
+                """;
+
+        JsonNode compacted = objectMapper.readTree(compactor.compact("get_repository", raw));
+
+        assertEquals("mentor", compacted.get("name").asText());
+        assertEquals("Java", compacted.get("language").asText());
+        assertFalse(compacted.has("homepage"));
+        assertFalse(compacted.has("topics"));
+    }
+
+    @Test
+    void samplesLongArraysAndRemovesDuplicates() throws Exception {
+        props.getCompaction().setMaxArrayItems(3);
+        StringBuilder items = new StringBuilder("[{\"id\":0},{\"id\":0}");
+        for (int i = 1; i < 10; i++) {
+            items.append(",{\"id\":").append(i).append("}");
+        }
+        items.append("]");
+
+        JsonNode compacted = objectMapper.readTree(compactor.compact("list", items.toString()));
+
+        assertEquals(4, compacted.size());
+        assertEquals(0, compacted.get(0).get("id").asInt());
+        assertEquals(1, compacted.get(1).get("id").asInt());
+        assertTrue(compacted.get(3).asText().contains("7 more items omitted"));
+    }
+
+    @Test
+    void appliesToolFieldAllowList() throws Exception {
+        props.getCompaction().getToolFields().put("search_repositories", List.of("full_name", "description"));
+        String raw = """
+                {"total_count":1,"items":[{"full_name":"a/b","description":"demo","node_id":"X","owner":{"login":"a"}}]}
+                """;
+
+        JsonNode compacted = objectMapper.readTree(compactor.compact("search_repositories", raw));
+
+        JsonNode item = compacted.get("items").get(0);
+        assertEquals("a/b", item.get("full_name").asText());
+        assertEquals("demo", item.get("description").asText());
+        assertFalse(item.has("node_id"));
+        assertFalse(item.has("owner"));
+        assertEquals(1, compacted.get("total_count").asInt());
+    }
+
+    @Test
+    void enforcesModelTokenBudget() {
+        props.getCompaction().getModelTokenBudgets().put("test-model", 50);
+        String raw = "word ".repeat(2000);
+
+        String compacted = compactor.compact("any", raw);
+
+        assertTrue(TokenEstimator.estimate(compacted) <= 50);
+        assertTrue(compacted.endsWith("[truncated to fit the context budget]"));
+    }
+
+    @Test
+    void usesTheBudgetOfTheRoutedModel() {
+        props.getCompaction().getModelTokenBudgets().put("small-model", 50);
+        String raw = "word ".repeat(200).strip();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        Metrics.addRegistry(registry);
+        try {
+            String routed = compactor.compact("any", raw, "small-model");
+
+            assertTrue(TokenEstimator.estimate(routed) <= 50);
+            assertEquals(raw, compactor.compact("any", raw));
+            assertEquals(1, registry.get("mcp.context.tokens")
+                    .tags("stage", "compacted", "model", "small-model").summary().count());
+            assertEquals(1, registry.get("mcp.context.tokens")
+                    .tags("stage", "compacted", "model", "test-model").summary().count());
+        } finally {
+            Metrics.removeRegistry(registry);
+        }
+    }
+
+    @Test
+    void leavesContextUntouchedWhenDisabled() {
+        props.getCompaction().setEnabled(false);
+        String raw = "{\"a\":null}";
+
+        assertEquals(raw, compactor.compact("any", raw));
+    }
+}
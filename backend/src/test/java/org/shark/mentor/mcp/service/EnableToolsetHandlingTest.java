@@ -4,6 +4,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeEach;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.shark.mentor.mcp.config.LlmProperties;
 import org.shark.mentor.mcp.model.ChatMessage;
 import org.shark.mentor.mcp.model.McpRequest;
 import org.shark.mentor.mcp.model.McpServer;
@@ -33,7 +34,8 @@ public class EnableToolsetHandlingTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        chatService = new ChatService(mcpServerService, llmService, Optional.empty(), Optional.empty(), mcpToolService);
+        chatService = new ChatService(mcpServerService, llmService, Optional.empty(), Optional.empty(), mcpToolService,
+                new ContextCompactor(new LlmProperties()));
     }
 
     @Test
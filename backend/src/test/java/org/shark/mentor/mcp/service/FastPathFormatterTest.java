@@ -0,0 +1,99 @@
+package org.shark.mentor.mcp.service;
+
+import org.junit.jupiter.api.Test;
+import org.shark.mentor.mcp.config.LlmProperties;
+import org.shark.mentor.mcp.config.McpProperties;
+import org.shark.mentor.mcp.model.McpServer;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FastPathFormatterTest {
+
+    private static final McpServer SERVER = new McpServer("github", "GitHub", "", "http://localhost", "CONNECTED");
+    private static final String REPOS = """
+            {"jsonrpc":"2.0","id":"1","result":{"content":[{"type":"text","text":
+            "{\\"total_count\\":2,\\"items\\":[{\\"full_name\\":\\"acme/api\\",\\"description\\":\\"REST API\\",\\"stargazers_count\\":5},{\\"full_name\\":\\"acme/web\\",\\"stargazers_count\\":1}]}"}]}}
+            """;
+
+    private static FastPathFormatter formatter(McpProperties properties) {
+        return new FastPathFormatter(properties, new ContextCompactor(new LlmProperties()));
+    }
+
+    private static McpProperties withTemplate(String tool, String template) {
+        McpProperties properties = new McpProperties();
+        McpProperties.ToolFastPath settings = new McpProperties.ToolFastPath();
+        settings.setTemplate(template);
+        properties.getFastPath().getTools().put(tool, settings);
+        return properties;
+    }
+
+    @Test
+    void rendersToolTemplate() {
+        FastPathFormatter formatter = formatter(withTemplate("search_repositories",
+                "{{total_count}} repos\n{{#each items}}{{@index}}. {{full_name}}{{#if description}} - {{description}}{{/if}} ⭐{{stargazers_count}}\n{{/each}}"));
+
+        String answer = formatter.render(SERVER, "search_repositories", REPOS);
+
+        assertNotNull(answer);
+        assertTrue(answer.contains("2 repos\n1. acme/api - REST API ⭐5\n2. acme/web ⭐1"), answer);
+        assertTrue(answer.startsWith("✅ **Response from GitHub**"));
+        assertTrue(answer.endsWith("💡 *Information provided by GitHub*"));
+    }
+
+    @Test
+    void leavesToolsWithoutTemplateToTheLlm() {
+        assertNull(formatter(new McpProperties()).render(SERVER, "search_repositories", REPOS));
+    }
+
+    @Test
+    void rendersGenericListsWhenEnabled() {
+        McpProperties properties = new McpProperties();
+        properties.getFastPath().setGenericShapes(true);
+
+        String answer = formatter(properties).render(SERVER, "search_repositories", REPOS);
+
+        assertTrue(answer.contains("- **acme/api**: REST API\n- **acme/web**"), answer);
+    }
+
+    @Test
+    void skipsLargeResultsAndOtherServers() {
+        McpProperties properties = withTemplate("search_repositories", "{{total_count}}");
+        properties.getFastPath().setMaxChars(50);
+        assertNull(formatter(properties).render(SERVER, "search_repositories", REPOS));
+
+        McpProperties otherServer = withTemplate("search_repositories", "{{total_count}}");
+        otherServer.getFastPath().setServers(List.of("filesystem"));
+        assertNull(formatter(otherServer).render(SERVER, "search_repositories", REPOS));
+    }
+
+    @Test
+    void skipsPlainTextAndErrors() {
+        McpProperties properties = new McpProperties();
+        properties.getFastPath().setGenericShapes(true);
+        FastPathFormatter formatter = formatter(properties);
+
+        assertNull(formatter.render(SERVER, "get_file_contents", "just some text"));
+        assertNull(formatter.render(SERVER, "search_repositories",
+                "{\"jsonrpc\":\"2.0\",\"id\":\"1\",\"error\":{\"code\":-32000,\"message\":\"boom\"}}"));
+    }
+
+    @Test
+    void leavesPlainTextAndUnexpectedShapesToTheLlmEvenWithATemplate() {
+        FastPathFormatter formatter = formatter(withTemplate("search_repositories",
+                "📊 **{{total_count}} repositorios encontrados**\n{{#each items}}{{@index}}. {{full_name}}\n{{/each}}"));
+
+        assertNull(formatter.render(SERVER, "search_repositories",
+                "{\"jsonrpc\":\"2.0\",\"id\":\"1\",\"result\":{\"content\":[{\"type\":\"text\",\"text\":\"Rate limit exceeded, try again later\"}]}}"));
+        assertNull(formatter.render(SERVER, "search_repositories",
+                "{\"jsonrpc\":\"2.0\",\"id\":\"1\",\"result\":{\"content\":[{\"type\":\"text\",\"text\":\"{\\\"message\\\":\\\"Not Found\\\"}\"}]}}"));
+        assertNotNull(formatter.render(SERVER, "search_repositories", REPOS));
+    }
+
+    @Test
+    void rejectsMalformedTemplatesAtStartup() {
+        assertThrows(IllegalArgumentException.class,
+                () -> formatter(withTemplate("search_repositories", "{{#each items}}{{name}}")));
+    }
+}
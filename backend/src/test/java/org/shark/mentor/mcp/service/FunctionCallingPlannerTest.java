@@ -0,0 +1,131 @@
+package org.shark.mentor.mcp.service;
+
+import dev.langchain4j.agent.tool.ToolExecutionRequest;
+import dev.langchain4j.agent.tool.ToolSpecification;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.output.Response;
+import org.junit.jupiter.api.Test;
+import org.shark.mentor.mcp.config.LlmProperties;
+import org.shark.mentor.mcp.model.McpServer;
+
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class FunctionCallingPlannerTest {
+
+    private static final McpServer SERVER = new McpServer("github", "GitHub", "", "http://localhost", "CONNECTED");
+    private static final List<Map<String, Object>> TOOLS = List.of(
+            Map.of("name", "get_issue",
+                    "description", "Get an issue",
+                    "inputSchema", Map.of(
+                            "type", "object",
+                            "properties", Map.of(
+                                    "owner", Map.of("type", "string"),
+                                    "number", Map.of("type", "integer", "description", "Issue number")),
+                            "required", List.of("owner", "number"))),
+            Map.of("name", "get_me"));
+
+    private static FunctionCallingPlanner planner(ChatLanguageModel model) throws Exception {
+        LlmProperties props = new LlmProperties();
+        props.getFunctionCalling().setEnabled(true);
+        LlmServiceEnhanced llmService = new LlmServiceEnhanced(props);
+        Field field = LlmServiceEnhanced.class.getDeclaredField("chatModel");
+        field.setAccessible(true);
+        field.set(llmService, model);
+        return new FunctionCallingPlanner(props, llmService);
+    }
+
+    private static Response<AiMessage> toolCall(String name, String arguments) {
+        return Response.from(AiMessage.from(ToolExecutionRequest.builder().id("1").name(name).arguments(arguments).build()));
+    }
+
+    @Test
+    void inputSchemaBecomesToolSpecification() {
+        ToolSpecification specification = ToolSpecificationCache.toSpecification(TOOLS.get(0));
+
+        assertEquals("get_issue", specification.name());
+        assertEquals("Get an issue", specification.description());
+        assertEquals("integer", specification.parameters().properties().get("number").get("type"));
+        assertEquals(List.of("owner", "number"), specification.parameters().required());
+        assertNull(ToolSpecificationCache.toSpecification(TOOLS.get(1)).parameters());
+    }
+
+    @Test
+    void specificationsAreRebuiltOnlyWhenTheCatalogChanges() {
+        ToolSpecificationCache cache = new ToolSpecificationCache();
+        McpServer server = new McpServer("github", "GitHub", "", "http://localhost", "CONNECTED");
+        server.setLastConnected(1000L);
+
+        List<ToolSpecification> first = cache.forCatalog(server, TOOLS);
+
+        assertSame(first, cache.forCatalog(server, List.copyOf(TOOLS)));
+        List<ToolSpecification> fewer = cache.forCatalog(server, TOOLS.subList(0, 1));
+        assertNotSame(first, fewer);
+        server.setLastConnected(2000L);
+        assertNotSame(fewer, cache.forCatalog(server, TOOLS.subList(0, 1)));
+    }
+
+    @Test
+    void modelChoosesToolAndArguments() throws Exception {
+        ChatLanguageModel model = mock(ChatLanguageModel.class);
+        when(model.generate(anyList(), anyList())).thenReturn(toolCall("get_issue", "{\"owner\":\"acme\",\"number\":7}"));
+
+        List<FunctionCallingPlanner.ToolCall> calls = planner(model).start(SERVER, "show issue 7 of acme", TOOLS).next();
+
+        assertEquals(1, calls.size());
+        FunctionCallingPlanner.ToolCall call = calls.get(0);
+        assertEquals("1", call.id());
+        assertEquals("get_issue", call.name());
+        assertEquals(Map.of("owner", "acme", "number", 7), call.arguments());
+    }
+
+    @Test
+    void unusableAnswersFallBackToHeuristics() throws Exception {
+        ChatLanguageModel model = mock(ChatLanguageModel.class);
+        when(model.generate(anyList(), anyList()))
+                .thenReturn(Response.from(AiMessage.from("no tool needed")))
+                .thenReturn(toolCall("delete_repo", "{}"))
+                .thenReturn(toolCall("get_issue", "not json"));
+        FunctionCallingPlanner planner = planner(model);
+
+        assertEquals(List.of(), planner.start(SERVER, "hello", TOOLS).next());
+        assertNull(planner.start(SERVER, "delete it", TOOLS).next());
+        assertNull(planner.start(SERVER, "issue", TOOLS).next());
+    }
+
+    @Test
+    void modelsWithoutToolSupportTurnTheModeOff() throws Exception {
+        ChatLanguageModel model = mock(ChatLanguageModel.class);
+        when(model.generate(anyList(), anyList())).thenThrow(new IllegalArgumentException("Tools are currently not supported by this model"));
+        FunctionCallingPlanner planner = planner(model);
+
+        assertNull(planner.start(SERVER, "show issue 7", TOOLS).next());
+        assertFalse(planner.isEnabled());
+        assertNull(planner.start(SERVER, "show issue 8", TOOLS));
+        verify(model, times(1)).generate(anyList(), anyList());
+    }
+
+    @Test
+    void otherFailuresOnlySendTheirTurnToTheHeuristics() throws Exception {
+        ChatLanguageModel model = mock(ChatLanguageModel.class);
+        when(model.generate(anyList(), anyList()))
+                .thenThrow(new IllegalArgumentException("invalid schema for tool get_issue"))
+                .thenReturn(toolCall("get_issue", "{\"owner\":\"acme\",\"number\":7}"));
+        FunctionCallingPlanner planner = planner(model);
+
+        assertNull(planner.start(SERVER, "show issue 7", TOOLS).next());
+        assertTrue(planner.isEnabled());
+        assertEquals(1, planner.start(SERVER, "show issue 7", TOOLS).next().size());
+    }
+
+    @Test
+    void disabledPlannerNeverCallsTheModel() {
+        assertNull(FunctionCallingPlanner.disabled().start(SERVER, "show issue 7", TOOLS));
+    }
+}
@@ -5,8 +5,11 @@ import dev.langchain4j.data.message.SystemMessage;
 import dev.langchain4j.data.message.AiMessage;
 import dev.langchain4j.model.chat.ChatLanguageModel;
 import dev.langchain4j.model.output.Response;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.shark.mentor.mcp.config.LlmProperties;
+import org.shark.mentor.mcp.llm.ModelRouter;
 
 import java.lang.reflect.Field;
 import java.util.List;
@@ -44,4 +47,29 @@ class LlmServiceEnhancedTest {
         assertTrue(systemText.contains("ALWAYS respond in Spanish"));
         assertTrue(systemText.contains("All responses must be in Spanish"));
     }
+
+    @Test
+    void generationIsTimedWithItsRouteAndOutcome() throws Exception {
+        LlmServiceEnhanced service = new LlmServiceEnhanced(new LlmProperties());
+        ChatLanguageModel model = mock(ChatLanguageModel.class);
+        when(model.generate(anyList()))
+                .thenReturn(Response.from(AiMessage.from("Hola")))
+                .thenThrow(new IllegalStateException("model crashed"));
+        Field field = LlmServiceEnhanced.class.getDeclaredField("chatModel");
+        field.setAccessible(true);
+        field.set(service, model);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        Metrics.addRegistry(registry);
+        try {
+            assertEquals("Hola", service.generateWithMemory("timed", "Hello", null));
+            assertTrue(service.generateWithMemory("timed", "Hello", null).startsWith("Error generating response:"));
+
+            assertEquals(1, registry.get("llm.generation")
+                    .tags("route", ModelRouter.DEFAULT_ROUTE, "outcome", "success").timer().count());
+            assertEquals(1, registry.get("llm.generation")
+                    .tags("route", ModelRouter.DEFAULT_ROUTE, "outcome", "error").timer().count());
+        } finally {
+            Metrics.removeRegistry(registry);
+        }
+    }
 }
@@ -188,6 +188,15 @@ class McpServerServiceErrorMessageTest {
         httpServer.start();
     }
 
+    @Test
+    void recordedStdioCommandsMaskEnvironmentValues() {
+        assertEquals("docker run -i --rm -e GITHUB_PERSONAL_ACCESS_TOKEN=*** -e GITHUB_DYNAMIC_TOOLSETS=*** "
+                        + "--env=API_KEY=*** -e HOME ghcr.io/github/github-mcp-server",
+                McpServerService.redactCommand("stdio://docker run -i --rm -e GITHUB_PERSONAL_ACCESS_TOKEN=github_pat_123 "
+                        + "-e GITHUB_DYNAMIC_TOOLSETS=1 --env=API_KEY=secret -e HOME ghcr.io/github/github-mcp-server"));
+        assertEquals("npx server", McpServerService.redactCommand("npx server"));
+    }
+
     private void setupHttpServerWithMcpResponse() throws IOException {
         httpServer = HttpServer.create(new InetSocketAddress(0), 0);
         httpServer.createContext("/mcp/health", exchange -> {
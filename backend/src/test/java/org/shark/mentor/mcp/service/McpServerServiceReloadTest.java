@@ -0,0 +1,166 @@
+package org.shark.mentor.mcp.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+import org.shark.mentor.mcp.config.McpProperties;
+import org.shark.mentor.mcp.model.McpServer;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class McpServerServiceReloadTest {
+
+    private static McpProperties.ServerConfig config(String id, String url) {
+        McpProperties.ServerConfig config = new McpProperties.ServerConfig();
+        config.setId(id);
+        config.setName(id.toUpperCase());
+        config.setUrl(url);
+        return config;
+    }
+
+    @Test
+    void onlyAddedChangedAndRemovedServersAreTouched() {
+        McpProperties properties = new McpProperties();
+        properties.setServers(List.of(
+                config("a", "http://localhost:1"),
+                config("b", "http://localhost:2"),
+                config("c", "http://localhost:3")));
+        McpServerService service = new McpServerService(properties);
+        McpServer a = service.getServer("a").orElseThrow();
+        a.setStatus("CONNECTED");
+        McpServer manual = service.addServer(new McpServer("manual", "Manual", "", "http://localhost:9", "DISCONNECTED"));
+
+        McpProperties.ServerConfig renamed = config("b", "http://localhost:2");
+        renamed.setName("Bee");
+        McpServerService.ConfigDiff diff = service.applyServerConfigs(List.of(
+                config("a", "http://localhost:1"),
+                renamed,
+                config("d", "http://localhost:4")));
+
+        assertEquals(List.of("d"), diff.added());
+        assertEquals(List.of("b"), diff.changed());
+        assertEquals(List.of("c"), diff.removed());
+        assertEquals(1, diff.unchanged());
+        assertSame(a, service.getServer("a").orElseThrow());
+        assertEquals("CONNECTED", a.getStatus());
+        assertEquals("Bee", service.getServer("b").orElseThrow().getName());
+        assertTrue(service.getServer("c").isEmpty());
+        assertSame(manual, service.getServer("manual").orElseThrow());
+    }
+
+    @Test
+    void newUrlResetsTheServer() {
+        McpProperties properties = new McpProperties();
+        properties.setServers(List.of(config("a", "http://localhost:1")));
+        McpServerService service = new McpServerService(properties);
+        service.getServer("a").orElseThrow().setLastError("old failure");
+
+        McpServerService.ConfigDiff diff = service.applyServerConfigs(List.of(config("a", "http://localhost:5")));
+
+        assertEquals(List.of("a"), diff.changed());
+        McpServer server = service.getServer("a").orElseThrow();
+        assertEquals("http://localhost:5", server.getUrl());
+        assertEquals("DISCONNECTED", server.getStatus());
+        assertNull(server.getLastError());
+    }
+
+    @Test
+    @EnabledOnOs({OS.LINUX, OS.MAC})
+    void lifecycleSettingsApplyWithoutRestartingTheProcess() throws Exception {
+        McpProperties.ServerConfig initial = config("local", "stdio://cat");
+        initial.setIdleTtlMs(1L);
+        McpProperties properties = new McpProperties();
+        properties.setServers(List.of(initial));
+        McpServerService service = new McpServerService(properties);
+        try {
+            service.connectToServer("local");
+            Process primary = service.getStdioProcess("local");
+
+            McpProperties.ServerConfig withSpare = config("local", "stdio://cat");
+            withSpare.setIdleTtlMs(1L);
+            withSpare.setSpare(true);
+            assertEquals(List.of("local"), service.applyServerConfigs(List.of(withSpare)).changed());
+            long deadline = System.currentTimeMillis() + 5000;
+            while (service.getSpareProcess("local") == null && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+            Process spare = service.getSpareProcess("local");
+            assertNotNull(spare, "no spare was started");
+            assertSame(primary, service.getStdioProcess("local"));
+
+            McpProperties.ServerConfig withoutSpare = config("local", "stdio://cat");
+            withoutSpare.setIdleTtlMs(1L);
+            service.applyServerConfigs(List.of(withoutSpare));
+            assertNull(service.getSpareProcess("local"));
+            assertTrue(spare.waitFor(5, TimeUnit.SECONDS));
+
+            Thread.sleep(10);
+            assertTrue(service.hibernate("local", 1));
+            service.applyServerConfigs(List.of(config("local", "stdio://cat")));
+            assertFalse(service.isHibernated("local"));
+            assertTrue(service.getStdioProcess("local").isAlive());
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    @EnabledOnOs({OS.LINUX, OS.MAC})
+    void enablingPrewarmStartsTheProcess() {
+        McpProperties properties = new McpProperties();
+        properties.setServers(List.of(config("local", "stdio://cat")));
+        McpServerService service = new McpServerService(properties);
+        try {
+            assertNull(service.getStdioProcess("local"));
+
+            McpProperties.ServerConfig prewarmed = config("local", "stdio://cat");
+            prewarmed.setPrewarm(true);
+            service.applyServerConfigs(List.of(prewarmed));
+
+            assertNotNull(service.getStdioProcess("local"));
+            assertTrue(service.getStdioProcess("local").isAlive());
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void watcherAppliesEditsAndIgnoresInvalidFiles(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("mcp-servers.json");
+        Files.writeString(file, "{\"servers\":[{\"id\":\"a\",\"name\":\"A\",\"url\":\"http://localhost:1\"}]}");
+        McpProperties properties = new McpProperties();
+        properties.getServersFile().setPath(file.toString());
+        properties.getServersFile().setDebounceMs(50);
+        McpServerService service = new McpServerService(properties);
+        McpServersFileWatcher watcher = new McpServersFileWatcher(properties, service);
+        assertTrue(service.getServer("a").isPresent());
+
+        Files.writeString(file, "{\"servers\":[{\"id\":\"b\",\"name\":\"B\",\"url\":\"http://localhost:2\"}]}");
+        McpServerService.ConfigDiff diff = watcher.reload(file);
+        assertEquals(List.of("b"), diff.added());
+        assertEquals(List.of("a"), diff.removed());
+
+        Files.writeString(file, "{\"servers\": [");
+        assertNull(watcher.reload(file));
+        assertTrue(service.getServer("b").isPresent());
+
+        watcher.start();
+        try {
+            Files.writeString(file, "{\"servers\":[{\"id\":\"c\",\"name\":\"C\",\"url\":\"http://localhost:3\"}]}");
+            long deadline = System.currentTimeMillis() + 10000;
+            while (service.getServer("c").isEmpty() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+            assertTrue(service.getServer("c").isPresent());
+            assertTrue(service.getServer("b").isEmpty());
+        } finally {
+            watcher.stop();
+        }
+    }
+}
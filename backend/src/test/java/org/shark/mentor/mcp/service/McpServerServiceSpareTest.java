@@ -0,0 +1,111 @@
+package org.shark.mentor.mcp.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+import org.shark.mentor.mcp.config.McpProperties;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@EnabledOnOs({OS.LINUX, OS.MAC})
+class McpServerServiceSpareTest {
+
+    @TempDir
+    Path dir;
+
+    private McpServerService service;
+
+    @AfterEach
+    void shutdown() {
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    private McpServerService service(boolean spare) {
+        return service(spare, "stdio://cat");
+    }
+
+    private McpServerService service(boolean spare, String url) {
+        McpProperties.ServerConfig config = new McpProperties.ServerConfig();
+        config.setId("local");
+        config.setName("Local");
+        config.setUrl(url);
+        config.setSpare(spare);
+        McpProperties properties = new McpProperties();
+        properties.setServers(List.of(config));
+        service = new McpServerService(properties);
+        service.connectToServer("local");
+        return service;
+    }
+
+    private Process awaitSpare(Process previous) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        Process spare;
+        while (((spare = service.getSpareProcess("local")) == null || spare == previous)
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertNotNull(spare, "no spare was started");
+        return spare;
+    }
+
+    @Test
+    void crashedProcessIsReplacedByTheSpare() throws Exception {
+        service(true);
+        Process spare = awaitSpare(null);
+        Process primary = service.getStdioProcess("local");
+        assertNotSame(primary, spare);
+
+        primary.destroyForcibly().waitFor(5, TimeUnit.SECONDS);
+        StdioConnection connection = service.getStdioConnection("local");
+
+        assertNotNull(connection);
+        assertSame(spare, service.getStdioProcess("local"));
+        assertEquals("CONNECTED", service.getServer("local").orElseThrow().getStatus());
+        Process replacement = awaitSpare(spare);
+        assertTrue(replacement.isAlive());
+        assertNotSame(spare, replacement);
+    }
+
+    @Test
+    void serversWithoutSpareStartNone() throws Exception {
+        service(false);
+        Thread.sleep(200);
+
+        assertNull(service.getSpareProcess("local"));
+    }
+
+    @Test
+    void eachProcessKeepsItsOwnStderr() throws Exception {
+        Path script = dir.resolve("server.sh");
+        Files.writeString(script, "echo pid $$ >&2\ncat\n");
+        service(true, "stdio://sh " + script);
+        Process spare = awaitSpare(null);
+        Process primary = service.getStdioProcess("local");
+        awaitStderr(1);
+        Thread.sleep(200);
+
+        assertEquals(List.of("pid " + primary.pid()), service.getStderr("local"));
+
+        primary.destroyForcibly().waitFor(5, TimeUnit.SECONDS);
+        assertNotNull(service.getStdioConnection("local"));
+        awaitStderr(2);
+
+        assertEquals(List.of("pid " + primary.pid(), "pid " + spare.pid()), service.getStderr("local"));
+    }
+
+    private void awaitStderr(int lines) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (service.getStderr("local").size() < lines && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package org.shark.mentor.mcp.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+import org.shark.mentor.mcp.config.McpProperties;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@EnabledOnOs({OS.LINUX, OS.MAC})
+class McpServerServiceStdioShutdownTest {
+
+    @TempDir
+    Path dir;
+
+    private McpServerService service(String script, McpProperties.Stdio stdio) throws Exception {
+        return service(script, stdio, new McpProperties.Ping());
+    }
+
+    private McpServerService service(String script, McpProperties.Stdio stdio, McpProperties.Ping ping) throws Exception {
+        Path file = dir.resolve("server.sh");
+        Files.writeString(file, script);
+        McpProperties.ServerConfig config = new McpProperties.ServerConfig();
+        config.setId("local");
+        config.setName("Local");
+        config.setUrl("stdio://sh " + file);
+        McpProperties properties = new McpProperties();
+        properties.setServers(List.of(config));
+        properties.setStdio(stdio);
+        properties.setPing(ping);
+        McpServerService service = new McpServerService(properties);
+        service.connectToServer("local");
+        return service;
+    }
+
+    @Test
+    void stderrIsKeptInABoundedBuffer() throws Exception {
+        McpProperties.Stdio stdio = new McpProperties.Stdio();
+        stdio.setStderrLines(2);
+        McpServerService service = service("echo one >&2\necho two >&2\necho three >&2\ncat\n", stdio);
+        try {
+            long deadline = System.currentTimeMillis() + 5000;
+            while (!service.getStderr("local").contains("three") && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+            assertEquals(List.of("two", "three"), service.getStderr("local"));
+            assertThrows(IllegalArgumentException.class, () -> service.getStderr("missing"));
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void shutdownClosesStdinAndKillsProcessesThatIgnoreIt() throws Exception {
+        McpProperties.Stdio stdio = new McpProperties.Stdio();
+        stdio.setShutdownGraceMs(300);
+        McpServerService polite = service("cat\n", stdio);
+        Process cat = polite.getStdioProcess("local");
+        McpServerService stubborn = service("trap '' TERM\nwhile true; do sleep 1; done\n", stdio);
+        Process loop = stubborn.getStdioProcess("local");
+        Thread.sleep(200);
+
+        long start = System.nanoTime();
+        polite.shutdown();
+        stubborn.shutdown();
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertFalse(cat.isAlive());
+        assertTrue(loop.waitFor(2, java.util.concurrent.TimeUnit.SECONDS));
+        assertTrue(elapsedMs < 2000, "shutdown took " + elapsedMs + " ms");
+        assertNull(stubborn.getStdioProcess("local"));
+    }
+
+    @Test
+    void restartAfterAHungPingStopsTheOldProcessWithItsChildren() throws Exception {
+        McpProperties.Stdio stdio = new McpProperties.Stdio();
+        stdio.setShutdownGraceMs(300);
+        McpProperties.Ping ping = new McpProperties.Ping();
+        ping.setTimeoutMs(200);
+        McpServerService service = service("sleep 300 &\nwhile read line; do :; done\n", stdio, ping);
+        try {
+            Process hung = service.getStdioProcess("local");
+            long deadline = System.currentTimeMillis() + 5000;
+            while (hung.descendants().findAny().isEmpty() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+            List<ProcessHandle> children = hung.descendants().toList();
+            assertFalse(children.isEmpty());
+
+            assertFalse(service.pingServer("local"));
+
+            assertNotSame(hung, service.getStdioProcess("local"));
+            assertTrue(hung.waitFor(2, java.util.concurrent.TimeUnit.SECONDS));
+            for (ProcessHandle child : children) {
+                child.onExit().get(2, java.util.concurrent.TimeUnit.SECONDS);
+            }
+        } finally {
+            service.shutdown();
+        }
+    }
+}
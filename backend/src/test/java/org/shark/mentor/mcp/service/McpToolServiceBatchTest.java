@@ -0,0 +1,150 @@
+package org.shark.mentor.mcp.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.shark.mentor.mcp.model.McpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class McpToolServiceBatchTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private HttpServer httpServer;
+    private final List<JsonNode> posts = new CopyOnWriteArrayList<>();
+    private volatile boolean acceptBatches = true;
+    private volatile int batchFailure = 0;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        httpServer = HttpServer.create(new InetSocketAddress(0), 0);
+        httpServer.createContext("/mcp", exchange -> {
+            JsonNode request = MAPPER.readTree(exchange.getRequestBody());
+            posts.add(request);
+            int status = 200;
+            JsonNode body;
+            if (request.isArray() && batchFailure != 0) {
+                status = batchFailure;
+                body = MAPPER.readTree("{\"error\":\"try again later\"}");
+            } else if (request.isArray() && !acceptBatches) {
+                status = 400;
+                body = MAPPER.readTree("{\"jsonrpc\":\"2.0\",\"id\":null,\"error\":{\"code\":-32600,\"message\":\"Invalid Request\"}}");
+            } else if (request.isArray()) {
+                // Answers in reverse order to check responses are matched by id
+                ArrayNode responses = MAPPER.createArrayNode();
+                for (int i = request.size() - 1; i >= 0; i--) {
+                    responses.add(answer(request.get(i)));
+                }
+                body = responses;
+            } else {
+                body = answer(request);
+            }
+            byte[] bytes = MAPPER.writeValueAsBytes(body);
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(bytes);
+            }
+        });
+        httpServer.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        httpServer.stop(0);
+    }
+
+    private static JsonNode answer(JsonNode request) {
+        return MAPPER.createObjectNode()
+                .put("jsonrpc", "2.0")
+                .put("id", request.get("id").asText())
+                .put("result", request.path("params").path("uri").asText(request.path("method").asText()));
+    }
+
+    private McpServer server() {
+        return new McpServer("test", "Test", "", "http://localhost:" + httpServer.getAddress().getPort(), "CONNECTED");
+    }
+
+    private static List<McpToolService.JsonRpcCall> reads(String... uris) {
+        return Arrays.stream(uris)
+                .map(uri -> new McpToolService.JsonRpcCall("resources/read", Map.of("uri", uri)))
+                .toList();
+    }
+
+    @Test
+    void callsGoOutInOneRequestAndAreMatchedById() throws Exception {
+        McpToolService service = new McpToolService(mock(McpServerService.class));
+
+        List<String> responses = service.callBatch(server(), reads("file:///a", "file:///b", "file:///c"));
+
+        assertEquals(1, posts.size());
+        assertEquals(3, posts.get(0).size());
+        assertTrue(responses.get(0).contains("file:///a"));
+        assertTrue(responses.get(1).contains("file:///b"));
+        assertTrue(responses.get(2).contains("file:///c"));
+    }
+
+    @Test
+    void serversRejectingBatchesGetSeparateCalls() throws Exception {
+        acceptBatches = false;
+        McpToolService service = new McpToolService(mock(McpServerService.class));
+
+        List<String> responses = service.callBatch(server(), reads("file:///a", "file:///b"));
+
+        assertEquals(3, posts.size());
+        assertTrue(responses.get(0).contains("file:///a"));
+        assertTrue(responses.get(1).contains("file:///b"));
+
+        // The server is remembered, so the next batch is not attempted
+        service.callBatch(server(), reads("file:///c", "file:///d"));
+        assertEquals(5, posts.size());
+        assertTrue(posts.stream().skip(1).noneMatch(JsonNode::isArray));
+    }
+
+    @Test
+    void failedBatchesAreNotResentAndDoNotDisableBatching() throws Exception {
+        batchFailure = 503;
+        McpToolService service = new McpToolService(mock(McpServerService.class));
+
+        List<String> responses = service.callBatch(server(), reads("file:///a", "file:///b"));
+
+        assertEquals(1, posts.size());
+        for (String response : responses) {
+            assertEquals("HTTP 503", MAPPER.readTree(response).path("error").path("message").asText());
+        }
+        assertTrue(service.acceptsBatches(server()));
+
+        batchFailure = 0;
+        service.callBatch(server(), reads("file:///c", "file:///d"));
+        assertEquals(2, posts.size());
+        assertTrue(posts.get(1).isArray());
+    }
+
+    @Test
+    void toolCallsShareOneCatalogFetchAndOneBatch() throws Exception {
+        McpToolService service = new McpToolService(mock(McpServerService.class));
+
+        List<String> responses = service.callTools(server(), List.of(
+                new McpToolService.ToolRequest("get_repo", Map.of("repo", "a")),
+                new McpToolService.ToolRequest("get_repo", Map.of("repo", "b"))));
+
+        assertEquals(2, responses.size());
+        assertEquals("tools/list", posts.get(0).path("method").asText());
+        assertEquals(2, posts.size());
+        assertTrue(posts.get(1).isArray());
+        assertEquals("b", posts.get(1).get(1).path("params").path("arguments").path("repo").asText());
+    }
+}
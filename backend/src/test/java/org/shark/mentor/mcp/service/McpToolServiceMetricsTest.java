@@ -0,0 +1,93 @@
+package org.shark.mentor.mcp.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.shark.mentor.mcp.model.McpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class McpToolServiceMetricsTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final McpToolService service = new McpToolService(mock(McpServerService.class));
+    private HttpServer httpServer;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Metrics.addRegistry(registry);
+        httpServer = HttpServer.create(new InetSocketAddress(0), 0);
+        httpServer.createContext("/ok/mcp", exchange -> {
+            JsonNode request = MAPPER.readTree(exchange.getRequestBody());
+            String result = "tools/list".equals(request.path("method").asText())
+                    ? "{\"tools\":[{\"name\":\"search\",\"inputSchema\":{\"type\":\"object\"}}]}"
+                    : "{\"content\":[{\"type\":\"text\",\"text\":\"found\"}]}";
+            respond(exchange, 200, "{\"jsonrpc\":\"2.0\",\"id\":\"" + request.path("id").asText() + "\",\"result\":" + result + "}");
+        });
+        httpServer.createContext("/broken/mcp", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            respond(exchange, 500, "{\"error\":\"down\"}");
+        });
+        httpServer.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        httpServer.stop(0);
+        Metrics.removeRegistry(registry);
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(bytes);
+        }
+    }
+
+    private McpServer server(String id) {
+        return new McpServer(id, id, "", "http://localhost:" + httpServer.getAddress().getPort() + "/" + id, "CONNECTED");
+    }
+
+    private Timer timer(String name, String server, String outcome) {
+        return registry.get(name).tags("server", server, "outcome", outcome).timer();
+    }
+
+    @Test
+    void toolsListIsTimedWithItsOutcome() {
+        assertEquals(1, service.getTools(server("ok")).size());
+        assertTrue(service.getTools(server("broken")).isEmpty());
+
+        assertEquals(1, timer("mcp.tools.list", "ok", "success").count());
+        assertEquals(1, timer("mcp.tools.list", "broken", "error").count());
+        assertTrue(registry.find("mcp.tools.list").tags("server", "broken", "outcome", "empty").timers().isEmpty());
+    }
+
+    @Test
+    void toolCallsAreTimedPerToolAndTransport() throws Exception {
+        String response = service.callToolViaHttp(server("ok"), "search", Map.of());
+
+        assertTrue(response.contains("found"));
+        Timer call = registry.get("mcp.tools.call")
+                .tags("server", "ok", "tool", "search", "transport", "http", "outcome", "success").timer();
+        assertEquals(1, call.count());
+        assertTrue(call.totalTime(TimeUnit.NANOSECONDS) > 0);
+    }
+}
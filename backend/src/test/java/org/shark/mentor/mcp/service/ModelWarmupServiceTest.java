@@ -0,0 +1,150 @@
+package org.shark.mentor.mcp.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.shark.mentor.mcp.config.LlmProperties;
+import org.shark.mentor.mcp.llm.OllamaClient;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class ModelWarmupServiceTest {
+
+    private final LlmProperties props = new LlmProperties();
+    private final LlmServiceEnhanced llmService = mock(LlmServiceEnhanced.class);
+    private final Map<String, OllamaClient> clients = new ConcurrentHashMap<>();
+    private final ModelWarmupService service = new ModelWarmupService(props, llmService) {
+        @Override
+        OllamaClient client(String endpoint, Duration timeout) {
+            return clients.computeIfAbsent(endpoint, url -> {
+                OllamaClient client = mock(OllamaClient.class);
+                when(client.getBaseUrl()).thenReturn(url);
+                return client;
+            });
+        }
+    };
+    private final LlmModelHealthIndicator health = new LlmModelHealthIndicator(service);
+
+    ModelWarmupServiceTest() {
+        props.setProvider("ollama");
+        props.setModel("big");
+        props.getApi().setBaseUrls(List.of("http://a:11434", "http://b:11434"));
+        props.getWarmup().setKeepAliveIntervalMs(0);
+    }
+
+    @AfterEach
+    void stop() {
+        service.stop();
+    }
+
+    @Test
+    void loadsEveryModelOnEveryEndpointBeforeReportingReady() throws Exception {
+        LlmProperties.ModelRoute route = new LlmProperties.ModelRoute();
+        route.setModel("small");
+        props.getModelRouting().setEnabled(true);
+        props.getModelRouting().setRoutes(List.of(route));
+        stubClients(Map.of("big", "2026-10-19T12:30:00Z", "small:latest", "2026-10-19T12:00:00Z"));
+
+        service.start();
+        await(service::isReady);
+
+        assertEquals(4, service.getTargets().size());
+        for (OllamaClient client : clients.values()) {
+            verify(client).loadModel("big", "30m");
+            verify(client).loadModel("small", "30m");
+        }
+        assertTrue(service.getTargets().stream().allMatch(ModelWarmupService.Target::isResident));
+        Health status = health.health();
+        assertEquals(Status.UP, status.getStatus());
+        assertEquals(true, status.getDetails().get("ready"));
+        Map<?, ?> small = (Map<?, ?>) status.getDetails().get("small@http://b:11434");
+        assertEquals("2026-10-19T12:00:00Z", small.get("expiresAt"));
+    }
+
+    @Test
+    void failedLoadKeepsReadinessOutOfServiceUnlessTheGateIsOff() throws Exception {
+        props.getApi().setBaseUrls(List.of("http://a:11434"));
+        stubClients(Map.of());
+        OllamaClient client = clients.get("http://a:11434");
+        doThrow(new IOException("connection refused")).when(client).loadModel(anyString(), any());
+
+        service.start();
+        await(() -> service.getTargets().get(0).getLastError() != null);
+
+        Health gated = health.health();
+        assertEquals(Status.OUT_OF_SERVICE, gated.getStatus());
+        assertEquals(false, gated.getDetails().get("ready"));
+        Map<?, ?> details = (Map<?, ?>) gated.getDetails().get("big@http://a:11434");
+        assertEquals("connection refused", details.get("lastError"));
+        assertEquals(false, details.get("warmedUp"));
+
+        props.getWarmup().setGateReadiness(false);
+        Health ungated = health.health();
+        assertEquals(Status.UP, ungated.getStatus());
+        assertEquals(false, ungated.getDetails().get("ready"));
+    }
+
+    @Test
+    void keepAliveReloadsOnlyWhileChatTrafficIsActive() throws Exception {
+        props.getApi().setBaseUrls(List.of("http://a:11434"));
+        props.getWarmup().setKeepAliveIntervalMs(20L);
+        props.getWarmup().setActiveWindowMs(60000);
+        stubClients(Map.of());
+        AtomicBoolean active = new AtomicBoolean(true);
+        when(llmService.getLastActivityMillis())
+                .thenAnswer(invocation -> active.get() ? System.currentTimeMillis() : 0L);
+
+        service.start();
+        OllamaClient client = clients.get("http://a:11434");
+        await(() -> mockingDetails(client).getInvocations().stream()
+                .filter(call -> call.getMethod().getName().equals("loadModel")).count() >= 3);
+        assertFalse(service.getTargets().get(0).isResident());
+
+        active.set(false);
+        Thread.sleep(100);
+        clearInvocations(client);
+        Thread.sleep(200);
+        verify(client, never()).loadModel(anyString(), any());
+        verify(client, atLeastOnce()).runningModels();
+    }
+
+    @Test
+    void otherProvidersAreNotApplicable() {
+        props.setProvider("openai");
+
+        service.start();
+
+        assertFalse(service.isApplicable());
+        assertTrue(clients.isEmpty());
+        Health status = health.health();
+        assertEquals(Status.UP, status.getStatus());
+        assertEquals("not applicable", status.getDetails().get("warmup"));
+    }
+
+    private void stubClients(Map<String, String> running) throws Exception {
+        for (String endpoint : props.getApi().endpoints()) {
+            OllamaClient client = service.client(endpoint, Duration.ZERO);
+            when(client.runningModels()).thenReturn(running);
+        }
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "condition not met within 5s");
+            Thread.sleep(10);
+        }
+    }
+}
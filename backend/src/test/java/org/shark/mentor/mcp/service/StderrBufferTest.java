@@ -0,0 +1,34 @@
+package org.shark.mentor.mcp.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StderrBufferTest {
+
+    @Test
+    void linesAreSplitAcrossChunksAndTheOldestDropped() throws Exception {
+        StderrBuffer buffer = new StderrBuffer(2, 4000);
+        String longLine = "x".repeat(3000);
+        List<String> seen = new ArrayList<>();
+
+        buffer.readFrom(new StringReader("one\r\n" + longLine + "\nthree"), seen::add);
+
+        assertEquals(List.of("one", longLine, "three"), seen);
+        assertEquals(List.of(longLine, "three"), buffer.lines());
+        assertEquals(1, buffer.dropped());
+    }
+
+    @Test
+    void endlessLinesAreTruncatedWhileReading() throws Exception {
+        StderrBuffer buffer = new StderrBuffer(10, 5);
+
+        buffer.readFrom(new StringReader("y".repeat(100_000) + "\nshort\n"), line -> { });
+
+        assertEquals(List.of("yyyyy…", "short"), buffer.lines());
+    }
+}
@@ -0,0 +1,136 @@
+package org.shark.mentor.mcp.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StdioConnectionTest {
+
+    /** The server side of a stdio connection: what the client wrote, and a stream to answer on */
+    private final PipedInputStream clientToServer = new PipedInputStream(64 * 1024);
+    private final PipedOutputStream serverToClient = new PipedOutputStream();
+    private final InputStream serverIn = new BufferedInputStream(clientToServer);
+
+    private StdioConnection connect() throws IOException {
+        OutputStream stdin = new PipedOutputStream(clientToServer);
+        PipedInputStream stdout = new PipedInputStream(serverToClient, 64 * 1024);
+        return new StdioConnection("test", stdin, stdout);
+    }
+
+    private void answer(String json, boolean framed) throws IOException {
+        if (framed) {
+            StdioFraming.writeFrame(serverToClient, json);
+        } else {
+            serverToClient.write((json + "\n").getBytes(StandardCharsets.UTF_8));
+            serverToClient.flush();
+        }
+    }
+
+    @Test
+    void responsesAreMatchedByIdWhateverTheirOrderAndFraming() throws Exception {
+        StdioConnection connection = connect();
+        CompletableFuture<String> first = connection.request("1", "{\"id\":\"1\"}", true);
+        CompletableFuture<String> second = connection.request("2", "{\"id\":\"2\"}", false);
+
+        answer("server log line", false);
+        answer("{\"jsonrpc\":\"2.0\",\"id\":\"2\",\"result\":{}}", false);
+        answer("{\"jsonrpc\":\"2.0\",\"id\":\"1\",\"result\":{\"ok\":true}}", true);
+
+        assertTrue(first.get(2, TimeUnit.SECONDS).contains("\"ok\":true"));
+        assertTrue(second.get(2, TimeUnit.SECONDS).contains("\"id\":\"2\""));
+        connection.close();
+    }
+
+    @Test
+    void framedBodiesAreReadByByteCount() throws Exception {
+        StdioConnection connection = connect();
+        CompletableFuture<String> first = connection.request("1", "{\"id\":\"1\"}", true);
+        CompletableFuture<String> second = connection.request("2", "{\"id\":\"2\"}", true);
+
+        String accented = "{\"jsonrpc\":\"2.0\",\"id\":\"1\",\"result\":\"Configuración ✅ 日本語\"}";
+        answer(accented, true);
+        answer("{\"jsonrpc\":\"2.0\",\"id\":\"2\",\"result\":\"next\"}", true);
+
+        assertEquals(accented, first.get(2, TimeUnit.SECONDS));
+        assertTrue(second.get(2, TimeUnit.SECONDS).contains("next"));
+        connection.close();
+    }
+
+    @Test
+    void cancelledTurnStopsWaitingAndNotifiesTheServer() throws Exception {
+        StdioConnection connection = connect();
+        TurnCancellation turn = new TurnCancellation();
+        CompletableFuture<Throwable> call = CompletableFuture.supplyAsync(() -> {
+            try (TurnCancellation.Handle ignored = turn.open()) {
+                TurnCancellation.await(connection.request("7", "{\"id\":\"7\"}", true), 60000);
+                return null;
+            } catch (Exception e) {
+                return e;
+            }
+        });
+
+        assertEquals("{\"id\":\"7\"}", StdioFraming.readFrame(serverIn));
+        turn.cancel("client_disconnected");
+
+        assertInstanceOf(TurnCancelledException.class, call.get(2, TimeUnit.SECONDS));
+        String notification = StdioFraming.readFrame(serverIn);
+        assertTrue(notification.contains("notifications/cancelled"));
+        assertTrue(notification.contains("\"requestId\":\"7\""));
+
+        // A late answer to the cancelled request must not reach the next caller
+        CompletableFuture<String> next = connection.request("8", "{\"id\":\"8\"}", true);
+        answer("{\"id\":\"7\",\"result\":\"late\"}", true);
+        answer("{\"id\":\"8\",\"result\":\"fresh\"}", true);
+        assertTrue(next.get(2, TimeUnit.SECONDS).contains("fresh"));
+        connection.close();
+    }
+
+    @Test
+    void pendingRequestsFailWhenTheServerExits() throws Exception {
+        StdioConnection connection = connect();
+        CompletableFuture<String> pending = connection.request("1", "{\"id\":\"1\"}", false);
+
+        serverToClient.close();
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> pending.get(2, TimeUnit.SECONDS));
+        assertInstanceOf(IOException.class, e.getCause());
+        assertThrows(IOException.class, () -> connection.request("2", "{}", false));
+    }
+
+    @Test
+    void batchResponsesAreSplitById() throws Exception {
+        StdioConnection connection = connect();
+        List<CompletableFuture<String>> responses = connection.requestBatch(List.of("a", "b"), "[{\"id\":\"a\"},{\"id\":\"b\"}]", true);
+
+        assertEquals("[{\"id\":\"a\"},{\"id\":\"b\"}]", StdioFraming.readFrame(serverIn));
+        answer("[{\"jsonrpc\":\"2.0\",\"id\":\"b\",\"result\":\"second\"},{\"jsonrpc\":\"2.0\",\"id\":\"a\",\"result\":\"first\"}]", true);
+
+        assertTrue(responses.get(0).get(2, TimeUnit.SECONDS).contains("first"));
+        assertTrue(responses.get(1).get(2, TimeUnit.SECONDS).contains("second"));
+        connection.close();
+    }
+
+    @Test
+    void rejectedBatchFailsItsRequests() throws Exception {
+        StdioConnection connection = connect();
+        List<CompletableFuture<String>> responses = connection.requestBatch(List.of("a", "b"), "[]", false);
+
+        answer("{\"jsonrpc\":\"2.0\",\"id\":null,\"error\":{\"code\":-32600,\"message\":\"Invalid Request\"}}", false);
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> responses.get(1).get(2, TimeUnit.SECONDS));
+        assertInstanceOf(BatchRejectedException.class, e.getCause());
+        connection.close();
+    }
+}
@@ -0,0 +1,96 @@
+package org.shark.mentor.mcp.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.shark.mentor.mcp.config.McpProperties;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StdioHibernationServiceTest {
+
+    private static final ZoneId UTC = ZoneId.of("UTC");
+
+    private McpServerService service;
+
+    @AfterEach
+    void shutdown() {
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    private StdioHibernationService hibernation(McpProperties properties) {
+        McpProperties.ServerConfig config = new McpProperties.ServerConfig();
+        config.setId("local");
+        config.setName("Local");
+        config.setUrl("stdio://cat");
+        config.setIdleTtlMs(1L);
+        properties.setServers(List.of(config));
+        service = new McpServerService(properties);
+        service.connectToServer("local");
+        return new StdioHibernationService(properties, service, UTC);
+    }
+
+    @Test
+    @EnabledOnOs({OS.LINUX, OS.MAC})
+    void idleServersAreStoppedAndResumedByTheirNextRequest() throws Exception {
+        StdioHibernationService hibernation = hibernation(new McpProperties());
+        Process first = service.getStdioProcess("local");
+        Thread.sleep(20);
+
+        hibernation.tick(System.currentTimeMillis());
+
+        assertTrue(service.isHibernated("local"));
+        assertTrue(first.waitFor(5, java.util.concurrent.TimeUnit.SECONDS));
+        assertEquals("CONNECTED", service.getServer("local").orElseThrow().getStatus());
+
+        StdioConnection connection = service.getStdioConnection("local");
+        assertNotNull(connection);
+        assertFalse(service.isHibernated("local"));
+        assertTrue(service.getStdioProcess("local").isAlive());
+    }
+
+    @Test
+    @EnabledOnOs({OS.LINUX, OS.MAC})
+    void serversAreRestartedBeforeTheHoursTheyAreUsedIn() throws Exception {
+        McpProperties properties = new McpProperties();
+        properties.getStdio().getPrestart().setEnabled(true);
+        properties.getStdio().getPrestart().setLeadMinutes(0);
+        properties.getStdio().getPrestart().setMinDays(1);
+        StdioHibernationService hibernation = hibernation(properties);
+        service.getStdioConnection("local");
+        Thread.sleep(20);
+
+        hibernation.tick(System.currentTimeMillis());
+        assertTrue(service.isHibernated("local"));
+
+        hibernation.tick(System.currentTimeMillis());
+        assertFalse(service.isHibernated("local"));
+        assertTrue(service.getStdioProcess("local").isAlive());
+
+        // Prestarted once per hour: once idle again it stays hibernated
+        Thread.sleep(20);
+        hibernation.tick(System.currentTimeMillis());
+        hibernation.tick(System.currentTimeMillis());
+        assertTrue(service.isHibernated("local"));
+    }
+
+    @Test
+    void usageProfileCountsDistinctDaysPerHour() {
+        StdioHibernationService.UsageProfile profile = new StdioHibernationService.UsageProfile(UTC);
+        ZonedDateTime morning = ZonedDateTime.of(2024, 3, 4, 9, 30, 0, 0, UTC);
+        for (int day = 0; day < 3; day++) {
+            profile.record(morning.plusDays(day).toInstant().toEpochMilli());
+            profile.record(morning.plusDays(day).plusMinutes(10).toInstant().toEpochMilli());
+        }
+
+        assertEquals(3, profile.days(morning.plusDays(3).withMinute(5).toInstant().toEpochMilli()));
+        assertEquals(0, profile.days(morning.plusHours(2).toInstant().toEpochMilli()));
+    }
+}
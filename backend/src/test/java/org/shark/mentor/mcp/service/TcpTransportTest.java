@@ -0,0 +1,153 @@
+package org.shark.mentor.mcp.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TcpTransportTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final List<Socket> accepted = new CopyOnWriteArrayList<>();
+    private final List<Thread> threads = new CopyOnWriteArrayList<>();
+    private ServerSocket serverSocket;
+    private TcpTransport transport;
+
+    @AfterEach
+    void close() throws Exception {
+        if (transport != null) {
+            transport.close();
+        }
+        if (serverSocket != null) {
+            serverSocket.close();
+        }
+        for (Socket socket : accepted) {
+            socket.close();
+        }
+        for (Thread thread : threads) {
+            thread.join(5000);
+        }
+    }
+
+    /**
+     * Starts the fake server and returns its port
+     */
+    private int startServer() throws IOException {
+        serverSocket = new ServerSocket(0);
+        Thread acceptor = new Thread(this::serve, "fake-tcp-mcp");
+        acceptor.setDaemon(true);
+        threads.add(acceptor);
+        acceptor.start();
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Answers each line-delimited request with its method name, holding requests until two have
+     * arrived and answering them in reverse order
+     */
+    private void serve() {
+        try {
+            while (true) {
+                Socket socket = serverSocket.accept();
+                accepted.add(socket);
+                Thread handler = new Thread(() -> {
+                    try (socket) {
+                        BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                        OutputStream out = socket.getOutputStream();
+                        List<JsonNode> held = new ArrayList<>();
+                        String line;
+                        while ((line = reader.readLine()) != null) {
+                            held.add(MAPPER.readTree(line));
+                            if (held.size() == 2) {
+                                for (int i = held.size() - 1; i >= 0; i--) {
+                                    String response = MAPPER.createObjectNode().put("jsonrpc", "2.0")
+                                            .put("id", held.get(i).path("id").asText())
+                                            .put("result", held.get(i).path("method").asText()).toString();
+                                    out.write((response + "\n").getBytes(StandardCharsets.UTF_8));
+                                }
+                                out.flush();
+                                held.clear();
+                            }
+                        }
+                    } catch (Exception e) {
+                        // connection closed by the test
+                    }
+                });
+                handler.setDaemon(true);
+                threads.add(handler);
+                handler.start();
+            }
+        } catch (Exception e) {
+            // server socket closed
+        }
+    }
+
+    private static String request(String id, String method) {
+        return "{\"jsonrpc\":\"2.0\",\"id\":\"" + id + "\",\"method\":\"" + method + "\"}";
+    }
+
+    @Test
+    void concurrentRequestsShareOneConnectionAndAreMatchedById() throws Exception {
+        transport = new TcpTransport("remote", "localhost", startServer(), 2000, 0);
+
+        CompletableFuture<String> first = transport.connection().request("1", request("1", "tools/list"), false);
+        CompletableFuture<String> second = transport.connection().request("2", request("2", "ping"), false);
+
+        assertEquals("tools/list", MAPPER.readTree(first.get(5, TimeUnit.SECONDS)).path("result").asText());
+        assertEquals("ping", MAPPER.readTree(second.get(5, TimeUnit.SECONDS)).path("result").asText());
+        assertEquals(1, accepted.size());
+    }
+
+    @Test
+    void droppedConnectionIsReopenedByTheNextRequest() throws Exception {
+        transport = new TcpTransport("remote", "localhost", startServer(), 2000, 0);
+        StdioConnection connection = transport.connection();
+        CompletableFuture<String> lost = connection.request("1", request("1", "ping"), false);
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (accepted.isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        accepted.get(0).close();
+
+        assertThrows(Exception.class, () -> lost.get(5, TimeUnit.SECONDS));
+        assertFalse(connection.isOpen());
+        StdioConnection reopened = transport.connection();
+        assertNotSame(connection, reopened);
+        CompletableFuture<String> first = reopened.request("2", request("2", "ping"), false);
+        CompletableFuture<String> second = reopened.request("3", request("3", "ping"), false);
+        assertEquals("ping", MAPPER.readTree(first.get(5, TimeUnit.SECONDS)).path("result").asText());
+        assertEquals("ping", MAPPER.readTree(second.get(5, TimeUnit.SECONDS)).path("result").asText());
+        assertEquals(2, accepted.size());
+    }
+
+    @Test
+    void reconnectsAreSpacedByTheBackoff() throws Exception {
+        // A port that was bound and released without ever accepting connections
+        int port;
+        try (ServerSocket released = new ServerSocket(0)) {
+            port = released.getLocalPort();
+        }
+        transport = new TcpTransport("remote", "localhost", port, 2000, 60000);
+
+        assertThrows(IOException.class, transport::connection);
+        IOException backingOff = assertThrows(IOException.class, transport::connection);
+        assertTrue(backingOff.getMessage().contains("next attempt"));
+    }
+}
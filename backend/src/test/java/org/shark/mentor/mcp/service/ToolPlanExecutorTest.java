@@ -0,0 +1,225 @@
+package org.shark.mentor.mcp.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.langchain4j.agent.tool.ToolExecutionRequest;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.ChatMessageType;
+import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.output.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.shark.mentor.mcp.config.LlmProperties;
+import org.shark.mentor.mcp.model.McpServer;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class ToolPlanExecutorTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final McpServer SERVER = new McpServer("github", "GitHub", "", "http://localhost", "CONNECTED");
+    private static final List<Map<String, Object>> TOOLS = List.of(Map.of("name", "get_repo"), Map.of("name", "get_me"));
+
+    private final LlmProperties props = new LlmProperties();
+    private final ChatLanguageModel model = mock(ChatLanguageModel.class);
+    private final List<List<ChatMessage>> prompts = new CopyOnWriteArrayList<>();
+    private ToolPlanExecutor executor;
+
+    @AfterEach
+    void shutdown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    private static Response<AiMessage> calls(String... repos) {
+        List<ToolExecutionRequest> requests = new ArrayList<>();
+        for (String repo : repos) {
+            requests.add(ToolExecutionRequest.builder()
+                    .id(repo)
+                    .name(repo.equals("me") ? "get_me" : "get_repo")
+                    .arguments("{\"repo\":\"" + repo + "\"}")
+                    .build());
+        }
+        return Response.from(AiMessage.from(requests));
+    }
+
+    private ToolInvocation run(ToolPlanExecutor.ToolCaller caller) throws Exception {
+        props.getFunctionCalling().setEnabled(true);
+        LlmServiceEnhanced llmService = new LlmServiceEnhanced(props);
+        Field field = LlmServiceEnhanced.class.getDeclaredField("chatModel");
+        field.setAccessible(true);
+        field.set(llmService, model);
+        FunctionCallingPlanner planner = new FunctionCallingPlanner(props, llmService);
+        executor = new ToolPlanExecutor(props, new ContextCompactor(props));
+
+        FunctionCallingPlanner.Session session = planner.start(SERVER, "compare a and b", TOOLS);
+        return executor.execute(SERVER, session, session.next(), caller, TurnTimer.disabled());
+    }
+
+    @SafeVarargs
+    private final void answers(Response<AiMessage> first, Response<AiMessage>... rest) {
+        when(model.generate(anyList(), anyList())).thenAnswer(invocation -> {
+            prompts.add(new ArrayList<>(invocation.getArgument(0)));
+            int step = prompts.size() - 1;
+            return step == 0 ? first : step <= rest.length ? rest[step - 1] : Response.from(AiMessage.from("done"));
+        });
+    }
+
+    @Test
+    void independentCallsRunInParallelAndResultsAreFedBack() throws Exception {
+        answers(calls("a", "b"));
+
+        long start = System.nanoTime();
+        ToolInvocation invocation = run((tool, args) -> {
+            Thread.sleep(300);
+            return "{\"full_name\":\"acme/" + args.get("repo") + "\"}";
+        });
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(elapsedMs < 550, "calls ran one after the other: " + elapsedMs + " ms");
+        assertNull(invocation.toolName());
+        JsonNode combined = MAPPER.readTree(invocation.output());
+        assertEquals(2, combined.size());
+        assertEquals("get_repo", combined.get(0).path("tool").asText());
+        assertEquals("a", combined.get(0).path("arguments").path("repo").asText());
+        assertEquals("acme/b", combined.get(1).path("result").path("full_name").asText());
+
+        List<ChatMessage> second = prompts.get(1);
+        assertEquals(ChatMessageType.TOOL_EXECUTION_RESULT, second.get(second.size() - 1).type());
+        assertEquals(ChatMessageType.TOOL_EXECUTION_RESULT, second.get(second.size() - 2).type());
+    }
+
+    @Test
+    void batchingCallersGetTheWholeStepAtOnce() throws Exception {
+        answers(calls("a", "b"));
+        List<List<FunctionCallingPlanner.ToolCall>> batches = new CopyOnWriteArrayList<>();
+
+        ToolInvocation invocation = run(new ToolPlanExecutor.BatchingToolCaller() {
+            @Override
+            public String call(String toolName, Map<String, Object> arguments) {
+                throw new AssertionError("calls should be batched");
+            }
+
+            @Override
+            public List<String> callAll(List<FunctionCallingPlanner.ToolCall> calls) {
+                batches.add(calls);
+                return calls.stream().map(call -> "{\"repo\":\"" + call.arguments().get("repo") + "\"}").toList();
+            }
+        });
+
+        assertEquals(1, batches.size());
+        assertEquals(2, batches.get(0).size());
+        JsonNode combined = MAPPER.readTree(invocation.output());
+        assertEquals("b", combined.get(1).path("result").path("repo").asText());
+    }
+
+    @Test
+    void dependentStepsRunUntilTheModelAnswers() throws Exception {
+        answers(calls("me"), calls("a"));
+        List<String> called = new CopyOnWriteArrayList<>();
+
+        ToolInvocation invocation = run((tool, args) -> {
+            called.add(tool);
+            return "{}";
+        });
+
+        assertEquals(List.of("get_me", "get_repo"), called);
+        assertEquals(3, prompts.size());
+        assertEquals(2, MAPPER.readTree(invocation.output()).size());
+        assertEquals("done", invocation.answer());
+    }
+
+    @Test
+    void singleCallKeepsItsToolName() throws Exception {
+        answers(calls("a"));
+
+        ToolInvocation invocation = run((tool, args) -> "raw output");
+
+        assertEquals("get_repo", invocation.toolName());
+        assertEquals("raw output", invocation.output());
+    }
+
+    @Test
+    void planStopsAtTheIterationAndCallBudgets() throws Exception {
+        props.getFunctionCalling().setMaxIterations(2);
+        props.getFunctionCalling().setMaxToolCalls(3);
+        answers(calls("a", "b"), calls("c", "d"), calls("e"));
+        List<Object> called = new CopyOnWriteArrayList<>();
+
+        ToolInvocation invocation = run((tool, args) -> {
+            called.add(args.get("repo"));
+            return "{}";
+        });
+
+        assertEquals(3, called.size());
+        assertFalse(called.contains("d"));
+        assertEquals(2, prompts.size());
+        assertNull(invocation.answer());
+    }
+
+    @Test
+    void callsBeyondTheQueueFailAtOnce() throws Exception {
+        props.getFunctionCalling().setMaxParallelCalls(1);
+        props.getFunctionCalling().setMaxQueuedCalls(1);
+        props.getFunctionCalling().setMaxIterations(1);
+        answers(calls("a", "b", "c"));
+
+        ToolInvocation invocation = run((tool, args) -> {
+            Thread.sleep(100);
+            return "{\"ok\":true}";
+        });
+
+        JsonNode combined = MAPPER.readTree(invocation.output());
+        assertTrue(combined.get(0).path("result").path("ok").asBoolean());
+        assertTrue(combined.get(1).path("result").path("ok").asBoolean());
+        assertTrue(combined.get(2).path("result").asText().contains("too many tool calls queued"));
+    }
+
+    @Test
+    void slowCallsAreCutOffAtTheDeadline() throws Exception {
+        props.getFunctionCalling().setDeadlineMs(200);
+        answers(calls("a", "b"));
+
+        long start = System.nanoTime();
+        ToolInvocation invocation = run((tool, args) -> {
+            if ("b".equals(args.get("repo"))) {
+                Thread.sleep(2000);
+            }
+            return "{\"ok\":true}";
+        });
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(elapsedMs < 1500, "waited past the deadline: " + elapsedMs + " ms");
+        JsonNode combined = MAPPER.readTree(invocation.output());
+        assertTrue(combined.get(0).path("result").path("ok").asBoolean());
+        assertTrue(combined.get(1).path("result").asText().contains("deadline"));
+        assertEquals(1, prompts.size());
+    }
+
+    @Test
+    void aSingleSlowCallIsCutOffAtTheDeadlineToo() throws Exception {
+        props.getFunctionCalling().setDeadlineMs(200);
+        answers(calls("a"));
+
+        long start = System.nanoTime();
+        ToolInvocation invocation = run((tool, args) -> {
+            Thread.sleep(2000);
+            return "{\"ok\":true}";
+        });
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(elapsedMs < 1500, "waited past the deadline: " + elapsedMs + " ms");
+        assertEquals("get_repo", invocation.toolName());
+        assertTrue(invocation.output().contains("deadline"));
+    }
+}
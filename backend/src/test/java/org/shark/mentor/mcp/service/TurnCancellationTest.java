@@ -0,0 +1,69 @@
+package org.shark.mentor.mcp.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TurnCancellationTest {
+
+    @Test
+    void cancelRunsTheActionsOnceAndKeepsTheFirstReason() {
+        TurnCancellation turn = new TurnCancellation();
+        List<String> ran = new CopyOnWriteArrayList<>();
+        turn.onCancel(() -> ran.add("kept"));
+        turn.onCancel(() -> ran.add("removed")).close();
+
+        turn.cancel("client_disconnected");
+        turn.cancel("timeout");
+
+        assertTrue(turn.isCancelled());
+        assertEquals("client_disconnected", turn.getReason());
+        assertEquals(List.of("kept"), ran);
+
+        turn.onCancel(() -> ran.add("late"));
+        assertEquals(List.of("kept", "late"), ran);
+    }
+
+    @Test
+    void checkpointOnlyThrowsInsideACancelledTurn() {
+        TurnCancellation turn = new TurnCancellation();
+        TurnCancellation.checkpoint();
+        turn.cancel("superseded");
+        TurnCancellation.checkpoint();
+
+        try (TurnCancellation.Handle ignored = turn.open()) {
+            assertSame(turn, TurnCancellation.current());
+            TurnCancelledException e = assertThrows(TurnCancelledException.class, TurnCancellation::checkpoint);
+            assertEquals("superseded", e.getReason());
+        }
+        assertNull(TurnCancellation.current());
+    }
+
+    @Test
+    void awaitIsAbortedWhenTheTurnIsCancelled() throws Exception {
+        TurnCancellation turn = new TurnCancellation();
+        CompletableFuture<String> response = new CompletableFuture<>();
+        CompletableFuture<String> waiting = CompletableFuture.supplyAsync(() -> {
+            try (TurnCancellation.Handle ignored = turn.open()) {
+                return TurnCancellation.await(response);
+            } catch (IOException | InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(100);
+
+        turn.cancel("client_disconnected");
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> waiting.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(TurnCancelledException.class, e.getCause());
+        assertEquals("client_disconnected", ((TurnCancelledException) e.getCause()).getReason());
+        assertTrue(response.isCancelled());
+    }
+}
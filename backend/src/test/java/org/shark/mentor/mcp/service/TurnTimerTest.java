@@ -0,0 +1,37 @@
+package org.shark.mentor.mcp.service;
+
+import org.junit.jupiter.api.Test;
+import org.shark.mentor.mcp.model.TurnTimings;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TurnTimerTest {
+
+    @Test
+    void disabledTimerProducesNoTimings() {
+        TurnTimer timer = TurnTimer.forRequest(null);
+        timer.record(TurnTimer.Stage.LLM_GENERATION, timer.now());
+        timer.recordContext("context");
+
+        assertFalse(timer.isEnabled());
+        assertNull(timer.finish());
+    }
+
+    @Test
+    void recordsOnlyStagesThatRan() {
+        TurnTimer timer = TurnTimer.forRequest(true);
+        long start = timer.now();
+        timer.record(TurnTimer.Stage.TOOL_SELECTION, start);
+        timer.record(TurnTimer.Stage.TOOL_SELECTION, start);
+        timer.recordContext("hello world");
+
+        TurnTimings timings = timer.finish();
+
+        assertNotNull(timings.getToolSelectionMs());
+        assertTrue(timings.getToolSelectionMs() >= 0);
+        assertNull(timings.getLlmGenerationMs());
+        assertEquals(11, timings.getContextChars());
+        assertTrue(timings.getContextTokens() > 0);
+        assertTrue(timings.getTotalMs() >= 0);
+    }
+}
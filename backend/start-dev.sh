@@ -21,7 +21,7 @@ export SPRING_PROFILES_ACTIVE="${SPRING_PROFILES_ACTIVE:-default}"
 export JAVA_OPTS="${JAVA_OPTS:--Xms256m -Xmx512m}"
 
 # Copy the JAR to expected location
-cp target/*.jar target/app.jar
+cp target/*-exec.jar target/app.jar
 
 # Make the startup script executable
 chmod +x target/scripts/start-app.sh
@@ -0,0 +1,83 @@
+package org.shark.mentor.mcp.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * In-process MCP server speaking JSON-RPC over HTTP ({@code POST /mcp}) with a tunable
+ * {@code tools/call} latency and result size
+ */
+public class FakeMcpHttpServer implements AutoCloseable {
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "fake-mcp-http");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final long toolLatencyMs;
+    private final String toolResult;
+
+    public FakeMcpHttpServer(int port, long toolLatencyMs, int payloadKilobytes) throws IOException {
+        this.toolLatencyMs = toolLatencyMs;
+        this.toolResult = FakeMcpPayloads.toolResult(payloadKilobytes);
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 1024);
+        server.createContext("/mcp/health", exchange -> send(exchange, 200, "{\"status\":\"ok\"}"));
+        server.createContext("/mcp/ping", exchange -> send(exchange, 200, "{\"status\":\"pong\"}"));
+        server.createContext("/mcp", this::handleJsonRpc);
+        server.setExecutor(executor);
+    }
+
+    public FakeMcpHttpServer start() {
+        server.start();
+        return this;
+    }
+
+    public String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    private void handleJsonRpc(HttpExchange exchange) throws IOException {
+        if (!"POST".equalsIgnoreCase(exchange.getRequestMethod())) {
+            send(exchange, 405, "{}");
+            return;
+        }
+        try {
+            String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            Map<String, Object> request = FakeMcpPayloads.parse(body);
+            if ("tools/call".equals(request.get("method")) && toolLatencyMs > 0) {
+                Thread.sleep(toolLatencyMs);
+            }
+            String response = FakeMcpPayloads.respond(request, toolResult);
+            send(exchange, response != null ? 200 : 202, response != null ? response : "");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            send(exchange, 503, "{}");
+        } catch (Exception e) {
+            send(exchange, 400, "{\"jsonrpc\":\"2.0\",\"error\":{\"code\":-32700,\"message\":\"Parse error\"}}");
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
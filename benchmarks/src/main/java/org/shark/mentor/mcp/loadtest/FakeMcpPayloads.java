@@ -0,0 +1,88 @@
+package org.shark.mentor.mcp.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JSON-RPC responses served by the fake MCP servers
+ */
+public final class FakeMcpPayloads {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private FakeMcpPayloads() {
+    }
+
+    public static List<Map<String, Object>> tools() {
+        return List.of(
+                tool("list_repositories", "List repositories of the authenticated user",
+                        Map.of("type", Map.of("type", "string", "description", "public or private"))),
+                tool("search_repositories", "Search repositories by keyword",
+                        Map.of("q", Map.of("type", "string", "description", "Search query"))),
+                tool("get_file_contents", "Get the contents of a file in a repository",
+                        Map.of("owner", Map.of("type", "string"), "repo", Map.of("type", "string"))));
+    }
+
+    private static Map<String, Object> tool(String name, String description, Map<String, Object> properties) {
+        Map<String, Object> tool = new LinkedHashMap<>();
+        tool.put("name", name);
+        tool.put("description", description);
+        tool.put("inputSchema", Map.of("type", "object", "properties", properties));
+        return tool;
+    }
+
+    /**
+     * JSON array of repository-like objects of roughly {@code kilobytes} KB
+     */
+    public static String toolResult(int kilobytes) {
+        StringBuilder json = new StringBuilder(kilobytes * 1024 + 256).append('[');
+        int i = 0;
+        do {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"id\":").append(i)
+                    .append(",\"full_name\":\"accentureshark/repo-").append(i).append('"')
+                    .append(",\"description\":\"Synthetic repository ").append(i).append(" for load tests\"")
+                    .append(",\"private\":").append(i % 3 == 0)
+                    .append(",\"stargazers_count\":").append(i * 7 % 1000).append('}');
+            i++;
+        } while (json.length() < kilobytes * 1024);
+        return json.append(']').toString();
+    }
+
+    /**
+     * Builds the JSON-RPC response for a request, or {@code null} for notifications
+     */
+    public static String respond(Map<String, Object> request, String toolResult) throws Exception {
+        Object id = request.get("id");
+        if (id == null) {
+            return null;
+        }
+        Object method = request.get("method");
+        Map<String, Object> result;
+        if ("tools/list".equals(method)) {
+            result = Map.of("tools", tools());
+        } else if ("tools/call".equals(method)) {
+            result = Map.of("content", List.of(Map.of("type", "text", "text", toolResult)), "isError", false);
+        } else if ("ping".equals(method)) {
+            result = Map.of("status", "pong");
+        } else if ("initialize".equals(method)) {
+            result = Map.of("protocolVersion", "2024-11-05",
+                    "capabilities", Map.of("tools", Map.of()),
+                    "serverInfo", Map.of("name", "fake-mcp", "version", "1.0"));
+        } else {
+            return MAPPER.writeValueAsString(Map.of("jsonrpc", "2.0", "id", id,
+                    "error", Map.of("code", -32601, "message", "Method not found: " + method)));
+        }
+        return MAPPER.writeValueAsString(Map.of("jsonrpc", "2.0", "id", id, "result", result));
+    }
+
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> parse(String json) throws Exception {
+        return MAPPER.readValue(json, Map.class);
+    }
+}
@@ -0,0 +1,75 @@
+package org.shark.mentor.mcp.loadtest;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * MCP server over stdio, started by the backend as {@code stdio://java -cp ... FakeMcpStdioServer <latencyMs> <payloadKb>}.
+ * Accepts both newline-delimited and {@code Content-Length} framed requests and answers
+ * {@code tools/call} with a framed message, like the stdio servers the backend talks to.
+ */
+public final class FakeMcpStdioServer {
+
+    private FakeMcpStdioServer() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        long latencyMs = args.length > 0 ? Long.parseLong(args[0]) : 0;
+        int payloadKilobytes = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        String toolResult = FakeMcpPayloads.toolResult(payloadKilobytes);
+
+        BufferedReader in = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+        OutputStream out = new BufferedOutputStream(new FileOutputStream(FileDescriptor.out));
+        String line;
+        while ((line = in.readLine()) != null) {
+            String body;
+            if (line.isBlank()) {
+                continue;
+            } else if (line.toLowerCase().startsWith("content-length:")) {
+                body = readFramedBody(in, Integer.parseInt(line.substring("content-length:".length()).trim()));
+            } else {
+                body = line;
+            }
+            Map<String, Object> request = FakeMcpPayloads.parse(body);
+            boolean toolCall = "tools/call".equals(request.get("method"));
+            if (toolCall && latencyMs > 0) {
+                Thread.sleep(latencyMs);
+            }
+            String response = FakeMcpPayloads.respond(request, toolResult);
+            if (response == null) {
+                continue;
+            }
+            byte[] bytes = response.getBytes(StandardCharsets.UTF_8);
+            if (toolCall) {
+                out.write(("Content-Length: " + bytes.length + "\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+                out.write(bytes);
+            } else {
+                out.write(bytes);
+                out.write('\n');
+            }
+            out.flush();
+        }
+    }
+
+    private static String readFramedBody(BufferedReader in, int contentLength) throws IOException {
+        String header;
+        while ((header = in.readLine()) != null && !header.isEmpty()) {
+            // Skip remaining headers up to the blank separator line
+        }
+        char[] buf = new char[contentLength];
+        int read = 0;
+        while (read < contentLength) {
+            int n = in.read(buf, read, contentLength - read);
+            if (n == -1) break;
+            read += n;
+        }
+        return new String(buf, 0, read);
+    }
+}
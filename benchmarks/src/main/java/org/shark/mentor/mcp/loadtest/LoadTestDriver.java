@@ -0,0 +1,118 @@
+package org.shark.mentor.mcp.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fires concurrent {@code POST /api/mcp/chat/send} requests with {@code includeTimings}
+ * and aggregates end-to-end latency plus the per-stage breakdown returned by the backend
+ */
+public class LoadTestDriver {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final String baseUrl;
+    private final String serverId;
+    private final String message;
+
+    public LoadTestDriver(String baseUrl, String serverId, String message) {
+        this.baseUrl = baseUrl;
+        this.serverId = serverId;
+        this.message = message;
+    }
+
+    public Result run(int concurrency, int requests, int warmupRequests) throws Exception {
+        runRequests(concurrency, warmupRequests, null);
+        StageStats stats = new StageStats();
+        long start = System.nanoTime();
+        int errors = runRequests(concurrency, requests, stats);
+        double elapsedSeconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        return new Result(requests, errors, elapsedSeconds, stats);
+    }
+
+    private int runRequests(int concurrency, int requests, StageStats stats) throws Exception {
+        if (requests <= 0) {
+            return 0;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        AtomicInteger remaining = new AtomicInteger(requests);
+        AtomicInteger errors = new AtomicInteger();
+        List<Future<?>> workers = new ArrayList<>();
+        for (int w = 0; w < concurrency; w++) {
+            String conversationId = "load-" + w;
+            workers.add(executor.submit(() -> {
+                while (remaining.getAndDecrement() > 0) {
+                    if (!sendOne(conversationId, stats)) {
+                        errors.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        executor.shutdown();
+        return errors.get();
+    }
+
+    private boolean sendOne(String conversationId, StageStats stats) {
+        try {
+            String body = objectMapper.writeValueAsString(Map.of(
+                    "serverId", serverId,
+                    "message", message,
+                    "conversationId", conversationId,
+                    "includeTimings", stats != null));
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create(baseUrl + "/api/mcp/chat/send"))
+                    .timeout(Duration.ofMinutes(2))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+            long start = System.nanoTime();
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            double clientMs = (System.nanoTime() - start) / 1_000_000.0;
+            if (response.statusCode() != 200) {
+                return false;
+            }
+            if (stats != null) {
+                stats.record("client.total", clientMs);
+                JsonNode timings = objectMapper.readTree(response.body()).path("timings");
+                Iterator<Map.Entry<String, JsonNode>> fields = timings.fields();
+                while (fields.hasNext()) {
+                    Map.Entry<String, JsonNode> field = fields.next();
+                    if (field.getKey().endsWith("Ms")) {
+                        stats.record(field.getKey(), field.getValue().asDouble());
+                    }
+                }
+            }
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    public record Result(int requests, int errors, double elapsedSeconds, StageStats stats) {
+
+        public String report() {
+            return String.format(Locale.ROOT, "requests=%d errors=%d elapsed=%.1fs throughput=%.1f req/s%n%s",
+                    requests, errors, elapsedSeconds, (requests - errors) / elapsedSeconds, stats.report());
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package org.shark.mentor.mcp.loadtest;
+
+import org.shark.mentor.mcp.McpClientApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Self-contained load test: starts a fake MCP server (HTTP or stdio), boots the backend
+ * in-process with the simulated LLM provider and drives concurrent chat traffic against it.
+ *
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar org.shark.mentor.mcp.loadtest.LoadTestHarness \
+ *     --transport=http --concurrency=16 --requests=2000 --mcp-latency-ms=20 --payload-kb=16 \
+ *     --llm-ttft-ms=150 --llm-tokens-per-second=40 --llm-output-tokens=120
+ * </pre>
+ *
+ * With {@code --target=http://host:8083 --server-id=...} only the driver runs, against an already running backend.
+ */
+public final class LoadTestHarness {
+
+    private static final String SERVER_ID = "fake-mcp";
+
+    private LoadTestHarness() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        int concurrency = intOption(options, "concurrency", 8);
+        int requests = intOption(options, "requests", 500);
+        int warmup = intOption(options, "warmup", 50);
+        String message = options.getOrDefault("message", "list_repositories public");
+
+        String target = options.get("target");
+        if (target != null) {
+            LoadTestDriver driver = new LoadTestDriver(target, options.getOrDefault("server-id", SERVER_ID), message);
+            System.out.print(driver.run(concurrency, requests, warmup).report());
+            return;
+        }
+
+        String transport = options.getOrDefault("transport", "http");
+        long mcpLatencyMs = intOption(options, "mcp-latency-ms", 20);
+        int payloadKb = intOption(options, "payload-kb", 16);
+        long ttftMs = intOption(options, "llm-ttft-ms", 150);
+        double tokensPerSecond = Double.parseDouble(options.getOrDefault("llm-tokens-per-second", "40"));
+        int outputTokens = intOption(options, "llm-output-tokens", 120);
+
+        FakeMcpHttpServer httpServer = null;
+        String serverUrl;
+        if ("stdio".equalsIgnoreCase(transport)) {
+            String java = ProcessHandle.current().info().command().orElse("java");
+            serverUrl = "stdio://" + java + " -cp " + System.getProperty("java.class.path") + " "
+                    + FakeMcpStdioServer.class.getName() + " " + mcpLatencyMs + " " + payloadKb;
+        } else {
+            httpServer = new FakeMcpHttpServer(0, mcpLatencyMs, payloadKb).start();
+            serverUrl = httpServer.url();
+        }
+
+        List<String> springArgs = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.main.banner-mode=off",
+                "--llm.provider=simulated",
+                "--llm.simulated.time-to-first-token-ms=" + ttftMs,
+                "--llm.simulated.tokens-per-second=" + tokensPerSecond,
+                "--llm.simulated.output-tokens=" + outputTokens,
+                "--mcp.tracing.exporter=none",
+                "--mcp.servers[0].id=" + SERVER_ID,
+                "--mcp.servers[0].name=Fake MCP (" + transport + ")",
+                "--mcp.servers[0].url=" + serverUrl,
+                "--mcp.servers[0].implemented=true"));
+
+        try (ConfigurableApplicationContext context =
+                     SpringApplication.run(McpClientApplication.class, springArgs.toArray(String[]::new))) {
+            String baseUrl = "http://127.0.0.1:" + context.getEnvironment().getProperty("local.server.port");
+            connect(baseUrl);
+            System.out.printf("transport=%s mcpLatencyMs=%d payloadKb=%d ttftMs=%d tokensPerSecond=%.1f outputTokens=%d concurrency=%d%n",
+                    transport, mcpLatencyMs, payloadKb, ttftMs, tokensPerSecond, outputTokens, concurrency);
+            LoadTestDriver driver = new LoadTestDriver(baseUrl, SERVER_ID, message);
+            System.out.print(driver.run(concurrency, requests, warmup).report());
+        } finally {
+            if (httpServer != null) {
+                httpServer.close();
+            }
+        }
+    }
+
+    private static void connect(String baseUrl) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + "/api/mcp/servers/" + SERVER_ID + "/connect"))
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+        HttpResponse<String> response = HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200 || !response.body().contains("CONNECTED")) {
+            throw new IllegalStateException("Could not connect to the fake MCP server: " + response.body());
+        }
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        return options;
+    }
+
+    private static int intOption(Map<String, String> options, String name, int defaultValue) {
+        String value = options.get(name);
+        return value != null ? Integer.parseInt(value) : defaultValue;
+    }
+}
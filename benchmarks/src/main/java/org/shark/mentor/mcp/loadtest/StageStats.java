@@ -0,0 +1,44 @@
+package org.shark.mentor.mcp.loadtest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Thread-safe collection of per-stage samples (milliseconds) with percentile reporting
+ */
+public class StageStats {
+
+    private final Map<String, List<Double>> samples = new LinkedHashMap<>();
+
+    public synchronized void record(String stage, double millis) {
+        samples.computeIfAbsent(stage, k -> new ArrayList<>()).add(millis);
+    }
+
+    public synchronized String report() {
+        StringBuilder table = new StringBuilder();
+        table.append(String.format(Locale.ROOT, "%-22s %8s %10s %10s %10s %10s %10s%n",
+                "stage", "count", "mean", "p50", "p90", "p99", "max"));
+        for (Map.Entry<String, List<Double>> entry : samples.entrySet()) {
+            List<Double> values = new ArrayList<>(entry.getValue());
+            Collections.sort(values);
+            double mean = values.stream().mapToDouble(Double::doubleValue).average().orElse(0);
+            table.append(String.format(Locale.ROOT, "%-22s %8d %10.2f %10.2f %10.2f %10.2f %10.2f%n",
+                    entry.getKey(), values.size(), mean,
+                    percentile(values, 50), percentile(values, 90), percentile(values, 99),
+                    values.isEmpty() ? 0 : values.get(values.size() - 1)));
+        }
+        return table.toString();
+    }
+
+    static double percentile(List<Double> sorted, double percentile) {
+        if (sorted.isEmpty()) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.size()) - 1;
+        return sorted.get(Math.max(0, Math.min(index, sorted.size() - 1)));
+    }
+}
@@ -0,0 +1,108 @@
+package org.shark.mentor.mcp.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Deterministic tool catalogs, schemas and tool results shared by the benchmarks
+ */
+final class BenchmarkData {
+
+    private static final String[] VERBS = {"list", "get", "search", "create", "update", "delete", "merge", "review"};
+    private static final String[] NOUNS = {"repository", "issue", "branch", "commit", "release", "workflow", "label", "gist"};
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Tool catalog shaped like a {@code tools/list} result, with GitHub-style names and descriptions
+     */
+    static List<Map<String, Object>> toolCatalog(int size) {
+        List<Map<String, Object>> tools = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            String verb = VERBS[i % VERBS.length];
+            String noun = NOUNS[(i / VERBS.length) % NOUNS.length];
+            Map<String, Object> tool = new LinkedHashMap<>();
+            tool.put("name", verb + "_" + noun + "_" + i);
+            tool.put("description", "Tool number " + i + " that can " + verb + " a " + noun
+                    + " in the configured account, variant" + i);
+            tool.put("inputSchema", schema(4));
+            tools.add(tool);
+        }
+        return tools;
+    }
+
+    /**
+     * JSON schema with {@code properties} typed fields, half of them required
+     */
+    static Map<String, Object> schema(int properties) {
+        Map<String, Object> props = new LinkedHashMap<>();
+        List<String> required = new ArrayList<>();
+        for (int i = 0; i < properties; i++) {
+            String type = switch (i % 4) {
+                case 0 -> "string";
+                case 1 -> "integer";
+                case 2 -> "boolean";
+                default -> "array";
+            };
+            props.put("field" + i, Map.of("type", type, "description", "Field " + i));
+            if (i % 2 == 0) {
+                required.add("field" + i);
+            }
+        }
+        Map<String, Object> schema = new LinkedHashMap<>();
+        schema.put("type", "object");
+        schema.put("properties", props);
+        schema.put("required", required);
+        return schema;
+    }
+
+    /**
+     * Arguments that satisfy {@link #schema(int)}
+     */
+    static Map<String, Object> validArguments(int properties) {
+        Map<String, Object> args = new LinkedHashMap<>();
+        for (int i = 0; i < properties; i++) {
+            Object value = switch (i % 4) {
+                case 0 -> "value" + i;
+                case 1 -> i;
+                case 2 -> Boolean.TRUE;
+                default -> List.of("a", "b");
+            };
+            args.put("field" + i, value);
+        }
+        return args;
+    }
+
+    /**
+     * JSON array of repository-like objects of roughly {@code kilobytes} KB
+     */
+    static String jsonPayload(int kilobytes) {
+        StringBuilder json = new StringBuilder(kilobytes * 1024 + 256).append('[');
+        int i = 0;
+        while (json.length() < kilobytes * 1024) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"id\":").append(i)
+                    .append(",\"full_name\":\"accentureshark/repo-").append(i).append('"')
+                    .append(",\"description\":\"Repository number ").append(i).append(" with sample content\"")
+                    .append(",\"private\":").append(i % 3 == 0)
+                    .append(",\"stargazers_count\":").append(i * 7 % 1000)
+                    .append(",\"topics\":[\"mcp\",\"java\",\"spring\"]}");
+            i++;
+        }
+        return json.append(']').toString();
+    }
+
+    /**
+     * {@code tools/call} JSON-RPC response wrapping {@link #jsonPayload(int)} as MCP text content
+     */
+    static String toolCallResponse(int kilobytes) {
+        String text = jsonPayload(kilobytes).replace("\\", "\\\\").replace("\"", "\\\"");
+        return "{\"jsonrpc\":\"2.0\",\"id\":\"1\",\"result\":{\"content\":[{\"type\":\"text\",\"text\":\""
+                + text + "\"}],\"isError\":false}}";
+    }
+}
@@ -0,0 +1,55 @@
+package org.shark.mentor.mcp.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.shark.mentor.mcp.config.LlmProperties;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ChatService#formatMcpResponse(String, String, String)}, the fallback used when the LLM fails,
+ * on large JSON and plain-text tool results
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FormatMcpResponseBenchmark {
+
+    @Param({"16", "256", "2048"})
+    public int payloadKilobytes;
+
+    private ChatService chatService;
+    private String jsonContext;
+    private String textContext;
+
+    @Setup
+    public void setUp() {
+        chatService = new ChatService(null, (question, context) -> "", Optional.empty(), Optional.empty(),
+                new McpToolService(null), new ContextCompactor(new LlmProperties()));
+        jsonContext = BenchmarkData.jsonPayload(payloadKilobytes);
+        textContext = "- " + jsonContext.replace("},{", "}\n- {");
+    }
+
+    @Benchmark
+    public String formatJson() {
+        return chatService.formatMcpResponse(jsonContext, "list my repositories", "GitHub MCP");
+    }
+
+    @Benchmark
+    public String formatText() {
+        return chatService.formatMcpResponse(textContext, "list my repositories", "GitHub MCP");
+    }
+}
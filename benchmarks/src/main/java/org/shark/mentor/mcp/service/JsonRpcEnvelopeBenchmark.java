@@ -0,0 +1,65 @@
+package org.shark.mentor.mcp.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization of {@code tools/call} requests and parsing of responses, as done by {@link McpToolService}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonRpcEnvelopeBenchmark {
+
+    @Param({"1", "64", "1024"})
+    public int responseKilobytes;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private Map<String, Object> request;
+    private String response;
+
+    @Setup
+    public void setUp() {
+        request = Map.of(
+                "jsonrpc", "2.0",
+                "id", "3f1c6a1e-7d0b-4a4e-9d55-3c1f0e2b9a77",
+                "method", "tools/call",
+                "params", Map.of(
+                        "name", "search_repositories",
+                        "arguments", BenchmarkData.validArguments(8)));
+        response = BenchmarkData.toolCallResponse(responseKilobytes);
+    }
+
+    @Benchmark
+    public String serializeRequest() throws Exception {
+        return objectMapper.writeValueAsString(request);
+    }
+
+    @Benchmark
+    public JsonNode parseResponse() throws Exception {
+        return objectMapper.readTree(response);
+    }
+
+    @Benchmark
+    public JsonNode parseResponseAndEmbeddedText() throws Exception {
+        JsonNode root = objectMapper.readTree(response);
+        return objectMapper.readTree(root.path("result").path("content").path(0).path("text").asText());
+    }
+}
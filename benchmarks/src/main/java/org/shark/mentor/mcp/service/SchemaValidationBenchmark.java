@@ -0,0 +1,55 @@
+package org.shark.mentor.mcp.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link McpToolService#validateArgumentsAgainstSchema(Map, Map)} for valid and invalid arguments
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SchemaValidationBenchmark {
+
+    @Param({"4", "32"})
+    public int properties;
+
+    private McpToolService toolService;
+    private Map<String, Object> schema;
+    private Map<String, Object> validArguments;
+    private Map<String, Object> missingRequired;
+
+    @Setup
+    public void setUp() {
+        toolService = new McpToolService(null);
+        schema = BenchmarkData.schema(properties);
+        validArguments = BenchmarkData.validArguments(properties);
+        missingRequired = Map.of("field1", "not-an-integer");
+    }
+
+    @Benchmark
+    public List<String> validArguments() {
+        return toolService.validateArgumentsAgainstSchema(schema, validArguments);
+    }
+
+    @Benchmark
+    public List<String> invalidArguments() {
+        return toolService.validateArgumentsAgainstSchema(schema, missingRequired);
+    }
+}
@@ -0,0 +1,54 @@
+package org.shark.mentor.mcp.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code Content-Length} framing of stdio messages ({@link StdioFraming})
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StdioFramingBenchmark {
+
+    @Param({"1", "64", "1024"})
+    public int payloadKilobytes;
+
+    private String message;
+    private byte[] framed;
+
+    @Setup
+    public void setUp() throws Exception {
+        message = BenchmarkData.toolCallResponse(payloadKilobytes);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        StdioFraming.writeFrame(out, message);
+        framed = out.toByteArray();
+    }
+
+    @Benchmark
+    public int writeFrame() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(message.length() + 64);
+        return StdioFraming.writeFrame(out, message);
+    }
+
+    @Benchmark
+    public String readFrame() throws Exception {
+        return StdioFraming.readFrame(new ByteArrayInputStream(framed));
+    }
+}
@@ -0,0 +1,55 @@
+package org.shark.mentor.mcp.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link McpToolService#selectBestTool(String, List)} over catalogs of growing size
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ToolSelectionBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int catalogSize;
+
+    private McpToolService toolService;
+    private List<Map<String, Object>> tools;
+    private String lastToolByName;
+    private String noMatch;
+
+    @Setup
+    public void setUp() {
+        toolService = new McpToolService(null);
+        tools = BenchmarkData.toolCatalog(catalogSize);
+        lastToolByName = "please run " + tools.get(catalogSize - 1).get("name") + " on the mentor repository";
+        noMatch = "¿qué tal el clima hoy?";
+    }
+
+    @Benchmark
+    public String matchByName() {
+        return toolService.selectBestTool(lastToolByName, tools);
+    }
+
+    @Benchmark
+    public String fallbackWhenNothingMatches() {
+        return toolService.selectBestTool(noMatch, tools);
+    }
+}
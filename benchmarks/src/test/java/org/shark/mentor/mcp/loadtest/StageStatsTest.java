@@ -0,0 +1,55 @@
+package org.shark.mentor.mcp.loadtest;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.DoubleStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StageStatsTest {
+
+    @Test
+    void percentilesUseTheNearestRank() {
+        List<Double> sorted = DoubleStream.iterate(1, v -> v + 1).limit(100).boxed().toList();
+
+        assertEquals(50, StageStats.percentile(sorted, 50));
+        assertEquals(90, StageStats.percentile(sorted, 90));
+        assertEquals(99, StageStats.percentile(sorted, 99));
+        assertEquals(100, StageStats.percentile(sorted, 100));
+        assertEquals(1, StageStats.percentile(sorted, 0));
+    }
+
+    @Test
+    void percentilesOfSmallOrEmptySamplesStayInRange() {
+        assertEquals(0, StageStats.percentile(List.of(), 99));
+        assertEquals(7, StageStats.percentile(List.of(7.0), 50));
+        assertEquals(2, StageStats.percentile(List.of(1.0, 2.0), 99));
+        assertEquals(1, StageStats.percentile(List.of(1.0, 2.0), 50));
+    }
+
+    @Test
+    void reportSortsSamplesPerStageInRecordingOrder() {
+        StageStats stats = new StageStats();
+        for (double millis : new double[]{30, 10, 20, 40}) {
+            stats.record("client.total", millis);
+        }
+        stats.record("llmMs", 5);
+
+        String[] lines = stats.report().split("\\R");
+
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].startsWith("stage"));
+        assertArrayEquals(new String[]{"client.total", "4", "25.00", "20.00", "40.00", "40.00", "40.00"},
+                lines[1].trim().split("\\s+"));
+        assertArrayEquals(new String[]{"llmMs", "1", "5.00", "5.00", "5.00", "5.00", "5.00"},
+                lines[2].trim().split("\\s+"));
+    }
+
+    @Test
+    void throughputCountsOnlySuccessfulRequests() {
+        LoadTestDriver.Result result = new LoadTestDriver.Result(100, 20, 4.0, new StageStats());
+
+        assertTrue(result.report().startsWith("requests=100 errors=20 elapsed=4.0s throughput=20.0 req/s"));
+    }
+}